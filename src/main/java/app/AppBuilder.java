@@ -1,17 +1,25 @@
 package app;
 
+import data_access.CourseContextCache;
+import data_access.CourseIdMigration;
 import data_access.FileTimelineRepository;
 import data_access.FlashcardGenerator;
 import data_access.GeminiApiDataAccess;
+import data_access.GeminiFileCache;
+import data_access.GenaiContextCreator;
+import data_access.GenaiFileUploader;
 import data_access.ITimelineRepository;
 import data_access.LocalCourseRepository;
 import entities.Course;
+import entities.EvaluationData;
 import entities.PDFFile;
+import entities.TestData;
 import interface_adapters.LoadingViewModel;
 import interface_adapters.ViewManagerModel;
 import interface_adapters.dashboard.CourseDashboardController;
 import interface_adapters.dashboard.CourseDashboardPresenter;
 import interface_adapters.dashboard.CourseDashboardViewModel;
+import interface_adapters.dashboard.CourseStatsPresenter;
 import interface_adapters.evaluate_test.EvaluateTestController;
 import interface_adapters.evaluate_test.EvaluateTestPresenter;
 import interface_adapters.evaluate_test.EvaluateTestViewModel;
@@ -33,6 +41,11 @@ import interface_adapters.workspace.CourseEditViewModel;
 import interface_adapters.workspace.CoursePresenter;
 import interface_adapters.workspace.CourseWorkspaceViewModel;
 import java.awt.CardLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.UUID;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
@@ -43,11 +56,15 @@ import usecases.GenerateFlashcardsOutputBoundary;
 import usecases.GenerateFlashcardsResponseModel;
 import usecases.ICourseRepository;
 import usecases.Timeline.CourseIdMapper;
+import usecases.Timeline.ICourseIdMapper;
+import usecases.Timeline.SearchTimelineInteractor;
 import usecases.Timeline.TimelineLogger;
 import usecases.Timeline.ViewTimelineInputBoundary;
 import usecases.Timeline.ViewTimelineInteractor;
 import usecases.Timeline.ViewTimelineOutputBoundary;
 import usecases.Timeline.ViewTimelineResponse;
+import usecases.course_stats.CourseStatsInputBoundary;
+import usecases.course_stats.CourseStatsInteractor;
 import usecases.dashboard.CourseDashboardInputBoundary;
 import usecases.dashboard.CourseDashboardInteractor;
 import usecases.dashboard.CourseDashboardOutputBoundary;
@@ -86,8 +103,18 @@ public class AppBuilder {
   private final ViewManagerModel viewManagerModel = new ViewManagerModel();
 
   // --- Data Access Objects ---
-  private LocalCourseRepository courseDao = new LocalCourseRepository();
+  private LocalCourseRepository courseDao = new LocalCourseRepository(
+      "courses.json", LocalCourseRepository.StorageMode.JOURNALED);
   private GeminiApiDataAccess geminiDao;
+  // Course PDFs are uploaded to Gemini once and referenced by URI afterwards
+  private final GeminiFileCache geminiFiles =
+      new GeminiFileCache(Paths.get("gemini_files.json"), new GenaiFileUploader());
+  // Repeated generations for unchanged materials are served from here
+  private final data_access.ResponseCache responseCache = new data_access.ResponseCache(
+      Paths.get("response_cache"), 64, 64L * 1024 * 1024, Duration.ofDays(30));
+  // Course materials are cached once per course and shared by every use case
+  private final CourseContextCache courseContexts = new CourseContextCache(
+      new GenaiContextCreator(geminiFiles), Duration.ofHours(1));
 
   /**
    * Lazy initialization of GeminiApiDataAccess to ensure API key is set first.
@@ -96,7 +123,7 @@ public class AppBuilder {
    */
   private GeminiApiDataAccess getGeminiDao() {
     if (geminiDao == null) {
-      geminiDao = new GeminiApiDataAccess();
+      geminiDao = new GeminiApiDataAccess(geminiFiles, courseContexts);
     }
     return geminiDao;
   }
@@ -137,8 +164,21 @@ public class AppBuilder {
   private interface_adapters.timeline.ViewTimelineViewModel timelineViewModel;
   private views.ViewTimelineView timelineView;
   private interface_adapters.timeline.TimelineController timelineController;
+  // One course ID mapper shared by the timeline and every use case that logs to it
+  private final ICourseIdMapper courseIds = CourseIdMapper.shared();
+  private final FileTimelineRepository timelineFiles = openTimeline();
+  // Timeline writes go through a background group-commit writer, which also
+  // keeps the full-text search index up to date
   private final ITimelineRepository timelineRepository =
-      new data_access.FileTimelineRepository();
+      new data_access.StatsTrackingTimelineRepository(
+          new data_access.AsyncTimelineRepository(
+              new data_access.SearchIndexingTimelineRepository(timelineFiles,
+                  "timeline_search")));
+  // Archives payloads older than 90 days and events older than a year, daily;
+  // through the decorators, so search and statistics drop archived events
+  private final data_access.TimelineMaintenance timelineMaintenance =
+      new data_access.TimelineMaintenance(timelineRepository,
+          data_access.TimelineRetentionPolicy.defaults());
   private final TimelineLogger timelineLogger = new TimelineLogger(timelineRepository);
 
   /**
@@ -148,6 +188,31 @@ public class AppBuilder {
     // Optionally leave empty, or only do non-demo initialization
   }
 
+  /**
+   * Opens the timeline, first moving courses saved under the old mapping
+   * file's UUIDs to the derived ones. The search index is rebuilt if any
+   * events moved.
+   *
+   * @return the timeline
+   */
+  private FileTimelineRepository openTimeline() {
+    FileTimelineRepository timeline = new FileTimelineRepository("timeline",
+        FileTimelineRepository.StorageMode.SHARDED, FileTimelineRepository.RecordFormat.JSON,
+        courseIds);
+    try {
+      int moved = CourseIdMigration.migrate(timeline, courseIds,
+          Paths.get("course_id_mappings.json"));
+      if (moved > 0) {
+        System.out.println("Moved " + moved + " timeline events to name-based course IDs");
+        data_access.SearchIndexingTimelineRepository.deleteIndex("timeline_search");
+      }
+    } catch (IOException e) {
+      System.err.println("Error migrating course IDs: " + e.getMessage());
+      e.printStackTrace();
+    }
+    return timeline;
+  }
+
   /**
    * Adds the write test view to the application.
    *
@@ -205,16 +270,16 @@ public class AppBuilder {
             try {
               String courseId = outputData.getCourseId();
               if (courseId != null && !courseId.isEmpty()) {
-                UUID courseUuid = CourseIdMapper.getUuidForCourseId(courseId);
+                UUID courseUuid = courseIds.getUuidForCourseId(courseId);
                 UUID contentId = UUID.randomUUID();
                 int numQuestions = outputData.getQuestions() != null
                     ? outputData.getQuestions().size()
                     : 0;
-                // Serialize to JSON in the framework layer (not in use case)
-                com.google.gson.Gson gson = new com.google.gson.Gson();
-                String testDataJson = gson.toJson(outputData);
+                TestData testData = new TestData(outputData.getQuestions(),
+                    outputData.getAnswers(), outputData.getQuestionTypes());
+                testData.setChoices(outputData.getChoices());
                 timelineLogger.logQuizGenerated(
-                    courseUuid, contentId, numQuestions, testDataJson);
+                    courseUuid, contentId, numQuestions, testData);
               }
             } catch (Exception e) {
               // Don't break the flow if Timeline logging fails
@@ -233,7 +298,8 @@ public class AppBuilder {
         };
 
     MockTestGenerationInteractor interactor =
-        new MockTestGenerationInteractor(courseDao, getGeminiDao(), presenter);
+        new MockTestGenerationInteractor(courseDao, new data_access.CachingTestDataAccess(
+            getGeminiDao(), responseCache, getGeminiDao().getTestGenerationKey()), presenter);
     MockTestController controller = new MockTestController(interactor);
     this.courseWorkspaceView.setMockTestController(controller);
 
@@ -266,17 +332,21 @@ public class AppBuilder {
                 String courseId = mockTestState != null ? mockTestState.getCourseId() : null;
 
                 if (courseId != null && !courseId.isEmpty()) {
-                  UUID courseUuid = CourseIdMapper.getUuidForCourseId(courseId);
+                  UUID courseUuid = courseIds.getUuidForCourseId(courseId);
                   UUID contentId = UUID.randomUUID();
                   int numQuestions = evaluateTestOutputData.getQuestions() != null
                       ? evaluateTestOutputData.getQuestions().size()
                       : 0;
                   double score = evaluateTestOutputData.getScore();
-                  // Serialize to JSON in the framework layer (not in use case)
-                  com.google.gson.Gson gson = new com.google.gson.Gson();
-                  String evaluationDataJson = gson.toJson(evaluateTestOutputData);
+                  EvaluationData evaluationData = new EvaluationData(
+                      evaluateTestOutputData.getQuestions(),
+                      evaluateTestOutputData.getAnswers(),
+                      evaluateTestOutputData.getUserAnswers(),
+                      evaluateTestOutputData.getCorrectness(),
+                      evaluateTestOutputData.getFeedback(),
+                      evaluateTestOutputData.getScore());
                   timelineLogger.logQuizSubmitted(
-                      courseUuid, contentId, numQuestions, score, evaluationDataJson);
+                      courseUuid, contentId, numQuestions, score, evaluationData);
                 }
               }
             } catch (Exception e) {
@@ -354,7 +424,7 @@ public class AppBuilder {
 
             // Log to Timeline
             try {
-              UUID courseUuid = CourseIdMapper.getUuidForCourseId(outputData.getCourseId());
+              UUID courseUuid = courseIds.getUuidForCourseId(outputData.getCourseId());
               UUID contentId = UUID.randomUUID();
               String title = outputData.getTopic();
               String notesText = outputData.getNotesText();
@@ -375,9 +445,13 @@ public class AppBuilder {
         };
 
     // 3) interactor
+    data_access.NotesGeminiApiDataAccess notesGateway =
+        new data_access.NotesGeminiApiDataAccess(geminiFiles, courseContexts);
     usecases.lecturenotes.GenerateLectureNotesInteractor interactor =
-        new usecases.lecturenotes.GenerateLectureNotesInteractor(
-            courseGateway, new data_access.NotesGeminiApiDataAccess(), presenter);
+        new usecases.lecturenotes.GenerateLectureNotesInteractor(courseGateway,
+            new data_access.CachingNotesGateway(notesGateway, responseCache,
+                notesGateway.getGenerationKey()),
+            presenter);
 
     // 4) controller
     interface_adapters.lecturenotes.GenerateLectureNotesController controller =
@@ -488,8 +562,11 @@ public class AppBuilder {
 
     CourseDashboardInputBoundary courseDashboardInteractor =
         new CourseDashboardInteractor(courseRepository, courseDashboardPresenter);
+    CourseStatsInputBoundary courseStatsInteractor =
+        new CourseStatsInteractor(courseRepository, timelineRepository,
+            new CourseStatsPresenter(courseDashboardViewModel), courseIds);
     CourseDashboardController courseDashboardController =
-        new CourseDashboardController(courseDashboardInteractor);
+        new CourseDashboardController(courseDashboardInteractor, courseStatsInteractor);
 
     // presenter for workspace / edit views
     CourseWorkspaceOutputBoundary coursePresenter =
@@ -541,8 +618,8 @@ public class AppBuilder {
       String courseId = (course == null) ? "" : course.getCourseId();
 
       if (courseId != null && !courseId.isEmpty()) {
-        // Convert String course ID to UUID using CourseIdMapper
-        UUID courseUuid = CourseIdMapper.getUuidForCourseId(courseId);
+        // Convert String course ID to UUID using the course ID mapper
+        UUID courseUuid = courseIds.getUuidForCourseId(courseId);
 
         // Set the course ID in the Timeline ViewModel
         this.timelineViewModel.setCourseId(courseUuid);
@@ -566,7 +643,8 @@ public class AppBuilder {
         new FileManagementPresenter(fileManagementViewModel, viewManagerModel);
 
     FileManagementInputBoundary fileManagementInteractor =
-        new FileManagementInteractor(courseRepository, fileManagementPresenter);
+        new FileManagementInteractor(courseRepository, fileManagementPresenter,
+            courseContexts);
     FileManagementController fileManagementController =
         new FileManagementController(fileManagementInteractor);
 
@@ -606,7 +684,8 @@ public class AppBuilder {
    */
   public AppBuilder addFlashcardGenerationUseCase() {
     // Create the flashcard generator (using Gemini API)
-    FlashcardGenerator generator = getGeminiDao();
+    FlashcardGenerator generator = new data_access.CachingFlashcardGenerator(getGeminiDao(),
+        responseCache, getGeminiDao().getFlashcardGenerationKey());
 
     // Create the original presenter
     GenerateFlashcardsPresenter originalPresenter =
@@ -625,7 +704,7 @@ public class AppBuilder {
             // Log to Timeline
             try {
               if (capturedCourseName[0] != null && !capturedCourseName[0].isEmpty()) {
-                UUID courseUuid = CourseIdMapper.getUuidForCourseId(capturedCourseName[0]);
+                UUID courseUuid = courseIds.getUuidForCourseId(capturedCourseName[0]);
                 UUID contentId = UUID.randomUUID();
                 entities.FlashcardSet set = responseModel.getFlashcardSet();
                 int numCards = set != null ? set.size() : 0;
@@ -696,10 +775,11 @@ public class AppBuilder {
 
     // Create the interactor
     ViewTimelineInteractor interactor =
-        new ViewTimelineInteractor(timelineRepository, presenter);
+        new ViewTimelineInteractor(timelineRepository, presenter, courseIds);
 
-    // Create the controller
-    this.timelineController = new TimelineController(interactor);
+    // Create the controller; search results are shown in the same view
+    this.timelineController = new TimelineController(interactor,
+        new SearchTimelineInteractor(timelineRepository, presenter, courseIds));
 
     // Create Timeline View - pass ViewModels instead of simple views
     this.timelineView = new ViewTimelineView(
@@ -751,6 +831,16 @@ public class AppBuilder {
   public JFrame build() {
     JFrame application = new JFrame("StudyFlow AI Assistant");
     application.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+    timelineMaintenance.start(Duration.ofMinutes(1), Duration.ofDays(1));
+    // Runs before EXIT_ON_CLOSE ends the JVM, so queued timeline events are written
+    application.addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosing(WindowEvent e) {
+        timelineMaintenance.close();
+        timelineLogger.close();
+        courseIds.flush();
+      }
+    });
     application.add(cardPanel);
 
     // Make CardLayout follow the ViewManagerModel state
@@ -0,0 +1,264 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ITimelineRepository decorator that saves events on a background thread.
+ *
+ * <p>{@link #save(TimelineEvent)} only puts the event into a bounded queue,
+ * so callers such as presenters never wait for disk I/O unless the queue is
+ * full. A single writer thread takes every event that arrives within the
+ * configured latency of the first one, up to a batch limit, and hands them
+ * to {@link ITimelineRepository#saveAll(List)} for one write per batch.
+ *
+ * <p>Queries first wait for pending events to be written, so a caller
+ * always sees the events it saved. {@link #close()} writes what is left and
+ * stops the thread; events saved after that are written synchronously.
+ */
+public class AsyncTimelineRepository implements ITimelineRepository {
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final int DEFAULT_MAX_BATCH = 256;
+  private static final Duration DEFAULT_MAX_LATENCY = Duration.ofMillis(50);
+
+  private final ITimelineRepository delegate;
+  private final int capacity;
+  private final int maxBatch;
+  private final long maxLatencyNanos;
+  private final Thread writer;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final Condition written = lock.newCondition();
+  private final ArrayDeque<TimelineEvent> queue = new ArrayDeque<>();
+  private long enqueuedCount;
+  private long writtenCount;
+  private int flushWaiters;
+  private boolean closed;
+
+  /**
+   * Constructs an AsyncTimelineRepository with a queue of 1024 events,
+   * batches of up to 256 events and a maximum latency of 50 ms.
+   *
+   * @param delegate the repository that stores the events
+   */
+  public AsyncTimelineRepository(ITimelineRepository delegate) {
+    this(delegate, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH, DEFAULT_MAX_LATENCY);
+  }
+
+  /**
+   * Constructs an AsyncTimelineRepository and starts its writer thread.
+   *
+   * @param delegate the repository that stores the events
+   * @param capacity the most events waiting to be written; save blocks
+   *     while the queue is full
+   * @param maxBatch the most events written together
+   * @param maxLatency how long the writer waits for more events after the
+   *     first one of a batch arrives
+   * @throws IllegalArgumentException if capacity or maxBatch is not positive,
+   *     or maxLatency is negative
+   */
+  public AsyncTimelineRepository(ITimelineRepository delegate, int capacity, int maxBatch,
+      Duration maxLatency) {
+    if (capacity <= 0 || maxBatch <= 0 || maxLatency.isNegative()) {
+      throw new IllegalArgumentException("capacity and maxBatch must be positive"
+          + " and maxLatency must not be negative");
+    }
+    this.delegate = delegate;
+    this.capacity = capacity;
+    this.maxBatch = maxBatch;
+    this.maxLatencyNanos = maxLatency.toNanos();
+    this.writer = new Thread(this::writeLoop, "timeline-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  @Override
+  public void save(TimelineEvent event) {
+    lock.lock();
+    try {
+      if (!closed) {
+        while (queue.size() >= capacity) {
+          notFull.awaitUninterruptibly();
+        }
+        queue.add(event);
+        enqueuedCount++;
+        notEmpty.signal();
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    delegate.save(event);
+  }
+
+  @Override
+  public List<TimelineEvent> findByCourseNewestFirst(UUID courseId) {
+    flush();
+    return delegate.findByCourseNewestFirst(courseId);
+  }
+
+  @Override
+  public TimelinePage findByCourse(UUID courseId, long beforeCursor, int limit) {
+    flush();
+    return delegate.findByCourse(courseId, beforeCursor, limit);
+  }
+
+  @Override
+  public List<TimelineEvent> findByCourse(UUID courseId, TimelineQuery query) {
+    flush();
+    return delegate.findByCourse(courseId, query);
+  }
+
+  @Override
+  public boolean delete(TimelineEvent event) {
+    // The event may still be waiting in the queue
+    flush();
+    return delegate.delete(event);
+  }
+
+  @Override
+  public Set<UUID> findCourseIds() {
+    flush();
+    return delegate.findCourseIds();
+  }
+
+  @Override
+  public List<TimelineSearchHit> search(String query, int limit) {
+    flush();
+    return delegate.search(query, limit);
+  }
+
+  @Override
+  public boolean isSearchComplete() {
+    return delegate.isSearchComplete();
+  }
+
+  @Override
+  public RetentionReport applyRetention(TimelineRetentionPolicy policy, Instant now) {
+    // Old events may still be waiting in the queue
+    flush();
+    return delegate.applyRetention(policy, now);
+  }
+
+  @Override
+  public List<TimelineEvent> findArchivedByCourse(UUID courseId) {
+    return delegate.findArchivedByCourse(courseId);
+  }
+
+  /**
+   * Waits until every event saved before this call has been written,
+   * without waiting out the writer's latency.
+   */
+  @Override
+  public void flush() {
+    lock.lock();
+    try {
+      long target = enqueuedCount;
+      if (writtenCount >= target) {
+        return;
+      }
+      flushWaiters++;
+      try {
+        notEmpty.signal();
+        while (writtenCount < target && writer.isAlive()) {
+          written.awaitUninterruptibly();
+        }
+      } finally {
+        flushWaiters--;
+      }
+    } finally {
+      lock.unlock();
+    }
+    delegate.flush();
+  }
+
+  /**
+   * Writes every pending event, stops the writer thread and closes the
+   * underlying repository.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+    boolean interrupted = false;
+    while (writer.isAlive()) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    delegate.close();
+  }
+
+  private void writeLoop() {
+    List<TimelineEvent> batch;
+    while ((batch = nextBatch()) != null) {
+      try {
+        delegate.saveAll(batch);
+      } catch (RuntimeException e) {
+        System.err.println("Error saving timeline events: " + e.getMessage());
+        e.printStackTrace();
+      }
+      lock.lock();
+      try {
+        writtenCount += batch.size();
+        written.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Waits for the next batch: the first queued event plus whatever arrives
+   * within the maximum latency, cut short by a full batch, a flush or close.
+   *
+   * @return the batch, or null once closed and drained
+   */
+  private List<TimelineEvent> nextBatch() {
+    lock.lock();
+    try {
+      while (queue.isEmpty() && !closed) {
+        notEmpty.awaitUninterruptibly();
+      }
+      if (queue.isEmpty()) {
+        return null;
+      }
+      long remaining = maxLatencyNanos;
+      while (queue.size() < maxBatch && !closed && flushWaiters == 0 && remaining > 0) {
+        try {
+          remaining = notEmpty.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+          break;
+        }
+      }
+      List<TimelineEvent> batch = new ArrayList<>(Math.min(queue.size(), maxBatch));
+      while (batch.size() < maxBatch && !queue.isEmpty()) {
+        batch.add(queue.poll());
+      }
+      notFull.signalAll();
+      return batch;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,329 @@
+package data_access;
+
+import entities.EvaluationData;
+import entities.FlashcardSet;
+import entities.TestData;
+import entities.TimelineEventType;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary timeline record format.
+ *
+ * <p>Each record is framed as a 4-byte body length, a 4-byte CRC-32C of the
+ * body, and the body. A body starts with a format version byte; version 1
+ * then holds both UUIDs as 16 raw bytes, the type ordinal, occurredAt as
+ * epoch nanoseconds (Long.MIN_VALUE when absent), and a bit set of the
+ * optional fields that follow. Strings are UTF-8 with a varint byte length,
+ * counts are zigzag varints, the score is an 8-byte double, and blob
+ * references are the raw 32-byte SHA-256 plus a varint size. Flashcard,
+ * test and evaluation payloads are strings holding their JSON. The
+ * archived-payloads flag is a bit of the set with no body.
+ */
+final class BinaryRecordCodec implements TimelineRecordCodec {
+  static final byte VERSION = 1;
+  private static final int HEADER_BYTES = 8;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  // occurredAt of records that have none
+  private static final long NO_TIME = Long.MIN_VALUE;
+  private static final TimelineEventType[] TYPES = TimelineEventType.values();
+
+  // Bits of the optional-field set, in body order
+  private static final int COURSE_ID_STRING = 1;
+  private static final int TITLE = 1 << 1;
+  private static final int SNIPPET = 1 << 2;
+  private static final int NUM_CARDS = 1 << 3;
+  private static final int NUM_QUESTIONS = 1 << 4;
+  private static final int SCORE = 1 << 5;
+  private static final int FULL_NOTES = 1 << 6;
+  private static final int FLASHCARDS = 1 << 7;
+  private static final int TEST = 1 << 8;
+  private static final int EVALUATION = 1 << 9;
+  private static final int FULL_NOTES_BLOB = 1 << 10;
+  private static final int FLASHCARD_BLOB = 1 << 11;
+  private static final int TEST_BLOB = 1 << 12;
+  private static final int EVALUATION_BLOB = 1 << 13;
+  private static final int PAYLOADS_ARCHIVED = 1 << 14;
+
+  @Override
+  public byte[] encode(TimelineEventData data) {
+    Output out = new Output();
+    out.zeros(HEADER_BYTES);  // Frame header, filled in below
+    out.write(VERSION);
+    out.uuid(UUID.fromString(data.courseId));
+    out.uuid(UUID.fromString(data.contentId));
+    out.write(TimelineEventType.valueOf(data.type).ordinal());
+    out.fixed64(epochNanos(data.occurredAt));
+
+    int present = (data.courseIdString != null ? COURSE_ID_STRING : 0)
+        | (data.title != null ? TITLE : 0)
+        | (data.snippet != null ? SNIPPET : 0)
+        | (data.numCards != null ? NUM_CARDS : 0)
+        | (data.numQuestions != null ? NUM_QUESTIONS : 0)
+        | (data.score != null ? SCORE : 0)
+        | (data.fullNotesText != null ? FULL_NOTES : 0)
+        | (data.flashcardData != null ? FLASHCARDS : 0)
+        | (data.testData != null ? TEST : 0)
+        | (data.evaluationData != null ? EVALUATION : 0)
+        | (data.fullNotesBlob != null ? FULL_NOTES_BLOB : 0)
+        | (data.flashcardBlob != null ? FLASHCARD_BLOB : 0)
+        | (data.testBlob != null ? TEST_BLOB : 0)
+        | (data.evaluationBlob != null ? EVALUATION_BLOB : 0)
+        | (Boolean.TRUE.equals(data.payloadsArchived) ? PAYLOADS_ARCHIVED : 0);
+    out.varint(present);
+    out.string(data.courseIdString);
+    out.string(data.title);
+    out.string(data.snippet);
+    if (data.numCards != null) {
+      out.varint(zigzag(data.numCards));
+    }
+    if (data.numQuestions != null) {
+      out.varint(zigzag(data.numQuestions));
+    }
+    if (data.score != null) {
+      out.fixed64(Double.doubleToLongBits(data.score));
+    }
+    out.string(data.fullNotesText);
+    out.string(TimelineEventData.payloadJson(data.flashcardData));
+    out.string(TimelineEventData.payloadJson(data.testData));
+    out.string(TimelineEventData.payloadJson(data.evaluationData));
+    out.blob(data.fullNotesBlob);
+    out.blob(data.flashcardBlob);
+    out.blob(data.testBlob);
+    out.blob(data.evaluationBlob);
+
+    byte[] record = out.toByteArray();
+    int bodyLength = record.length - HEADER_BYTES;
+    CRC32C crc = new CRC32C();
+    crc.update(record, HEADER_BYTES, bodyLength);
+    ByteBuffer.wrap(record).putInt(bodyLength).putInt((int) crc.getValue());
+    return record;
+  }
+
+  /**
+   * Walks the frame headers from the start; a record whose body runs past
+   * the end of the file is torn.
+   */
+  @Override
+  public long completeLength(FileChannel file) throws IOException {
+    long size = file.size();
+    long position = 0;
+    ByteBuffer header = ByteBuffer.allocate(4);
+    while (position + HEADER_BYTES <= size) {
+      header.clear();
+      while (header.hasRemaining()) {
+        if (file.read(header, position + header.position()) < 0) {
+          return position;
+        }
+      }
+      long next = position + HEADER_BYTES + Integer.toUnsignedLong(header.getInt(0));
+      if (next > size) {
+        break;
+      }
+      position = next;
+    }
+    return position;
+  }
+
+  @Override
+  public void decodeAll(InputStream in, Consumer<TimelineEventData> sink) throws IOException {
+    DataInputStream input = new DataInputStream(in);
+    CRC32C crc = new CRC32C();
+    while (true) {
+      int length;
+      try {
+        length = input.readInt();
+      } catch (EOFException e) {
+        return;
+      }
+      int checksum = input.readInt();
+      if (length < 0) {
+        // The framing itself is damaged; nothing after this point can be found
+        System.err.println("Skipping unreadable timeline records: bad record length");
+        return;
+      }
+      byte[] body = new byte[length];
+      input.readFully(body);
+      crc.reset();
+      crc.update(body);
+      if ((int) crc.getValue() != checksum) {
+        System.err.println("Skipping unreadable timeline record: checksum mismatch");
+        continue;
+      }
+      TimelineEventData data;
+      try {
+        data = decode(ByteBuffer.wrap(body));
+      } catch (RuntimeException e) {
+        System.err.println("Skipping unreadable timeline record: " + e);
+        continue;
+      }
+      sink.accept(data);
+    }
+  }
+
+  /**
+   * Decodes one record body.
+   *
+   * @param body the body, after the frame header
+   * @return the record
+   * @throws IllegalArgumentException if the body has an unknown version
+   * @throws BufferUnderflowException if the body is truncated
+   */
+  static TimelineEventData decode(ByteBuffer body) {
+    byte version = body.get();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("unknown record version " + version);
+    }
+    TimelineEventData data = new TimelineEventData();
+    data.courseId = new UUID(body.getLong(), body.getLong()).toString();
+    data.contentId = new UUID(body.getLong(), body.getLong()).toString();
+    data.type = TYPES[body.get()].name();
+    long nanos = body.getLong();
+    data.occurredAt = nanos == NO_TIME ? null : Instant.ofEpochSecond(
+        Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND)).toString();
+
+    int present = (int) varint(body);
+    data.courseIdString = string(body, present, COURSE_ID_STRING);
+    data.title = string(body, present, TITLE);
+    data.snippet = string(body, present, SNIPPET);
+    data.numCards = (present & NUM_CARDS) != 0 ? unzigzag(varint(body)) : null;
+    data.numQuestions = (present & NUM_QUESTIONS) != 0 ? unzigzag(varint(body)) : null;
+    data.score = (present & SCORE) != 0 ? Double.longBitsToDouble(body.getLong()) : null;
+    data.fullNotesText = string(body, present, FULL_NOTES);
+    data.flashcardData = payload(body, present, FLASHCARDS, FlashcardSet.class);
+    data.testData = payload(body, present, TEST, TestData.class);
+    data.evaluationData = payload(body, present, EVALUATION, EvaluationData.class);
+    data.fullNotesBlob = blob(body, present, FULL_NOTES_BLOB);
+    data.flashcardBlob = blob(body, present, FLASHCARD_BLOB);
+    data.testBlob = blob(body, present, TEST_BLOB);
+    data.evaluationBlob = blob(body, present, EVALUATION_BLOB);
+    data.payloadsArchived = (present & PAYLOADS_ARCHIVED) != 0 ? Boolean.TRUE : null;
+    return data;
+  }
+
+  /**
+   * Converts a stored timestamp to epoch nanoseconds. Records imported from
+   * old files may lack a usable timestamp; they keep lacking one.
+   */
+  private static long epochNanos(String occurredAt) {
+    if (occurredAt == null) {
+      return NO_TIME;
+    }
+    try {
+      Instant instant = Instant.parse(occurredAt);
+      return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND),
+          instant.getNano());
+    } catch (DateTimeParseException | ArithmeticException e) {
+      return NO_TIME;
+    }
+  }
+
+  private static long zigzag(int value) {
+    return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+  }
+
+  private static int unzigzag(long value) {
+    int bits = (int) value;
+    return (bits >>> 1) ^ -(bits & 1);
+  }
+
+  private static long varint(ByteBuffer in) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.get();
+      value |= (long) (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("varint is too long");
+  }
+
+  private static String string(ByteBuffer in, int present, int bit) {
+    if ((present & bit) == 0) {
+      return null;
+    }
+    int length = Math.toIntExact(varint(in));
+    String value = new String(in.array(), in.arrayOffset() + in.position(), length,
+        StandardCharsets.UTF_8);
+    in.position(in.position() + length);
+    return value;
+  }
+
+  private static <T> T payload(ByteBuffer in, int present, int bit, Class<T> type) {
+    String json = string(in, present, bit);
+    return json == null ? null : JsonAdapters.gson().fromJson(json, type);
+  }
+
+  private static TimelineEventData.BlobRef blob(ByteBuffer in, int present, int bit) {
+    if ((present & bit) == 0) {
+      return null;
+    }
+    byte[] hash = new byte[32];
+    in.get(hash);
+    return new TimelineEventData.BlobRef(HexFormat.of().formatHex(hash), varint(in));
+  }
+
+  /**
+   * Growable output buffer with the primitive writers used by the format.
+   */
+  private static final class Output extends ByteArrayOutputStream {
+    Output() {
+      super(256);
+    }
+
+    void zeros(int count) {
+      for (int i = 0; i < count; i++) {
+        write(0);
+      }
+    }
+
+    void fixed64(long value) {
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        write((int) (value >>> shift));
+      }
+    }
+
+    void uuid(UUID uuid) {
+      fixed64(uuid.getMostSignificantBits());
+      fixed64(uuid.getLeastSignificantBits());
+    }
+
+    void varint(long value) {
+      while ((value & ~0x7fL) != 0) {
+        write((int) ((value & 0x7f) | 0x80));
+        value >>>= 7;
+      }
+      write((int) value);
+    }
+
+    void string(String value) {
+      if (value != null) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        write(bytes, 0, bytes.length);
+      }
+    }
+
+    void blob(TimelineEventData.BlobRef ref) {
+      if (ref != null) {
+        byte[] hash = HexFormat.of().parseHex(ref.sha256);
+        write(hash, 0, hash.length);
+        varint(ref.size);
+      }
+    }
+  }
+}
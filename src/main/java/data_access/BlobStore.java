@@ -0,0 +1,468 @@
+package data_access;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for large text payloads. Each payload is written
+ * once to a file named by the SHA-256 of its UTF-8 bytes, so identical
+ * payloads share one file and a stored file never changes. Reads go through
+ * a least-recently-used cache bounded by total payload size.
+ *
+ * <p>Since records may share a payload, the store counts the records
+ * pointing at each one: logs {@link #retain(List)} the payloads of records
+ * before writing them and {@link #release(List)} those of records they
+ * dropped, and a payload is deleted when its count reaches zero. The
+ * counts are kept in memory and appended to a small journal,
+ * "references", that is rewritten once it holds mostly stale lines.
+ * Stores written before counting existed hold payloads but no journal;
+ * they count and free nothing until {@link #initializeReferences(List)}
+ * has counted every record once.
+ */
+final class BlobStore {
+  private static final String REFERENCES_FILE = "references";
+  // Stale journal lines tolerated beyond one per payload before a rewrite
+  private static final int REFERENCES_SLACK = 1024;
+
+  private final Path directory;
+  private final long cacheCapacity;
+  private final Map<String, Cached> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedBytes;
+  // Reference count and size by hash; null until first needed
+  private Map<String, long[]> references;
+  // False while the store holds payloads whose references were never counted
+  private boolean counted;
+  private int journalLines;
+  private int freedSinceReport;
+  private long bytesFreedSinceReport;
+
+  /**
+   * A reference to a stored payload that reads it on each {@link #get()}.
+   */
+  final class Blob implements Supplier<String> {
+    private final String hash;
+    private final long size;
+
+    private Blob(String hash, long size) {
+      this.hash = hash;
+      this.size = size;
+    }
+
+    /**
+     * Gets the SHA-256 of the payload, in lowercase hex.
+     *
+     * @return the hash
+     */
+    String hash() {
+      return hash;
+    }
+
+    /**
+     * Gets the payload size in UTF-8 bytes.
+     *
+     * @return the size
+     */
+    long size() {
+      return size;
+    }
+
+    /**
+     * Tells whether this payload is kept in the given store's directory.
+     *
+     * @param store the store to check
+     * @return true if the store can resolve this reference
+     */
+    boolean isIn(BlobStore store) {
+      return directory.equals(store.directory);
+    }
+
+    /**
+     * Reads the payload, from the cache if possible.
+     *
+     * @return the payload, or null if its file is missing or unreadable
+     */
+    @Override
+    public String get() {
+      return read(hash, size);
+    }
+  }
+
+  /**
+   * Constructs a BlobStore.
+   *
+   * @param directory where payload files are kept; created on first write
+   * @param cacheCapacity the most payload bytes kept in memory
+   */
+  BlobStore(Path directory, long cacheCapacity) {
+    this.directory = directory;
+    this.cacheCapacity = cacheCapacity;
+  }
+
+  /**
+   * Stores a payload unless an identical one is already stored.
+   *
+   * @param content the payload
+   * @return a reference to the stored payload
+   * @throws IOException if the payload cannot be written
+   */
+  Blob put(String content) throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    String hash = sha256(bytes);
+    Path file = fileFor(hash);
+    if (!Files.exists(file)) {
+      Files.createDirectories(file.getParent());
+      // Write aside and rename so a crash never leaves a partial blob
+      Path temp = Files.createTempFile(file.getParent(), hash, ".tmp");
+      try {
+        Files.write(temp, bytes);
+        try {
+          Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temp, file);
+        }
+      } catch (FileAlreadyExistsException e) {
+        // Another writer stored the same content first
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    }
+    return new Blob(hash, bytes.length);
+  }
+
+  /**
+   * Creates a reference to a payload stored earlier, without reading it.
+   *
+   * @param hash the payload's SHA-256
+   * @param size the payload's size in bytes
+   * @return the reference
+   */
+  Blob blob(String hash, long size) {
+    return new Blob(hash, size);
+  }
+
+  /**
+   * Tells whether this store counts references to its payloads, which it
+   * does unless it holds payloads from before counting existed.
+   *
+   * @return true if references are counted
+   * @throws IOException if the journal cannot be read
+   */
+  synchronized boolean hasReferenceCounts() throws IOException {
+    loadReferences();
+    return counted;
+  }
+
+  /**
+   * Adds one reference to each payload, once per occurrence in the list.
+   * Called before the records pointing at them are written, so a crash can
+   * only leave a count too high.
+   *
+   * @param blobs the payloads new records point at
+   * @throws IOException if the journal cannot be written
+   */
+  synchronized void retain(List<Blob> blobs) throws IOException {
+    adjust(blobs, 1);
+  }
+
+  /**
+   * Takes one reference from each payload, once per occurrence in the
+   * list, and deletes those nothing references any more. Called after the
+   * records pointing at them are gone from disk.
+   *
+   * @param blobs the payloads dropped records pointed at
+   * @throws IOException if the journal cannot be written
+   */
+  synchronized void release(List<Blob> blobs) throws IOException {
+    adjust(blobs, -1);
+  }
+
+  /**
+   * Starts counting references from scratch: deletes every payload the
+   * given references miss, along with files left by interrupted writes,
+   * and records the counts. The caller must pass the references of every
+   * record that uses this store.
+   *
+   * @param blobs the payloads every stored record points at, once per record
+   * @return what was kept and freed
+   * @throws IOException if the store cannot be listed or the journal written
+   */
+  synchronized PayloadCollectionReport initializeReferences(List<Blob> blobs)
+      throws IOException {
+    Map<String, long[]> counts = new HashMap<>();
+    for (Blob blob : blobs) {
+      counts.computeIfAbsent(blob.hash, k -> new long[] {0, blob.size})[0]++;
+    }
+    int kept = 0;
+    long bytesKept = 0;
+    long bytesShared = 0;
+    int freed = 0;
+    long bytesFreed = 0;
+    Map<String, long[]> live = new HashMap<>();
+    for (Path file : storedFiles()) {
+      String name = file.getFileName().toString();
+      long size = Files.size(file);
+      long[] count = counts.get(name);
+      if (count != null) {
+        live.put(name, new long[] {count[0], size});
+        kept++;
+        bytesKept += size;
+        bytesShared += (count[0] - 1) * size;
+        continue;
+      }
+      if (Files.deleteIfExists(file)) {
+        bytesFreed += size;
+        if (!name.endsWith(".tmp")) {
+          freed++;
+          forget(name);
+        }
+      }
+    }
+    references = live;
+    counted = true;
+    rewriteReferences();
+    return new PayloadCollectionReport(kept, bytesKept, bytesShared, freed, bytesFreed);
+  }
+
+  /**
+   * Reports the payloads still referenced, and those freed since the
+   * previous report. Reads the counts only, no payload files.
+   *
+   * @return what is kept and what was freed
+   * @throws IOException if the journal cannot be read
+   */
+  synchronized PayloadCollectionReport report() throws IOException {
+    loadReferences();
+    long bytesKept = 0;
+    long bytesShared = 0;
+    for (long[] entry : references.values()) {
+      bytesKept += entry[1];
+      bytesShared += (entry[0] - 1) * entry[1];
+    }
+    PayloadCollectionReport report = new PayloadCollectionReport(references.size(), bytesKept,
+        bytesShared, freedSinceReport, bytesFreedSinceReport);
+    freedSinceReport = 0;
+    bytesFreedSinceReport = 0;
+    return report;
+  }
+
+  private void adjust(List<Blob> blobs, int delta) throws IOException {
+    loadReferences();
+    if (!counted || blobs.isEmpty()) {
+      return;
+    }
+    Map<String, long[]> changed = new LinkedHashMap<>();
+    for (Blob blob : blobs) {
+      long[] entry = references.get(blob.hash);
+      if (entry == null) {
+        if (delta < 0) {
+          // Never counted, so there is nothing to take back
+          continue;
+        }
+        entry = new long[] {0, blob.size};
+        references.put(blob.hash, entry);
+      }
+      entry[0] = Math.max(0, entry[0] + delta);
+      changed.put(blob.hash, entry);
+    }
+    // The counts reach disk before any payload is deleted, so a crash in
+    // between leaks a payload but never loses one still in use
+    appendReferences(changed);
+    for (Map.Entry<String, long[]> entry : changed.entrySet()) {
+      if (entry.getValue()[0] == 0) {
+        references.remove(entry.getKey());
+        if (Files.deleteIfExists(fileFor(entry.getKey()))) {
+          freedSinceReport++;
+          bytesFreedSinceReport += entry.getValue()[1];
+        }
+        forget(entry.getKey());
+      }
+    }
+    if (journalLines > 2 * references.size() + REFERENCES_SLACK) {
+      rewriteReferences();
+    }
+  }
+
+  /**
+   * Reads the reference journal the first time counts are needed. Each
+   * line is "hash count size" and the last line for a hash wins; a torn
+   * last line is dropped and the journal rewritten.
+   */
+  private void loadReferences() throws IOException {
+    if (references != null) {
+      return;
+    }
+    Map<String, long[]> loaded = new HashMap<>();
+    Path journal = directory.resolve(REFERENCES_FILE);
+    if (!Files.exists(journal)) {
+      references = loaded;
+      counted = storedFiles().isEmpty();
+      return;
+    }
+    int lines = 0;
+    boolean torn = false;
+    try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines++;
+        String[] parts = line.split(" ");
+        if (parts.length != 3) {
+          torn = true;
+          continue;
+        }
+        try {
+          long count = Long.parseLong(parts[1]);
+          if (count > 0) {
+            loaded.put(parts[0], new long[] {count, Long.parseLong(parts[2])});
+          } else {
+            loaded.remove(parts[0]);
+          }
+        } catch (NumberFormatException e) {
+          torn = true;
+        }
+      }
+    }
+    references = loaded;
+    counted = true;
+    journalLines = lines;
+    if (torn) {
+      rewriteReferences();
+    }
+  }
+
+  private void appendReferences(Map<String, long[]> changed) throws IOException {
+    StringBuilder lines = new StringBuilder();
+    for (Map.Entry<String, long[]> entry : changed.entrySet()) {
+      lines.append(entry.getKey()).append(' ').append(entry.getValue()[0]).append(' ')
+          .append(entry.getValue()[1]).append('\n');
+    }
+    Files.createDirectories(directory);
+    Files.write(directory.resolve(REFERENCES_FILE), lines.toString().getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    journalLines += changed.size();
+  }
+
+  /**
+   * Replaces the journal with one line per referenced payload.
+   */
+  private void rewriteReferences() throws IOException {
+    StringBuilder lines = new StringBuilder();
+    for (Map.Entry<String, long[]> entry : references.entrySet()) {
+      lines.append(entry.getKey()).append(' ').append(entry.getValue()[0]).append(' ')
+          .append(entry.getValue()[1]).append('\n');
+    }
+    Files.createDirectories(directory);
+    Path target = directory.resolve(REFERENCES_FILE);
+    Path temp = target.resolveSibling(REFERENCES_FILE + ".tmp");
+    Files.write(temp, lines.toString().getBytes(StandardCharsets.UTF_8));
+    try {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    journalLines = references.size();
+  }
+
+  /**
+   * Lists the payload files, and files left by interrupted writes, but not
+   * the journal.
+   */
+  private List<Path> storedFiles() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> walk = Files.walk(directory, 2)) {
+      return walk.filter(file -> !file.getParent().equals(directory))
+          .filter(Files::isRegularFile)
+          .collect(Collectors.toList());
+    }
+  }
+
+  private String read(String hash, long size) {
+    synchronized (cache) {
+      Cached cached = cache.get(hash);
+      if (cached != null) {
+        return cached.content;
+      }
+    }
+    String content;
+    try {
+      content = new String(Files.readAllBytes(fileFor(hash)), StandardCharsets.UTF_8);
+    } catch (NoSuchFileException e) {
+      System.err.println("Timeline payload " + hash + " is missing");
+      return null;
+    } catch (IOException e) {
+      System.err.println("Error reading timeline payload " + hash + ": " + e.getMessage());
+      return null;
+    }
+    remember(hash, content, size);
+    return content;
+  }
+
+  private void remember(String hash, String content, long size) {
+    if (size > cacheCapacity) {
+      return;
+    }
+    synchronized (cache) {
+      if (cache.put(hash, new Cached(content, size)) == null) {
+        cachedBytes += size;
+      }
+      Iterator<Cached> eldest = cache.values().iterator();
+      while (cachedBytes > cacheCapacity && eldest.hasNext()) {
+        cachedBytes -= eldest.next().size;
+        eldest.remove();
+      }
+    }
+  }
+
+  private void forget(String hash) {
+    synchronized (cache) {
+      Cached cached = cache.remove(hash);
+      if (cached != null) {
+        cachedBytes -= cached.size;
+      }
+    }
+  }
+
+  private Path fileFor(String hash) {
+    // Fan out over subdirectories so no single directory grows too large
+    return directory.resolve(hash.substring(0, 2)).resolve(hash);
+  }
+
+  private static String sha256(byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static final class Cached {
+    final String content;
+    final long size;
+
+    Cached(String content, long size) {
+      this.content = content;
+      this.size = size;
+    }
+  }
+}
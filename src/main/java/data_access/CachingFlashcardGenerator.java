@@ -0,0 +1,72 @@
+package data_access;
+
+import entities.FlashcardSet;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Flashcard generator decorator that reuses the flashcards generated for
+ * the same course and content instead of generating them again. Content
+ * naming a PDF is keyed by the PDF's contents, not its path.
+ * {@link #regenerateForCourse(String, String)} always generates, and
+ * caches the result for later requests.
+ */
+public class CachingFlashcardGenerator implements FlashcardGenerator {
+  private final FlashcardGenerator delegate;
+  private final ResponseCache cache;
+  private final String generator;
+  private final FileHashes hashes = new FileHashes();
+
+  /**
+   * Constructs a CachingFlashcardGenerator.
+   *
+   * @param delegate the generator that is called on a miss
+   * @param cache where generated flashcards are kept
+   * @param generator identifies the delegate's model, prompt and config;
+   *     flashcards cached under another value are not reused
+   */
+  public CachingFlashcardGenerator(FlashcardGenerator delegate, ResponseCache cache,
+      String generator) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.generator = generator;
+  }
+
+  @Override
+  public FlashcardSet generateForCourse(String courseName, String content) throws IOException {
+    String key = key(courseName, content);
+    String cached = cache.get(key);
+    if (cached != null) {
+      FlashcardSet set = JsonAdapters.gson().fromJson(cached, FlashcardSet.class);
+      if (set != null) {
+        return set;
+      }
+    }
+    return generate(key, courseName, content);
+  }
+
+  @Override
+  public FlashcardSet regenerateForCourse(String courseName, String content)
+      throws IOException {
+    return generate(key(courseName, content), courseName, content);
+  }
+
+  private FlashcardSet generate(String key, String courseName, String content)
+      throws IOException {
+    FlashcardSet set = delegate.generateForCourse(courseName, content);
+    if (set != null) {
+      cache.put(key, JsonAdapters.gson().toJson(set));
+    }
+    return set;
+  }
+
+  private String key(String courseName, String content) throws IOException {
+    // Same test as the Gemini generator uses to decide to attach a PDF
+    File maybePdf = content == null ? null : new File(content);
+    if (maybePdf != null && maybePdf.exists() && content.toLowerCase().endsWith(".pdf")) {
+      return ResponseCache.key("flashcards", generator, courseName, "pdf",
+          hashes.sha256(maybePdf.toPath()));
+    }
+    return ResponseCache.key("flashcards", generator, courseName, "text", content);
+  }
+}
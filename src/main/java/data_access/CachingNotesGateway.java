@@ -0,0 +1,104 @@
+package data_access;
+
+import entities.Course;
+import entities.LectureNotes;
+import entities.PDFFile;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import usecases.lecturenotes.NotesGenerationException;
+import usecases.lecturenotes.NotesGeminiGateway;
+
+/**
+ * Lecture notes gateway decorator that reuses the notes generated for the
+ * same course files and topic instead of generating them again.
+ * {@link #regenerateNotes(Course, String)} always generates, and caches the
+ * result for later requests.
+ */
+public class CachingNotesGateway implements NotesGeminiGateway {
+  private final NotesGeminiGateway delegate;
+  private final ResponseCache cache;
+  private final String generator;
+  private final FileHashes hashes = new FileHashes();
+
+  // What is kept per entry; the course and topic are part of the key
+  private static final class CachedNotes {
+    private String content;
+    private String generatedAt;
+  }
+
+  /**
+   * Constructs a CachingNotesGateway.
+   *
+   * @param delegate the gateway that is called on a miss
+   * @param cache where generated notes are kept
+   * @param generator identifies the delegate's model, prompt and config;
+   *     notes cached under another value are not reused
+   */
+  public CachingNotesGateway(NotesGeminiGateway delegate, ResponseCache cache,
+      String generator) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.generator = generator;
+  }
+
+  @Override
+  public LectureNotes generateNotes(Course course, String topic)
+      throws NotesGenerationException {
+    String key = key(course, topic);
+    String cached = cache.get(key);
+    if (cached != null) {
+      try {
+        CachedNotes notes = JsonAdapters.gson().fromJson(cached, CachedNotes.class);
+        if (notes != null && notes.content != null) {
+          LocalDateTime generatedAt = notes.generatedAt != null
+              ? LocalDateTime.parse(notes.generatedAt) : null;
+          return new LectureNotes(course.getCourseId(), topic, notes.content, generatedAt);
+        }
+      } catch (RuntimeException e) {
+        // Generate again below
+      }
+    }
+    return generate(key, course, topic);
+  }
+
+  @Override
+  public LectureNotes regenerateNotes(Course course, String topic)
+      throws NotesGenerationException {
+    return generate(key(course, topic), course, topic);
+  }
+
+  private LectureNotes generate(String key, Course course, String topic)
+      throws NotesGenerationException {
+    LectureNotes notes = delegate.generateNotes(course, topic);
+    if (notes != null && notes.getContent() != null) {
+      CachedNotes entry = new CachedNotes();
+      entry.content = notes.getContent();
+      if (notes.getGeneratedAt() != null) {
+        entry.generatedAt = notes.getGeneratedAt().toString();
+      }
+      cache.put(key, JsonAdapters.gson().toJson(entry));
+    }
+    return notes;
+  }
+
+  private String key(Course course, String topic) throws NotesGenerationException {
+    List<String> parts = new ArrayList<>();
+    parts.add("notes");
+    parts.add(generator);
+    parts.add(course.getCourseId());
+    parts.add(topic);
+    List<PDFFile> files = course.getUploadedFiles();
+    try {
+      if (files != null) {
+        for (PDFFile pdf : files) {
+          parts.add(hashes.sha256(pdf.getPath()));
+        }
+      }
+    } catch (IOException e) {
+      throw new NotesGenerationException("Failed to read the course files.", e);
+    }
+    return ResponseCache.key(parts.toArray(new String[0]));
+  }
+}
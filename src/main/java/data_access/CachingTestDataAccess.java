@@ -0,0 +1,72 @@
+package data_access;
+
+import entities.PDFFile;
+import entities.TestData;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import usecases.mock_test_generation.MockTestGenerationTestDataAccessInterface;
+
+/**
+ * Mock test generator decorator that reuses the test generated for the
+ * same course materials, prompt and config instead of generating it again.
+ * {@link #regenerateTestData(List)} always generates, and caches the
+ * result for later requests.
+ */
+public class CachingTestDataAccess implements MockTestGenerationTestDataAccessInterface {
+  private final MockTestGenerationTestDataAccessInterface delegate;
+  private final ResponseCache cache;
+  private final String generator;
+  private final FileHashes hashes = new FileHashes();
+
+  /**
+   * Constructs a CachingTestDataAccess.
+   *
+   * @param delegate the generator that is called on a miss
+   * @param cache where generated tests are kept
+   * @param generator identifies the delegate's model, prompt and config;
+   *     tests cached under another value are not reused
+   */
+  public CachingTestDataAccess(MockTestGenerationTestDataAccessInterface delegate,
+      ResponseCache cache, String generator) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.generator = generator;
+  }
+
+  @Override
+  public TestData getTestData(List<PDFFile> courseMaterials) throws IOException {
+    String key = key(courseMaterials);
+    String cached = cache.get(key);
+    if (cached != null) {
+      TestData testData = JsonAdapters.gson().fromJson(cached, TestData.class);
+      if (testData != null) {
+        return testData;
+      }
+    }
+    return generate(key, courseMaterials);
+  }
+
+  @Override
+  public TestData regenerateTestData(List<PDFFile> courseMaterials) throws IOException {
+    return generate(key(courseMaterials), courseMaterials);
+  }
+
+  private TestData generate(String key, List<PDFFile> courseMaterials) throws IOException {
+    TestData testData = delegate.getTestData(courseMaterials);
+    if (testData != null) {
+      cache.put(key, JsonAdapters.gson().toJson(testData));
+    }
+    return testData;
+  }
+
+  private String key(List<PDFFile> courseMaterials) throws IOException {
+    List<String> parts = new ArrayList<>();
+    parts.add("mock-test");
+    parts.add(generator);
+    for (PDFFile pdf : courseMaterials) {
+      parts.add(hashes.sha256(pdf.getPath()));
+    }
+    return ResponseCache.key(parts.toArray(new String[0]));
+  }
+}
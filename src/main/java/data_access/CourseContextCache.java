@@ -0,0 +1,328 @@
+package data_access;
+
+import entities.PDFFile;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import usecases.file_management.CourseMaterialsListener;
+
+/**
+ * Keeps one Gemini cached-content resource per set of course materials,
+ * so every request about a course can reference the materials instead of
+ * sending them as input again.
+ *
+ * <p>A context is keyed by the model and the SHA-256 of each material, so
+ * editing a file makes the next request build a new one. Contexts live for
+ * the time to live and are rebuilt shortly before they expire. When files
+ * are uploaded to or deleted from a course, contexts built from its old
+ * files are deleted on a background thread instead of waiting out their
+ * time to live. Materials Gemini refuses to cache, for example because
+ * they are too short, are not tried again; callers then send them inline.
+ * Other failures, such as timeouts or rate limits, are tried again by the
+ * next request.
+ *
+ * <p>Contexts are only remembered in memory; after a restart the first
+ * request per course builds a new one. The lock only guards the maps, so
+ * building one course's context never holds up another's; two requests for
+ * the same new context share one build.
+ */
+public final class CourseContextCache implements CourseMaterialsListener {
+  /** How long before its expiry a context stops being used. */
+  static final Duration EXPIRY_MARGIN = Duration.ofMinutes(5);
+
+  /**
+   * Creates and deletes cached-content resources.
+   */
+  public interface Creator {
+    /**
+     * Caches materials for a model.
+     *
+     * @param model the model the context will be used with
+     * @param materials the files to cache
+     * @param timeToLive how long the context should live
+     * @return the context
+     * @throws IOException if the materials cannot be read or cached
+     */
+    Context create(String model, List<Path> materials, Duration timeToLive) throws IOException;
+
+    /**
+     * Deletes a context.
+     *
+     * @param name the context's resource name
+     * @throws IOException if the context cannot be deleted
+     */
+    void delete(String name) throws IOException;
+  }
+
+  /**
+   * Thrown by a {@link Creator} when Gemini refuses the materials
+   * themselves, so trying again would fail the same way.
+   */
+  public static final class RefusedException extends IOException {
+    /**
+     * Constructs a RefusedException.
+     *
+     * @param message why the materials were refused
+     * @param cause the error Gemini returned
+     */
+    public RefusedException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+
+  /**
+   * A cached-content resource.
+   */
+  public static final class Context {
+    private final String name;
+    private final Instant expiresAt;
+
+    /**
+     * Constructs a Context.
+     *
+     * @param name the resource name requests reference, e.g. "cachedContents/abc"
+     * @param expiresAt when the resource is deleted, or null if unknown
+     */
+    public Context(String name, Instant expiresAt) {
+      this.name = name;
+      this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Instant getExpiresAt() {
+      return expiresAt;
+    }
+  }
+
+  private static final class Entry {
+    private final Context context;
+    private final Set<Path> materials;
+
+    private Entry(Context context, Set<Path> materials) {
+      this.context = context;
+      this.materials = materials;
+    }
+  }
+
+  private final Creator creator;
+  private final Duration timeToLive;
+  private final Clock clock;
+  private final Executor deleter;
+  private final FileHashes hashes = new FileHashes();
+  private final Map<String, Entry> contexts = new HashMap<>();
+  private final Set<String> uncacheable = new HashSet<>();
+  // Builds in progress by key; completed with null when the build failed
+  private final Map<String, CompletableFuture<Context>> inFlight = new ConcurrentHashMap<>();
+  private long created;
+
+  /**
+   * Constructs a CourseContextCache.
+   *
+   * @param creator creates the cached-content resources
+   * @param timeToLive how long each context lives
+   */
+  public CourseContextCache(Creator creator, Duration timeToLive) {
+    this(creator, timeToLive, Clock.systemUTC(), Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "course-context-deleter");
+      thread.setDaemon(true);
+      return thread;
+    }));
+  }
+
+  /**
+   * Constructs a CourseContextCache that checks expiry against a clock.
+   *
+   * @param creator creates the cached-content resources
+   * @param timeToLive how long each context lives
+   * @param clock the clock expiry is checked against
+   * @param deleter runs the deletion of outdated contexts
+   */
+  CourseContextCache(Creator creator, Duration timeToLive, Clock clock, Executor deleter) {
+    this.creator = creator;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.deleter = deleter;
+  }
+
+  /**
+   * Gets the context holding a list of materials, creating it if needed.
+   *
+   * @param model the model the context will be used with
+   * @param materials the files, in the order requests would attach them
+   * @return the context's resource name, or null if the materials have to
+   *     be sent with the request
+   */
+  public String contextFor(String model, List<Path> materials) {
+    if (materials.isEmpty()) {
+      return null;
+    }
+    List<String> parts = new ArrayList<>();
+    parts.add(model);
+    Set<Path> paths = new HashSet<>();
+    try {
+      for (Path material : materials) {
+        parts.add(hashes.sha256(material));
+        paths.add(normalize(material));
+      }
+    } catch (IOException e) {
+      // The request will fail reading the same file, with a better message
+      return null;
+    }
+    String key = ResponseCache.key(parts.toArray(new String[0]));
+    String cached = cachedContext(key);
+    if (cached != null || isUncacheable(key)) {
+      return cached;
+    }
+    CompletableFuture<Context> build = new CompletableFuture<>();
+    CompletableFuture<Context> running = inFlight.putIfAbsent(key, build);
+    if (running != null) {
+      Context context = running.join();
+      return context == null ? null : context.getName();
+    }
+    Context context = null;
+    try {
+      // Another build may have finished since the first check
+      cached = cachedContext(key);
+      if (cached != null) {
+        return cached;
+      }
+      context = create(key, model, materials, paths);
+      return context == null ? null : context.getName();
+    } finally {
+      inFlight.remove(key, build);
+      build.complete(context);
+    }
+  }
+
+  /**
+   * Builds a context without holding the lock and remembers it.
+   *
+   * @return the context, or null if the materials have to be sent inline
+   */
+  private Context create(String key, String model, List<Path> materials, Set<Path> paths) {
+    Context context;
+    try {
+      context = creator.create(model, materials, timeToLive);
+    } catch (RefusedException e) {
+      System.err.println("Sending course materials inline: " + e.getMessage());
+      synchronized (this) {
+        uncacheable.add(key);
+      }
+      return null;
+    } catch (IOException e) {
+      // Possibly a timeout or rate limit; the next request tries again
+      System.err.println("Sending course materials inline for now: " + e.getMessage());
+      return null;
+    }
+    if (context.getExpiresAt() == null) {
+      context = new Context(context.getName(), clock.instant().plus(timeToLive));
+    }
+    synchronized (this) {
+      contexts.put(key, new Entry(context, paths));
+      created++;
+    }
+    return context;
+  }
+
+  private synchronized String cachedContext(String key) {
+    Entry entry = contexts.get(key);
+    if (entry != null
+        && entry.context.getExpiresAt().minus(EXPIRY_MARGIN).isAfter(clock.instant())) {
+      return entry.context.getName();
+    }
+    return null;
+  }
+
+  private synchronized boolean isUncacheable(String key) {
+    return uncacheable.contains(key);
+  }
+
+  /**
+   * Gets the context holding a course's uploaded files.
+   *
+   * @param model the model the context will be used with
+   * @param files the course's files
+   * @return the context's resource name, or null if the files have to be
+   *     sent with the request
+   */
+  public String contextForFiles(String model, Iterable<PDFFile> files) {
+    List<Path> materials = new ArrayList<>();
+    for (PDFFile file : files) {
+      materials.add(file.getPath());
+    }
+    return contextFor(model, materials);
+  }
+
+  /**
+   * Deletes the contexts built from the course's old files: any holding
+   * the changed file or one of the course's files. They are forgotten at
+   * once and deleted from Gemini in the background, so the caller, often
+   * the UI thread, never waits on the network.
+   *
+   * @param courseId the course ID
+   * @param changedFile the path of the file that was uploaded or deleted
+   * @param files the course's files after the change
+   */
+  @Override
+  public void materialsChanged(String courseId, String changedFile, List<PDFFile> files) {
+    Set<Path> affected = new HashSet<>();
+    affected.add(normalize(Paths.get(changedFile)));
+    for (PDFFile file : files) {
+      affected.add(normalize(file.getPath()));
+    }
+    List<String> outdated = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Entry> entries = contexts.values().iterator();
+      while (entries.hasNext()) {
+        Entry entry = entries.next();
+        if (entry.materials.stream().anyMatch(affected::contains)) {
+          entries.remove();
+          outdated.add(entry.context.getName());
+        }
+      }
+    }
+    if (outdated.isEmpty()) {
+      return;
+    }
+    deleter.execute(() -> {
+      for (String name : outdated) {
+        try {
+          creator.delete(name);
+        } catch (IOException e) {
+          // It expires on its own
+          System.err.println("Error deleting course context: " + e.getMessage());
+        }
+      }
+    });
+  }
+
+  /**
+   * Gets the number of contexts this cache has created.
+   *
+   * @return the number of contexts created
+   */
+  public synchronized long getCreated() {
+    return created;
+  }
+
+  private static Path normalize(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+}
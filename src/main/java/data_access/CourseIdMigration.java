@@ -0,0 +1,80 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import usecases.Timeline.ICourseIdMapper;
+import usecases.Timeline.NameBasedCourseIdMapper;
+
+/**
+ * One-time move of a timeline from the course UUIDs a
+ * {@link FileCourseIdMapper} assigned to the ones a
+ * {@link NameBasedCourseIdMapper} derives.
+ *
+ * <p>The migration runs while the old mapping file exists. Each course is
+ * moved to the UUID derived from its course ID, found in the timeline's
+ * own records, then in the mapping file, then in its event titles. Courses
+ * whose ID cannot be found keep their UUID. The mapping file is then
+ * renamed to "*.migrated", so later starts skip the migration.
+ */
+public final class CourseIdMigration {
+  private static final String MIGRATED_SUFFIX = ".migrated";
+
+  private CourseIdMigration() {
+  }
+
+  /**
+   * Moves every course of a timeline to its derived UUID, if the old
+   * mapping file is still there.
+   *
+   * @param timeline the timeline, opened with {@code courseIds}
+   * @param courseIds the mapper deriving the new UUIDs
+   * @param mappingFile the course_id_mappings.json written by the old mapper
+   * @return the number of live events moved
+   * @throws IOException if the mapping file cannot be renamed
+   */
+  public static int migrate(FileTimelineRepository timeline, ICourseIdMapper courseIds,
+      Path mappingFile) throws IOException {
+    if (!courseIds.derivesUuids() || !Files.exists(mappingFile)) {
+      return 0;
+    }
+    FileCourseIdMapper legacy = new FileCourseIdMapper(mappingFile);
+    int moved = 0;
+    for (UUID from : timeline.findCourseIds()) {
+      String courseId = courseIdFor(from, timeline, courseIds, legacy);
+      if (courseId == null) {
+        System.err.println("Cannot find the course ID of timeline course " + from
+            + "; leaving it in place");
+        continue;
+      }
+      // Looking the course up makes its derived UUID map back to it
+      UUID to = courseIds.getUuidForCourseId(courseId);
+      if (!to.equals(from)) {
+        moved += timeline.moveCourse(from, to);
+      }
+    }
+    Files.move(mappingFile, mappingFile.resolveSibling(mappingFile.getFileName()
+        + MIGRATED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+    return moved;
+  }
+
+  private static String courseIdFor(UUID uuid, FileTimelineRepository timeline,
+      ICourseIdMapper courseIds, ICourseIdMapper legacy) {
+    String courseId = courseIds.getCourseIdForUuid(uuid);
+    if (courseId == null) {
+      courseId = legacy.getCourseIdForUuid(uuid);
+    }
+    if (courseId == null) {
+      for (TimelineEvent event : timeline.findByCourseNewestFirst(uuid)) {
+        courseId = TimelineEventData.courseIdFromTitle(event.getTitle());
+        if (courseId != null) {
+          break;
+        }
+      }
+    }
+    return courseId;
+  }
+}
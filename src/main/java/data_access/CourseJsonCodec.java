@@ -0,0 +1,242 @@
+package data_access;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import entities.Course;
+import entities.PDFFile;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams courses to and from the JSON layout used in courses.json.
+ * Shared by the snapshot file and the course journal so both agree on
+ * the record format. Reading never materializes the whole document:
+ * courses are handed out one at a time as they are parsed.
+ */
+final class CourseJsonCodec {
+
+  /**
+   * Receives courses as they are parsed.
+   */
+  interface CourseVisitor {
+    /**
+     * Accepts one parsed course.
+     *
+     * @param course the course
+     * @return false to stop parsing the rest of the array
+     */
+    boolean visit(Course course);
+  }
+
+  private CourseJsonCodec() {
+  }
+
+  /**
+   * Writes a course as a JSON object.
+   *
+   * @param writer the writer positioned where the object belongs
+   * @param course the course to write
+   * @throws IOException if writing fails
+   */
+  static void writeCourse(JsonWriter writer, Course course) throws IOException {
+    writer.beginObject();
+    writer.name("courseId").value(course.getCourseId());
+    writer.name("name").value(course.getName());
+    writer.name("description").value(course.getDescription());
+    writer.name("version").value(course.getVersion());
+
+    // Write uploaded files
+    writer.name("uploadedFiles").beginArray();
+    for (PDFFile file : course.getUploadedFiles()) {
+      writer.value(file.getPath().toString());
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  /**
+   * Reads one course object. Unknown fields are skipped. Records written
+   * before courses were versioned count as version 1.
+   *
+   * @param reader the reader positioned at the object
+   * @return the course
+   * @throws IOException if the object is malformed or has no course ID
+   */
+  static Course readCourse(JsonReader reader) throws IOException {
+    String courseId = null;
+    String name = null;
+    String description = null;
+    long version = 1;
+    List<String> files = new ArrayList<>();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "courseId":
+          courseId = nextNullableString(reader);
+          break;
+        case "name":
+          name = nextNullableString(reader);
+          break;
+        case "description":
+          description = nextNullableString(reader);
+          break;
+        case "version":
+          version = reader.nextLong();
+          break;
+        case "uploadedFiles":
+          reader.beginArray();
+          while (reader.hasNext()) {
+            files.add(reader.nextString());
+          }
+          reader.endArray();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (courseId == null) {
+      throw new IOException("course record without courseId");
+    }
+    Course course = new Course(courseId, name, description);
+    course.setVersion(version);
+    for (String path : files) {
+      course.addFile(new PDFFile(path));
+    }
+    return course;
+  }
+
+  /**
+   * Streams a JSON array of courses, stopping early if the visitor asks to.
+   *
+   * @param in the source; it is not closed
+   * @param visitor receives each course in array order
+   * @throws IOException if reading or parsing fails
+   */
+  static void readArray(Reader in, CourseVisitor visitor) throws IOException {
+    JsonReader reader = new JsonReader(in);
+    if (reader.peek() == JsonToken.END_DOCUMENT) {
+      return;
+    }
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (!visitor.visit(readCourse(reader))) {
+        return;
+      }
+    }
+    reader.endArray();
+  }
+
+  /**
+   * Reads a whole JSON array of courses.
+   *
+   * @param in the source; it is not closed
+   * @return the courses in array order
+   * @throws IOException if reading or parsing fails
+   */
+  static List<Course> readArray(Reader in) throws IOException {
+    List<Course> courses = new ArrayList<>();
+    readArray(in, course -> {
+      courses.add(course);
+      return true;
+    });
+    return courses;
+  }
+
+  /**
+   * Reads one page of the JSON array stored in a file. Parsing stops as soon
+   * as the page is full, so later courses are never read.
+   *
+   * @param file the JSON file; a missing file is an empty catalog
+   * @param offset number of courses to skip
+   * @param limit maximum number of courses to return
+   * @return the courses of the page in array order
+   * @throws IOException if reading or parsing fails
+   */
+  static List<Course> readPage(Path file, int offset, int limit) throws IOException {
+    List<Course> page = new ArrayList<>();
+    if (limit == 0 || !Files.exists(file)) {
+      return page;
+    }
+    try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      JsonReader reader = new JsonReader(in);
+      if (reader.peek() == JsonToken.END_DOCUMENT) {
+        return page;
+      }
+      reader.beginArray();
+      // Skipped courses are tokenized but never turned into objects
+      for (int i = 0; i < offset && reader.hasNext(); i++) {
+        reader.skipValue();
+      }
+      while (page.size() < limit && reader.hasNext()) {
+        page.add(readCourse(reader));
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Writes courses as a JSON array.
+   *
+   * @param out the destination; it is flushed but not closed
+   * @param courses the courses to write
+   * @throws IOException if writing fails
+   */
+  static void writeArray(Writer out, List<Course> courses) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginArray();
+    for (Course course : courses) {
+      writeCourse(writer, course);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /**
+   * Writes courses as a JSON array to a temporary file next to the target,
+   * forces it to disk and renames it over the target. Readers of the target
+   * therefore see either the old or the new array, never a partial one.
+   *
+   * @param file the JSON file to replace
+   * @param courses the courses to write
+   * @throws IOException if writing or renaming fails; the target is untouched
+   */
+  static void writeArrayAtomically(Path file, List<Course> courses) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+      writeArray(out, courses);
+      channel.force(true);
+    }
+    try {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static String nextNullableString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+}
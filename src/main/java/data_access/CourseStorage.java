@@ -0,0 +1,58 @@
+package data_access;
+
+import entities.Course;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Persistence strategy behind {@link LocalCourseRepository}.
+ * The repository keeps the catalog in memory and tells the storage about
+ * each mutation; the storage decides how much has to be written for it.
+ */
+interface CourseStorage {
+  /**
+   * Gives the storage access to the repository's current catalog, for
+   * when a full snapshot has to be written.
+   *
+   * @param currentCourses supplies the current courses in catalog order
+   */
+  void attach(Supplier<List<Course>> currentCourses);
+
+  /**
+   * Loads the full catalog from disk.
+   *
+   * @return the stored courses in catalog order
+   */
+  List<Course> load();
+
+  /**
+   * Loads one page of the catalog without keeping the rest in memory.
+   *
+   * @param offset number of courses to skip
+   * @param limit maximum number of courses to return
+   * @return the courses of the page in catalog order
+   */
+  List<Course> loadPage(int offset, int limit);
+
+  /**
+   * Persists a created or updated course.
+   *
+   * @param course the new state of the course
+   */
+  void savePut(Course course);
+
+  /**
+   * Persists the removal of a course.
+   *
+   * @param courseId the ID of the removed course
+   */
+  void saveDelete(String courseId);
+
+  /**
+   * Checks whether the files were changed by someone other than this
+   * storage since the last load or write.
+   *
+   * @return true if the catalog should be reloaded
+   */
+  boolean hasChangedOnDisk();
+}
@@ -0,0 +1,173 @@
+package data_access;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import usecases.Timeline.ICourseIdMapper;
+
+/**
+ * Course ID mapper kept in memory and persisted to a JSON file mapping
+ * each String course ID to its UUID.
+ *
+ * <p>Lookups read concurrent maps without locking, so timeline
+ * serialization on any number of threads never waits here. New mappings
+ * are saved in the background shortly after they are made: every mapping
+ * made within the save delay is written by one rewrite of the file.
+ * {@link #flush()} writes pending mappings at once. A mapping lost to a
+ * crash before its save is restored from the timeline's records.
+ */
+public final class FileCourseIdMapper implements ICourseIdMapper {
+  private static final Duration DEFAULT_SAVE_DELAY = Duration.ofMillis(200);
+  private static final Type FILE_TYPE = new TypeToken<Map<String, String>>() {
+  }.getType();
+
+  private final Path file;
+  private final long saveDelayMillis;
+  private final Map<String, UUID> courseIdToUuid = new ConcurrentHashMap<>();
+  private final Map<UUID, String> uuidToCourseId = new ConcurrentHashMap<>();
+  private final AtomicBoolean savePending = new AtomicBoolean();
+  private final Object saveLock = new Object();
+
+  /**
+   * Constructs a FileCourseIdMapper that saves new mappings after 200 ms.
+   *
+   * @param file the JSON file holding the mappings
+   */
+  public FileCourseIdMapper(Path file) {
+    this(file, DEFAULT_SAVE_DELAY);
+  }
+
+  /**
+   * Constructs a FileCourseIdMapper and loads the existing mappings.
+   *
+   * @param file the JSON file holding the mappings
+   * @param saveDelay how long after a new mapping the file is rewritten
+   */
+  public FileCourseIdMapper(Path file, Duration saveDelay) {
+    this.file = file;
+    this.saveDelayMillis = saveDelay.toMillis();
+    load();
+  }
+
+  @Override
+  public UUID getUuidForCourseId(String courseId) {
+    if (courseId == null || courseId.isEmpty()) {
+      throw new IllegalArgumentException("Course ID cannot be null or empty");
+    }
+    UUID uuid = courseIdToUuid.get(courseId);
+    if (uuid != null) {
+      return uuid;
+    }
+    boolean[] created = {false};
+    uuid = courseIdToUuid.computeIfAbsent(courseId, k -> {
+      created[0] = true;
+      return UUID.randomUUID();
+    });
+    if (created[0]) {
+      uuidToCourseId.put(uuid, courseId);
+      scheduleSave();
+    }
+    return uuid;
+  }
+
+  @Override
+  public String getCourseIdForUuid(UUID uuid) {
+    return uuid == null ? null : uuidToCourseId.get(uuid);
+  }
+
+  @Override
+  public boolean hasUuid(String courseId) {
+    return courseId != null && courseIdToUuid.containsKey(courseId);
+  }
+
+  @Override
+  public void restoreMapping(String courseId, UUID uuid) {
+    if (courseId == null || courseId.isEmpty() || uuid == null) {
+      return;
+    }
+    if (courseIdToUuid.putIfAbsent(courseId, uuid) == null) {
+      uuidToCourseId.put(uuid, courseId);
+      scheduleSave();
+    }
+  }
+
+  @Override
+  public void flush() {
+    save();
+  }
+
+  private void scheduleSave() {
+    if (savePending.compareAndSet(false, true)) {
+      CompletableFuture.runAsync(this::save,
+          CompletableFuture.delayedExecutor(saveDelayMillis, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  /**
+   * Rewrites the file if a mapping was made since the last save. Mappings
+   * made while it writes schedule another save.
+   */
+  private void save() {
+    synchronized (saveLock) {
+      if (!savePending.getAndSet(false)) {
+        return;
+      }
+      Map<String, String> stringMap = new TreeMap<>();
+      for (Map.Entry<String, UUID> entry : courseIdToUuid.entrySet()) {
+        stringMap.put(entry.getKey(), entry.getValue().toString());
+      }
+      try {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+          JsonAdapters.prettyGson().toJson(stringMap, writer);
+        }
+        try {
+          Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } catch (IOException e) {
+        System.err.println("Error saving course ID mappings: " + e.getMessage());
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private void load() {
+    if (!Files.exists(file)) {
+      return; // File doesn't exist yet, start with empty mappings
+    }
+    try {
+      String jsonString = Files.readString(file);
+      if (jsonString.trim().isEmpty()) {
+        return;
+      }
+      Map<String, String> stringMap = JsonAdapters.prettyGson().fromJson(jsonString, FILE_TYPE);
+      if (stringMap != null) {
+        for (Map.Entry<String, String> entry : stringMap.entrySet()) {
+          UUID uuid = UUID.fromString(entry.getValue());
+          courseIdToUuid.put(entry.getKey(), uuid);
+          uuidToCourseId.put(uuid, entry.getKey());
+        }
+      }
+    } catch (Exception e) {
+      System.err.println("Error loading course ID mappings: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+}
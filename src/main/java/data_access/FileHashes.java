@@ -0,0 +1,83 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SHA-256 hashes of local files, remembered by {@link FileStamp} so a file
+ * is only read again after it changes.
+ */
+final class FileHashes {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Map<Path, Entry> hashes = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the hash of a file's contents, reading the file only if it
+   * changed since its last hash.
+   *
+   * @param path the file
+   * @return the SHA-256 in lowercase hex
+   * @throws IOException if the file cannot be read
+   */
+  String sha256(Path path) throws IOException {
+    Path key = path.toAbsolutePath().normalize();
+    FileStamp stamp = FileStamp.of(key);
+    Entry entry = hashes.get(key);
+    if (entry != null && entry.stamp.equals(stamp)) {
+      return entry.sha256;
+    }
+    String sha256 = sha256Of(key);
+    hashes.put(key, new Entry(stamp, sha256));
+    return sha256;
+  }
+
+  /**
+   * Hashes a file's contents.
+   *
+   * @param path the file
+   * @return the SHA-256 in lowercase hex
+   * @throws IOException if the file cannot be read
+   */
+  static String sha256Of(Path path) throws IOException {
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream in = Files.newInputStream(path)) {
+      int read;
+      while ((read = in.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Creates a SHA-256 digest.
+   *
+   * @return the digest
+   */
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static final class Entry {
+    private final FileStamp stamp;
+    private final String sha256;
+
+    private Entry(FileStamp stamp, String sha256) {
+      this.stamp = stamp;
+      this.sha256 = sha256;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package data_access;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+
+/**
+ * Modification time and size of a file, used to notice external edits
+ * without reading the file's contents.
+ */
+final class FileStamp {
+  private static final FileStamp MISSING = new FileStamp(null, -1);
+
+  private final FileTime lastModified;
+  private final long size;
+
+  private FileStamp(FileTime lastModified, long size) {
+    this.lastModified = lastModified;
+    this.size = size;
+  }
+
+  /**
+   * Reads the current stamp of a file.
+   *
+   * @param path the file to inspect
+   * @return the stamp, or a "missing" stamp if the file cannot be read
+   */
+  static FileStamp of(Path path) {
+    try {
+      BasicFileAttributes attributes =
+          Files.readAttributes(path, BasicFileAttributes.class);
+      return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+    } catch (IOException e) {
+      return MISSING;
+    }
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof FileStamp)) {
+      return false;
+    }
+    FileStamp that = (FileStamp) other;
+    return size == that.size && Objects.equals(lastModified, that.lastModified);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(lastModified, size);
+  }
+}
@@ -1,230 +1,633 @@
 package data_access;
 
-import java.io.File;
-import java.io.FileWriter;
+import entities.TimelineEvent;
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
-import entities.TimelineEvent;
-import entities.TimelineEventType;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import usecases.Timeline.CourseIdMapper;
+import usecases.Timeline.ICourseIdMapper;
 
 /**
  * File-based implementation of ITimelineRepository that persists timeline
- * events to a JSON file. Events are saved to timeline.json in the project
- * root directory.
+ * events to disk. By default events are saved to timeline.json in the
+ * project root directory.
+ *
+ * <p>In {@link StorageMode#SNAPSHOT} mode every save rewrites one JSON
+ * object holding all courses. In {@link StorageMode#LOG} mode each event is
+ * appended to a JSON Lines file instead, so saving does not get slower as
+ * history grows; a log named "x.jsonl" imports an existing "x.json" snapshot
+ * the first time it is opened. Log mode keeps large payloads in a
+ * content-addressed store in "x.jsonl.blobs" and loads them only when an
+ * event's content is actually read.
+ *
+ * <p>In {@link StorageMode#SHARDED} mode the file name is a directory with
+ * one log per course and a manifest. Startup reads only the manifest, and a
+ * course is loaded the first time it is queried or saved to. A directory "x"
+ * opened for the first time imports "x.jsonl", or failing that "x.json".
+ *
+ * <p>{@link #applyRetention(TimelineRetentionPolicy, Instant)} moves old
+ * payloads and events into a compressed archive next to the timeline,
+ * "x/archive" in sharded mode and "x.archive" otherwise.
  */
 public class FileTimelineRepository implements ITimelineRepository {
   private static final String FILE_NAME = "timeline.json";
+  private static final String LOG_EXTENSION = ".jsonl";
+  private static final String BLOB_DIRECTORY_SUFFIX = ".blobs";
+  private static final String SHARD_BLOB_DIRECTORY = "blobs";
+  private static final String ARCHIVE_DIRECTORY_SUFFIX = ".archive";
+  private static final String SHARD_ARCHIVE_DIRECTORY = "archive";
+  private static final long BLOB_CACHE_BYTES = 8L * 1024 * 1024;
+
+  /**
+   * How timeline events are written to disk.
+   */
+  public enum StorageMode {
+    /** Rewrite the whole timeline.json on every save. */
+    SNAPSHOT,
+    /** Append one JSON line per event. */
+    LOG,
+    /** Append to one log file per course, loaded on first use. */
+    SHARDED
+  }
+
+  /**
+   * How records are encoded in {@link StorageMode#LOG} and
+   * {@link StorageMode#SHARDED} mode. Snapshot files are always JSON.
+   */
+  public enum RecordFormat {
+    /** One compact JSON object per line. */
+    JSON(".jsonl"),
+    /** Length-prefixed, checksummed binary records; several times smaller. */
+    BINARY(".tlog");
+
+    private final String extension;
+
+    RecordFormat(String extension) {
+      this.extension = extension;
+    }
+
+    String extension() {
+      return extension;
+    }
+
+    TimelineRecordCodec newCodec() {
+      return this == BINARY ? new BinaryRecordCodec() : new JsonLinesRecordCodec();
+    }
+
+    /**
+     * Picks the format of an existing log from its file name.
+     *
+     * @param fileName the log's file name
+     * @return BINARY for ".tlog" files, otherwise JSON
+     */
+    static RecordFormat forFileName(String fileName) {
+      return fileName.endsWith(BINARY.extension) ? BINARY : JSON;
+    }
+  }
+
   private final Map<UUID, List<TimelineEvent>> byCourse = new HashMap<>();
-  private final Gson gson;
+  private final Map<UUID, TimelineIndex> indexes = new HashMap<>();
+  // Courses whose stored events have been asked for, see hydrate()
+  private final Set<UUID> hydrated = new HashSet<>();
+  private final TimelineStorage storage;
+  private final TimelineArchive archive;
 
   /**
    * Constructs a new FileTimelineRepository and loads existing data.
    */
   public FileTimelineRepository() {
-    this.gson = new GsonBuilder().setPrettyPrinting().create();
-    loadFromFile();
+    this(FILE_NAME);
+  }
+
+  /**
+   * Constructs a FileTimelineRepository backed by the given snapshot file.
+   *
+   * @param fileName the path of the JSON file holding the timeline
+   */
+  public FileTimelineRepository(String fileName) {
+    this(fileName, StorageMode.SNAPSHOT);
+  }
+
+  /**
+   * Constructs a FileTimelineRepository backed by the given file.
+   *
+   * @param fileName the path of the timeline file
+   * @param mode how events are written to disk
+   */
+  public FileTimelineRepository(String fileName, StorageMode mode) {
+    this(fileName, mode, RecordFormat.JSON);
+  }
+
+  /**
+   * Constructs a FileTimelineRepository backed by the given file, writing
+   * records in the given format.
+   *
+   * @param fileName the path of the timeline file
+   * @param mode how events are written to disk
+   * @param format how records are encoded; ignored in snapshot mode. In
+   *     sharded mode it applies to new shards, while existing shards keep
+   *     the format their file name shows
+   */
+  public FileTimelineRepository(String fileName, StorageMode mode, RecordFormat format) {
+    this(fileName, mode, format, CourseIdMapper.shared());
+  }
+
+  /**
+   * Constructs a FileTimelineRepository backed by the given file, writing
+   * records in the given format and course IDs through the given mapper.
+   *
+   * @param fileName the path of the timeline file
+   * @param mode how events are written to disk
+   * @param format how records are encoded; ignored in snapshot mode
+   * @param courseIds records the original course ID of each saved event,
+   *     and gets the mappings back when the timeline is loaded
+   */
+  public FileTimelineRepository(String fileName, StorageMode mode, RecordFormat format,
+      ICourseIdMapper courseIds) {
+    this(storageFor(fileName, mode, format, courseIds),
+        new TimelineArchive(archiveFor(fileName, mode)));
+  }
+
+  /**
+   * Constructs a FileTimelineRepository on top of a specific storage, with
+   * no archive.
+   *
+   * @param storage the storage to load from and write to
+   */
+  FileTimelineRepository(TimelineStorage storage) {
+    this(storage, null);
+  }
+
+  /**
+   * Constructs a FileTimelineRepository on top of a specific storage.
+   *
+   * @param storage the storage to load from and write to
+   * @param archive where retention moves old events, or null if it cannot run
+   */
+  FileTimelineRepository(TimelineStorage storage, TimelineArchive archive) {
+    this.storage = storage;
+    this.archive = archive;
+    this.storage.attach(() -> byCourse);
+    for (TimelineEvent event : storage.load()) {
+      add(event);
+    }
   }
 
   @Override
   public synchronized void save(TimelineEvent event) {
-    byCourse.computeIfAbsent(event.getCourseId(), k -> new ArrayList<>())
-        .add(event);
-    saveToFile();
+    hydrate(event.getCourseId());
+    add(event);
+    storage.append(event);
+  }
+
+  @Override
+  public synchronized void saveAll(List<TimelineEvent> events) {
+    for (TimelineEvent event : events) {
+      hydrate(event.getCourseId());
+      add(event);
+    }
+    storage.appendAll(events);
+  }
+
+  /**
+   * Deletes an event and rewrites its course without it. In sharded mode
+   * only that course's file is rewritten; other modes rewrite the whole
+   * timeline. Payloads only this event used are freed by the rewrite.
+   *
+   * @param event an event returned by this repository
+   * @return true if the event was found and deleted
+   */
+  @Override
+  public synchronized boolean delete(TimelineEvent event) {
+    UUID courseId = event.getCourseId();
+    hydrate(courseId);
+    List<TimelineEvent> events = byCourse.get(courseId);
+    if (events == null || !events.removeIf(e -> e == event)) {
+      return false;
+    }
+    indexes.get(courseId).remove(event);
+    storage.compactCourse(courseId);
+    return true;
   }
 
   @Override
   public synchronized List<TimelineEvent> findByCourseNewestFirst(
       UUID courseId) {
+    hydrate(courseId);
     List<TimelineEvent> list = byCourse.getOrDefault(courseId, new ArrayList<>());
     List<TimelineEvent> out = new ArrayList<>(list);
     Collections.reverse(out);
     return out;
   }
 
+  @Override
+  public synchronized TimelinePage findByCourse(UUID courseId, long beforeCursor,
+      int limit) {
+    hydrate(courseId);
+    TimelineIndex index = indexes.get(courseId);
+    return index == null
+        ? new TimelinePage(List.of(), TimelinePage.END) : index.page(beforeCursor, limit);
+  }
+
+  @Override
+  public synchronized List<TimelineEvent> findByCourse(UUID courseId, TimelineQuery query) {
+    hydrate(courseId);
+    TimelineIndex index = indexes.get(courseId);
+    return index == null ? List.of() : index.query(query);
+  }
+
+  @Override
+  public synchronized Set<UUID> findCourseIds() {
+    Set<UUID> courseIds = new HashSet<>(byCourse.keySet());
+    courseIds.addAll(storage.courseIds());
+    return courseIds;
+  }
+
   /**
-   * Loads timeline events from the JSON file.
+   * Rewrites the stored timeline into its most compact form. In log mode
+   * this drops skipped or torn records; in snapshot mode it does nothing.
    */
-  private void loadFromFile() {
-    File file = new File(FILE_NAME);
-    if (!file.exists()) {
-      return; // File doesn't exist yet, start with empty data
-    }
+  public synchronized void compact() {
+    storage.compact();
+  }
 
-    try {
-      String jsonString = Files.readString(Paths.get(FILE_NAME));
-      if (jsonString.trim().isEmpty()) {
-        return; // Empty file
+  /**
+   * Rewrites one course's stored events into their most compact form. In
+   * sharded mode only that course's file is rewritten; other modes compact
+   * the whole timeline.
+   *
+   * @param courseId the course UUID
+   */
+  public synchronized void compact(UUID courseId) {
+    hydrate(courseId);
+    storage.compactCourse(courseId);
+  }
+
+  /**
+   * Moves old history out of the live timeline. Events past the policy's
+   * payload age are copied in full to the archive and replaced by copies
+   * holding only their summary fields, whose payloads are read back from
+   * the archive when asked for. Events past the live age are archived and
+   * removed. Courses that changed are rewritten.
+   *
+   * <p>Courses are handled one at a time, each holding this repository's
+   * lock only while it is read and rewritten. A course that is not loaded
+   * is read from storage and rewritten without being kept in memory, so a
+   * run never loads the whole history. Events the timeline holds are
+   * replaced, never changed, so readers holding one are not affected.
+   *
+   * @param policy how long events and payloads stay live
+   * @param now the current time
+   * @return what the run did
+   * @throws IllegalStateException if this repository has no archive
+   */
+  @Override
+  public RetentionReport applyRetention(TimelineRetentionPolicy policy, Instant now) {
+    if (archive == null) {
+      throw new IllegalStateException("This timeline has no archive");
+    }
+    long liveBytesBefore;
+    synchronized (this) {
+      liveBytesBefore = storage.storedBytes();
+    }
+    RetentionRun run = new RetentionRun();
+    for (UUID courseId : findCourseIds()) {
+      synchronized (this) {
+        applyRetention(courseId, policy, now, run);
       }
+    }
+    synchronized (this) {
+      if (!run.loadedChanged.isEmpty()) {
+        storage.compactCourses(run.loadedChanged);
+      }
+      return new RetentionReport(run.summarized, run.archived, liveBytesBefore,
+          storage.storedBytes(), run.archiveBytes, storage.collectPayloads());
+    }
+  }
+
+  /**
+   * What a retention run has done so far.
+   */
+  private static final class RetentionRun {
+    private int summarized;
+    private final List<TimelineEvent> archived = new ArrayList<>();
+    private long archiveBytes;
+    // Loaded courses that changed; their files are rewritten at the end
+    private final Set<UUID> loadedChanged = new HashSet<>();
+  }
 
-      Type type = new TypeToken<Map<String, List<TimelineEventData>>>() {
-      }.getType();
-      Map<String, List<TimelineEventData>> dataMap =
-          gson.fromJson(jsonString, type);
-
-      if (dataMap != null) {
-        byCourse.clear();
-        for (Map.Entry<String, List<TimelineEventData>> entry :
-            dataMap.entrySet()) {
-          UUID courseUuidFromFile = UUID.fromString(entry.getKey());
-          List<TimelineEvent> events = new ArrayList<>();
-
-          // Try to restore the course ID mapping from stored events
-          String inferredCourseId = null;
-          for (TimelineEventData data : entry.getValue()) {
-            // First, try to get course ID from stored field
-            if (data.courseIdString != null
-                && !data.courseIdString.isEmpty()) {
-              inferredCourseId = data.courseIdString;
-              break;
-            }
-            // Fallback: try to extract course ID from title
-            // (e.g., "PHL 245" -> "PHL245")
-            if (data.title != null && !data.title.isEmpty()) {
-              String title = data.title.trim();
-              // Pattern: course codes like "PHL 245" or "PHL245"
-              // Match: 2-4 uppercase letters, optional space, 3 digits
-              if (title.matches("^[A-Z]{2,4}\\s*\\d{3}.*")) {
-                String cleaned = title.replaceAll("\\s+", "");
-                inferredCourseId = cleaned.substring(
-                    0, Math.min(7, cleaned.length()));
-                break;
-              }
-            }
-          }
-
-          // Restore the UUID mapping if we found a course ID
-          if (inferredCourseId != null) {
-            CourseIdMapper.restoreMapping(inferredCourseId, courseUuidFromFile);
-          }
-
-          // Load all events for this course UUID
-          for (TimelineEventData data : entry.getValue()) {
-            events.add(data.toTimelineEvent());
-          }
-          byCourse.put(courseUuidFromFile, events);
+  private void applyRetention(UUID courseId, TimelineRetentionPolicy policy, Instant now,
+      RetentionRun run) {
+    boolean loaded = hydrated.contains(courseId) || byCourse.containsKey(courseId);
+    List<TimelineEvent> events = loaded
+        ? byCourse.getOrDefault(courseId, List.of()) : storage.loadCourse(courseId);
+    // Full copies for the archive; summarized events already have one
+    List<TimelineEvent> copies = new ArrayList<>();
+    List<TimelineEvent> kept = new ArrayList<>(events.size());
+    List<TimelineEvent> archived = new ArrayList<>();
+    int summarized = 0;
+    for (TimelineEvent event : events) {
+      if (policy.archives(event, now)) {
+        archived.add(event);
+        if (!event.isPayloadsArchived()) {
+          copies.add(event);
         }
+      } else if (policy.summarizes(event, now) && !event.isPayloadsArchived()
+          && hasPayload(event)) {
+        copies.add(event);
+        kept.add(summaryOf(event));
+        summarized++;
+      } else {
+        kept.add(event);
       }
-    } catch (Exception e) {
-      System.err.println("Error loading timeline from file: "
-          + e.getMessage());
-      e.printStackTrace();
     }
+    if (archived.isEmpty() && summarized == 0) {
+      return;
+    }
+    if (!copies.isEmpty()) {
+      try {
+        run.archiveBytes += archive.write(courseId, copies);
+      } catch (IOException e) {
+        // Nothing is dropped from the live timeline unless its copy is safe
+        System.err.println("Error archiving timeline events: " + e.getMessage());
+        e.printStackTrace();
+        return;
+      }
+    }
+    if (loaded) {
+      byCourse.put(courseId, kept);
+      TimelineIndex index = new TimelineIndex();
+      for (TimelineEvent event : kept) {
+        index.add(event);
+      }
+      indexes.put(courseId, index);
+      run.loadedChanged.add(courseId);
+    } else {
+      storage.replaceCourse(courseId, kept);
+    }
+    run.summarized += summarized;
+    run.archived.addAll(archived);
   }
 
   /**
-   * Saves timeline events to the JSON file.
+   * Copies an event without its payloads, which the archive now holds.
+   *
+   * @param event the event
+   * @return the copy, reading its payloads from the archive
    */
-  private void saveToFile() {
-    try {
-      // Convert to a serializable format
-      Map<String, List<TimelineEventData>> dataMap = new HashMap<>();
-      for (Map.Entry<UUID, List<TimelineEvent>> entry : byCourse.entrySet()) {
-        List<TimelineEventData> eventDataList = new ArrayList<>();
-        for (TimelineEvent event : entry.getValue()) {
-          eventDataList.add(new TimelineEventData(event));
-        }
-        dataMap.put(entry.getKey().toString(), eventDataList);
+  private TimelineEvent summaryOf(TimelineEvent event) {
+    TimelineEvent summary = copySummary(event, event.getCourseId());
+    summary.setPayloadsArchived(true);
+    archive.attachLoaders(summary);
+    return summary;
+  }
+
+  /**
+   * Reports the payloads in the blob store. Identical payloads are stored
+   * once and counted by reference, so one is freed as soon as the last
+   * event using it is deleted, summarized or archived; this tells what is
+   * still kept and what was freed since the previous call. It reads only
+   * the reference counts, never the stored events.
+   *
+   * @return what is kept and what was freed
+   */
+  public synchronized PayloadCollectionReport collectPayloads() {
+    return storage.collectPayloads();
+  }
+
+  /**
+   * Moves every event of a course, live and archived, to another course
+   * UUID, then drops the old course from storage. Events the target
+   * already has are not copied again, so a move that was interrupted can be
+   * repeated. The caller must make sure the target UUID maps to the course
+   * ID, since new shards record it.
+   *
+   * @param from the course UUID to empty
+   * @param to the course UUID that receives the events
+   * @return the number of live events moved
+   */
+  public synchronized int moveCourse(UUID from, UUID to) {
+    if (from.equals(to)) {
+      return 0;
+    }
+    hydrate(from);
+    hydrate(to);
+    if (archive != null) {
+      try {
+        // Summarized events read their payloads from the target's archive
+        archive.moveCourse(from, to);
+      } catch (IOException e) {
+        System.err.println("Error moving archived timeline events: " + e.getMessage());
+        e.printStackTrace();
+        return 0;
+      }
+    }
+    List<TimelineEvent> existing = byCourse.getOrDefault(to, List.of());
+    Set<String> present = new HashSet<>();
+    for (TimelineEvent event : existing) {
+      present.add(TimelineArchive.key(event));
+    }
+    boolean merged = !existing.isEmpty();
+    List<TimelineEvent> copies = new ArrayList<>();
+    for (TimelineEvent event : byCourse.getOrDefault(from, List.of())) {
+      if (present.add(TimelineArchive.key(event))) {
+        copies.add(copyToCourse(event, to));
+      }
+    }
+    byCourse.remove(from);
+    indexes.remove(from);
+    for (TimelineEvent event : copies) {
+      add(event);
+    }
+    if (merged && !copies.isEmpty()) {
+      // Keep the merged history in time order, on disk as well
+      List<TimelineEvent> events = byCourse.get(to);
+      events.sort(Comparator.comparing(TimelineEvent::getOccurredAt));
+      TimelineIndex index = new TimelineIndex();
+      for (TimelineEvent event : events) {
+        index.add(event);
       }
+      indexes.put(to, index);
+    }
+    // Write the copies before dropping the originals, so a crash loses nothing
+    storage.appendAll(copies);
+    if (merged && !copies.isEmpty()) {
+      storage.compactCourse(to);
+    }
+    storage.dropCourse(from);
+    return copies.size();
+  }
+
+  /**
+   * Copies an event to another course, sharing its payloads or their
+   * loaders.
+   *
+   * @param event the event to copy
+   * @param courseId the course UUID of the copy
+   * @return the copy
+   */
+  static TimelineEvent copyToCourse(TimelineEvent event, UUID courseId) {
+    TimelineEvent copy = copySummary(event, courseId);
+    copy.setPayloadsArchived(event.isPayloadsArchived());
+    if (event.isPayloadsArchived()) {
+      // add() points these at the new course's archive
+      return copy;
+    }
+    if (event.getFullNotesTextLoader() != null) {
+      copy.setFullNotesTextLoader(event.getFullNotesTextLoader());
+    } else {
+      copy.setFullNotesText(event.getFullNotesText());
+    }
+    if (event.getFlashcardDataLoader() != null) {
+      copy.setFlashcardDataLoader(event.getFlashcardDataLoader());
+    } else {
+      copy.setFlashcardData(event.getFlashcardData());
+    }
+    if (event.getTestDataLoader() != null) {
+      copy.setTestDataLoader(event.getTestDataLoader());
+    } else {
+      copy.setTestData(event.getTestData());
+    }
+    if (event.getEvaluationDataLoader() != null) {
+      copy.setEvaluationDataLoader(event.getEvaluationDataLoader());
+    } else {
+      copy.setEvaluationData(event.getEvaluationData());
+    }
+    return copy;
+  }
+
+  private static TimelineEvent copySummary(TimelineEvent event, UUID courseId) {
+    TimelineEvent copy = new TimelineEvent(courseId, event.getContentId(), event.getType());
+    copy.setOccurredAt(event.getOccurredAt());
+    copy.setTitle(event.getTitle());
+    copy.setSnippet(event.getSnippet());
+    copy.setNumCards(event.getNumCards());
+    copy.setNumQuestions(event.getNumQuestions());
+    copy.setScore(event.getScore());
+    return copy;
+  }
 
-      try (FileWriter writer = new FileWriter(FILE_NAME)) {
-        gson.toJson(dataMap, writer);
+  /**
+   * Reads the events of a course that retention removed from the live
+   * timeline, decompressing its archive.
+   *
+   * @param courseId the course UUID
+   * @return the archived events, newest first, with their payloads
+   */
+  @Override
+  public List<TimelineEvent> findArchivedByCourse(UUID courseId) {
+    if (archive == null) {
+      return List.of();
+    }
+    Set<String> live = new HashSet<>();
+    synchronized (this) {
+      hydrate(courseId);
+      for (TimelineEvent event : byCourse.getOrDefault(courseId, List.of())) {
+        live.add(TimelineArchive.key(event));
+      }
+    }
+    List<TimelineEvent> out = new ArrayList<>();
+    try {
+      for (TimelineEvent event : archive.read(courseId)) {
+        // Summarized events are archived too but are still live
+        if (!live.contains(TimelineArchive.key(event))) {
+          out.add(event);
+        }
       }
     } catch (IOException e) {
-      System.err.println("Error saving timeline to file: " + e.getMessage());
+      System.err.println("Error reading timeline archive: " + e.getMessage());
       e.printStackTrace();
     }
+    Collections.reverse(out);
+    return out;
+  }
+
+  private static boolean hasPayload(TimelineEvent event) {
+    // A loader means a stored payload; otherwise the getters read no files
+    return event.getFullNotesTextLoader() != null || event.getFullNotesText() != null
+        || event.getFlashcardDataLoader() != null || event.getFlashcardData() != null
+        || event.getTestDataLoader() != null || event.getTestData() != null
+        || event.getEvaluationDataLoader() != null || event.getEvaluationData() != null;
+  }
+
+  /**
+   * Loads a course's stored events the first time the course is used.
+   * Storages that load everything up front have nothing to add here.
+   *
+   * @param courseId the course UUID
+   */
+  private void hydrate(UUID courseId) {
+    if (hydrated.add(courseId)) {
+      for (TimelineEvent event : storage.loadCourse(courseId)) {
+        add(event);
+      }
+    }
+  }
+
+  private void add(TimelineEvent event) {
+    if (event.isPayloadsArchived() && archive != null) {
+      archive.attachLoaders(event);
+    }
+    byCourse.computeIfAbsent(event.getCourseId(), k -> new ArrayList<>())
+        .add(event);
+    indexes.computeIfAbsent(event.getCourseId(), k -> new TimelineIndex()).add(event);
   }
 
   /**
-   * Helper class for serializing/deserializing TimelineEvent.
-   * Handles UUID and Instant conversion to/from strings.
+   * Converts a timeline.json written in snapshot mode into a log that can be
+   * opened in {@link StorageMode#LOG} mode. The snapshot is left untouched.
+   *
+   * @param snapshotFile the existing timeline.json
+   * @param logFile the log to create or replace
+   * @throws IOException if reading or writing fails
    */
-  private static class TimelineEventData {
-    String courseId;  // UUID as string
-    String courseIdString;  // Original course ID string (e.g., "PHL245")
-    String contentId;
-    String type;
-    String occurredAt;
-    String title;
-    String snippet;
-    Integer numCards;
-    Integer numQuestions;
-    Double score;
-    String fullNotesText;
-    String flashcardData;
-    String testData;
-    String evaluationData;
+  public static void convertSnapshotToLog(String snapshotFile, String logFile)
+      throws IOException {
+    LogTimelineStorage.convertLegacyFile(Paths.get(snapshotFile), Paths.get(logFile),
+        blobStoreFor(logFile), new JsonLinesRecordCodec());
+  }
 
-    /**
-     * Constructs TimelineEventData from a TimelineEvent.
-     *
-     * @param event the TimelineEvent to convert
-     */
-    TimelineEventData(TimelineEvent event) {
-      this.courseId = event.getCourseId().toString();
-      // Try to find the original course ID string from CourseIdMapper
-      String originalCourseId =
-          CourseIdMapper.getCourseIdForUuid(event.getCourseId());
-      this.courseIdString = originalCourseId;  // May be null for old events
-      this.contentId = event.getContentId().toString();
-      this.type = event.getType().name();
-      this.occurredAt = event.getOccurredAt().toString();
-      this.title = event.getTitle();
-      this.snippet = event.getSnippet();
-      this.numCards = event.getNumCards();
-      this.numQuestions = event.getNumQuestions();
-      this.score = event.getScore();
-      this.fullNotesText = event.getFullNotesText();
-      this.flashcardData = event.getFlashcardData();
-      this.testData = event.getTestData();
-      this.evaluationData = event.getEvaluationData();
+  private static TimelineStorage storageFor(String fileName, StorageMode mode,
+      RecordFormat format, ICourseIdMapper courseIds) {
+    switch (mode) {
+      case LOG:
+        return new LogTimelineStorage(Paths.get(fileName), legacyFileFor(fileName),
+            blobStoreFor(fileName), format.newCodec(), courseIds);
+      case SHARDED:
+        String legacyLog = fileName + LOG_EXTENSION;
+        return new ShardedTimelineStorage(Paths.get(fileName),
+            new BlobStore(Paths.get(fileName).resolve(SHARD_BLOB_DIRECTORY), BLOB_CACHE_BYTES),
+            format, Paths.get(legacyLog), blobStoreFor(legacyLog), legacyFileFor(legacyLog),
+            courseIds);
+      default:
+        return new SnapshotTimelineStorage(Paths.get(fileName), courseIds);
     }
+  }
 
-    /**
-     * Converts this TimelineEventData back to a TimelineEvent.
-     *
-     * @return the reconstructed TimelineEvent
-     */
-    TimelineEvent toTimelineEvent() {
-      TimelineEvent event = new TimelineEvent(
-          UUID.fromString(courseId),
-          UUID.fromString(contentId),
-          TimelineEventType.valueOf(type));
-
-      // Restore the original occurredAt timestamp if available
-      if (occurredAt != null && !occurredAt.isEmpty()) {
-        try {
-          event.setOccurredAt(Instant.parse(occurredAt));
-        } catch (Exception e) {
-          // If parsing fails, keep the default (current time)
-          // This handles edge cases with malformed timestamps
-        }
-      }
+  private static Path archiveFor(String fileName, StorageMode mode) {
+    return mode == StorageMode.SHARDED
+        ? Paths.get(fileName).resolve(SHARD_ARCHIVE_DIRECTORY)
+        : Paths.get(fileName + ARCHIVE_DIRECTORY_SUFFIX);
+  }
 
-      event.setTitle(title);
-      event.setSnippet(snippet);
-      event.setNumCards(numCards);
-      event.setNumQuestions(numQuestions);
-      event.setScore(score);
-      event.setFullNotesText(fullNotesText);
-      event.setFlashcardData(flashcardData);
-      event.setTestData(testData);
-      event.setEvaluationData(evaluationData);
+  private static BlobStore blobStoreFor(String logFile) {
+    return new BlobStore(Paths.get(logFile + BLOB_DIRECTORY_SUFFIX), BLOB_CACHE_BYTES);
+  }
 
-      return event;
+  private static Path legacyFileFor(String logFile) {
+    if (!logFile.endsWith(LOG_EXTENSION)) {
+      return null;
     }
+    return Paths.get(logFile.substring(0, logFile.length() - 1));
   }
 }
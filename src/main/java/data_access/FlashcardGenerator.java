@@ -16,4 +16,18 @@ public interface FlashcardGenerator {
    * @throws IOException if an I/O error occurs
    */
   FlashcardSet generateForCourse(String courseName, String content) throws IOException;
+
+  /**
+   * Generates new flashcards even if earlier ones for the same content
+   * could be reused. Generators that reuse nothing just generate.
+   *
+   * @param courseName the name of the course
+   * @param content the content to generate flashcards from
+   * @return a FlashcardSet containing the generated flashcards
+   * @throws IOException if an I/O error occurs
+   */
+  default FlashcardSet regenerateForCourse(String courseName, String content)
+      throws IOException {
+    return generateForCourse(courseName, content);
+  }
 }
@@ -15,7 +15,6 @@ import entities.PDFFile;
 import entities.TestData;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,6 +30,8 @@ public class GeminiApiDataAccess implements
     EvaluateTestDataAccessInterface,
     FlashcardGenerator {
 
+  private static final String MODEL = "gemini-2.5-flash";
+
   private final String apiKey;
   private final Client client;
   private final GenerateContentConfig generationConfig;
@@ -40,15 +41,43 @@ public class GeminiApiDataAccess implements
   private final String evaluationPrompt;
   private final String flashcardPrompt;
   private final Gson gson;
+  private final GeminiFileCache files;
+  private final CourseContextCache contexts;
+  private final String testGenerationKey;
+  private final String flashcardGenerationKey;
 
   /**
    * Constructs a GeminiApiDataAccess instance and initializes
-   * API client and configuration.
+   * API client and configuration. Course PDFs are sent inline.
    */
   public GeminiApiDataAccess() {
+    this(null);
+  }
+
+  /**
+   * Constructs a GeminiApiDataAccess instance that references course PDFs
+   * by their uploads instead of sending their bytes with every request.
+   *
+   * @param files the upload cache, or null to send PDFs inline
+   */
+  public GeminiApiDataAccess(GeminiFileCache files) {
+    this(files, null);
+  }
+
+  /**
+   * Constructs a GeminiApiDataAccess instance that sends course PDFs as a
+   * cached context shared by every request about the same materials,
+   * falling back to attaching them when they cannot be cached.
+   *
+   * @param files the upload cache, or null to send PDFs inline
+   * @param contexts the course context cache, or null to attach PDFs
+   */
+  public GeminiApiDataAccess(GeminiFileCache files, CourseContextCache contexts) {
+    this.files = files;
+    this.contexts = contexts;
     apiKey = System.getenv("GEMINI_API_KEY");
     client = Client.builder().apiKey(apiKey).build();
-    gson = new Gson();
+    gson = JsonAdapters.gson();
 
     // Test Generation Config
     ImmutableMap<String, Object> arrayOfStringSchema = ImmutableMap.of(
@@ -217,6 +246,30 @@ public class GeminiApiDataAccess implements
             "answers": []
         }
         """;
+
+    testGenerationKey = ResponseCache.key(MODEL, generationPrompt, mockTestSchema.toString());
+    flashcardGenerationKey = ResponseCache.key(MODEL, flashcardPrompt,
+        flashcardSchema.toString());
+  }
+
+  /**
+   * Identifies the model, prompt and config mock tests are generated with,
+   * for caching generated tests.
+   *
+   * @return a key that changes whenever any of them does
+   */
+  public String getTestGenerationKey() {
+    return testGenerationKey;
+  }
+
+  /**
+   * Identifies the model, prompt and config flashcards are generated with,
+   * for caching generated flashcards.
+   *
+   * @return a key that changes whenever any of them does
+   */
+  public String getFlashcardGenerationKey() {
+    return flashcardGenerationKey;
   }
 
   @Override
@@ -224,16 +277,12 @@ public class GeminiApiDataAccess implements
     List<Part> partsList = new ArrayList<>();
     partsList.add(Part.fromText(generationPrompt));
 
-    for (PDFFile pdfFile : courseMaterials) {
-      Path pdfPath = pdfFile.getPath();
-      byte[] pdfData = Files.readAllBytes(pdfPath);
-      partsList.add(Part.fromBytes(pdfData, "application/pdf"));
-    }
+    GenerateContentConfig config = attachMaterials(partsList,
+        pathsOf(courseMaterials), generationConfig);
 
     Content content = Content.fromParts(partsList.toArray(new Part[0]));
     GenerateContentResponse response =
-        client.models.generateContent("gemini-2.5-flash", content,
-            generationConfig);
+        client.models.generateContent(MODEL, content, config);
 
     return gson.fromJson(response.text(), TestData.class);
   }
@@ -256,15 +305,12 @@ public class GeminiApiDataAccess implements
     List<Part> partsList = new ArrayList<>();
     partsList.add(Part.fromText(evaluationPrompt));
     partsList.add(Part.fromText(qaBuilder.toString()));
-    for (PDFFile pdfFile : courseMaterials) {
-      byte[] pdfData = Files.readAllBytes(pdfFile.getPath());
-      partsList.add(Part.fromBytes(pdfData, "application/pdf"));
-    }
+    GenerateContentConfig config = attachMaterials(partsList,
+        pathsOf(courseMaterials), evaluationConfig);
 
     Content content = Content.fromParts(partsList.toArray(new Part[0]));
     GenerateContentResponse response =
-        client.models.generateContent("gemini-2.5-flash", content,
-            evaluationConfig);
+        client.models.generateContent(MODEL, content, config);
 
     EvaluationData result = gson.fromJson(response.text(),
         EvaluationData.class);
@@ -281,18 +327,17 @@ public class GeminiApiDataAccess implements
     List<Part> partsList = new ArrayList<>();
     partsList.add(Part.fromText(flashcardPrompt));
 
+    GenerateContentConfig config = flashcardConfig;
     File maybePdf = new File(contentInput);
     if (maybePdf.exists() && contentInput.toLowerCase().endsWith(".pdf")) {
-      byte[] pdfBytes = Files.readAllBytes(maybePdf.toPath());
-      partsList.add(Part.fromBytes(pdfBytes, "application/pdf"));
+      config = attachMaterials(partsList, List.of(maybePdf.toPath()), config);
     } else {
       partsList.add(Part.fromText(contentInput));
     }
 
     Content request = Content.fromParts(partsList.toArray(new Part[0]));
     GenerateContentResponse response =
-        client.models.generateContent("gemini-2.5-flash", request,
-            flashcardConfig);
+        client.models.generateContent(MODEL, request, config);
 
     FlashcardResponse parsed = gson.fromJson(response.text(),
         FlashcardResponse.class);
@@ -311,6 +356,36 @@ public class GeminiApiDataAccess implements
     return new FlashcardSet(courseName, flashcards);
   }
 
+  /**
+   * Adds course PDFs to a request: as a reference to their cached context
+   * when there is one, otherwise as parts.
+   *
+   * @param partsList the request's parts
+   * @param pdfs the PDFs
+   * @param config the request's config
+   * @return the config to send the request with
+   * @throws IOException if a PDF cannot be read
+   */
+  private GenerateContentConfig attachMaterials(List<Part> partsList,
+      List<Path> pdfs, GenerateContentConfig config) throws IOException {
+    String context = contexts == null ? null : contexts.contextFor(MODEL, pdfs);
+    if (context != null) {
+      return config.toBuilder().cachedContent(context).build();
+    }
+    for (Path pdf : pdfs) {
+      partsList.add(GenaiFileUploader.pdfPart(files, pdf));
+    }
+    return config;
+  }
+
+  private static List<Path> pathsOf(List<PDFFile> courseMaterials) {
+    List<Path> paths = new ArrayList<>();
+    for (PDFFile pdfFile : courseMaterials) {
+      paths.add(pdfFile.getPath());
+    }
+    return paths;
+  }
+
   /**
    * Helper class for deserializing flashcard response from Gemini API.
    */
@@ -0,0 +1,338 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which local files have already been uploaded to the Gemini
+ * Files API, so a request can reference a file by URI instead of sending
+ * its bytes again.
+ *
+ * <p>Uploads are keyed by the SHA-256 of the file's contents, so renamed
+ * or copied files share one upload. A file is only hashed again when its
+ * modification time or size changes. An upload is used until shortly
+ * before the Files API deletes it, then the file is uploaded again. The
+ * cache is saved to a JSON file after every change, so uploads survive a
+ * restart.
+ *
+ * <p>The cache's state is guarded by its monitor, which is never held
+ * during hashing or uploading. Concurrent requests for the same new upload
+ * share one future, so the file is uploaded once and only those requests
+ * wait for it.
+ */
+public final class GeminiFileCache {
+  /** How long the Files API keeps an upload that did not say. */
+  static final Duration DEFAULT_LIFETIME = Duration.ofHours(48);
+  /** How long before its expiry an upload stops being used. */
+  static final Duration EXPIRY_MARGIN = Duration.ofHours(1);
+
+  /**
+   * Uploads a file to the Files API.
+   */
+  public interface Uploader {
+    /**
+     * Uploads a file.
+     *
+     * @param file the local file
+     * @param mimeType the file's MIME type
+     * @return the uploaded file
+     * @throws IOException if the file cannot be read or uploaded
+     */
+    Handle upload(Path file, String mimeType) throws IOException;
+  }
+
+  /**
+   * A file uploaded to the Files API.
+   */
+  public static final class Handle {
+    private final String name;
+    private final String uri;
+    private final String mimeType;
+    private final Instant expiresAt;
+
+    /**
+     * Constructs a Handle.
+     *
+     * @param name the Files API name, e.g. "files/abc123", or null
+     * @param uri the URI requests reference the file by
+     * @param mimeType the file's MIME type
+     * @param expiresAt when the Files API deletes the file, or null if unknown
+     */
+    public Handle(String name, String uri, String mimeType, Instant expiresAt) {
+      this.name = name;
+      this.uri = uri;
+      this.mimeType = mimeType;
+      this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getUri() {
+      return uri;
+    }
+
+    public String getMimeType() {
+      return mimeType;
+    }
+
+    public Instant getExpiresAt() {
+      return expiresAt;
+    }
+  }
+
+  /**
+   * The cache file: uploads by content hash, and the last known hash of
+   * each local file.
+   */
+  private static final class CacheFile {
+    Map<String, StoredHandle> uploads = new TreeMap<>();
+    Map<String, StoredStamp> files = new TreeMap<>();
+  }
+
+  private static final class StoredHandle {
+    String name;
+    String uri;
+    String mimeType;
+    String expiresAt;
+  }
+
+  private static final class StoredStamp {
+    String sha256;
+    long lastModified;
+    long size;
+  }
+
+  private final Path file;
+  private final Uploader uploader;
+  private final Clock clock;
+  // Guarded by this
+  private CacheFile cache = new CacheFile();
+  private long uploads;
+  // Uploads in progress, by content hash and MIME type
+  private final Map<String, CompletableFuture<Handle>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a GeminiFileCache and loads the uploads saved in its file.
+   *
+   * @param file the JSON file the cache is saved to
+   * @param uploader uploads files the cache does not have
+   */
+  public GeminiFileCache(Path file, Uploader uploader) {
+    this(file, uploader, Clock.systemUTC());
+  }
+
+  /**
+   * Constructs a GeminiFileCache.
+   *
+   * @param file the JSON file the cache is saved to
+   * @param uploader uploads files the cache does not have
+   * @param clock the clock expiry is checked against
+   */
+  GeminiFileCache(Path file, Uploader uploader, Clock clock) {
+    this.file = file;
+    this.uploader = uploader;
+    this.clock = clock;
+    load();
+  }
+
+  /**
+   * Gets an upload of a file, uploading it if it has no upload that will
+   * outlive the request. Only callers needing the same new upload wait for
+   * each other; lookups of other files go ahead while it runs.
+   *
+   * @param path the local file
+   * @param mimeType the file's MIME type
+   * @return the upload
+   * @throws IOException if the file cannot be read or uploaded
+   */
+  public Handle handleFor(Path path, String mimeType) throws IOException {
+    String sha256 = hashOf(path);
+    Handle cached = cachedUpload(sha256, mimeType);
+    if (cached != null) {
+      return cached;
+    }
+    String uploadKey = sha256 + " " + mimeType;
+    CompletableFuture<Handle> upload = new CompletableFuture<>();
+    CompletableFuture<Handle> running = inFlight.putIfAbsent(uploadKey, upload);
+    if (running != null) {
+      return await(running);
+    }
+    Handle handle;
+    try {
+      // Another upload may have finished since the first check
+      handle = cachedUpload(sha256, mimeType);
+      if (handle == null) {
+        handle = record(sha256, mimeType, uploader.upload(path, mimeType));
+      }
+    } catch (IOException | RuntimeException e) {
+      inFlight.remove(uploadKey, upload);
+      upload.completeExceptionally(e);
+      throw e;
+    }
+    inFlight.remove(uploadKey, upload);
+    upload.complete(handle);
+    return handle;
+  }
+
+  private synchronized Handle cachedUpload(String sha256, String mimeType) {
+    StoredHandle stored = cache.uploads.get(sha256);
+    if (stored == null || !usable(stored, clock.instant())
+        || !mimeType.equals(stored.mimeType)) {
+      return null;
+    }
+    return toHandle(stored);
+  }
+
+  /**
+   * Waits for another caller's upload of the same file.
+   *
+   * @param upload the upload in progress
+   * @return the upload
+   * @throws IOException if that upload failed
+   */
+  private static Handle await(CompletableFuture<Handle> upload) throws IOException {
+    try {
+      return upload.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e.getCause() instanceof RuntimeException
+          ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  /**
+   * Gets the SHA-256 of a file, hashing it only if its modification time or
+   * size changed since it was last hashed. The hashing runs unlocked.
+   *
+   * @param path the local file
+   * @return the hex SHA-256 of its contents
+   * @throws IOException if the file cannot be read
+   */
+  private String hashOf(Path path) throws IOException {
+    String key = path.toAbsolutePath().normalize().toString();
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    synchronized (this) {
+      StoredStamp stamp = cache.files.get(key);
+      if (stamp != null && stamp.lastModified == lastModified
+          && stamp.size == attributes.size()) {
+        return stamp.sha256;
+      }
+    }
+    StoredStamp stamp = new StoredStamp();
+    stamp.sha256 = FileHashes.sha256Of(path);
+    stamp.lastModified = lastModified;
+    stamp.size = attributes.size();
+    synchronized (this) {
+      cache.files.put(key, stamp);
+      save();
+    }
+    return stamp.sha256;
+  }
+
+  /**
+   * Stores a new upload and saves the cache.
+   *
+   * @param sha256 the uploaded contents' SHA-256
+   * @param mimeType the MIME type the file was uploaded as
+   * @param uploaded what the uploader returned
+   * @return the stored upload
+   */
+  private synchronized Handle record(String sha256, String mimeType, Handle uploaded) {
+    Instant now = clock.instant();
+    uploads++;
+    StoredHandle stored = new StoredHandle();
+    stored.name = uploaded.getName();
+    stored.uri = uploaded.getUri();
+    stored.mimeType = uploaded.getMimeType() != null ? uploaded.getMimeType() : mimeType;
+    Instant expiresAt = uploaded.getExpiresAt() != null
+        ? uploaded.getExpiresAt() : now.plus(DEFAULT_LIFETIME);
+    stored.expiresAt = expiresAt.toString();
+    cache.uploads.put(sha256, stored);
+    // Expired uploads are gone from the Files API, so drop them as well
+    cache.uploads.values().removeIf(upload -> !usable(upload, now));
+    save();
+    return toHandle(stored);
+  }
+
+  private static Handle toHandle(StoredHandle stored) {
+    return new Handle(stored.name, stored.uri, stored.mimeType,
+        Instant.parse(stored.expiresAt));
+  }
+
+  /**
+   * Gets the number of uploads this cache has made since it was created.
+   *
+   * @return the number of uploads
+   */
+  public synchronized long getUploads() {
+    return uploads;
+  }
+
+  private static boolean usable(StoredHandle upload, Instant now) {
+    try {
+      return upload.uri != null
+          && Instant.parse(upload.expiresAt).minus(EXPIRY_MARGIN).isAfter(now);
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  private void load() {
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      CacheFile read = JsonAdapters.prettyGson().fromJson(reader, CacheFile.class);
+      if (read != null && read.uploads != null && read.files != null) {
+        cache = read;
+      }
+    } catch (IOException | RuntimeException e) {
+      // Starting empty only costs one upload per file
+      System.err.println("Error loading Gemini file cache: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Writes the cache to a temporary file and renames it into place.
+   */
+  private void save() {
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        JsonAdapters.prettyGson().toJson(cache, writer);
+      }
+      try {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      System.err.println("Error saving Gemini file cache: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package data_access;
+
+import com.google.genai.Client;
+import com.google.genai.errors.ClientException;
+import com.google.genai.types.CachedContent;
+import com.google.genai.types.Content;
+import com.google.genai.types.CreateCachedContentConfig;
+import com.google.genai.types.Part;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates course contexts as Gemini cached-content resources. The PDFs
+ * are attached through the upload cache when there is one. The client is
+ * created on first use, so the API key only has to be set by then.
+ */
+public final class GenaiContextCreator implements CourseContextCache.Creator {
+  private static final int REQUEST_TIMEOUT = 408;
+  private static final int RATE_LIMITED = 429;
+
+  private final GeminiFileCache files;
+  private Client client;
+
+  /**
+   * Constructs a GenaiContextCreator.
+   *
+   * @param files the upload cache, or null to send PDFs inline
+   */
+  public GenaiContextCreator(GeminiFileCache files) {
+    this.files = files;
+  }
+
+  @Override
+  public CourseContextCache.Context create(String model, List<Path> materials,
+      Duration timeToLive) throws IOException {
+    List<Part> parts = new ArrayList<>();
+    for (Path material : materials) {
+      parts.add(GenaiFileUploader.pdfPart(files, material));
+    }
+    CachedContent cached;
+    try {
+      cached = client().caches.create(model, CreateCachedContentConfig.builder()
+          .contents(Content.fromParts(parts.toArray(new Part[0])))
+          .ttl(timeToLive)
+          .displayName("course materials")
+          .build());
+    } catch (ClientException e) {
+      if (e.code() == RATE_LIMITED || e.code() == REQUEST_TIMEOUT) {
+        throw new IOException("Failed to cache course materials: " + e.getMessage(), e);
+      }
+      // The request itself was rejected, e.g. too few tokens to cache
+      throw new CourseContextCache.RefusedException(
+          "Gemini refused to cache course materials: " + e.getMessage(), e);
+    } catch (RuntimeException e) {
+      throw new IOException("Failed to cache course materials: " + e.getMessage(), e);
+    }
+    String name = cached.name().orElseThrow(
+        () -> new IOException("Gemini returned no name for the cached materials"));
+    return new CourseContextCache.Context(name, cached.expireTime().orElse(null));
+  }
+
+  @Override
+  public void delete(String name) throws IOException {
+    try {
+      client().caches.delete(name, null);
+    } catch (RuntimeException e) {
+      throw new IOException("Failed to delete " + name + ": " + e.getMessage(), e);
+    }
+  }
+
+  private synchronized Client client() {
+    if (client == null) {
+      client = Client.builder().apiKey(System.getenv("GEMINI_API_KEY")).build();
+    }
+    return client;
+  }
+}
@@ -0,0 +1,64 @@
+package data_access;
+
+import com.google.genai.Client;
+import com.google.genai.types.File;
+import com.google.genai.types.Part;
+import com.google.genai.types.UploadFileConfig;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Uploads files through the Gemini Files API. The client is created on the
+ * first upload, so the API key only has to be set by then.
+ */
+public final class GenaiFileUploader implements GeminiFileCache.Uploader {
+  private static final String PDF_MIME_TYPE = "application/pdf";
+
+  private Client client;
+
+  @Override
+  public GeminiFileCache.Handle upload(Path file, String mimeType) throws IOException {
+    File uploaded;
+    try {
+      uploaded = client().files.upload(file.toString(), UploadFileConfig.builder()
+          .mimeType(mimeType)
+          .displayName(file.getFileName().toString())
+          .build());
+    } catch (RuntimeException e) {
+      throw new IOException("Failed to upload " + file.getFileName() + ": " + e.getMessage(), e);
+    }
+    String uri = uploaded.uri().orElseThrow(
+        () -> new IOException("The Files API returned no URI for " + file.getFileName()));
+    return new GeminiFileCache.Handle(uploaded.name().orElse(null), uri,
+        uploaded.mimeType().orElse(mimeType), uploaded.expirationTime().orElse(null));
+  }
+
+  /**
+   * Builds the request part for a course PDF: a reference to its upload,
+   * or the PDF's bytes if it cannot be uploaded.
+   *
+   * @param files the upload cache, or null to always send bytes
+   * @param pdf the PDF file
+   * @return the part
+   * @throws IOException if the PDF cannot be read
+   */
+  static Part pdfPart(GeminiFileCache files, Path pdf) throws IOException {
+    if (files != null) {
+      try {
+        GeminiFileCache.Handle handle = files.handleFor(pdf, PDF_MIME_TYPE);
+        return Part.fromUri(handle.getUri(), handle.getMimeType());
+      } catch (IOException e) {
+        System.err.println("Sending " + pdf.getFileName() + " inline: " + e.getMessage());
+      }
+    }
+    return Part.fromBytes(Files.readAllBytes(pdf), PDF_MIME_TYPE);
+  }
+
+  private synchronized Client client() {
+    if (client == null) {
+      client = Client.builder().apiKey(System.getenv("GEMINI_API_KEY")).build();
+    }
+    return client;
+  }
+}
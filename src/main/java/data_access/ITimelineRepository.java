@@ -1,13 +1,23 @@
 package data_access;
 
+import entities.CourseStats;
 import entities.TimelineEvent;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Repository interface for timeline event data access operations.
  */
 public interface ITimelineRepository {
+  /**
+   * Cursor that starts a paginated query at the newest event.
+   */
+  long NEWEST = Long.MAX_VALUE;
+
   /**
    * Saves a timeline event.
    *
@@ -15,6 +25,42 @@ public interface ITimelineRepository {
    */
   void save(TimelineEvent event);
 
+  /**
+   * Saves several timeline events in order. Implementations that write to
+   * disk should persist the whole batch with a single write.
+   *
+   * @param events the timeline events to save, oldest first
+   */
+  default void saveAll(List<TimelineEvent> events) {
+    for (TimelineEvent event : events) {
+      save(event);
+    }
+  }
+
+  /**
+   * Deletes a timeline event. Payloads it shared with other events stay
+   * stored; repositories that keep payloads on disk free the rest once
+   * nothing references them.
+   *
+   * @param event an event returned by this repository
+   * @return true if the event was found and deleted
+   */
+  boolean delete(TimelineEvent event);
+
+  /**
+   * Waits until every event saved before this call has been persisted.
+   * Repositories that save synchronously return at once.
+   */
+  default void flush() {
+  }
+
+  /**
+   * Persists pending events and releases any resources, such as a
+   * background writer thread. Repositories without such resources do nothing.
+   */
+  default void close() {
+  }
+
   /**
    * Finds timeline events for a course, ordered by newest first.
    *
@@ -22,4 +68,155 @@ public interface ITimelineRepository {
    * @return a list of timeline events, newest first
    */
   List<TimelineEvent> findByCourseNewestFirst(UUID courseId);
+
+  /**
+   * Finds one page of timeline events for a course, ordered by newest first.
+   * Pass {@link #NEWEST} for the first page and
+   * {@link TimelinePage#getNextCursor()} for each following page.
+   *
+   * <p>Cursors are based on when events occurred, not on their position, so
+   * paging continues where it left off while the history changes. Events
+   * that share an instant are never split across pages.
+   *
+   * <p>This default copies the whole history; implementations that keep
+   * events in memory should walk them in place instead.
+   *
+   * @param courseId the course UUID
+   * @param beforeCursor only events that occurred before this cursor are
+   *     returned
+   * @param limit the most events to return
+   * @return the page
+   * @throws IllegalArgumentException if limit is not positive
+   */
+  default TimelinePage findByCourse(UUID courseId, long beforeCursor, int limit) {
+    List<TimelineEvent> history = findByCourseNewestFirst(courseId);
+    TimelineIndex index = new TimelineIndex();
+    for (int i = history.size() - 1; i >= 0; i--) {
+      index.add(history.get(i));
+    }
+    return index.page(beforeCursor, limit);
+  }
+
+  /**
+   * Iterates a course's timeline events newest first, fetching them through
+   * {@link #findByCourse(UUID, long, int)} a page at a time as the iterator
+   * advances.
+   *
+   * @param courseId the course UUID
+   * @param batchSize the most events fetched at a time
+   * @return an iterator over the events, newest first
+   * @throws IllegalArgumentException if batchSize is not positive
+   */
+  default Iterator<TimelineEvent> iterateNewestFirst(UUID courseId, int batchSize) {
+    return TimelineFeed.newestFirst(this, courseId, batchSize);
+  }
+
+  /**
+   * Lists the courses that have timeline events, including stored courses
+   * whose events have not been read yet.
+   *
+   * <p>This default lists none; repositories that cannot enumerate their
+   * courses leave the all-courses feed empty.
+   *
+   * @return the course UUIDs
+   */
+  default Set<UUID> findCourseIds() {
+    return Set.of();
+  }
+
+  /**
+   * Finds the newest timeline events of a course that match a query,
+   * ordered by occurredAt, newest first.
+   *
+   * <p>This default filters the whole history; implementations that keep
+   * events in memory should answer from an index instead.
+   *
+   * @param courseId the course UUID
+   * @param query the type and time filter and result limit
+   * @return the matching events, newest first
+   */
+  default List<TimelineEvent> findByCourse(UUID courseId, TimelineQuery query) {
+    return findByCourseNewestFirst(courseId).stream()
+        .filter(query::matches)
+        .sorted(Comparator.comparing(TimelineEvent::getOccurredAt).reversed())
+        .limit(query.getLimit())
+        .toList();
+  }
+
+  /**
+   * Finds the events whose text best matches a query, across all courses:
+   * the title and text of notes, flashcard questions and answers, and quiz
+   * questions, ranked with BM25.
+   *
+   * <p>This default indexes the whole history on every call;
+   * {@link SearchIndexingTimelineRepository} keeps a persistent index
+   * instead.
+   *
+   * @param query the words to search for
+   * @param limit the most hits to return
+   * @return the hits, best first; empty if the query has no searchable words
+   * @throws IllegalArgumentException if limit is not positive
+   */
+  default List<TimelineSearchHit> search(String query, int limit) {
+    TimelineSearchIndex index = new TimelineSearchIndex();
+    SearchIndexingTimelineRepository.indexAll(this, index);
+    return SearchIndexingTimelineRepository.resolve(this, index.search(query, limit));
+  }
+
+  /**
+   * Tells whether {@link #search(String, int)} covers every stored event.
+   * It is false while a search index is still being built, when older
+   * events may be missing from the hits.
+   *
+   * @return true if search results are complete
+   */
+  default boolean isSearchComplete() {
+    return true;
+  }
+
+  /**
+   * Moves old history out of the live timeline, as a retention policy
+   * says. Decorators pass the run on and update what they derive from the
+   * events it archived.
+   *
+   * <p>This default keeps everything, for repositories without an archive.
+   *
+   * @param policy how long events and payloads stay live
+   * @param now the current time
+   * @return what the run did
+   */
+  default RetentionReport applyRetention(TimelineRetentionPolicy policy, Instant now) {
+    return RetentionReport.NOTHING;
+  }
+
+  /**
+   * Reads the events of a course that retention removed from the live
+   * timeline. Meant to be called on demand, since it reads the archive.
+   *
+   * <p>This default finds nothing, for repositories without an archive.
+   *
+   * @param courseId the course UUID
+   * @return the archived events, newest first, with their payloads
+   */
+  default List<TimelineEvent> findArchivedByCourse(UUID courseId) {
+    return List.of();
+  }
+
+  /**
+   * Gets the study statistics of a course.
+   *
+   * <p>This default aggregates the whole history on every call;
+   * {@link StatsTrackingTimelineRepository} keeps them up to date instead.
+   *
+   * @param courseId the course UUID
+   * @return a snapshot of the statistics, empty if the course has no events
+   */
+  default CourseStats getStats(UUID courseId) {
+    List<TimelineEvent> history = findByCourseNewestFirst(courseId);
+    CourseStats stats = new CourseStats(courseId);
+    for (int i = history.size() - 1; i >= 0; i--) {
+      stats.add(history.get(i));
+    }
+    return stats;
+  }
 }
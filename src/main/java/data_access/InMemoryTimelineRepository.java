@@ -4,8 +4,10 @@ import entities.TimelineEvent;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -15,11 +17,23 @@ import java.util.UUID;
  */
 public class InMemoryTimelineRepository implements ITimelineRepository {
   private final Map<UUID, List<TimelineEvent>> byCourse = new HashMap<>();
+  private final Map<UUID, TimelineIndex> indexes = new HashMap<>();
 
   @Override
   public synchronized void save(TimelineEvent event) {
     byCourse.computeIfAbsent(event.getCourseId(), k -> new ArrayList<>())
         .add(event);
+    indexes.computeIfAbsent(event.getCourseId(), k -> new TimelineIndex()).add(event);
+  }
+
+  @Override
+  public synchronized boolean delete(TimelineEvent event) {
+    List<TimelineEvent> events = byCourse.get(event.getCourseId());
+    if (events == null || !events.removeIf(e -> e == event)) {
+      return false;
+    }
+    indexes.get(event.getCourseId()).remove(event);
+    return true;
   }
 
   @Override
@@ -31,4 +45,23 @@ public class InMemoryTimelineRepository implements ITimelineRepository {
     Collections.reverse(out);
     return out;
   }
+
+  @Override
+  public synchronized TimelinePage findByCourse(UUID courseId, long beforeCursor,
+      int limit) {
+    TimelineIndex index = indexes.get(courseId);
+    return index == null
+        ? new TimelinePage(List.of(), TimelinePage.END) : index.page(beforeCursor, limit);
+  }
+
+  @Override
+  public synchronized List<TimelineEvent> findByCourse(UUID courseId, TimelineQuery query) {
+    TimelineIndex index = indexes.get(courseId);
+    return index == null ? List.of() : index.query(query);
+  }
+
+  @Override
+  public synchronized Set<UUID> findCourseIds() {
+    return new HashSet<>(byCourse.keySet());
+  }
 }
@@ -0,0 +1,503 @@
+package data_access;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import entities.Course;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Course storage that appends one small record per mutation to a journal
+ * next to the snapshot file, instead of rewriting the whole catalog.
+ *
+ * <p>The journal holds one JSON object per line: either
+ * {@code {"op":"put","course":{...}}} or {@code {"op":"delete","courseId":...}}.
+ * Both are idempotent, so replaying a record that is already part of the
+ * snapshot is harmless. That is what makes compaction crash-safe: the
+ * journal is first renamed to a ".old" segment, a new snapshot is built
+ * from the old snapshot plus that segment on a background thread, and only
+ * then is the segment deleted. Startup replays the
+ * snapshot, any leftover segment and the journal, in that order. A record
+ * cut short by a crash is detected by its missing line terminator and
+ * truncated away.
+ */
+class JournaledCourseStorage implements CourseStorage {
+  static final long DEFAULT_COMPACTION_THRESHOLD = 256 * 1024;
+
+  private final Path snapshotFile;
+  private final Path journalFile;
+  private final Path compactingFile;
+  private final long compactionThreshold;
+  private final Object journalLock = new Object();
+  private final Object compactionLock = new Object();
+  private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+  private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "course-journal-compactor");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // Guarded by journalLock
+  private FileChannel journal;
+  private long journalSize;
+
+  private volatile FileStamp snapshotStamp;
+  private volatile FileStamp journalStamp;
+
+  /**
+   * Constructs a JournaledCourseStorage with the default compaction threshold.
+   *
+   * @param snapshotFile the JSON snapshot file; the journal lives next to it
+   */
+  JournaledCourseStorage(Path snapshotFile) {
+    this(snapshotFile, DEFAULT_COMPACTION_THRESHOLD);
+  }
+
+  /**
+   * Constructs a JournaledCourseStorage.
+   *
+   * @param snapshotFile the JSON snapshot file; the journal lives next to it
+   * @param compactionThreshold journal size in bytes that triggers compaction
+   */
+  JournaledCourseStorage(Path snapshotFile, long compactionThreshold) {
+    this.snapshotFile = snapshotFile;
+    this.journalFile = Path.of(snapshotFile + ".journal");
+    this.compactingFile = Path.of(snapshotFile + ".journal.old");
+    this.compactionThreshold = compactionThreshold;
+  }
+
+  @Override
+  public void attach(Supplier<List<Course>> currentCourses) {
+    // Not needed: compaction rebuilds the snapshot from the files
+  }
+
+  @Override
+  public List<Course> load() {
+    Map<String, Course> courses = new LinkedHashMap<>();
+    boolean leftoverSegment;
+    synchronized (compactionLock) {
+      synchronized (journalLock) {
+        closeJournal();
+        snapshotStamp = FileStamp.of(snapshotFile);
+        readSnapshot(courses);
+        leftoverSegment = Files.exists(compactingFile);
+        if (leftoverSegment) {
+          // Cut a torn tail off now, so later records are not appended after it
+          truncate(compactingFile, replay(compactingFile, courses));
+        }
+        long validLength = replay(journalFile, courses);
+        openJournal(validLength);
+      }
+    }
+    if (leftoverSegment) {
+      // A previous compaction was interrupted; finish folding it in
+      scheduleCompaction();
+    }
+    return new ArrayList<>(courses.values());
+  }
+
+  @Override
+  public List<Course> loadPage(int offset, int limit) {
+    synchronized (compactionLock) {
+      boolean journalEmpty;
+      synchronized (journalLock) {
+        journalEmpty = journalBytes() == 0 && !Files.exists(compactingFile);
+      }
+      if (journalEmpty) {
+        // The snapshot is authoritative, so it can be streamed page-wise
+        try {
+          return CourseJsonCodec.readPage(snapshotFile, offset, limit);
+        } catch (Exception e) {
+          System.err.println("Error reading course snapshot: " + e.getMessage());
+          return new ArrayList<>();
+        }
+      }
+      // Any journal record may touch any course; fold everything first
+      Map<String, Course> courses = new LinkedHashMap<>();
+      readSnapshot(courses);
+      replay(compactingFile, courses);
+      replay(journalFile, courses);
+      List<Course> all = new ArrayList<>(courses.values());
+      int from = Math.min(offset, all.size());
+      int to = (int) Math.min((long) from + limit, all.size());
+      return new ArrayList<>(all.subList(from, to));
+    }
+  }
+
+  @Override
+  public void savePut(Course course) {
+    StringWriter line = new StringWriter();
+    try {
+      JsonWriter writer = new JsonWriter(line);
+      writer.beginObject();
+      writer.name("op").value("put");
+      writer.name("course");
+      CourseJsonCodec.writeCourse(writer, course);
+      writer.endObject();
+      writer.flush();
+    } catch (IOException e) {
+      e.printStackTrace();
+      return;
+    }
+    append(line.toString());
+  }
+
+  @Override
+  public void saveDelete(String courseId) {
+    StringWriter line = new StringWriter();
+    try {
+      JsonWriter writer = new JsonWriter(line);
+      writer.beginObject();
+      writer.name("op").value("delete");
+      writer.name("courseId").value(courseId);
+      writer.endObject();
+      writer.flush();
+    } catch (IOException e) {
+      e.printStackTrace();
+      return;
+    }
+    append(line.toString());
+  }
+
+  @Override
+  public boolean hasChangedOnDisk() {
+    return !FileStamp.of(snapshotFile).equals(snapshotStamp)
+        || !FileStamp.of(journalFile).equals(journalStamp);
+  }
+
+  /**
+   * Folds the journal into the snapshot right away, on the calling thread.
+   * The new snapshot is rebuilt from the files alone, so compaction never
+   * has to coordinate with the repository's in-memory state.
+   */
+  void compactNow() {
+    synchronized (compactionLock) {
+      synchronized (journalLock) {
+        if (!rotateJournal()) {
+          return;
+        }
+      }
+      Map<String, Course> courses = new LinkedHashMap<>();
+      if (!readSnapshot(courses)) {
+        // Never replace a snapshot we could not read; keep the segment
+        return;
+      }
+      replay(compactingFile, courses);
+      if (writeSnapshot(new ArrayList<>(courses.values()))) {
+        try {
+          Files.deleteIfExists(compactingFile);
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of bytes currently in the journal.
+   *
+   * @return the journal size
+   */
+  long journalSize() {
+    synchronized (journalLock) {
+      return journalSize;
+    }
+  }
+
+  private void append(String record) {
+    byte[] line = (record + "\n").getBytes(StandardCharsets.UTF_8);
+    boolean overThreshold;
+    synchronized (journalLock) {
+      try {
+        if (journal == null) {
+          openJournal(-1);
+        }
+        if (journal == null) {
+          return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+          journal.write(buffer);
+        }
+        journalSize += line.length;
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+      journalStamp = FileStamp.of(journalFile);
+      overThreshold = journalSize >= compactionThreshold;
+    }
+    if (overThreshold) {
+      scheduleCompaction();
+    }
+  }
+
+  private void scheduleCompaction() {
+    if (!compactionScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    compactor.execute(() -> {
+      try {
+        compactNow();
+      } finally {
+        compactionScheduled.set(false);
+      }
+      // Appends that raced with this run may already need another one
+      if (journalSize() >= compactionThreshold) {
+        scheduleCompaction();
+      }
+    });
+  }
+
+  /**
+   * Moves the journal's contents into the ".old" segment and starts an
+   * empty journal. Must hold journalLock.
+   *
+   * @return false if there was nothing to compact
+   */
+  private boolean rotateJournal() {
+    try {
+      if (journalBytes() == 0 && !Files.exists(compactingFile)) {
+        return false;
+      }
+      closeJournal();
+      if (Files.exists(compactingFile)) {
+        // An earlier segment is still waiting; add this journal to it in a
+        // new file renamed into place, so a crash leaves either segment whole.
+        // Records in both after a crash are replayed twice, which is harmless
+        if (Files.exists(journalFile)) {
+          Path merged = Path.of(compactingFile + ".tmp");
+          try (FileChannel out = FileChannel.open(merged, StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, Files.readAllBytes(compactingFile));
+            writeFully(out, Files.readAllBytes(journalFile));
+            out.force(true);
+          }
+          Files.move(merged, compactingFile, StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+          Files.delete(journalFile);
+        }
+      } else if (Files.exists(journalFile)) {
+        Files.move(journalFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+      }
+      openJournal(0);
+      return true;
+    } catch (IOException e) {
+      e.printStackTrace();
+      openJournal(-1);
+      return false;
+    }
+  }
+
+  /**
+   * Writes the snapshot to a temporary file and renames it into place.
+   * Must hold compactionLock.
+   *
+   * @param courses the full catalog
+   * @return true if the new snapshot is in place
+   */
+  private boolean writeSnapshot(List<Course> courses) {
+    try {
+      CourseJsonCodec.writeArrayAtomically(snapshotFile, courses);
+      snapshotStamp = FileStamp.of(snapshotFile);
+      return true;
+    } catch (IOException e) {
+      System.err.println("Error compacting course journal: " + e.getMessage());
+      e.printStackTrace();
+      return false;
+    }
+  }
+
+  /**
+   * Reads the snapshot file into the catalog.
+   *
+   * @param courses the catalog to fill
+   * @return false if the snapshot exists but could not be read
+   */
+  private boolean readSnapshot(Map<String, Course> courses) {
+    try (Reader in = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+      CourseJsonCodec.readArray(in, course -> {
+        courses.put(course.getCourseId(), course);
+        return true;
+      });
+      return true;
+    } catch (NoSuchFileException e) {
+      // No snapshot yet, start with an empty catalog
+      return true;
+    } catch (Exception e) {
+      System.err.println("Error reading course snapshot: " + e.getMessage());
+      e.printStackTrace();
+      return false;
+    }
+  }
+
+  /**
+   * Applies every complete record of a journal file to the catalog.
+   * Replay stops at the first record that is cut short or unreadable.
+   *
+   * @param file the journal or segment to replay
+   * @param courses the catalog to update
+   * @return the length of the valid prefix of the file
+   */
+  private long replay(Path file, Map<String, Course> courses) {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file);
+    } catch (NoSuchFileException e) {
+      return 0;
+    } catch (IOException e) {
+      e.printStackTrace();
+      return 0;
+    }
+
+    int start = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] != '\n') {
+        continue;
+      }
+      String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+      try {
+        applyRecord(new JsonReader(new StringReader(line)), courses);
+      } catch (Exception e) {
+        System.err.println("Stopping course journal replay at a bad record in "
+            + file + ": " + e.getMessage());
+        return start;
+      }
+      start = i + 1;
+    }
+    if (start < bytes.length) {
+      System.err.println("Discarding incomplete trailing record in " + file);
+    }
+    return start;
+  }
+
+  private void applyRecord(JsonReader reader, Map<String, Course> courses)
+      throws IOException {
+    String op = null;
+    String courseId = null;
+    Course course = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "op":
+          op = reader.nextString();
+          break;
+        case "courseId":
+          courseId = reader.nextString();
+          break;
+        case "course":
+          course = CourseJsonCodec.readCourse(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if ("put".equals(op) && course != null) {
+      courses.put(course.getCourseId(), course);
+    } else if ("delete".equals(op) && courseId != null) {
+      courses.remove(courseId);
+    } else {
+      throw new IOException("malformed journal record, op " + op);
+    }
+  }
+
+  /**
+   * Returns how many bytes the journal holds. The counter only tracks an
+   * open journal, so before the first load the file itself is measured.
+   * Must hold journalLock.
+   *
+   * @return the journal size, or 1 if it cannot be measured
+   */
+  private long journalBytes() {
+    if (journal != null) {
+      return journalSize;
+    }
+    try {
+      return Files.size(journalFile);
+    } catch (NoSuchFileException e) {
+      return 0;
+    } catch (IOException e) {
+      // Unknown, so assume there are records to fold in
+      return 1;
+    }
+  }
+
+  /**
+   * Opens the journal for appending. Must hold journalLock.
+   *
+   * @param validLength length to truncate the journal to, or -1 to keep it
+   */
+  private void openJournal(long validLength) {
+    try {
+      journal = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE);
+      if (validLength >= 0 && journal.size() > validLength) {
+        journal.truncate(validLength);
+      }
+      journalSize = journal.size();
+      journal.position(journalSize);
+    } catch (IOException e) {
+      System.err.println("Error opening course journal: " + e.getMessage());
+      e.printStackTrace();
+      journal = null;
+      journalSize = 0;
+    }
+    journalStamp = FileStamp.of(journalFile);
+  }
+
+  /**
+   * Cuts a file back to the valid length of its records.
+   *
+   * @param file the file
+   * @param validLength the length to keep
+   */
+  private static void truncate(Path file, long validLength) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      if (channel.size() > validLength) {
+        channel.truncate(validLength);
+        channel.force(true);
+      }
+    } catch (IOException e) {
+      System.err.println("Error truncating course journal segment: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private void closeJournal() {
+    if (journal == null) {
+      return;
+    }
+    try {
+      journal.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    journal = null;
+  }
+}
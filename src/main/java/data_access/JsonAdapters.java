@@ -0,0 +1,475 @@
+package data_access;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import entities.EvaluationData;
+import entities.Flashcard;
+import entities.FlashcardSet;
+import entities.TestData;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import usecases.evaluate_test.EvaluateTestOutputData;
+import usecases.mock_test_generation.MockTestGenerationOutputData;
+
+/**
+ * The application's shared Gson instance, with hand-written streaming
+ * adapters for the payload types that are parsed and written most often:
+ * Gemini responses and the test, evaluation and flashcard data stored in
+ * the timeline.
+ *
+ * <p>The adapters read and write the same JSON as Gson's reflective binding
+ * did: the same field names and order, nulls omitted on write, unknown
+ * fields ignored on read. They avoid reflection and the per-call lookups
+ * it brings, and build each object directly through its constructor.
+ */
+public final class JsonAdapters {
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(TestData.class, new TestDataAdapter().nullSafe())
+      .registerTypeAdapter(EvaluationData.class, new EvaluationDataAdapter().nullSafe())
+      .registerTypeAdapter(Flashcard.class, new FlashcardAdapter().nullSafe())
+      .registerTypeAdapter(FlashcardSet.class, new FlashcardSetAdapter().nullSafe())
+      .registerTypeAdapter(MockTestGenerationOutputData.class,
+          new MockTestOutputAdapter().nullSafe())
+      .registerTypeAdapter(EvaluateTestOutputData.class,
+          new EvaluateTestOutputAdapter().nullSafe())
+      .create();
+
+  // For files people may open, such as caches and manifests
+  private static final Gson PRETTY_GSON = GSON.newBuilder().setPrettyPrinting().create();
+
+  private JsonAdapters() {
+  }
+
+  /**
+   * Gets the shared Gson instance. It is thread-safe; use it instead of
+   * creating new Gson objects.
+   *
+   * @return the shared instance
+   */
+  public static Gson gson() {
+    return GSON;
+  }
+
+  /**
+   * Gets the shared instance that writes indented JSON, for files people
+   * may read, such as caches and manifests. It reads the same JSON as
+   * {@link #gson()}.
+   *
+   * @return the shared pretty-printing instance
+   */
+  public static Gson prettyGson() {
+    return PRETTY_GSON;
+  }
+
+  /**
+   * Reads a string the way Gson's built-in adapter does, accepting numbers
+   * and booleans as text.
+   *
+   * @param in the reader, positioned at the value
+   * @return the string, or null for a JSON null
+   * @throws IOException if the value cannot be read
+   */
+  static String readString(JsonReader in) throws IOException {
+    JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(in.nextBoolean());
+    }
+    return in.nextString();
+  }
+
+  /**
+   * Reads an array of strings.
+   *
+   * @param in the reader, positioned at the array
+   * @return the strings, or null for a JSON null
+   * @throws IOException if the value cannot be read
+   */
+  static List<String> readStringList(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    List<String> list = new ArrayList<>();
+    in.beginArray();
+    while (in.hasNext()) {
+      list.add(readString(in));
+    }
+    in.endArray();
+    return list;
+  }
+
+  /**
+   * Reads an array of string arrays.
+   *
+   * @param in the reader, positioned at the outer array
+   * @return the lists, or null for a JSON null
+   * @throws IOException if the value cannot be read
+   */
+  static List<List<String>> readStringLists(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    List<List<String>> lists = new ArrayList<>();
+    in.beginArray();
+    while (in.hasNext()) {
+      lists.add(readStringList(in));
+    }
+    in.endArray();
+    return lists;
+  }
+
+  /**
+   * Writes a named string field unless the value is null.
+   *
+   * @param out the writer
+   * @param name the field name
+   * @param value the value
+   * @throws IOException if writing fails
+   */
+  static void writeString(JsonWriter out, String name, String value) throws IOException {
+    if (value != null) {
+      out.name(name).value(value);
+    }
+  }
+
+  /**
+   * Writes a named string array field unless the list is null.
+   *
+   * @param out the writer
+   * @param name the field name
+   * @param list the strings
+   * @throws IOException if writing fails
+   */
+  static void writeStringList(JsonWriter out, String name, List<String> list)
+      throws IOException {
+    if (list != null) {
+      out.name(name);
+      writeStrings(out, list);
+    }
+  }
+
+  /**
+   * Writes a named field holding an array of string arrays unless the list
+   * is null.
+   *
+   * @param out the writer
+   * @param name the field name
+   * @param lists the lists
+   * @throws IOException if writing fails
+   */
+  static void writeStringLists(JsonWriter out, String name, List<List<String>> lists)
+      throws IOException {
+    if (lists != null) {
+      out.name(name).beginArray();
+      for (List<String> list : lists) {
+        if (list == null) {
+          out.nullValue();
+        } else {
+          writeStrings(out, list);
+        }
+      }
+      out.endArray();
+    }
+  }
+
+  private static void writeStrings(JsonWriter out, List<String> list) throws IOException {
+    out.beginArray();
+    for (String value : list) {
+      out.value(value);
+    }
+    out.endArray();
+  }
+
+  private static final class TestDataAdapter extends TypeAdapter<TestData> {
+    @Override
+    public void write(JsonWriter out, TestData value) throws IOException {
+      out.beginObject();
+      writeStringList(out, "questions", value.getQuestions());
+      writeStringList(out, "answers", value.getAnswers());
+      writeStringList(out, "questionTypes", value.getQuestionTypes());
+      writeStringLists(out, "choices", value.getChoices());
+      out.endObject();
+    }
+
+    @Override
+    public TestData read(JsonReader in) throws IOException {
+      List<String> questions = null;
+      List<String> answers = null;
+      List<String> questionTypes = null;
+      List<List<String>> choices = new ArrayList<>();
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "questions":
+            questions = readStringList(in);
+            break;
+          case "answers":
+            answers = readStringList(in);
+            break;
+          case "questionTypes":
+            questionTypes = readStringList(in);
+            break;
+          case "choices":
+            choices = readStringLists(in);
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      TestData data = new TestData(questions, answers, questionTypes);
+      data.setChoices(choices);
+      return data;
+    }
+  }
+
+  /**
+   * Fields shared by EvaluationData and EvaluateTestOutputData.
+   */
+  private static final class Evaluation {
+    List<String> questions;
+    List<String> answers;
+    List<String> userAnswers;
+    List<String> correctness;
+    List<String> feedback;
+    int score;
+
+    static void write(JsonWriter out, List<String> questions, List<String> answers,
+        List<String> userAnswers, List<String> correctness, List<String> feedback,
+        int score) throws IOException {
+      out.beginObject();
+      writeStringList(out, "questions", questions);
+      writeStringList(out, "answers", answers);
+      writeStringList(out, "userAnswers", userAnswers);
+      writeStringList(out, "correctness", correctness);
+      writeStringList(out, "feedback", feedback);
+      out.name("score").value(score);
+      out.endObject();
+    }
+
+    static Evaluation read(JsonReader in) throws IOException {
+      Evaluation e = new Evaluation();
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "questions":
+            e.questions = readStringList(in);
+            break;
+          case "answers":
+            e.answers = readStringList(in);
+            break;
+          case "userAnswers":
+            e.userAnswers = readStringList(in);
+            break;
+          case "correctness":
+            e.correctness = readStringList(in);
+            break;
+          case "feedback":
+            e.feedback = readStringList(in);
+            break;
+          case "score":
+            if (in.peek() == JsonToken.NULL) {
+              in.nextNull();
+            } else {
+              e.score = in.nextInt();
+            }
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return e;
+    }
+
+    EvaluationData toEvaluationData() {
+      return new EvaluationData(questions, answers, userAnswers, correctness, feedback, score);
+    }
+  }
+
+  private static final class EvaluationDataAdapter extends TypeAdapter<EvaluationData> {
+    @Override
+    public void write(JsonWriter out, EvaluationData value) throws IOException {
+      Evaluation.write(out, value.getQuestions(), value.getAnswers(), value.getUserAnswers(),
+          value.getCorrectness(), value.getFeedback(), value.getScore());
+    }
+
+    @Override
+    public EvaluationData read(JsonReader in) throws IOException {
+      return Evaluation.read(in).toEvaluationData();
+    }
+  }
+
+  private static final class EvaluateTestOutputAdapter
+      extends TypeAdapter<EvaluateTestOutputData> {
+    @Override
+    public void write(JsonWriter out, EvaluateTestOutputData value) throws IOException {
+      Evaluation.write(out, value.getQuestions(), value.getAnswers(), value.getUserAnswers(),
+          value.getCorrectness(), value.getFeedback(), value.getScore());
+    }
+
+    @Override
+    public EvaluateTestOutputData read(JsonReader in) throws IOException {
+      return new EvaluateTestOutputData(Evaluation.read(in).toEvaluationData());
+    }
+  }
+
+  private static final class MockTestOutputAdapter
+      extends TypeAdapter<MockTestGenerationOutputData> {
+    @Override
+    public void write(JsonWriter out, MockTestGenerationOutputData value) throws IOException {
+      out.beginObject();
+      writeStringList(out, "questions", value.getQuestions());
+      writeStringList(out, "answers", value.getAnswers());
+      writeStringList(out, "questionTypes", value.getQuestionTypes());
+      writeString(out, "courseId", value.getCourseId());
+      writeStringLists(out, "choices", value.getChoices());
+      out.endObject();
+    }
+
+    @Override
+    public MockTestGenerationOutputData read(JsonReader in) throws IOException {
+      List<String> questions = null;
+      List<String> answers = null;
+      List<String> questionTypes = null;
+      String courseId = null;
+      List<List<String>> choices = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "questions":
+            questions = readStringList(in);
+            break;
+          case "answers":
+            answers = readStringList(in);
+            break;
+          case "questionTypes":
+            questionTypes = readStringList(in);
+            break;
+          case "courseId":
+            courseId = readString(in);
+            break;
+          case "choices":
+            choices = readStringLists(in);
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new MockTestGenerationOutputData(
+          new TestData(questions, answers, questionTypes), courseId, choices);
+    }
+  }
+
+  private static final class FlashcardAdapter extends TypeAdapter<Flashcard> {
+    @Override
+    public void write(JsonWriter out, Flashcard value) throws IOException {
+      out.beginObject();
+      writeString(out, "question", value.getQuestion());
+      writeString(out, "answer", value.getAnswer());
+      writeString(out, "front", value.getFront());
+      writeString(out, "back", value.getBack());
+      out.endObject();
+    }
+
+    @Override
+    public Flashcard read(JsonReader in) throws IOException {
+      String question = null;
+      String answer = null;
+      String front = null;
+      String back = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "question":
+            question = readString(in);
+            break;
+          case "answer":
+            answer = readString(in);
+            break;
+          case "front":
+            front = readString(in);
+            break;
+          case "back":
+            back = readString(in);
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      // front/back are synonyms that only ever repeat question/answer
+      return new Flashcard(question != null ? question : front,
+          answer != null ? answer : back);
+    }
+  }
+
+  private static final class FlashcardSetAdapter extends TypeAdapter<FlashcardSet> {
+    private final FlashcardAdapter cards = new FlashcardAdapter();
+
+    @Override
+    public void write(JsonWriter out, FlashcardSet value) throws IOException {
+      out.beginObject();
+      writeString(out, "courseName", value.getCourseName());
+      if (value.getFlashcards() != null) {
+        out.name("flashcards").beginArray();
+        for (Flashcard card : value.getFlashcards()) {
+          if (card == null) {
+            out.nullValue();
+          } else {
+            cards.write(out, card);
+          }
+        }
+        out.endArray();
+      }
+      out.endObject();
+    }
+
+    @Override
+    public FlashcardSet read(JsonReader in) throws IOException {
+      String courseName = null;
+      List<Flashcard> flashcards = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "courseName":
+            courseName = readString(in);
+            break;
+          case "flashcards":
+            if (in.peek() == JsonToken.NULL) {
+              in.nextNull();
+              flashcards = null;
+              break;
+            }
+            flashcards = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+              if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                flashcards.add(null);
+              } else {
+                flashcards.add(cards.read(in));
+              }
+            }
+            in.endArray();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new FlashcardSet(courseName, flashcards);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package data_access;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Timeline record format with one compact Gson object per line.
+ */
+final class JsonLinesRecordCodec implements TimelineRecordCodec {
+  // How a payload that older versions stored as a JSON string starts. Inside
+  // a string every quote is escaped, so this cannot occur in other values.
+  private static final String[] LEGACY_PAYLOAD_PREFIXES = {
+      "\"flashcardData\":\"", "\"testData\":\"", "\"evaluationData\":\""};
+
+  @Override
+  public byte[] encode(TimelineEventData data) {
+    return (TimelineEventData.GSON.toJson(data) + "\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Scans backwards for the last newline; everything after it is torn.
+   */
+  @Override
+  public long completeLength(FileChannel file) throws IOException {
+    long validLength = file.size();
+    ByteBuffer chunk = ByteBuffer.allocate(8192);
+    while (validLength > 0) {
+      long start = Math.max(0, validLength - chunk.capacity());
+      chunk.clear();
+      chunk.limit((int) (validLength - start));
+      while (chunk.hasRemaining()) {
+        if (file.read(chunk, start + chunk.position()) < 0) {
+          break;
+        }
+      }
+      for (int i = chunk.position() - 1; i >= 0; i--) {
+        if (chunk.get(i) == '\n') {
+          return start + i + 1;
+        }
+      }
+      validLength = start;
+    }
+    return 0;
+  }
+
+  @Override
+  public void decodeAll(InputStream in, Consumer<TimelineEventData> sink) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isBlank()) {
+        continue;
+      }
+      TimelineEventData data;
+      try {
+        data = TimelineEventData.GSON.fromJson(line, TimelineEventData.class);
+      } catch (RuntimeException e) {
+        System.err.println("Skipping unreadable timeline record: " + e.getMessage());
+        continue;
+      }
+      data.legacyPayloads = hasLegacyPayload(line);
+      sink.accept(data);
+    }
+  }
+
+  private static boolean hasLegacyPayload(String line) {
+    for (String prefix : LEGACY_PAYLOAD_PREFIXES) {
+      if (line.contains(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -2,196 +2,402 @@ package data_access;
 
 import entities.Course;
 import entities.PDFFile;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.util.concurrent.locks.StampedLock;
 import usecases.evaluate_test.EvaluateTestCourseDataAccessInterface;
 import usecases.mock_test_generation.MockTestGenerationCourseDataAccessInterface;
 
 /**
  * Local file-based implementation of course repository.
+ *
+ * <p>Courses are cached in memory and indexed by course ID, so lookups do not
+ * touch the disk. The cache is filled on first use; a paged
+ * {@link #findAll(int, int)} before that streams only the requested page.
+ * Writes, including the single-course deltas such as
+ * {@link #attachFile}, update the cache and then hand the changed course to a
+ * {@link CourseStorage}: in {@link StorageMode#SNAPSHOT} mode the whole
+ * catalog is rewritten, in {@link StorageMode#JOURNALED} mode only the
+ * changed record is appended to a journal. The files are only re-read when
+ * their modification time or size no longer match what this repository last
+ * saw, e.g. when they were edited externally. Callers always receive copies,
+ * so mutating a returned course has no effect until it is passed back
+ * through {@link #update(Course)}.
+ *
+ * <p>Every write gives the course the next version number. The ID index
+ * makes {@link #createIfAbsent(Course)} a single lookup, and
+ * {@link #updateIfVersion(Course, long)} lets concurrent editors detect that
+ * someone else changed the course since they read it.
+ *
+ * <p>The repository is shared by the Swing thread and the background workers
+ * of the mock test, evaluation, notes and flashcard features. Writers are
+ * serialized on the repository's monitor, so each change is applied to the
+ * latest catalog and reaches the storage in the same order. The cached
+ * catalog itself is immutable and every write publishes a new version that
+ * shares all but O(log n) nodes with the old one; readers pick it up through
+ * an optimistic {@link StampedLock} read and never block behind a writer's
+ * disk I/O.
  */
 public class LocalCourseRepository implements usecases.ICourseRepository,
     MockTestGenerationCourseDataAccessInterface,
     EvaluateTestCourseDataAccessInterface {
-  private List<Course> courses = null;
-  private final String FILE_NAME = "courses.json";
+  private static final String DEFAULT_FILE_NAME = "courses.json";
+
+  /**
+   * How course changes are written to disk.
+   */
+  public enum StorageMode {
+    /** Rewrite courses.json on every change. */
+    SNAPSHOT,
+    /** Append each change to a journal and compact it in the background. */
+    JOURNALED
+  }
+
+  private final CourseStorage storage;
+  // Guards the catalog reference; writers hold it only to publish
+  private final StampedLock lock = new StampedLock();
+  private Catalog catalog = Catalog.EMPTY;
+  private volatile boolean loaded;
 
   /**
    * Constructs a LocalCourseRepository and initializes the file if needed.
    */
   public LocalCourseRepository() {
-    courses = new ArrayList<>();
-    CreateFileIfNotExist();
+    this(DEFAULT_FILE_NAME);
+  }
+
+  /**
+   * Constructs a LocalCourseRepository backed by the given file.
+   *
+   * @param fileName the path of the JSON file holding the courses
+   */
+  public LocalCourseRepository(String fileName) {
+    this(fileName, StorageMode.SNAPSHOT);
+  }
+
+  /**
+   * Constructs a LocalCourseRepository backed by the given file.
+   *
+   * @param fileName the path of the JSON file holding the courses
+   * @param mode how changes are written to disk
+   */
+  public LocalCourseRepository(String fileName, StorageMode mode) {
+    this(mode == StorageMode.JOURNALED
+        ? new JournaledCourseStorage(Paths.get(fileName))
+        : new SnapshotCourseStorage(Paths.get(fileName)));
+  }
+
+  /**
+   * Constructs a LocalCourseRepository on top of a specific storage.
+   *
+   * @param storage the storage to load from and write to
+   */
+  LocalCourseRepository(CourseStorage storage) {
+    this.storage = storage;
+    this.storage.attach(this::snapshot);
   }
 
   @Override
-  public void create(Course course) {
-    courses.add(course);
-    writeCourses(courses);
+  public synchronized void create(Course course) {
+    refreshIfChanged();
+    store(current(), copyOf(course));
   }
 
   @Override
-  public void update(Course course) {
-    List<Course> courses = this.readCourses();
-    Optional<entities.Course> foundObject = courses.stream()
-        .filter(obj -> obj.getCourseId().equals(course.getCourseId()))
-        .findFirst();
-    if (foundObject.isPresent()) {
-      Course foundCourse = foundObject.get();
-      foundCourse.setCourseId(course.getCourseId());
-      foundCourse.setName(course.getName());
-      foundCourse.setDescription(course.getDescription());
-      // Preserve the files from the updated course
-      // The files are already updated in the course object passed in
-      // We need to replace the files in foundCourse with the ones from course
-      foundCourse.getUploadedFiles().clear();
-      foundCourse.getUploadedFiles().addAll(course.getUploadedFiles());
-    }
-    writeCourses(courses);
+  public synchronized boolean createIfAbsent(Course course) {
+    refreshIfChanged();
+    Catalog current = current();
+    if (current.get(course.getCourseId()) != null) {
+      return false;
+    }
+    course.setVersion(store(current, copyOf(course)));
+    return true;
   }
 
   @Override
-  public Course findById(String courseId) {
-    this.courses = readCourses();
-    if (this.courses.size() == 0) {
-      return null;
+  public synchronized void update(Course course) {
+    refreshIfChanged();
+    Catalog current = current();
+    if (current.get(course.getCourseId()) == null) {
+      return;
     }
-    Optional<Course> foundObject = courses.stream()
-        .filter(obj -> obj.getCourseId().equals(courseId))
-        .findFirst();
-    if (foundObject.isPresent()) {
-      return foundObject.get();
-    } else {
-      return null;
+    store(current, copyOf(course));
+  }
+
+  @Override
+  public synchronized boolean updateIfVersion(Course course, long expectedVersion) {
+    refreshIfChanged();
+    Catalog current = current();
+    Course existing = current.get(course.getCourseId());
+    if (existing == null || existing.getVersion() != expectedVersion) {
+      return false;
     }
+    course.setVersion(store(current, copyOf(course)));
+    return true;
+  }
+
+  @Override
+  public Course findById(String courseId) {
+    refreshIfChanged();
+    Course course = courseId == null ? null : current().get(courseId);
+    return course == null ? null : copyOf(course);
   }
 
+  /**
+   * Returns every course in catalog order.
+   *
+   * @return an unmodifiable list of copies, safe to iterate from any thread
+   */
   @Override
   public List<Course> findAll() {
-    this.courses = readCourses();
-    return this.courses;
+    refreshIfChanged();
+    return copiesOf(current().page(0, Integer.MAX_VALUE));
   }
 
   @Override
-  public void delete(String courseId) {
-    this.courses = readCourses();
-    if (this.courses.size() == 0) {
+  public List<Course> findAll(int offset, int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("offset and limit must not be negative");
+    }
+    if (!loaded) {
+      // Nothing cached yet; stream just this page instead of the whole file
+      return storage.loadPage(offset, limit);
+    }
+    refreshIfChanged();
+    return copiesOf(current().page(offset, limit));
+  }
+
+  @Override
+  public synchronized void delete(String courseId) {
+    refreshIfChanged();
+    Catalog current = current();
+    if (courseId == null || current.get(courseId) == null) {
       return;
     }
+    publish(current.without(courseId));
+    storage.saveDelete(courseId);
+  }
+
+  @Override
+  public synchronized boolean attachFile(String courseId, String filePath) {
+    refreshIfChanged();
+    Catalog current = current();
+    Course existing = courseId == null ? null : current.get(courseId);
+    if (existing == null) {
+      return false;
+    }
+    Course stored = copyOf(existing);
+    stored.addFile(new PDFFile(filePath));
+    store(current, stored);
+    return true;
+  }
+
+  @Override
+  public synchronized boolean detachFile(String courseId, String filePath) {
+    refreshIfChanged();
+    Catalog current = current();
+    Course existing = courseId == null ? null : current.get(courseId);
+    if (existing == null) {
+      return false;
+    }
+    Course stored = copyOf(existing);
+    boolean removed = stored.getUploadedFiles()
+        .removeIf(file -> file.getPath().toString().equals(filePath));
+    if (!removed) {
+      return false;
+    }
+    store(current, stored);
+    return true;
+  }
+
+  @Override
+  public synchronized boolean renameCourse(String courseId, String name,
+      String description) {
+    refreshIfChanged();
+    Catalog current = current();
+    Course existing = courseId == null ? null : current.get(courseId);
+    if (existing == null) {
+      return false;
+    }
+    Course stored = copyOf(existing);
+    stored.setName(name);
+    stored.setDescription(description);
+    store(current, stored);
+    return true;
+  }
 
-    this.courses.removeIf(obj -> obj.getCourseId().equals(courseId));
-    writeCourses(courses);
+  @Override
+  public List<PDFFile> getCourseMaterials(String courseId) {
+    refreshIfChanged();
+    Course course = courseId == null ? null : current().get(courseId);
+    if (course == null) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<>(course.getUploadedFiles());
   }
 
   /**
-   * Creates the courses file if it doesn't exist.
+   * Fills the cache on first use, and re-reads the files if they were
+   * modified since. The check is an attribute lookup, far cheaper than
+   * parsing.
    */
-  private void CreateFileIfNotExist() {
-    File file = new File(FILE_NAME);
-
-    try {
-      if (file.createNewFile()) {
-        System.out.println("File created: " + file.getName());
-        writeCourses(this.courses);
-      } else {
-        System.out.println("File already exists.");
+  private void refreshIfChanged() {
+    if (loaded && !storage.hasChangedOnDisk()) {
+      return;
+    }
+    synchronized (this) {
+      if (!loaded || storage.hasChangedOnDisk()) {
+        publish(Catalog.of(storage.load()));
+        loaded = true;
       }
-    } catch (IOException e) {
-      System.out.println("An error occurred during file creation.");
-      e.printStackTrace();
     }
   }
 
   /**
-   * Reads courses from the JSON file.
+   * Gives a course the next version, publishes it and writes it to storage.
+   * Must hold the monitor.
    *
-   * @return a list of courses
+   * @param current the catalog the change is based on
+   * @param stored the detached course to store; it must not escape
+   * @return the version the course was stored with
    */
-  private List<Course> readCourses() {
-    List<Course> courses = new ArrayList<>();
-    try {
-      String jsonString = Files.readString(Paths.get(FILE_NAME));
-      JSONArray jsonArray = new JSONArray(jsonString);
+  private long store(Catalog current, Course stored) {
+    Course existing = current.get(stored.getCourseId());
+    stored.setVersion(existing == null ? 1 : existing.getVersion() + 1);
+    publish(current.with(stored));
+    storage.savePut(stored);
+    return stored.getVersion();
+  }
 
-      for (int i = 0; i < jsonArray.length(); i++) {
-        JSONObject jsonObject = jsonArray.getJSONObject(i);
+  /**
+   * Reads the current catalog. The optimistic stamp costs no more than a
+   * volatile read; only when a writer published in between does the reader
+   * fall back to the read lock, which is held for a single field read.
+   *
+   * @return the catalog published by the last writer
+   */
+  private Catalog current() {
+    long stamp = lock.tryOptimisticRead();
+    Catalog result = catalog;
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        result = catalog;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return result;
+  }
 
-        String courseId = jsonObject.getString("courseId");
-        String name = jsonObject.getString("name");
-        String description = jsonObject.getString("description");
+  /**
+   * Makes a new catalog visible to readers. Callers hold the monitor, so
+   * writers are serialized and never publish over each other's changes.
+   *
+   * @param next the catalog to publish
+   */
+  private void publish(Catalog next) {
+    long stamp = lock.writeLock();
+    try {
+      catalog = next;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
 
-        Course course = new Course(courseId, name, description);
+  /**
+   * Returns the cached courses in catalog order.
+   *
+   * @return the cached course instances, not copies
+   */
+  private List<Course> snapshot() {
+    return current().page(0, Integer.MAX_VALUE);
+  }
 
-        if (jsonObject.has("uploadedFiles")) {
-          JSONArray filesArray = jsonObject.getJSONArray("uploadedFiles");
-          for (int j = 0; j < filesArray.length(); j++) {
-            course.addFile(new PDFFile(filesArray.getString(j)));
-          }
-        }
+  private static List<Course> copiesOf(List<Course> courses) {
+    List<Course> copies = new ArrayList<>(courses.size());
+    for (Course course : courses) {
+      copies.add(copyOf(course));
+    }
+    return Collections.unmodifiableList(copies);
+  }
 
-        courses.add(course);
-      }
-    } catch (IOException e) {
-      System.out.println("Could not read " + FILE_NAME
-          + ", starting with empty course list.");
-    } catch (Exception e) {
-      e.printStackTrace();
+  /**
+   * Creates a detached copy of a course, including its file list.
+   *
+   * @param course the course to copy
+   * @return a new course with the same data
+   */
+  private static Course copyOf(Course course) {
+    Course copy = new Course(course.getCourseId(), course.getName(),
+        course.getDescription());
+    copy.setVersion(course.getVersion());
+    for (PDFFile file : course.getUploadedFiles()) {
+      copy.addFile(file);
     }
-    return courses;
+    return copy;
   }
 
   /**
-   * Writes courses to the JSON file.
+   * An immutable view of all courses. Writers build a new one from the old
+   * instead of changing it, so a reader holding a catalog can use it without
+   * any locking. The courses inside are never mutated after publication.
    *
-   * @param courses the list of courses to write
+   * <p>Both indexes are persistent maps, so a write copies O(log n) tree
+   * nodes instead of the whole catalog. Catalog order is kept by giving
+   * each course a sequence number when it is first added.
    */
-  private void writeCourses(List<Course> courses) {
-    //JSONObject rootObject = new JSONObject();
-    //rootObject.put("courses", courses);
-    JSONArray objectArray = new JSONArray();
-    courses.forEach(course -> {
-      JSONObject obj = new JSONObject();
-      obj.put("courseId", course.getCourseId());
-      obj.put("name", course.getName());
-      obj.put("description", course.getDescription());
-
-      // Write uploaded files
-      JSONArray filesArray = new JSONArray();
-      for (PDFFile file : course.getUploadedFiles()) {
-        filesArray.put(file.getPath().toString());
+  private static final class Catalog {
+    static final Catalog EMPTY = new Catalog(PersistentSortedMap.empty(),
+        PersistentSortedMap.empty(), 0);
+
+    /** Course ID to the course's position in catalog order. */
+    private final PersistentSortedMap<String, Long> positions;
+    private final PersistentSortedMap<Long, Course> ordered;
+    private final long nextPosition;
+
+    private Catalog(PersistentSortedMap<String, Long> positions,
+        PersistentSortedMap<Long, Course> ordered, long nextPosition) {
+      this.positions = positions;
+      this.ordered = ordered;
+      this.nextPosition = nextPosition;
+    }
+
+    static Catalog of(List<Course> courses) {
+      Catalog catalog = EMPTY;
+      for (Course course : courses) {
+        catalog = catalog.with(course);
       }
-      obj.put("uploadedFiles", filesArray);
+      return catalog;
+    }
 
-      objectArray.put(obj);
-    });
+    Course get(String courseId) {
+      Long position = positions.get(courseId);
+      return position == null ? null : ordered.get(position);
+    }
 
-    // Write the JSON array to a file
-    try (FileWriter file = new FileWriter(FILE_NAME)) {
-      file.write(objectArray.toString());
-      System.out.println("Successfully wrote JSON array to file.");
-    } catch (IOException e) {
-      e.printStackTrace();
+    List<Course> page(int offset, int limit) {
+      return ordered.values(offset, limit);
     }
-  }
 
-  @Override
-  public List<PDFFile> getCourseMaterials(String courseId) {
-    this.courses = readCourses(); // refresh from file every time
+    Catalog with(Course course) {
+      Long position = positions.get(course.getCourseId());
+      if (position != null) {
+        // Replacing keeps the course's position in catalog order
+        return new Catalog(positions, ordered.put(position, course), nextPosition);
+      }
+      return new Catalog(positions.put(course.getCourseId(), nextPosition),
+          ordered.put(nextPosition, course), nextPosition + 1);
+    }
 
-    for (Course course : this.courses) {
-      if (course.getCourseId().equals(courseId)) {
-        return course.getUploadedFiles();
+    Catalog without(String courseId) {
+      Long position = positions.get(courseId);
+      if (position == null) {
+        return this;
       }
+      return new Catalog(positions.remove(courseId), ordered.remove(position), nextPosition);
     }
-    return Collections.emptyList();
   }
 }
@@ -0,0 +1,413 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import usecases.Timeline.ICourseIdMapper;
+
+/**
+ * Timeline storage that appends each event as one record, by default a
+ * compact JSON line; see {@link TimelineRecordCodec}.
+ *
+ * <p>Saving an event costs one small write regardless of how long the
+ * history is, and startup streams the log record by record. A crash can only
+ * cut off the record being written; that torn tail is dropped on the next
+ * start. {@link #compact()} rewrites the log from the events in memory.
+ *
+ * <p>Payloads such as full notes or quiz data are usually far larger than
+ * the rest of an event. Those of at least {@value #INLINE_LIMIT} characters
+ * go to a {@link BlobStore} and the line only records their hash and size;
+ * events then load them on demand, so neither the heap nor startup time
+ * grows with the amount of generated text. The store counts the records
+ * pointing at each payload: appends add references, and a rewrite moves
+ * them from the old records to the new ones, freeing payloads only the
+ * dropped records used.
+ */
+class LogTimelineStorage implements TimelineStorage {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  static final int INLINE_LIMIT = 1024;
+
+  private final Path logFile;
+  private final Path legacyFile;
+  private final BlobStore blobs;
+  private final TimelineRecordCodec codec;
+  private final ICourseIdMapper courseIds;
+  private final boolean ownsBlobs;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private Supplier<Map<UUID, List<TimelineEvent>>> currentEvents = Collections::emptyMap;
+  private FileChannel channel;
+
+  /**
+   * Constructs a LogTimelineStorage.
+   *
+   * @param logFile the log holding the timeline
+   * @param legacyFile a timeline in the old single-object format to import
+   *     when the log does not exist yet, or null
+   * @param blobs where large payloads are kept
+   * @param codec the record format of the log
+   * @param courseIds records the original course IDs of saved events and
+   *     gets them back on load
+   */
+  LogTimelineStorage(Path logFile, Path legacyFile, BlobStore blobs,
+      TimelineRecordCodec codec, ICourseIdMapper courseIds) {
+    this(logFile, legacyFile, blobs, codec, courseIds, true);
+  }
+
+  /**
+   * Constructs a LogTimelineStorage that may share its blob store.
+   *
+   * @param logFile the log holding the timeline
+   * @param legacyFile a timeline in the old single-object format to import
+   *     when the log does not exist yet, or null
+   * @param blobs where large payloads are kept
+   * @param codec the record format of the log
+   * @param courseIds records the original course IDs of saved events and
+   *     gets them back on load
+   * @param ownsBlobs true if this log is the store's only user, so it may
+   *     count the store's references from its own records when the store
+   *     has none yet; logs sharing a store leave that to their owner
+   */
+  LogTimelineStorage(Path logFile, Path legacyFile, BlobStore blobs,
+      TimelineRecordCodec codec, ICourseIdMapper courseIds, boolean ownsBlobs) {
+    this.logFile = logFile;
+    this.legacyFile = legacyFile;
+    this.blobs = blobs;
+    this.codec = codec;
+    this.courseIds = courseIds;
+    this.ownsBlobs = ownsBlobs;
+  }
+
+  @Override
+  public void attach(Supplier<Map<UUID, List<TimelineEvent>>> currentEvents) {
+    this.currentEvents = currentEvents;
+  }
+
+  @Override
+  public synchronized List<TimelineEvent> load() {
+    List<TimelineEvent> events = new ArrayList<>();
+    try {
+      if (!Files.exists(logFile) && legacyFile != null && Files.exists(legacyFile)) {
+        convertLegacyFile(legacyFile, logFile, blobs, codec);
+      }
+      if (Files.exists(logFile)) {
+        dropTornTail();
+        if (ownsBlobs && !blobs.hasReferenceCounts()) {
+          // Written before payloads were counted; count them once
+          blobs.initializeReferences(readReferences());
+        }
+        readLog(events);
+      }
+    } catch (IOException e) {
+      System.err.println("Error loading timeline from file: " + e.getMessage());
+      e.printStackTrace();
+    }
+    return events;
+  }
+
+  @Override
+  public void append(TimelineEvent event) {
+    appendAll(List.of(event));
+  }
+
+  @Override
+  public synchronized void appendAll(List<TimelineEvent> events) {
+    try {
+      List<TimelineEventData> records = new ArrayList<>(events.size());
+      for (TimelineEvent event : events) {
+        records.add(TimelineEventData.of(event, courseIds, blobs, INLINE_LIMIT));
+      }
+      blobs.retain(blobsOf(records, blobs));
+      for (TimelineEventData data : records) {
+        write(codec.encode(data));
+      }
+      // One write for the whole batch
+      flush();
+      // The payloads are on disk now; stop holding them in the heap
+      for (int i = 0; i < events.size(); i++) {
+        records.get(i).attachLoaders(events.get(i), blobs);
+      }
+    } catch (IOException e) {
+      System.err.println("Error saving timeline to file: " + e.getMessage());
+      e.printStackTrace();
+      closeChannel();
+    }
+  }
+
+  @Override
+  public synchronized void compact() {
+    List<TimelineEvent> events = new ArrayList<>();
+    for (List<TimelineEvent> courseEvents : currentEvents.get().values()) {
+      events.addAll(courseEvents);
+    }
+    replace(events);
+  }
+
+  /**
+   * Rewrites the log to hold exactly the given events, whatever the
+   * repository holds.
+   *
+   * @param events the events in log order
+   */
+  synchronized void replace(List<TimelineEvent> events) {
+    closeChannel();
+    try {
+      List<TimelineEventData> records = new ArrayList<>(events.size());
+      for (TimelineEvent event : events) {
+        records.add(TimelineEventData.of(event, courseIds, blobs, INLINE_LIMIT));
+      }
+      rewrite(records);
+    } catch (IOException e) {
+      System.err.println("Error compacting timeline log: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public synchronized long storedBytes() {
+    try {
+      return Files.exists(logFile) ? Files.size(logFile) : 0;
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  @Override
+  public synchronized PayloadCollectionReport collectPayloads() {
+    try {
+      return blobs.report();
+    } catch (IOException e) {
+      System.err.println("Error reading timeline payload references: " + e.getMessage());
+      e.printStackTrace();
+      return PayloadCollectionReport.NOTHING;
+    }
+  }
+
+  /**
+   * Reads the blob references of every record in the log.
+   *
+   * @return the referenced payloads, once per record pointing at them
+   * @throws IOException if the log cannot be read
+   */
+  synchronized List<BlobStore.Blob> readReferences() throws IOException {
+    List<BlobStore.Blob> references = new ArrayList<>();
+    if (!Files.exists(logFile)) {
+      return references;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(logFile), BUFFER_SIZE)) {
+      codec.decodeAll(in, data -> data.forEachBlob(
+          ref -> references.add(blobs.blob(ref.sha256, ref.size))));
+    }
+    return references;
+  }
+
+  /**
+   * Closes the log file so it can be deleted. The next append reopens it.
+   */
+  synchronized void close() {
+    closeChannel();
+  }
+
+  /**
+   * Converts a timeline in the old single-object format into a log, one
+   * course after another in their original order. Large payloads are moved
+   * into the blob store. The old file is left untouched.
+   *
+   * @param legacyFile the timeline.json to read
+   * @param logFile the log to create or replace
+   * @param blobs where large payloads are kept
+   * @param codec the record format of the log
+   * @throws IOException if reading or writing fails
+   */
+  static void convertLegacyFile(Path legacyFile, Path logFile, BlobStore blobs,
+      TimelineRecordCodec codec) throws IOException {
+    List<TimelineEventData> records = new ArrayList<>();
+    for (List<TimelineEventData> courseRecords :
+        SnapshotTimelineStorage.readRecords(legacyFile).values()) {
+      for (TimelineEventData data : courseRecords) {
+        data.externalizePayloads(blobs, INLINE_LIMIT);
+        records.add(data);
+      }
+    }
+    blobs.retain(blobsOf(records, blobs));
+    writeLog(records, logFile, codec);
+  }
+
+  /**
+   * Streams the log, restoring one course ID mapping per course from
+   * the first event that carries a hint. Unreadable lines are skipped. A log
+   * with payloads in the old escaped-string form is rewritten once.
+   *
+   * @param events receives the events in log order
+   * @throws IOException if the file cannot be read
+   */
+  private void readLog(List<TimelineEvent> events) throws IOException {
+    Map<UUID, String> inferredCourseIds = new HashMap<>();
+    boolean[] legacyPayloads = {false};
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(logFile), BUFFER_SIZE)) {
+      codec.decodeAll(in, data -> {
+        try {
+          TimelineEvent event = data.toTimelineEvent();
+          data.attachLoaders(event, blobs);
+          // Derived UUIDs only need the course IDs records actually carry
+          String inferred = courseIds.derivesUuids() ? data.courseIdString : data.inferCourseId();
+          if (inferred != null) {
+            inferredCourseIds.putIfAbsent(event.getCourseId(), inferred);
+          }
+          events.add(event);
+          legacyPayloads[0] |= data.legacyPayloads;
+        } catch (RuntimeException e) {
+          System.err.println("Skipping unreadable timeline record: " + e.getMessage());
+        }
+      });
+    }
+    for (Map.Entry<UUID, String> entry : inferredCourseIds.entrySet()) {
+      courseIds.restoreMapping(entry.getValue(), entry.getKey());
+    }
+    if (legacyPayloads[0]) {
+      List<TimelineEventData> records = new ArrayList<>(events.size());
+      for (TimelineEvent event : events) {
+        records.add(TimelineEventData.of(event, courseIds, blobs, INLINE_LIMIT));
+      }
+      closeChannel();
+      rewrite(records);
+    }
+  }
+
+  /**
+   * Replaces the log with records, moving blob references from the records
+   * it held to the new ones. The new references are counted before the
+   * log is replaced and the old ones released after, so a crash can only
+   * leave counts too high.
+   *
+   * @param records the records in log order
+   * @throws IOException if reading or writing fails
+   */
+  private void rewrite(List<TimelineEventData> records) throws IOException {
+    List<BlobStore.Blob> old = readReferences();
+    blobs.retain(blobsOf(records, blobs));
+    writeLog(records, logFile, codec);
+    blobs.release(old);
+  }
+
+  private static List<BlobStore.Blob> blobsOf(List<TimelineEventData> records,
+      BlobStore blobs) {
+    List<BlobStore.Blob> references = new ArrayList<>();
+    for (TimelineEventData data : records) {
+      data.forEachBlob(ref -> references.add(blobs.blob(ref.sha256, ref.size)));
+    }
+    return references;
+  }
+
+  /**
+   * Cuts the log back to its last complete line. Only the final line can be
+   * torn, because every record is written with a single append.
+   *
+   * @throws IOException if the file cannot be read or truncated
+   */
+  private void dropTornTail() throws IOException {
+    try (FileChannel file = FileChannel.open(logFile, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      long validLength = codec.completeLength(file);
+      if (validLength < file.size()) {
+        System.err.println("Discarding torn timeline record at offset " + validLength);
+        file.truncate(validLength);
+      }
+    }
+  }
+
+  /**
+   * Adds an encoded record to the write buffer, writing the buffer out
+   * first when the record does not fit.
+   *
+   * @param line the encoded record, including its framing
+   * @throws IOException if writing fails
+   */
+  private void write(byte[] line) throws IOException {
+    if (line.length > buffer.remaining()) {
+      flush();
+    }
+    if (line.length > buffer.capacity()) {
+      writeFully(ByteBuffer.wrap(line));
+      return;
+    }
+    buffer.put(line);
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    try {
+      writeFully(buffer);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  private void writeFully(ByteBuffer bytes) throws IOException {
+    if (channel == null) {
+      channel = FileChannel.open(logFile, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+  }
+
+  private void closeChannel() {
+    buffer.clear();
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    channel = null;
+  }
+
+  /**
+   * Writes records to a temporary log and renames it over the target.
+   *
+   * @param records the records in log order
+   * @param target the log to create or replace
+   * @param codec the record format of the log
+   * @throws IOException if writing or renaming fails
+   */
+  private static void writeLog(List<TimelineEventData> records, Path target,
+      TimelineRecordCodec codec) throws IOException {
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(out), BUFFER_SIZE);
+      for (TimelineEventData data : records) {
+        stream.write(codec.encode(data));
+      }
+      stream.flush();
+      out.force(true);
+    }
+    try {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
@@ -5,14 +5,16 @@ import com.google.genai.types.Content;
 import com.google.genai.types.GenerateContentConfig;
 import com.google.genai.types.GenerateContentResponse;
 import com.google.genai.types.Part;
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import entities.Course;
 import entities.LectureNotes;
 import entities.PDFFile;
 import usecases.lecturenotes.NotesGenerationException;
 import usecases.lecturenotes.NotesGeminiGateway;
 
-import java.nio.file.Files;
+import java.io.IOException;
+import java.io.StringReader;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,9 +24,100 @@ public class NotesGeminiApiDataAccess implements NotesGeminiGateway {
     private final Client client;
     private final String model = "gemini-2.5-flash";
     private final GenerateContentConfig notesConfig;
-    private final Gson gson = new Gson();
+    private final GeminiFileCache files;
+    private final CourseContextCache contexts;
+    private static final String PROMPT_TEMPLATE = """
+            You are an assistant that generates structured, exam-focused lecture notes for university students.
+
+            Use ONLY the attached PDF files as your source.
+            Your goal is to:
+            - Extract key ideas, definitions, formulas, and examples.
+            - Organize them into clear units/chapters and sections.
+            - Make it easy for students to review and study for tests.
+
+            You MUST return a single valid JSON object with the following fields:
+
+            {
+              "courseId": "<string>",
+              "topic": "<string>",
+              "units": [
+                {
+                  "unitTitle": "<short title for this unit>",
+                  "unitSummary": "<3–5 sentence overview of this unit>",
+                  "learningObjectives": [
+                    "<what a student should be able to do after this unit>"
+                  ],
+                  "sections": [
+                    {
+                      "sectionTitle": "<subtopic name>",
+                      "bulletPoints": [
+                        "<concise bullet point explaining a concept>",
+                        "<another bullet point>",
+                        "<include formulas or conditions when helpful>"
+                      ]
+                    }
+                  ],
+                  "reviewQuestions": [
+                    "<short concept-check question>",
+                    "<another question>"
+                  ]
+                }
+              ],
+              "globalSummary": "<5–7 sentence high-level summary of the entire topic>",
+              "examTips": [
+                "<short tip about what is often tested or commonly confused>",
+                "<another exam-focused tip>"
+              ]
+            }
+
+            Rules:
+            - Use concise, student-friendly language.
+            - Make bullet points short and focused.
+            - Base everything only on the attached PDFs.
+            - Output ONLY the JSON object, with no extra text, markdown, or explanations.
+
+            Here is the context for this request.
+            Set the JSON fields courseId and topic to exactly these values:
+
+            courseId: %s
+            topic: %s
+            """;
 
     public NotesGeminiApiDataAccess() {
+        this(null);
+    }
+
+    /**
+     * Identifies the model, prompt and config notes are generated with, for
+     * caching generated notes.
+     *
+     * @return a key that changes whenever any of them does
+     */
+    public String getGenerationKey() {
+        return ResponseCache.key(model, PROMPT_TEMPLATE, "application/json");
+    }
+
+    /**
+     * Creates a notes client that references course PDFs by their uploads
+     * instead of sending their bytes with every request.
+     *
+     * @param files the upload cache, or null to send PDFs inline
+     */
+    public NotesGeminiApiDataAccess(GeminiFileCache files) {
+        this(files, null);
+    }
+
+    /**
+     * Creates a notes client that sends course PDFs as a cached context
+     * shared with the other generation use cases, attaching them only when
+     * they cannot be cached.
+     *
+     * @param files the upload cache, or null to send PDFs inline
+     * @param contexts the course context cache, or null to attach PDFs
+     */
+    public NotesGeminiApiDataAccess(GeminiFileCache files, CourseContextCache contexts) {
+        this.files = files;
+        this.contexts = contexts;
         client = Client.builder()
                 .apiKey(System.getenv("GEMINI_API_KEY"))
                 .build();
@@ -54,20 +147,29 @@ public class NotesGeminiApiDataAccess implements NotesGeminiGateway {
                 System.out.println("Number of uploaded files: " + files.size());
             }
 
-            for (PDFFile f : files) {
-                System.out.println("Attaching PDF: " + f.getPath());
-                byte[] bytes = Files.readAllBytes(f.getPath());
-                parts.add(Part.fromBytes(bytes, "application/pdf"));
+            GenerateContentConfig config = notesConfig;
+            String context = contexts == null ? null : contexts.contextForFiles(model, files);
+            if (context != null) {
+                System.out.println("Using cached course context: " + context);
+                config = notesConfig.toBuilder().cachedContent(context).build();
+            } else {
+                for (PDFFile f : files) {
+                    System.out.println("Attaching PDF: " + f.getPath());
+                    parts.add(GenaiFileUploader.pdfPart(this.files, f.getPath()));
+                }
             }
 
             Content content = Content.fromParts(parts.toArray(new Part[0]));
             GenerateContentResponse resp =
-                    client.models.generateContent(model, content, notesConfig);
+                    client.models.generateContent(model, content, config);
 
             String json = resp.text();
             System.out.println("Gemini lecture notes response: " + json);
 
-            StructuredNotes structured = gson.fromJson(json, StructuredNotes.class);
+            StructuredNotes structured;
+            try (JsonReader reader = new JsonReader(new StringReader(json))) {
+                structured = readNotes(reader);
+            }
             String formattedNotes = formatNotes(structured);
 
             return new LectureNotes(course.getCourseId(), topic, formattedNotes, LocalDateTime.now());
@@ -78,62 +180,7 @@ public class NotesGeminiApiDataAccess implements NotesGeminiGateway {
     }
 
     private String buildPrompt(Course course, String topic) {
-        return """
-                You are an assistant that generates structured, exam-focused lecture notes for university students.
-
-                Use ONLY the attached PDF files as your source.
-                Your goal is to:
-                - Extract key ideas, definitions, formulas, and examples.
-                - Organize them into clear units/chapters and sections.
-                - Make it easy for students to review and study for tests.
-
-                You MUST return a single valid JSON object with the following fields:
-
-                {
-                  "courseId": "<string>",
-                  "topic": "<string>",
-                  "units": [
-                    {
-                      "unitTitle": "<short title for this unit>",
-                      "unitSummary": "<3–5 sentence overview of this unit>",
-                      "learningObjectives": [
-                        "<what a student should be able to do after this unit>"
-                      ],
-                      "sections": [
-                        {
-                          "sectionTitle": "<subtopic name>",
-                          "bulletPoints": [
-                            "<concise bullet point explaining a concept>",
-                            "<another bullet point>",
-                            "<include formulas or conditions when helpful>"
-                          ]
-                        }
-                      ],
-                      "reviewQuestions": [
-                        "<short concept-check question>",
-                        "<another question>"
-                      ]
-                    }
-                  ],
-                  "globalSummary": "<5–7 sentence high-level summary of the entire topic>",
-                  "examTips": [
-                    "<short tip about what is often tested or commonly confused>",
-                    "<another exam-focused tip>"
-                  ]
-                }
-
-                Rules:
-                - Use concise, student-friendly language.
-                - Make bullet points short and focused.
-                - Base everything only on the attached PDFs.
-                - Output ONLY the JSON object, with no extra text, markdown, or explanations.
-
-                Here is the context for this request.
-                Set the JSON fields courseId and topic to exactly these values:
-
-                courseId: %s
-                topic: %s
-                """.formatted(course.getCourseId(), topic);
+        return PROMPT_TEMPLATE.formatted(course.getCourseId(), topic);
     }
 
     private String formatNotes(StructuredNotes notes) {
@@ -226,4 +273,109 @@ public class NotesGeminiApiDataAccess implements NotesGeminiGateway {
         String sectionTitle;
         List<String> bulletPoints;
     }
+
+    /**
+     * Reads the notes response with a streaming reader, in place of
+     * reflective binding. Unknown fields are skipped, as Gson would.
+     *
+     * @return the notes, or null for a JSON null
+     */
+    private static StructuredNotes readNotes(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        StructuredNotes notes = new StructuredNotes();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "courseId":
+                    notes.courseId = JsonAdapters.readString(in);
+                    break;
+                case "topic":
+                    notes.topic = JsonAdapters.readString(in);
+                    break;
+                case "units":
+                    notes.units = readUnits(in);
+                    break;
+                case "globalSummary":
+                    notes.globalSummary = JsonAdapters.readString(in);
+                    break;
+                case "examTips":
+                    notes.examTips = JsonAdapters.readStringList(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return notes;
+    }
+
+    private static List<Unit> readUnits(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<Unit> units = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            Unit unit = new Unit();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "unitTitle":
+                        unit.unitTitle = JsonAdapters.readString(in);
+                        break;
+                    case "unitSummary":
+                        unit.unitSummary = JsonAdapters.readString(in);
+                        break;
+                    case "learningObjectives":
+                        unit.learningObjectives = JsonAdapters.readStringList(in);
+                        break;
+                    case "sections":
+                        unit.sections = readSections(in);
+                        break;
+                    case "reviewQuestions":
+                        unit.reviewQuestions = JsonAdapters.readStringList(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            units.add(unit);
+        }
+        in.endArray();
+        return units;
+    }
+
+    private static List<Section> readSections(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<Section> sections = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            Section section = new Section();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "sectionTitle":
+                        section.sectionTitle = JsonAdapters.readString(in);
+                        break;
+                    case "bulletPoints":
+                        section.bulletPoints = JsonAdapters.readStringList(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            sections.add(section);
+        }
+        in.endArray();
+        return sections;
+    }
 }
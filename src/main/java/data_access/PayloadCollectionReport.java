@@ -0,0 +1,81 @@
+package data_access;
+
+/**
+ * The payloads a timeline's blob store still holds and those it freed, see
+ * {@link FileTimelineRepository#collectPayloads()}.
+ */
+public final class PayloadCollectionReport {
+  /** The report of a store that holds no payloads. */
+  static final PayloadCollectionReport NOTHING = new PayloadCollectionReport(0, 0, 0, 0, 0);
+
+  private final int payloadsKept;
+  private final long bytesKept;
+  private final long bytesShared;
+  private final int payloadsFreed;
+  private final long bytesFreed;
+
+  /**
+   * Constructs a PayloadCollectionReport.
+   *
+   * @param payloadsKept stored payloads that are still referenced
+   * @param bytesKept the size of the kept payloads
+   * @param bytesShared the bytes that extra references to kept payloads
+   *     would have taken without deduplication
+   * @param payloadsFreed payloads deleted because nothing referenced them
+   * @param bytesFreed the bytes deleted
+   */
+  PayloadCollectionReport(int payloadsKept, long bytesKept, long bytesShared, int payloadsFreed,
+      long bytesFreed) {
+    this.payloadsKept = payloadsKept;
+    this.bytesKept = bytesKept;
+    this.bytesShared = bytesShared;
+    this.payloadsFreed = payloadsFreed;
+    this.bytesFreed = bytesFreed;
+  }
+
+  /**
+   * Gets the number of stored payloads that are still referenced.
+   *
+   * @return the number of payloads kept
+   */
+  public int getPayloadsKept() {
+    return payloadsKept;
+  }
+
+  /**
+   * Gets the size of the payloads that are still referenced.
+   *
+   * @return the size in bytes
+   */
+  public long getBytesKept() {
+    return bytesKept;
+  }
+
+  /**
+   * Gets how many bytes deduplication saves: each reference to a payload
+   * beyond the first would otherwise store it again.
+   *
+   * @return the size in bytes
+   */
+  public long getBytesShared() {
+    return bytesShared;
+  }
+
+  /**
+   * Gets the number of payloads deleted because nothing referenced them.
+   *
+   * @return the number of payloads freed
+   */
+  public int getPayloadsFreed() {
+    return payloadsFreed;
+  }
+
+  /**
+   * Gets the bytes deleted, including files left by interrupted writes.
+   *
+   * @return the size in bytes
+   */
+  public long getBytesFreed() {
+    return bytesFreed;
+  }
+}
@@ -0,0 +1,206 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable sorted map that shares structure between versions.
+ *
+ * <p>The map is an AVL tree whose nodes are never changed: {@link #put} and
+ * {@link #remove} copy only the O(log n) nodes on the path to the key and
+ * return a new map, so the old one stays valid for anyone still reading
+ * it. Each node also counts its subtree, so {@link #values(int, int)} finds
+ * a page's first entry in O(log n) instead of walking past the skipped
+ * ones.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class PersistentSortedMap<K extends Comparable<K>, V> {
+  private static final PersistentSortedMap<?, ?> EMPTY = new PersistentSortedMap<>(null);
+
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    final Node<K, V> left;
+    final Node<K, V> right;
+    final int height;
+    final int size;
+
+    Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+    }
+  }
+
+  private final Node<K, V> root;
+
+  private PersistentSortedMap(Node<K, V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Returns the empty map.
+   *
+   * @param <K> the key type
+   * @param <V> the value type
+   * @return the empty map
+   */
+  @SuppressWarnings("unchecked")
+  static <K extends Comparable<K>, V> PersistentSortedMap<K, V> empty() {
+    return (PersistentSortedMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Gets the value for a key.
+   *
+   * @param key the key
+   * @return the value, or null if the key is absent
+   */
+  V get(K key) {
+    Node<K, V> node = root;
+    while (node != null) {
+      int cmp = key.compareTo(node.key);
+      if (cmp == 0) {
+        return node.value;
+      }
+      node = cmp < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a map with a key set to a value.
+   *
+   * @param key the key
+   * @param value the value, not null
+   * @return the new map; this one is unchanged
+   */
+  PersistentSortedMap<K, V> put(K key, V value) {
+    return new PersistentSortedMap<>(put(root, key, value));
+  }
+
+  /**
+   * Returns a map without a key.
+   *
+   * @param key the key
+   * @return the new map, or this one if the key is absent
+   */
+  PersistentSortedMap<K, V> remove(K key) {
+    if (get(key) == null) {
+      return this;
+    }
+    return new PersistentSortedMap<>(remove(root, key));
+  }
+
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Gets a page of values in key order.
+   *
+   * @param offset how many values to skip
+   * @param limit the most values to return
+   * @return the values, in key order
+   */
+  List<V> values(int offset, int limit) {
+    List<V> page = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+    collect(root, offset, limit, page);
+    return page;
+  }
+
+  private static <K, V> void collect(Node<K, V> node, int offset, int limit, List<V> page) {
+    if (node == null || page.size() >= limit) {
+      return;
+    }
+    int leftSize = size(node.left);
+    if (offset < leftSize) {
+      collect(node.left, offset, limit, page);
+    }
+    if (offset <= leftSize && page.size() < limit) {
+      page.add(node.value);
+    }
+    collect(node.right, Math.max(0, offset - leftSize - 1), limit, page);
+  }
+
+  private static <K extends Comparable<K>, V> Node<K, V> put(Node<K, V> node, K key, V value) {
+    if (node == null) {
+      return new Node<>(key, value, null, null);
+    }
+    int cmp = key.compareTo(node.key);
+    if (cmp == 0) {
+      return new Node<>(key, value, node.left, node.right);
+    }
+    return cmp < 0
+        ? balance(node.key, node.value, put(node.left, key, value), node.right)
+        : balance(node.key, node.value, node.left, put(node.right, key, value));
+  }
+
+  private static <K extends Comparable<K>, V> Node<K, V> remove(Node<K, V> node, K key) {
+    int cmp = key.compareTo(node.key);
+    if (cmp < 0) {
+      return balance(node.key, node.value, remove(node.left, key), node.right);
+    }
+    if (cmp > 0) {
+      return balance(node.key, node.value, node.left, remove(node.right, key));
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node<K, V> successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.key, successor.value, node.left,
+        remove(node.right, successor.key));
+  }
+
+  /**
+   * Builds a node, rotating once or twice if its subtrees' heights differ
+   * by two.
+   */
+  private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+    int diff = height(left) - height(right);
+    if (diff > 1) {
+      if (height(left.left) < height(left.right)) {
+        left = rotateLeft(left.key, left.value, left.left, left.right);
+      }
+      return rotateRight(key, value, left, right);
+    }
+    if (diff < -1) {
+      if (height(right.right) < height(right.left)) {
+        right = rotateRight(right.key, right.value, right.left, right.right);
+      }
+      return rotateLeft(key, value, left, right);
+    }
+    return new Node<>(key, value, left, right);
+  }
+
+  private static <K, V> Node<K, V> rotateRight(K key, V value, Node<K, V> left,
+      Node<K, V> right) {
+    return new Node<>(left.key, left.value, left.left,
+        new Node<>(key, value, left.right, right));
+  }
+
+  private static <K, V> Node<K, V> rotateLeft(K key, V value, Node<K, V> left,
+      Node<K, V> right) {
+    return new Node<>(right.key, right.value,
+        new Node<>(key, value, left, right.left), right.right);
+  }
+
+  private static int height(Node<?, ?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node<?, ?> node) {
+    return node == null ? 0 : node.size;
+  }
+}
@@ -0,0 +1,278 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache of generated responses: a small in-memory LRU map in
+ * front of a directory with one JSON file per response.
+ *
+ * <p>Keys are arbitrary strings, stored on disk under their SHA-256.
+ * Responses older than the time to live are never returned. When the
+ * files grow past the size limit, the least recently used are deleted; a
+ * disk hit refreshes its file's modification time to mark it used.
+ *
+ * <p>Methods are synchronized. They only touch small files, and never wait
+ * on a generation.
+ */
+public final class ResponseCache {
+  private static final String ENTRY_SUFFIX = ".json";
+
+  /**
+   * A cached response as stored on disk.
+   */
+  private static final class Entry {
+    String key;
+    String storedAt;
+    String value;
+  }
+
+  private final Path directory;
+  private final int memoryEntries;
+  private final long diskBytes;
+  private final Duration timeToLive;
+  private final Clock clock;
+  private final LinkedHashMap<String, Entry> memory;
+  private long diskUsed = -1;
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructs a ResponseCache.
+   *
+   * @param directory the directory holding the cached responses
+   * @param memoryEntries how many responses to keep in memory
+   * @param diskBytes how many bytes of responses to keep on disk
+   * @param timeToLive how long a response may be reused
+   */
+  public ResponseCache(Path directory, int memoryEntries, long diskBytes, Duration timeToLive) {
+    this(directory, memoryEntries, diskBytes, timeToLive, Clock.systemUTC());
+  }
+
+  /**
+   * Constructs a ResponseCache that ages responses by the given clock.
+   *
+   * @param directory the directory holding the cached responses
+   * @param memoryEntries how many responses to keep in memory
+   * @param diskBytes how many bytes of responses to keep on disk
+   * @param timeToLive how long a response may be reused
+   * @param clock the clock responses are aged by
+   */
+  ResponseCache(Path directory, int memoryEntries, long diskBytes, Duration timeToLive,
+      Clock clock) {
+    this.directory = directory;
+    this.memoryEntries = memoryEntries;
+    this.diskBytes = diskBytes;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > ResponseCache.this.memoryEntries;
+      }
+    };
+  }
+
+  /**
+   * Gets a cached response.
+   *
+   * @param key the request's key
+   * @return the response, or null if none is cached or it expired
+   */
+  public synchronized String get(String key) {
+    Instant now = clock.instant();
+    Entry entry = memory.get(key);
+    if (entry != null && !expired(entry, now)) {
+      hits++;
+      return entry.value;
+    }
+    memory.remove(key);
+    Path file = fileFor(key);
+    entry = read(file);
+    if (entry == null || !key.equals(entry.key) || expired(entry, now)) {
+      misses++;
+      return null;
+    }
+    try {
+      Files.setLastModifiedTime(file, FileTime.from(now));
+    } catch (IOException e) {
+      // Only makes the entry look older to eviction
+    }
+    memory.put(key, entry);
+    hits++;
+    return entry.value;
+  }
+
+  /**
+   * Caches a response, replacing any earlier one for the key, then evicts
+   * the least recently used responses if the disk limit is exceeded.
+   *
+   * @param key the request's key
+   * @param value the response
+   */
+  public synchronized void put(String key, String value) {
+    Instant now = clock.instant();
+    Entry entry = new Entry();
+    entry.key = key;
+    entry.storedAt = now.toString();
+    entry.value = value;
+    memory.put(key, entry);
+    try {
+      Files.createDirectories(directory);
+      Path file = fileFor(key);
+      long replaced = Files.exists(file) ? Files.size(file) : 0;
+      Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        JsonAdapters.gson().toJson(entry, writer);
+      }
+      try {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.setLastModifiedTime(file, FileTime.from(now));
+      diskUsed = diskUsed() - replaced + Files.size(file);
+      if (diskUsed > diskBytes) {
+        evict(now);
+      }
+    } catch (IOException e) {
+      // The response is still cached in memory
+      System.err.println("Error saving cached response: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Gets how many lookups found a response.
+   *
+   * @return the number of hits
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets how many lookups found no usable response.
+   *
+   * @return the number of misses
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Hashes the parts of a request into a key. Parts are length-prefixed, so
+   * moving text from one part to the next changes the key.
+   *
+   * @param parts what the response depends on, e.g. model, prompt and inputs
+   * @return the key
+   */
+  public static String key(String... parts) {
+    StringBuilder joined = new StringBuilder();
+    for (String part : parts) {
+      String text = part == null ? "" : part;
+      joined.append(part == null ? -1 : text.length()).append(':').append(text);
+    }
+    return HexFormat.of().formatHex(FileHashes.newDigest()
+        .digest(joined.toString().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private boolean expired(Entry entry, Instant now) {
+    try {
+      return !Instant.parse(entry.storedAt).plus(timeToLive).isAfter(now);
+    } catch (RuntimeException e) {
+      return true;
+    }
+  }
+
+  private Path fileFor(String key) {
+    return directory.resolve(HexFormat.of().formatHex(FileHashes.newDigest()
+        .digest(key.getBytes(StandardCharsets.UTF_8))) + ENTRY_SUFFIX);
+  }
+
+  private Entry read(Path file) {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return JsonAdapters.gson().fromJson(reader, Entry.class);
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Skipping unreadable cached response: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Gets the bytes the cached responses take on disk, summing the files the
+   * first time.
+   *
+   * @return the size in bytes
+   * @throws IOException if the directory cannot be listed
+   */
+  private long diskUsed() throws IOException {
+    if (diskUsed < 0) {
+      diskUsed = 0;
+      for (Path file : entries()) {
+        diskUsed += Files.size(file);
+      }
+    }
+    return diskUsed;
+  }
+
+  /**
+   * Deletes expired responses, then the least recently used ones until the
+   * rest fit the disk limit.
+   *
+   * @param now the current time
+   * @throws IOException if the directory cannot be listed
+   */
+  private void evict(Instant now) throws IOException {
+    Map<Path, FileTime> lastUsed = new HashMap<>();
+    long total = 0;
+    for (Path file : entries()) {
+      lastUsed.put(file, Files.getLastModifiedTime(file));
+      total += Files.size(file);
+    }
+    List<Path> leastRecentFirst = new ArrayList<>(lastUsed.keySet());
+    leastRecentFirst.sort(Comparator.comparing(lastUsed::get));
+    FileTime expiredBefore = FileTime.from(now.minus(timeToLive));
+    for (Path file : leastRecentFirst) {
+      if (total <= diskBytes && lastUsed.get(file).compareTo(expiredBefore) > 0) {
+        break;
+      }
+      long size = Files.size(file);
+      if (Files.deleteIfExists(file)) {
+        total -= size;
+      }
+    }
+    diskUsed = total;
+  }
+
+  private List<Path> entries() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+          .toList();
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What one retention run did, see
+ * {@link ITimelineRepository#applyRetention(TimelineRetentionPolicy, java.time.Instant)}.
+ */
+public final class RetentionReport {
+  /** The report of a run that had nothing to do. */
+  static final RetentionReport NOTHING = new RetentionReport(0, List.of(), 0, 0, 0,
+      PayloadCollectionReport.NOTHING);
+
+  private final int eventsSummarized;
+  private final List<TimelineEvent> archivedEvents;
+  private final long liveBytesBefore;
+  private final long liveBytesAfter;
+  private final long archiveBytesWritten;
+  private final PayloadCollectionReport payloads;
+
+  /**
+   * Constructs a RetentionReport.
+   *
+   * @param eventsSummarized events whose payloads moved to the archive
+   * @param archivedEvents the events that left the live timeline
+   * @param liveBytesBefore the stored size of the live timeline before the run
+   * @param liveBytesAfter the stored size of the live timeline after the run
+   * @param archiveBytesWritten the compressed bytes added to the archive
+   * @param payloads the stored payloads after the run, and those it freed
+   */
+  RetentionReport(int eventsSummarized, List<TimelineEvent> archivedEvents,
+      long liveBytesBefore, long liveBytesAfter, long archiveBytesWritten,
+      PayloadCollectionReport payloads) {
+    this.eventsSummarized = eventsSummarized;
+    this.archivedEvents = Collections.unmodifiableList(archivedEvents);
+    this.liveBytesBefore = liveBytesBefore;
+    this.liveBytesAfter = liveBytesAfter;
+    this.archiveBytesWritten = archiveBytesWritten;
+    this.payloads = payloads;
+  }
+
+  /**
+   * Gets the number of events whose payloads moved to the archive.
+   *
+   * @return the number of summarized events
+   */
+  public int getEventsSummarized() {
+    return eventsSummarized;
+  }
+
+  /**
+   * Gets the number of events that left the live timeline.
+   *
+   * @return the number of archived events
+   */
+  public int getEventsArchived() {
+    return archivedEvents.size();
+  }
+
+  /**
+   * Gets the events that left the live timeline, as they were before the
+   * run, so whatever was derived from them can be updated.
+   *
+   * @return the archived events
+   */
+  public List<TimelineEvent> getArchivedEvents() {
+    return archivedEvents;
+  }
+
+  /**
+   * Gets the stored size of the live timeline before the run.
+   *
+   * @return the size in bytes
+   */
+  public long getLiveBytesBefore() {
+    return liveBytesBefore;
+  }
+
+  /**
+   * Gets the stored size of the live timeline after the run.
+   *
+   * @return the size in bytes
+   */
+  public long getLiveBytesAfter() {
+    return liveBytesAfter;
+  }
+
+  /**
+   * Gets the compressed bytes added to the archive.
+   *
+   * @return the size in bytes
+   */
+  public long getArchiveBytesWritten() {
+    return archiveBytesWritten;
+  }
+
+  /**
+   * Gets how much smaller the live timeline got. Payloads kept in the blob
+   * store are not counted; those the run freed are in {@link #getPayloads()}.
+   *
+   * @return the bytes reclaimed, never negative
+   */
+  public long getBytesReclaimed() {
+    return Math.max(0, liveBytesBefore - liveBytesAfter);
+  }
+
+  /**
+   * Gets the stored payloads after the run: what is still kept, and what
+   * was freed since the previous report, mostly by this run.
+   *
+   * @return the payload report
+   */
+  public PayloadCollectionReport getPayloads() {
+    return payloads;
+  }
+}
@@ -0,0 +1,280 @@
+package data_access;
+
+import entities.CourseStats;
+import entities.TimelineEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Repository decorator that keeps a full-text index of the events saved
+ * through it, so {@link #search(String, int)} reads postings instead of
+ * every event.
+ *
+ * <p>Each save or batch of saves becomes one small index segment on disk,
+ * written after the delegate has stored the events. Placed behind
+ * {@link AsyncTimelineRepository}, a whole group commit is indexed as one
+ * segment on the writer thread.
+ *
+ * <p>The first time the index directory is opened, or when it cannot be
+ * read, the index is rebuilt from the delegate on a background thread, one
+ * course at a time, so opening the repository does not read any history.
+ * Until the rebuild is done, {@link #search(String, int)} finds only the
+ * courses indexed so far and {@link #isSearchComplete()} is false. Events
+ * saved to a course that is still waiting are not indexed on save, since
+ * the rebuild reads them from the delegate.
+ */
+public class SearchIndexingTimelineRepository implements ITimelineRepository {
+  private final ITimelineRepository delegate;
+  private final TimelineSearchIndex index;
+  // Orders saves against the rebuild reading and indexing a course, so no
+  // event is indexed by both
+  private final Object rebuildLock = new Object();
+
+  /**
+   * Constructs a SearchIndexingTimelineRepository.
+   *
+   * @param delegate the repository that stores the events
+   * @param indexDirectory the directory holding the index files
+   */
+  public SearchIndexingTimelineRepository(ITimelineRepository delegate, String indexDirectory) {
+    this(delegate, new TimelineSearchIndex(Paths.get(indexDirectory)), runnable -> {
+      Thread thread = new Thread(runnable, "timeline-search-rebuild");
+      thread.setDaemon(true);
+      thread.start();
+    });
+  }
+
+  /**
+   * Constructs a SearchIndexingTimelineRepository around an index,
+   * rebuilding it on the calling thread if it is new.
+   *
+   * @param delegate the repository that stores the events
+   * @param index the index
+   */
+  SearchIndexingTimelineRepository(ITimelineRepository delegate, TimelineSearchIndex index) {
+    this(delegate, index, Runnable::run);
+  }
+
+  /**
+   * Constructs a SearchIndexingTimelineRepository around an index.
+   *
+   * @param delegate the repository that stores the events
+   * @param index the index, rebuilt from the delegate if it is new
+   * @param rebuilder runs the rebuild of a new or unfinished index
+   */
+  SearchIndexingTimelineRepository(ITimelineRepository delegate, TimelineSearchIndex index,
+      Executor rebuilder) {
+    this.delegate = delegate;
+    this.index = index;
+    if (index.isNew()) {
+      // Only lists the courses; their events are read by the rebuild
+      index.startRebuild(delegate.findCourseIds());
+    }
+    if (!index.pendingCourses().isEmpty()) {
+      rebuilder.execute(this::rebuild);
+    }
+  }
+
+  @Override
+  public void save(TimelineEvent event) {
+    saveAll(List.of(event));
+  }
+
+  @Override
+  public void saveAll(List<TimelineEvent> events) {
+    synchronized (rebuildLock) {
+      delegate.saveAll(events);
+      List<TimelineEvent> indexed = new ArrayList<>(events.size());
+      for (TimelineEvent event : events) {
+        if (!index.isPending(event.getCourseId())) {
+          indexed.add(event);
+        }
+      }
+      index.add(indexed);
+    }
+  }
+
+  /**
+   * Deletes an event and marks its document in the index as deleted, so
+   * searches stop finding it at once.
+   *
+   * @param event an event returned by this repository
+   * @return true if the event was found and deleted
+   */
+  @Override
+  public boolean delete(TimelineEvent event) {
+    if (!delegate.delete(event)) {
+      return false;
+    }
+    synchronized (rebuildLock) {
+      index.delete(List.of(event));
+    }
+    return true;
+  }
+
+  @Override
+  public void flush() {
+    delegate.flush();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  @Override
+  public List<TimelineEvent> findByCourseNewestFirst(UUID courseId) {
+    return delegate.findByCourseNewestFirst(courseId);
+  }
+
+  @Override
+  public TimelinePage findByCourse(UUID courseId, long beforeCursor, int limit) {
+    return delegate.findByCourse(courseId, beforeCursor, limit);
+  }
+
+  @Override
+  public List<TimelineEvent> findByCourse(UUID courseId, TimelineQuery query) {
+    return delegate.findByCourse(courseId, query);
+  }
+
+  @Override
+  public Set<UUID> findCourseIds() {
+    return delegate.findCourseIds();
+  }
+
+  @Override
+  public CourseStats getStats(UUID courseId) {
+    return delegate.getStats(courseId);
+  }
+
+  @Override
+  public List<TimelineSearchHit> search(String query, int limit) {
+    return resolve(delegate, index.search(query, limit));
+  }
+
+  /**
+   * Tells whether the index holds every course, or is still being rebuilt.
+   *
+   * @return false while courses are waiting to be indexed
+   */
+  @Override
+  public boolean isSearchComplete() {
+    return index.pendingCourses().isEmpty();
+  }
+
+  /**
+   * Applies retention, then marks the documents of the events it archived
+   * as deleted. Summarized events stay searchable, since their text is
+   * read back from the archive.
+   *
+   * @param policy how long events and payloads stay live
+   * @param now the current time
+   * @return what the run did
+   */
+  @Override
+  public RetentionReport applyRetention(TimelineRetentionPolicy policy, Instant now) {
+    RetentionReport report = delegate.applyRetention(policy, now);
+    synchronized (rebuildLock) {
+      index.delete(report.getArchivedEvents());
+    }
+    return report;
+  }
+
+  @Override
+  public List<TimelineEvent> findArchivedByCourse(UUID courseId) {
+    return delegate.findArchivedByCourse(courseId);
+  }
+
+  /**
+   * Deletes an index, so the next repository opened on the directory
+   * rebuilds it. Needed when events moved to other courses underneath it.
+   *
+   * @param indexDirectory the directory holding the index files
+   * @throws IOException if a file cannot be deleted
+   */
+  public static void deleteIndex(String indexDirectory) throws IOException {
+    Path directory = Paths.get(indexDirectory);
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Indexes the courses waiting to be indexed, one at a time. Each course
+   * is read and indexed while saves wait, and a save to it is indexed
+   * normally from then on.
+   */
+  private void rebuild() {
+    try {
+      for (UUID courseId : index.pendingCourses()) {
+        synchronized (rebuildLock) {
+          List<TimelineEvent> history = new ArrayList<>(delegate.findByCourseNewestFirst(courseId));
+          Collections.reverse(history);
+          index.addCourse(courseId, history);
+        }
+      }
+    } catch (RuntimeException e) {
+      // The remaining courses are indexed the next time the index is opened
+      System.err.println("Error rebuilding search index: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Adds every stored event of a repository to an index, one segment per
+   * course.
+   *
+   * @param events the repository
+   * @param index the index
+   */
+  static void indexAll(ITimelineRepository events, TimelineSearchIndex index) {
+    for (UUID courseId : events.findCourseIds()) {
+      List<TimelineEvent> history = new ArrayList<>(events.findByCourseNewestFirst(courseId));
+      Collections.reverse(history);
+      index.add(history);
+    }
+  }
+
+  /**
+   * Looks up the events of index matches by where each is stored: its
+   * course, type and exact time, then its content. Only the matched events
+   * are read, not the courses' histories. Matches whose event is no longer
+   * stored are dropped.
+   *
+   * @param events the repository holding the events
+   * @param matches the matches, best first
+   * @return the hits in the same order
+   */
+  static List<TimelineSearchHit> resolve(ITimelineRepository events,
+      List<TimelineSearchIndex.Match> matches) {
+    List<TimelineSearchHit> hits = new ArrayList<>(matches.size());
+    for (TimelineSearchIndex.Match match : matches) {
+      TimelineQuery at = new TimelineQuery(EnumSet.of(match.type), match.occurredAt,
+          match.occurredAt.plusNanos(1), Integer.MAX_VALUE);
+      for (TimelineEvent event : events.findByCourse(match.courseId, at)) {
+        if (match.contentId.equals(event.getContentId())) {
+          hits.add(new TimelineSearchHit(event, match.score));
+          break;
+        }
+      }
+    }
+    return hits;
+  }
+}
@@ -0,0 +1,394 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import usecases.Timeline.ICourseIdMapper;
+
+/**
+ * Timeline storage that keeps each course in its own log shard, written
+ * like {@link LogTimelineStorage}, plus a small manifest listing the
+ * courses.
+ *
+ * <p>{@link #load()} reads only the manifest, so startup does not depend on
+ * how many events are stored; a course's shard is read the first time the
+ * repository touches that course. Because courses never share a file, one
+ * course can be compacted, copied or archived without touching the others.
+ * All shards share one {@link BlobStore} for large payloads, which counts
+ * the records of every shard pointing at each payload.
+ *
+ * <p>The first time a directory is opened without a manifest, an existing
+ * log or snapshot timeline is split into shards. The manifest is written
+ * last, so an interrupted split is simply redone.
+ */
+class ShardedTimelineStorage implements TimelineStorage {
+  private static final String MANIFEST_FILE = "manifest.json";
+  private static final int MANIFEST_VERSION = 1;
+
+  private final Path directory;
+  private final Path legacyLog;
+  private final BlobStore legacyBlobs;
+  private final Path legacySnapshot;
+  private final BlobStore blobs;
+  private final FileTimelineRepository.RecordFormat format;
+  private final ICourseIdMapper courseIds;
+  private final Map<UUID, ManifestEntry> manifest = new LinkedHashMap<>();
+  private final Map<UUID, LogTimelineStorage> shards = new HashMap<>();
+  private Supplier<Map<UUID, List<TimelineEvent>>> currentEvents = Collections::emptyMap;
+
+  /**
+   * The manifest file: one entry per course that has a shard.
+   */
+  private static final class Manifest {
+    int version = MANIFEST_VERSION;
+    List<ManifestEntry> courses = new ArrayList<>();
+  }
+
+  /**
+   * A course listed in the manifest.
+   */
+  private static final class ManifestEntry {
+    String courseId;  // UUID as string
+    String courseIdString;  // Original course ID string, if known
+    String shard;  // File name inside the directory
+  }
+
+  /**
+   * Constructs a ShardedTimelineStorage.
+   *
+   * @param directory the directory holding the manifest and shards
+   * @param blobs where large payloads are kept
+   * @param format the record format of new shards
+   * @param legacyLog a timeline log to split into shards when the directory
+   *     has no manifest yet, or null
+   * @param legacyBlobs the blob store of {@code legacyLog}, or null
+   * @param legacySnapshot a snapshot timeline to split when there is no
+   *     legacy log, or null
+   * @param courseIds records the original course IDs of saved events and
+   *     gets them back on load
+   */
+  ShardedTimelineStorage(Path directory, BlobStore blobs,
+      FileTimelineRepository.RecordFormat format, Path legacyLog, BlobStore legacyBlobs,
+      Path legacySnapshot, ICourseIdMapper courseIds) {
+    this.directory = directory;
+    this.courseIds = courseIds;
+    this.blobs = blobs;
+    this.format = format;
+    this.legacyLog = legacyLog;
+    this.legacyBlobs = legacyBlobs;
+    this.legacySnapshot = legacySnapshot;
+  }
+
+  @Override
+  public void attach(Supplier<Map<UUID, List<TimelineEvent>>> currentEvents) {
+    this.currentEvents = currentEvents;
+  }
+
+  @Override
+  public synchronized List<TimelineEvent> load() {
+    try {
+      Path manifestFile = directory.resolve(MANIFEST_FILE);
+      if (!Files.exists(manifestFile)) {
+        splitLegacyTimeline();
+      } else {
+        readManifest(manifestFile);
+      }
+      if (!blobs.hasReferenceCounts()) {
+        countReferences();
+      }
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Error loading timeline manifest: " + e.getMessage());
+      e.printStackTrace();
+    }
+    // Courses unknown to the mapper get their mapping back without
+    // reading their shard
+    for (Map.Entry<UUID, ManifestEntry> entry : manifest.entrySet()) {
+      if (entry.getValue().courseIdString != null) {
+        courseIds.restoreMapping(entry.getValue().courseIdString, entry.getKey());
+      }
+    }
+    return List.of();
+  }
+
+  @Override
+  public synchronized List<TimelineEvent> loadCourse(UUID courseId) {
+    if (!manifest.containsKey(courseId)) {
+      return List.of();
+    }
+    return shard(courseId).load();
+  }
+
+  @Override
+  public synchronized Set<UUID> courseIds() {
+    return new HashSet<>(manifest.keySet());
+  }
+
+  @Override
+  public void append(TimelineEvent event) {
+    appendAll(List.of(event));
+  }
+
+  @Override
+  public synchronized void appendAll(List<TimelineEvent> events) {
+    Map<UUID, List<TimelineEvent>> byCourse = new LinkedHashMap<>();
+    for (TimelineEvent event : events) {
+      byCourse.computeIfAbsent(event.getCourseId(), k -> new ArrayList<>()).add(event);
+    }
+    // List new courses before writing their shards, so a crash can leave at
+    // worst an empty shard, never an unlisted one
+    boolean manifestChanged = false;
+    for (UUID courseId : byCourse.keySet()) {
+      manifestChanged |= register(courseId, courseIds.getCourseIdForUuid(courseId));
+    }
+    if (manifestChanged) {
+      try {
+        writeManifest();
+      } catch (IOException e) {
+        System.err.println("Error saving timeline manifest: " + e.getMessage());
+        e.printStackTrace();
+      }
+    }
+    for (Map.Entry<UUID, List<TimelineEvent>> entry : byCourse.entrySet()) {
+      shard(entry.getKey()).appendAll(entry.getValue());
+    }
+  }
+
+  @Override
+  public synchronized void compact() {
+    for (UUID courseId : currentEvents.get().keySet()) {
+      compactCourse(courseId);
+    }
+  }
+
+  @Override
+  public synchronized void compactCourse(UUID courseId) {
+    if (manifest.containsKey(courseId)) {
+      shard(courseId).compact();
+    }
+  }
+
+  @Override
+  public synchronized void compactCourses(Set<UUID> courseIds) {
+    for (UUID courseId : courseIds) {
+      compactCourse(courseId);
+    }
+  }
+
+  @Override
+  public synchronized void replaceCourse(UUID courseId, List<TimelineEvent> events) {
+    if (manifest.containsKey(courseId)) {
+      shard(courseId).replace(events);
+    }
+  }
+
+  /**
+   * Unlists a course from the manifest, then deletes its shard and
+   * releases its payloads.
+   *
+   * @param courseId the course UUID
+   */
+  @Override
+  public synchronized void dropCourse(UUID courseId) {
+    ManifestEntry entry = manifest.remove(courseId);
+    if (entry == null) {
+      return;
+    }
+    LogTimelineStorage shard = shards.remove(courseId);
+    if (shard == null) {
+      shard = newShard(entry);
+    }
+    shard.close();
+    try {
+      List<BlobStore.Blob> references = shard.readReferences();
+      // An unlisted shard is never read, so a crash before the delete is harmless
+      writeManifest();
+      Files.deleteIfExists(directory.resolve(entry.shard));
+      blobs.release(references);
+    } catch (IOException e) {
+      System.err.println("Error dropping timeline shard: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public synchronized PayloadCollectionReport collectPayloads() {
+    try {
+      return blobs.report();
+    } catch (IOException e) {
+      System.err.println("Error reading timeline payload references: " + e.getMessage());
+      e.printStackTrace();
+      return PayloadCollectionReport.NOTHING;
+    }
+  }
+
+  @Override
+  public synchronized long storedBytes() {
+    long total = 0;
+    for (ManifestEntry entry : manifest.values()) {
+      try {
+        Path shard = directory.resolve(entry.shard);
+        total += Files.exists(shard) ? Files.size(shard) : 0;
+      } catch (IOException e) {
+        // An unreadable shard counts as empty
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Gets the shard storage of a course, pointed at the repository's events
+   * for that course.
+   *
+   * @param courseId the course UUID
+   * @return the shard
+   */
+  private LogTimelineStorage shard(UUID courseId) {
+    return shards.computeIfAbsent(courseId, id -> {
+      LogTimelineStorage shard = newShard(manifest.get(id));
+      shard.attach(() -> Map.of(id, currentEvents.get().getOrDefault(id, List.of())));
+      return shard;
+    });
+  }
+
+  /**
+   * Adds a course to the manifest, or records its original course ID.
+   *
+   * @param courseId the course UUID
+   * @param courseIdString the original course ID, or null if unknown
+   * @return true if the manifest changed
+   */
+  private boolean register(UUID courseId, String courseIdString) {
+    ManifestEntry entry = manifest.get(courseId);
+    if (entry == null) {
+      entry = new ManifestEntry();
+      entry.courseId = courseId.toString();
+      entry.shard = courseId + format.extension();
+      entry.courseIdString = courseIdString;
+      manifest.put(courseId, entry);
+      return true;
+    }
+    if (courseIdString != null && !courseIdString.equals(entry.courseIdString)) {
+      entry.courseIdString = courseIdString;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Splits an existing log or snapshot timeline into one shard per course,
+   * then writes the manifest. Shards left by an interrupted split are
+   * replaced.
+   *
+   * @throws IOException if writing fails
+   */
+  private void splitLegacyTimeline() throws IOException {
+    List<TimelineEvent> events;
+    if (legacyLog != null && Files.exists(legacyLog)) {
+      // Read only; the old log and its payloads are left as they are
+      events = new LogTimelineStorage(legacyLog, null, legacyBlobs,
+          new JsonLinesRecordCodec(), courseIds, false).load();
+    } else if (legacySnapshot != null && Files.exists(legacySnapshot)) {
+      events = new SnapshotTimelineStorage(legacySnapshot, courseIds).load();
+    } else {
+      events = List.of();
+    }
+    Files.createDirectories(directory);
+
+    Map<UUID, List<TimelineEvent>> byCourse = new LinkedHashMap<>();
+    for (TimelineEvent event : events) {
+      byCourse.computeIfAbsent(event.getCourseId(), k -> new ArrayList<>()).add(event);
+    }
+    for (Map.Entry<UUID, List<TimelineEvent>> entry : byCourse.entrySet()) {
+      UUID courseId = entry.getKey();
+      register(courseId, courseIds.getCourseIdForUuid(courseId));
+      // Compacting a standalone shard writes the course's events to a fresh
+      // file, copying payloads into this storage's blob store
+      LogTimelineStorage shard = newShard(manifest.get(courseId));
+      Map<UUID, List<TimelineEvent>> course = Map.of(courseId, entry.getValue());
+      shard.attach(() -> course);
+      shard.compact();
+    }
+    writeManifest();
+  }
+
+  /**
+   * Counts the payload references of every shard, loaded or not, for a
+   * blob store written before references were counted. Runs once.
+   *
+   * @throws IOException if a shard cannot be read
+   */
+  private void countReferences() throws IOException {
+    List<BlobStore.Blob> references = new ArrayList<>();
+    for (ManifestEntry entry : manifest.values()) {
+      references.addAll(newShard(entry).readReferences());
+    }
+    blobs.initializeReferences(references);
+  }
+
+  private LogTimelineStorage newShard(ManifestEntry entry) {
+    return new LogTimelineStorage(directory.resolve(entry.shard), null, blobs,
+        FileTimelineRepository.RecordFormat.forFileName(entry.shard).newCodec(), courseIds,
+        false);
+  }
+
+  private void readManifest(Path manifestFile) throws IOException {
+    Manifest read;
+    try (Reader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+      read = JsonAdapters.prettyGson().fromJson(reader, Manifest.class);
+    }
+    if (read == null || read.courses == null) {
+      return;
+    }
+    for (ManifestEntry entry : read.courses) {
+      if (entry.courseId == null || entry.shard == null) {
+        continue;
+      }
+      manifest.put(UUID.fromString(entry.courseId), entry);
+    }
+  }
+
+  /**
+   * Writes the manifest to a temporary file and renames it into place.
+   *
+   * @throws IOException if writing or renaming fails
+   */
+  private void writeManifest() throws IOException {
+    Files.createDirectories(directory);
+    Manifest out = new Manifest();
+    out.courses.addAll(manifest.values());
+    Path target = directory.resolve(MANIFEST_FILE);
+    Path temp = target.resolveSibling(MANIFEST_FILE + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+      JsonAdapters.prettyGson().toJson(out, writer);
+      writer.flush();
+      channel.force(true);
+    }
+    try {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
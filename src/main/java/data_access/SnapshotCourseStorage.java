@@ -0,0 +1,126 @@
+package data_access;
+
+import entities.Course;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Course storage that rewrites the whole JSON array on every mutation.
+ */
+class SnapshotCourseStorage implements CourseStorage {
+  private final Path file;
+  private Supplier<List<Course>> currentCourses = Collections::emptyList;
+  private volatile FileStamp stamp;
+
+  /**
+   * Constructs a SnapshotCourseStorage and initializes the file if needed.
+   *
+   * @param file the JSON file holding the courses
+   */
+  SnapshotCourseStorage(Path file) {
+    this.file = file;
+    CreateFileIfNotExist();
+  }
+
+  @Override
+  public void attach(Supplier<List<Course>> currentCourses) {
+    this.currentCourses = currentCourses;
+  }
+
+  @Override
+  public List<Course> load() {
+    FileStamp before = FileStamp.of(file);
+    List<Course> courses = readCourses();
+    stamp = before;
+    return courses;
+  }
+
+  @Override
+  public List<Course> loadPage(int offset, int limit) {
+    try {
+      return CourseJsonCodec.readPage(file, offset, limit);
+    } catch (IOException e) {
+      System.out.println("Could not read " + file + ": " + e.getMessage());
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return new ArrayList<>();
+  }
+
+  @Override
+  public void savePut(Course course) {
+    writeCourses(currentCourses.get());
+  }
+
+  @Override
+  public void saveDelete(String courseId) {
+    writeCourses(currentCourses.get());
+  }
+
+  @Override
+  public boolean hasChangedOnDisk() {
+    return !FileStamp.of(file).equals(stamp);
+  }
+
+  /**
+   * Creates the courses file if it doesn't exist.
+   */
+  private void CreateFileIfNotExist() {
+    File courseFile = file.toFile();
+
+    try {
+      if (courseFile.createNewFile()) {
+        System.out.println("File created: " + courseFile.getName());
+        writeCourses(Collections.emptyList());
+      } else {
+        System.out.println("File already exists.");
+      }
+    } catch (IOException e) {
+      System.out.println("An error occurred during file creation.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Reads courses from the JSON file.
+   *
+   * @return a list of courses
+   */
+  private List<Course> readCourses() {
+    try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return CourseJsonCodec.readArray(in);
+    } catch (IOException e) {
+      System.out.println("Could not read " + file
+          + ", starting with empty course list.");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return new ArrayList<>();
+  }
+
+  /**
+   * Writes courses to the JSON file and records the resulting file stamp,
+   * so this storage's own writes are not mistaken for external edits. The
+   * array goes to a temporary file that is renamed over the old one, so a
+   * crash or a concurrent reader never sees a half-written catalog.
+   *
+   * @param courses the list of courses to write
+   */
+  private void writeCourses(List<Course> courses) {
+    try {
+      CourseJsonCodec.writeArrayAtomically(file, courses);
+      System.out.println("Successfully wrote JSON array to file.");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    stamp = FileStamp.of(file);
+  }
+}
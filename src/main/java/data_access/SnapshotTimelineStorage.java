@@ -0,0 +1,165 @@
+package data_access;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import entities.TimelineEvent;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import usecases.Timeline.ICourseIdMapper;
+
+/**
+ * Timeline storage that keeps every course's events in one pretty-printed
+ * JSON object and rewrites it on every save.
+ */
+class SnapshotTimelineStorage implements TimelineStorage {
+  private static final Type FILE_TYPE =
+      new TypeToken<Map<String, List<TimelineEventData>>>() {
+      }.getType();
+
+  private final Path file;
+  private final ICourseIdMapper courseIds;
+  private final Gson gson = TimelineEventData.gsonBuilder().setPrettyPrinting().create();
+  private Supplier<Map<UUID, List<TimelineEvent>>> currentEvents = Collections::emptyMap;
+
+  /**
+   * Constructs a SnapshotTimelineStorage.
+   *
+   * @param file the JSON file holding the timeline
+   * @param courseIds records the original course IDs of saved events and
+   *     gets them back on load
+   */
+  SnapshotTimelineStorage(Path file, ICourseIdMapper courseIds) {
+    this.file = file;
+    this.courseIds = courseIds;
+  }
+
+  @Override
+  public void attach(Supplier<Map<UUID, List<TimelineEvent>>> currentEvents) {
+    this.currentEvents = currentEvents;
+  }
+
+  @Override
+  public List<TimelineEvent> load() {
+    List<TimelineEvent> events = new ArrayList<>();
+    if (!Files.exists(file)) {
+      return events; // File doesn't exist yet, start with empty data
+    }
+
+    try {
+      String jsonString = Files.readString(file);
+      if (jsonString.trim().isEmpty()) {
+        return events; // Empty file
+      }
+
+      Map<String, List<TimelineEventData>> dataMap = gson.fromJson(jsonString, FILE_TYPE);
+      if (dataMap != null) {
+        for (Map.Entry<String, List<TimelineEventData>> entry : dataMap.entrySet()) {
+          UUID courseUuidFromFile = UUID.fromString(entry.getKey());
+
+          // Try to restore the course ID mapping from stored events
+          for (TimelineEventData data : entry.getValue()) {
+            String inferredCourseId =
+                courseIds.derivesUuids() ? data.courseIdString : data.inferCourseId();
+            if (inferredCourseId != null) {
+              courseIds.restoreMapping(inferredCourseId, courseUuidFromFile);
+              break;
+            }
+          }
+
+          // Load all events for this course UUID
+          for (TimelineEventData data : entry.getValue()) {
+            events.add(data.toTimelineEvent());
+          }
+        }
+      }
+    } catch (Exception e) {
+      System.err.println("Error loading timeline from file: "
+          + e.getMessage());
+      e.printStackTrace();
+    }
+    return events;
+  }
+
+  @Override
+  public void append(TimelineEvent event) {
+    write();
+  }
+
+  @Override
+  public void appendAll(List<TimelineEvent> events) {
+    if (!events.isEmpty()) {
+      // The snapshot already holds the whole batch; write it once
+      write();
+    }
+  }
+
+  @Override
+  public void compact() {
+    // Saves rewrite the snapshot in full already; this only picks up
+    // events the repository removed since the last save
+    write();
+  }
+
+  @Override
+  public long storedBytes() {
+    try {
+      return Files.exists(file) ? Files.size(file) : 0;
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Writes every current event over the snapshot file.
+   */
+  private void write() {
+    try {
+      // Convert to a serializable format
+      Map<String, List<TimelineEventData>> dataMap = new HashMap<>();
+      for (Map.Entry<UUID, List<TimelineEvent>> entry : currentEvents.get().entrySet()) {
+        List<TimelineEventData> eventDataList = new ArrayList<>();
+        for (TimelineEvent stored : entry.getValue()) {
+          eventDataList.add(new TimelineEventData(stored, courseIds));
+        }
+        dataMap.put(entry.getKey().toString(), eventDataList);
+      }
+
+      try (FileWriter writer = new FileWriter(file.toFile())) {
+        gson.toJson(dataMap, writer);
+      }
+    } catch (IOException e) {
+      System.err.println("Error saving timeline to file: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Reads a timeline file in this storage's format without restoring any
+   * course mappings. Used to import it into another storage.
+   *
+   * @param file the JSON file
+   * @return the raw records per course UUID, or an empty map if absent
+   * @throws IOException if the file cannot be read
+   */
+  static Map<String, List<TimelineEventData>> readRecords(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return new HashMap<>();
+    }
+    String jsonString = Files.readString(file);
+    if (jsonString.trim().isEmpty()) {
+      return new HashMap<>();
+    }
+    Map<String, List<TimelineEventData>> dataMap = TimelineEventData.GSON.fromJson(jsonString, FILE_TYPE);
+    return dataMap != null ? dataMap : new HashMap<>();
+  }
+}
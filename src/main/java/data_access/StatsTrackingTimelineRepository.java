@@ -0,0 +1,148 @@
+package data_access;
+
+import entities.CourseStats;
+import entities.TimelineEvent;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * ITimelineRepository decorator that keeps each course's
+ * {@link CourseStats} materialized.
+ *
+ * <p>A course's statistics are built from its history the first time they
+ * are asked for; from then on every saved event updates them in constant
+ * time, so {@link #getStats(UUID)} never reads the events again. Courses
+ * nobody asks about cost nothing, which keeps lazily loaded storage lazy.
+ */
+public class StatsTrackingTimelineRepository implements ITimelineRepository {
+  private final ITimelineRepository delegate;
+  private final Map<UUID, CourseStats> stats = new HashMap<>();
+
+  /**
+   * Constructs a StatsTrackingTimelineRepository.
+   *
+   * @param delegate the repository that stores the events
+   */
+  public StatsTrackingTimelineRepository(ITimelineRepository delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public synchronized void save(TimelineEvent event) {
+    delegate.save(event);
+    track(event);
+  }
+
+  @Override
+  public synchronized void saveAll(List<TimelineEvent> events) {
+    delegate.saveAll(events);
+    for (TimelineEvent event : events) {
+      track(event);
+    }
+  }
+
+  /**
+   * Gets a course's statistics, building them from its history on the
+   * first call.
+   *
+   * @param courseId the course UUID
+   * @return a snapshot of the statistics
+   */
+  @Override
+  public synchronized CourseStats getStats(UUID courseId) {
+    CourseStats current = stats.get(courseId);
+    if (current == null) {
+      // Saves hold the same lock, so none can slip in between the scan
+      // and tracking
+      current = delegate.getStats(courseId);
+      stats.put(courseId, current);
+    }
+    return new CourseStats(current);
+  }
+
+  @Override
+  public void flush() {
+    delegate.flush();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  @Override
+  public List<TimelineEvent> findByCourseNewestFirst(UUID courseId) {
+    return delegate.findByCourseNewestFirst(courseId);
+  }
+
+  @Override
+  public TimelinePage findByCourse(UUID courseId, long beforeCursor, int limit) {
+    return delegate.findByCourse(courseId, beforeCursor, limit);
+  }
+
+  @Override
+  public List<TimelineEvent> findByCourse(UUID courseId, TimelineQuery query) {
+    return delegate.findByCourse(courseId, query);
+  }
+
+  @Override
+  public synchronized boolean delete(TimelineEvent event) {
+    boolean deleted = delegate.delete(event);
+    if (deleted) {
+      // Counts cannot be taken back one event at a time; rebuild on next use
+      stats.remove(event.getCourseId());
+    }
+    return deleted;
+  }
+
+  @Override
+  public Set<UUID> findCourseIds() {
+    return delegate.findCourseIds();
+  }
+
+  @Override
+  public List<TimelineSearchHit> search(String query, int limit) {
+    return delegate.search(query, limit);
+  }
+
+  @Override
+  public boolean isSearchComplete() {
+    return delegate.isSearchComplete();
+  }
+
+  /**
+   * Applies retention, then drops the statistics of the courses it
+   * archived events of, so they are rebuilt from the live timeline on next
+   * use. The lock is not held during the run, which may take a while.
+   *
+   * @param policy how long events and payloads stay live
+   * @param now the current time
+   * @return what the run did
+   */
+  @Override
+  public RetentionReport applyRetention(TimelineRetentionPolicy policy, Instant now) {
+    RetentionReport report = delegate.applyRetention(policy, now);
+    synchronized (this) {
+      for (TimelineEvent event : report.getArchivedEvents()) {
+        stats.remove(event.getCourseId());
+      }
+    }
+    return report;
+  }
+
+  @Override
+  public List<TimelineEvent> findArchivedByCourse(UUID courseId) {
+    return delegate.findArchivedByCourse(courseId);
+  }
+
+  private void track(TimelineEvent event) {
+    CourseStats current = stats.get(event.getCourseId());
+    if (current != null) {
+      current.add(event);
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for timeline events that retention moved out of the live
+ * timeline. Each retention run writes one GZIP-compressed JSON Lines
+ * segment per course, "&lt;course&gt;.&lt;n&gt;.jsonl.gz", holding full copies of
+ * the events with every payload inline. Segments are never rewritten and
+ * are only read when an archived event or payload is asked for.
+ */
+final class TimelineArchive {
+  private static final String SEGMENT_SUFFIX = ".jsonl.gz";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path directory;
+  private final TimelineRecordCodec codec = new JsonLinesRecordCodec();
+  // The archived events of the course read last, by key(), so loading the
+  // payloads of several summarized events decompresses its segments once
+  private UUID cachedCourse;
+  private Map<String, TimelineEvent> cachedEvents;
+
+  /**
+   * Constructs a TimelineArchive.
+   *
+   * @param directory the directory holding the segments
+   */
+  TimelineArchive(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Writes events of one course to a new segment.
+   *
+   * @param courseId the course UUID
+   * @param events the events with their payloads, oldest first
+   * @return the compressed size of the segment in bytes
+   * @throws IOException if writing fails
+   */
+  synchronized long write(UUID courseId, List<TimelineEvent> events) throws IOException {
+    Files.createDirectories(directory);
+    Path target = directory.resolve(courseId + "." + (lastSegment(courseId) + 1) + SEGMENT_SUFFIX);
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      GZIPOutputStream gzip = new GZIPOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(out), BUFFER_SIZE), BUFFER_SIZE);
+      for (TimelineEvent event : events) {
+        gzip.write(codec.encode(new TimelineEventData(event)));
+      }
+      gzip.finish();
+      gzip.flush();
+      out.force(true);
+    }
+    try {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    if (courseId.equals(cachedCourse)) {
+      cachedCourse = null;
+      cachedEvents = null;
+    }
+    return Files.size(target);
+  }
+
+  /**
+   * Reads every archived event of a course.
+   *
+   * @param courseId the course UUID
+   * @return the events, oldest segment first, with their payloads
+   * @throws IOException if a segment cannot be read
+   */
+  synchronized List<TimelineEvent> read(UUID courseId) throws IOException {
+    List<TimelineEvent> events = new ArrayList<>();
+    int last = lastSegment(courseId);
+    for (int n = 1; n <= last; n++) {
+      Path segment = directory.resolve(courseId + "." + n + SEGMENT_SUFFIX);
+      if (!Files.exists(segment)) {
+        continue;
+      }
+      try (InputStream in = new GZIPInputStream(
+          new BufferedInputStream(Files.newInputStream(segment), BUFFER_SIZE), BUFFER_SIZE)) {
+        codec.decodeAll(in, data -> {
+          try {
+            events.add(data.toTimelineEvent());
+          } catch (RuntimeException e) {
+            System.err.println("Skipping unreadable archived record: " + e.getMessage());
+          }
+        });
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Moves every archived event of a course to another course, as a new
+   * segment of the target. Events the target already has are not copied
+   * again, so a move that was interrupted can be repeated.
+   *
+   * @param from the course UUID to empty
+   * @param to the course UUID that receives the events
+   * @return the number of events copied
+   * @throws IOException if reading, writing or deleting fails
+   */
+  synchronized int moveCourse(UUID from, UUID to) throws IOException {
+    int last = lastSegment(from);
+    if (last == 0) {
+      return 0;
+    }
+    Set<String> present = new HashSet<>();
+    for (TimelineEvent event : read(to)) {
+      present.add(key(event));
+    }
+    List<TimelineEvent> copies = new ArrayList<>();
+    for (TimelineEvent event : read(from)) {
+      if (present.add(key(event))) {
+        copies.add(FileTimelineRepository.copyToCourse(event, to));
+      }
+    }
+    if (!copies.isEmpty()) {
+      write(to, copies);
+    }
+    // The copies are safe, so the old segments can go
+    for (int n = 1; n <= last; n++) {
+      Files.deleteIfExists(directory.resolve(from + "." + n + SEGMENT_SUFFIX));
+    }
+    cachedCourse = null;
+    cachedEvents = null;
+    return copies.size();
+  }
+
+  /**
+   * Points a summarized event's payloads at its archived copy, so they are
+   * read from the archive the first time they are asked for.
+   *
+   * @param event an event whose payloads were archived
+   */
+  void attachLoaders(TimelineEvent event) {
+    UUID courseId = event.getCourseId();
+    String key = key(event);
+    event.setFullNotesTextLoader(loader(courseId, key, TimelineEvent::getFullNotesText));
+    event.setFlashcardDataLoader(loader(courseId, key, TimelineEvent::getFlashcardData));
+    event.setTestDataLoader(loader(courseId, key, TimelineEvent::getTestData));
+    event.setEvaluationDataLoader(loader(courseId, key, TimelineEvent::getEvaluationData));
+  }
+
+  /**
+   * Identifies an event within its course's archive. Events have no stored
+   * ID, so this combines what does not change once the event is saved.
+   *
+   * @param event the event
+   * @return the key
+   */
+  static String key(TimelineEvent event) {
+    return event.getType() + "/" + event.getContentId() + "/" + event.getOccurredAt();
+  }
+
+  private <T> Supplier<T> loader(UUID courseId, String key, Function<TimelineEvent, T> payload) {
+    return () -> {
+      TimelineEvent archived = find(courseId, key);
+      return archived == null ? null : payload.apply(archived);
+    };
+  }
+
+  private synchronized TimelineEvent find(UUID courseId, String key) {
+    if (!courseId.equals(cachedCourse)) {
+      Map<String, TimelineEvent> events = new HashMap<>();
+      try {
+        for (TimelineEvent event : read(courseId)) {
+          events.put(key(event), event);
+        }
+      } catch (IOException e) {
+        System.err.println("Error reading timeline archive: " + e.getMessage());
+        return null;
+      }
+      cachedCourse = courseId;
+      cachedEvents = events;
+    }
+    return cachedEvents.get(key);
+  }
+
+  /**
+   * Finds the number of the newest segment of a course.
+   *
+   * @param courseId the course UUID
+   * @return the segment number, or 0 if the course has none
+   * @throws IOException if the directory cannot be listed
+   */
+  private int lastSegment(UUID courseId) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return 0;
+    }
+    String prefix = courseId + ".";
+    int last = 0;
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(prefix) && name.endsWith(SEGMENT_SUFFIX)) {
+          try {
+            last = Math.max(last, Integer.parseInt(
+                name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length())));
+          } catch (NumberFormatException e) {
+            // Not a segment of ours
+          }
+        }
+      }
+    }
+    return last;
+  }
+}
@@ -0,0 +1,404 @@
+package data_access;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import entities.EvaluationData;
+import entities.FlashcardSet;
+import entities.TestData;
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import usecases.Timeline.CourseIdMapper;
+import usecases.Timeline.ICourseIdMapper;
+
+/**
+ * Helper class for serializing/deserializing TimelineEvent.
+ * Handles UUID and Instant conversion to/from strings.
+ *
+ * <p>Flashcard, test and evaluation payloads are stored as nested JSON
+ * objects. Older files hold them as JSON text inside a string; {@link #GSON}
+ * unwraps those on read.
+ */
+final class TimelineEventData {
+  /**
+   * Gson for records in JSON form.
+   */
+  static final Gson GSON = gsonBuilder().create();
+
+  String courseId;  // UUID as string
+  String courseIdString;  // Original course ID string (e.g., "PHL245")
+  String contentId;
+  String type;
+  String occurredAt;
+  String title;
+  String snippet;
+  Integer numCards;
+  Integer numQuestions;
+  Double score;
+  String fullNotesText;
+  FlashcardSet flashcardData;
+  TestData testData;
+  EvaluationData evaluationData;
+  // Payloads moved to a BlobStore; the matching inline field is then null
+  BlobRef fullNotesBlob;
+  BlobRef flashcardBlob;
+  BlobRef testBlob;
+  BlobRef evaluationBlob;
+
+  // Set by decoders when a payload was stored as an escaped JSON string
+  transient boolean legacyPayloads;
+  // True when retention moved the payloads to the archive; absent otherwise
+  Boolean payloadsArchived;
+
+  /**
+   * Location of a payload in a BlobStore.
+   */
+  static final class BlobRef {
+    String sha256;
+    long size;
+
+    BlobRef(BlobStore.Blob blob) {
+      this(blob.hash(), blob.size());
+    }
+
+    BlobRef(String sha256, long size) {
+      this.sha256 = sha256;
+      this.size = size;
+    }
+  }
+
+  /**
+   * Loads a typed payload from a blob holding its JSON.
+   */
+  static final class BlobPayload<T> implements Supplier<T> {
+    private final BlobStore.Blob blob;
+    private final Class<T> type;
+
+    BlobPayload(BlobStore.Blob blob, Class<T> type) {
+      this.blob = blob;
+      this.type = type;
+    }
+
+    @Override
+    public T get() {
+      String json = blob.get();
+      if (json == null) {
+        return null;
+      }
+      try {
+        return JsonAdapters.gson().fromJson(json, type);
+      } catch (JsonParseException e) {
+        System.err.println("Unreadable timeline payload " + blob.hash() + ": " + e.getMessage());
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Constructs an empty record, for decoders that fill in the fields.
+   */
+  TimelineEventData() {
+  }
+
+  /**
+   * Constructs TimelineEventData from a TimelineEvent, with every payload
+   * inline.
+   *
+   * @param event the TimelineEvent to convert
+   */
+  TimelineEventData(TimelineEvent event) {
+    this(event, CourseIdMapper.shared());
+  }
+
+  /**
+   * Constructs TimelineEventData from a TimelineEvent, with every payload
+   * inline.
+   *
+   * @param event the TimelineEvent to convert
+   * @param courseIds where the original course ID string is looked up
+   */
+  TimelineEventData(TimelineEvent event, ICourseIdMapper courseIds) {
+    this(event, true, courseIds);
+  }
+
+  private TimelineEventData(TimelineEvent event, boolean withPayloads,
+      ICourseIdMapper courseIds) {
+    this.courseId = event.getCourseId().toString();
+    // Try to find the original course ID string from the mapper
+    String originalCourseId = courseIds.getCourseIdForUuid(event.getCourseId());
+    this.courseIdString = originalCourseId;  // May be null for old events
+    this.contentId = event.getContentId().toString();
+    this.type = event.getType().name();
+    this.occurredAt = event.getOccurredAt().toString();
+    this.title = event.getTitle();
+    this.snippet = event.getSnippet();
+    this.numCards = event.getNumCards();
+    this.numQuestions = event.getNumQuestions();
+    this.score = event.getScore();
+    // Archived payloads stay in the archive; live records only keep the summary
+    this.payloadsArchived = event.isPayloadsArchived() ? Boolean.TRUE : null;
+    if (withPayloads && !event.isPayloadsArchived()) {
+      this.fullNotesText = event.getFullNotesText();
+      this.flashcardData = event.getFlashcardData();
+      this.testData = event.getTestData();
+      this.evaluationData = event.getEvaluationData();
+    }
+  }
+
+  /**
+   * Converts a TimelineEvent whose payloads of at least
+   * {@code inlineLimit} characters go to a blob store. Payloads the event
+   * already loads from that store are referenced again without being read;
+   * payloads from another store are copied.
+   *
+   * @param event the TimelineEvent to convert
+   * @param courseIds where the original course ID string is looked up
+   * @param blobs where to put large payloads
+   * @param inlineLimit the shortest payload that is moved out
+   * @return the record
+   * @throws IOException if a payload cannot be stored
+   */
+  static TimelineEventData of(TimelineEvent event, ICourseIdMapper courseIds, BlobStore blobs,
+      int inlineLimit) throws IOException {
+    TimelineEventData data = new TimelineEventData(event, false, courseIds);
+    if (event.isPayloadsArchived()) {
+      return data;
+    }
+    data.fullNotesBlob = externalize(event.getFullNotesTextLoader(),
+        event::getFullNotesText, blobs, inlineLimit);
+    data.fullNotesText = data.fullNotesBlob == null ? event.getFullNotesText() : null;
+    data.flashcardBlob = externalize(event.getFlashcardDataLoader(),
+        event::getFlashcardData, blobs, inlineLimit);
+    data.flashcardData = data.flashcardBlob == null ? event.getFlashcardData() : null;
+    data.testBlob = externalize(event.getTestDataLoader(),
+        event::getTestData, blobs, inlineLimit);
+    data.testData = data.testBlob == null ? event.getTestData() : null;
+    data.evaluationBlob = externalize(event.getEvaluationDataLoader(),
+        event::getEvaluationData, blobs, inlineLimit);
+    data.evaluationData = data.evaluationBlob == null ? event.getEvaluationData() : null;
+    return data;
+  }
+
+  /**
+   * Moves this record's large inline payloads into a blob store.
+   *
+   * @param blobs where to put large payloads
+   * @param inlineLimit the shortest payload that is moved out
+   * @throws IOException if a payload cannot be stored
+   */
+  void externalizePayloads(BlobStore blobs, int inlineLimit) throws IOException {
+    if (isLarge(fullNotesText, inlineLimit)) {
+      fullNotesBlob = new BlobRef(blobs.put(fullNotesText));
+      fullNotesText = null;
+    }
+    String flashcards = payloadJson(flashcardData);
+    if (isLarge(flashcards, inlineLimit)) {
+      flashcardBlob = new BlobRef(blobs.put(flashcards));
+      flashcardData = null;
+    }
+    String test = payloadJson(testData);
+    if (isLarge(test, inlineLimit)) {
+      testBlob = new BlobRef(blobs.put(test));
+      testData = null;
+    }
+    String evaluation = payloadJson(evaluationData);
+    if (isLarge(evaluation, inlineLimit)) {
+      evaluationBlob = new BlobRef(blobs.put(evaluation));
+      evaluationData = null;
+    }
+  }
+
+  /**
+   * Points an event's payloads at the blobs this record refers to, so the
+   * event stops holding them in memory.
+   *
+   * @param event the event this record was made from or decoded into
+   * @param blobs the store the references belong to
+   */
+  void attachLoaders(TimelineEvent event, BlobStore blobs) {
+    if (fullNotesBlob != null) {
+      event.setFullNotesTextLoader(blobs.blob(fullNotesBlob.sha256, fullNotesBlob.size));
+    }
+    if (flashcardBlob != null) {
+      event.setFlashcardDataLoader(new BlobPayload<>(
+          blobs.blob(flashcardBlob.sha256, flashcardBlob.size), FlashcardSet.class));
+    }
+    if (testBlob != null) {
+      event.setTestDataLoader(new BlobPayload<>(
+          blobs.blob(testBlob.sha256, testBlob.size), TestData.class));
+    }
+    if (evaluationBlob != null) {
+      event.setEvaluationDataLoader(new BlobPayload<>(
+          blobs.blob(evaluationBlob.sha256, evaluationBlob.size), EvaluationData.class));
+    }
+  }
+
+  /**
+   * Passes each blob this record points at to a consumer.
+   *
+   * @param sink receives the references
+   */
+  void forEachBlob(Consumer<BlobRef> sink) {
+    for (BlobRef ref : new BlobRef[] {fullNotesBlob, flashcardBlob, testBlob, evaluationBlob}) {
+      if (ref != null) {
+        sink.accept(ref);
+      }
+    }
+  }
+
+  /**
+   * Guesses the original String course ID of this event, used to restore the
+   * CourseIdMapper mapping for its course UUID.
+   *
+   * @return the course ID, or null if the event carries no hint
+   */
+  String inferCourseId() {
+    // First, try to get course ID from stored field
+    if (courseIdString != null && !courseIdString.isEmpty()) {
+      return courseIdString;
+    }
+    // Fallback: try to extract course ID from title
+    return courseIdFromTitle(title);
+  }
+
+  /**
+   * Extracts a course ID from an event title that starts with a course code
+   * (e.g., "PHL 245" -> "PHL245").
+   *
+   * @param title the event title, or null
+   * @return the course ID, or null if the title does not start with one
+   */
+  static String courseIdFromTitle(String title) {
+    if (title != null && !title.isEmpty()) {
+      String trimmed = title.trim();
+      // Pattern: course codes like "PHL 245" or "PHL245"
+      // Match: 2-4 uppercase letters, optional space, 3 digits
+      if (trimmed.matches("^[A-Z]{2,4}\\s*\\d{3}.*")) {
+        String cleaned = trimmed.replaceAll("\\s+", "");
+        return cleaned.substring(0, Math.min(7, cleaned.length()));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Converts this TimelineEventData back to a TimelineEvent.
+   *
+   * @return the reconstructed TimelineEvent
+   */
+  TimelineEvent toTimelineEvent() {
+    TimelineEvent event = new TimelineEvent(
+        UUID.fromString(courseId),
+        UUID.fromString(contentId),
+        TimelineEventType.valueOf(type));
+
+    // Restore the original occurredAt timestamp if available
+    if (occurredAt != null && !occurredAt.isEmpty()) {
+      try {
+        event.setOccurredAt(Instant.parse(occurredAt));
+      } catch (Exception e) {
+        // If parsing fails, keep the default (current time)
+        // This handles edge cases with malformed timestamps
+      }
+    }
+
+    event.setTitle(title);
+    event.setSnippet(snippet);
+    event.setNumCards(numCards);
+    event.setNumQuestions(numQuestions);
+    event.setScore(score);
+    event.setFullNotesText(fullNotesText);
+    event.setFlashcardData(flashcardData);
+    event.setTestData(testData);
+    event.setEvaluationData(evaluationData);
+    event.setPayloadsArchived(Boolean.TRUE.equals(payloadsArchived));
+
+    return event;
+  }
+
+  /**
+   * Gets the JSON a payload is stored as, in a record or in a blob. Text
+   * payloads are stored as they are.
+   *
+   * @param payload the payload, or null
+   * @return its stored form, or null
+   */
+  static String payloadJson(Object payload) {
+    if (payload == null || payload instanceof String) {
+      return (String) payload;
+    }
+    return JsonAdapters.gson().toJson(payload);
+  }
+
+  /**
+   * Creates a builder for Gson instances that read and write records, with
+   * the shared payload adapters plus unwrapping of payloads that older
+   * versions stored as escaped JSON strings.
+   *
+   * @return the builder
+   */
+  static GsonBuilder gsonBuilder() {
+    return JsonAdapters.gson().newBuilder()
+        .registerTypeAdapterFactory(new LegacyPayloadFactory());
+  }
+
+  private static BlobRef externalize(Supplier<?> loader, Supplier<?> value,
+      BlobStore blobs, int inlineLimit) throws IOException {
+    BlobStore.Blob stored = loader instanceof BlobPayload
+        ? ((BlobPayload<?>) loader).blob
+        : loader instanceof BlobStore.Blob ? (BlobStore.Blob) loader : null;
+    if (stored != null && stored.isIn(blobs)) {
+      return new BlobRef(stored);
+    }
+    String content = payloadJson(value.get());
+    return isLarge(content, inlineLimit) ? new BlobRef(blobs.put(content)) : null;
+  }
+
+  private static boolean isLarge(String content, int inlineLimit) {
+    return content != null && content.length() >= inlineLimit;
+  }
+
+  /**
+   * Reads payloads written either as nested objects or, by older versions,
+   * as strings holding their JSON.
+   */
+  private static final class LegacyPayloadFactory implements TypeAdapterFactory {
+    private static final Set<Class<?>> PAYLOAD_TYPES =
+        Set.of(FlashcardSet.class, TestData.class, EvaluationData.class);
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      if (!PAYLOAD_TYPES.contains(type.getRawType())) {
+        return null;
+      }
+      TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+      return new TypeAdapter<T>() {
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+          delegate.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+          if (in.peek() != JsonToken.STRING) {
+            return delegate.read(in);
+          }
+          String json = in.nextString();
+          return json.isBlank() ? null : delegate.fromJson(json);
+        }
+      };
+    }
+  }
+}
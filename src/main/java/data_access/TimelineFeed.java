@@ -0,0 +1,166 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Newest-first feed of several courses' timelines, merged lazily.
+ *
+ * <p>The feed keeps the next unread event of every course in a heap ordered
+ * by occurredAt, so taking a page of n events costs O(n log k) for k
+ * courses, however long the histories are. Each course is read through
+ * {@link ITimelineRepository#iterateNewestFirst(UUID, int)}, which fetches
+ * small pages on demand; nothing is sorted as a whole.
+ */
+public final class TimelineFeed {
+  // Newest head first; among equal times, the stream that was listed first
+  private static final Comparator<Head> NEWEST_FIRST = Comparator
+      .comparing((Head head) -> head.event.getOccurredAt(),
+          Comparator.nullsLast(Comparator.reverseOrder()))
+      .thenComparingInt(head -> head.order);
+
+  private final PriorityQueue<Head> heads = new PriorityQueue<>(NEWEST_FIRST);
+
+  /**
+   * Constructs a feed that merges the given newest-first streams.
+   *
+   * @param streams the streams, each ordered newest first
+   */
+  public TimelineFeed(List<Iterator<TimelineEvent>> streams) {
+    for (int i = 0; i < streams.size(); i++) {
+      Iterator<TimelineEvent> stream = streams.get(i);
+      if (stream.hasNext()) {
+        heads.add(new Head(stream.next(), stream, i));
+      }
+    }
+  }
+
+  /**
+   * Constructs a feed over every course of a repository.
+   *
+   * @param repository the repository
+   * @param batchSize the most events fetched from one course at a time
+   * @return the feed, positioned at the newest event
+   */
+  public static TimelineFeed allCourses(ITimelineRepository repository, int batchSize) {
+    List<Iterator<TimelineEvent>> streams = new ArrayList<>();
+    for (UUID courseId : repository.findCourseIds()) {
+      streams.add(repository.iterateNewestFirst(courseId, batchSize));
+    }
+    return new TimelineFeed(streams);
+  }
+
+  /**
+   * Takes the next events of the feed.
+   *
+   * @param limit the most events to take
+   * @return the events, newest first; empty once the feed is exhausted
+   * @throws IllegalArgumentException if limit is not positive
+   */
+  public synchronized List<TimelineEvent> next(int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive: " + limit);
+    }
+    List<TimelineEvent> page = new ArrayList<>(Math.min(limit, 64));
+    while (page.size() < limit && !heads.isEmpty()) {
+      Head head = heads.poll();
+      page.add(head.event);
+      if (head.stream.hasNext()) {
+        head.event = head.stream.next();
+        heads.add(head);
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Tells whether {@link #next(int)} would return any event.
+   *
+   * @return true if events remain
+   */
+  public synchronized boolean hasMore() {
+    return !heads.isEmpty();
+  }
+
+  /**
+   * Iterates one course's events newest first, fetching them a page at a
+   * time. The first page holds a single event and each following page
+   * doubles up to batchSize, so a course that contributes little to the
+   * merged feed costs little to open.
+   *
+   * @param repository the repository to read
+   * @param courseId the course UUID
+   * @param batchSize the largest page to fetch
+   * @return the iterator
+   * @throws IllegalArgumentException if batchSize is not positive
+   */
+  static Iterator<TimelineEvent> newestFirst(ITimelineRepository repository, UUID courseId,
+      int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+    }
+    return new PagingIterator(repository, courseId, batchSize);
+  }
+
+  /**
+   * Unread head of one merged stream.
+   */
+  private static final class Head {
+    private TimelineEvent event;
+    private final Iterator<TimelineEvent> stream;
+    private final int order;
+
+    private Head(TimelineEvent event, Iterator<TimelineEvent> stream, int order) {
+      this.event = event;
+      this.stream = stream;
+      this.order = order;
+    }
+  }
+
+  /**
+   * Walks a course's pages through {@link ITimelineRepository#findByCourse(UUID, long, int)}.
+   * Cursors are instants, so events saved, deleted or merged in while
+   * iterating do not shift the pages still to come.
+   */
+  private static final class PagingIterator implements Iterator<TimelineEvent> {
+    private final ITimelineRepository repository;
+    private final UUID courseId;
+    private final int batchSize;
+    private int nextBatch = 1;
+    private long cursor = ITimelineRepository.NEWEST;
+    private boolean exhausted;
+    private Iterator<TimelineEvent> current = List.<TimelineEvent>of().iterator();
+
+    private PagingIterator(ITimelineRepository repository, UUID courseId, int batchSize) {
+      this.repository = repository;
+      this.courseId = courseId;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext() && !exhausted) {
+        TimelinePage page = repository.findByCourse(courseId, cursor, nextBatch);
+        current = page.getEvents().iterator();
+        cursor = page.getNextCursor();
+        exhausted = !page.hasMore();
+        nextBatch = Math.min(batchSize, nextBatch * 2);
+      }
+      return current.hasNext();
+    }
+
+    @Override
+    public TimelineEvent next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+  }
+}
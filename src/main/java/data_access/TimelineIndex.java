@@ -0,0 +1,157 @@
+package data_access;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes over one course's timeline: all events by occurredAt,
+ * and the events of each type by occurredAt. A query seeks to the end of
+ * its time range and reads only the events it returns, so it costs
+ * O(log n + k) for k results.
+ *
+ * <p>Not thread-safe; repositories guard it with their own lock.
+ */
+final class TimelineIndex {
+  private final NavigableMap<Instant, List<TimelineEvent>> byTime = new TreeMap<>();
+  private final Map<TimelineEventType, NavigableMap<Instant, List<TimelineEvent>>> byType =
+      new EnumMap<>(TimelineEventType.class);
+
+  /**
+   * Adds an event to the indexes. Its occurredAt must not change afterwards.
+   *
+   * @param event the event
+   */
+  void add(TimelineEvent event) {
+    Instant at = event.getOccurredAt();
+    byTime.computeIfAbsent(at, k -> new ArrayList<>(1)).add(event);
+    byType.computeIfAbsent(event.getType(), k -> new TreeMap<>())
+        .computeIfAbsent(at, k -> new ArrayList<>(1)).add(event);
+  }
+
+  /**
+   * Removes an event from the indexes.
+   *
+   * @param event the event, compared by identity
+   */
+  void remove(TimelineEvent event) {
+    Instant at = event.getOccurredAt();
+    removeFrom(byTime, at, event);
+    NavigableMap<Instant, List<TimelineEvent>> ofType = byType.get(event.getType());
+    if (ofType != null) {
+      removeFrom(ofType, at, event);
+    }
+  }
+
+  private static void removeFrom(NavigableMap<Instant, List<TimelineEvent>> index, Instant at,
+      TimelineEvent event) {
+    List<TimelineEvent> events = index.get(at);
+    if (events != null && events.removeIf(e -> e == event) && events.isEmpty()) {
+      index.remove(at);
+    }
+  }
+
+  /**
+   * Finds the newest events matching a query. Events with the same
+   * occurredAt are returned most recently saved first.
+   *
+   * @param query the filter
+   * @return the matching events, newest first
+   */
+  List<TimelineEvent> query(TimelineQuery query) {
+    List<TimelineEvent> out = new ArrayList<>();
+    if (query.allTypes()) {
+      collect(range(byTime, query).values().iterator(), query.getLimit(), out);
+      return out;
+    }
+
+    // Merge the per-type ranges, newest instant first
+    PriorityQueue<Source> sources = new PriorityQueue<>(
+        (a, b) -> b.current.getKey().compareTo(a.current.getKey()));
+    for (TimelineEventType type : query.getTypes()) {
+      NavigableMap<Instant, List<TimelineEvent>> events = byType.get(type);
+      if (events != null) {
+        Source source = new Source(range(events, query).entrySet().iterator());
+        if (source.advance()) {
+          sources.add(source);
+        }
+      }
+    }
+    while (out.size() < query.getLimit() && !sources.isEmpty()) {
+      Source source = sources.poll();
+      addNewestFirst(source.current.getValue(), query.getLimit(), out);
+      if (source.advance()) {
+        sources.add(source);
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Reads one page of all events, newest first.
+   *
+   * @param beforeCursor only events that occurred before this cursor are
+   *     returned
+   * @param limit the most events to return
+   * @return the page
+   * @see TimelinePage#walkBack(NavigableMap, long, int)
+   */
+  TimelinePage page(long beforeCursor, int limit) {
+    return TimelinePage.walkBack(byTime, beforeCursor, limit);
+  }
+
+  private static NavigableMap<Instant, List<TimelineEvent>> range(
+      NavigableMap<Instant, List<TimelineEvent>> events, TimelineQuery query) {
+    Instant from = query.getFrom();
+    Instant to = query.getTo();
+    NavigableMap<Instant, List<TimelineEvent>> range;
+    if (from != null && to != null) {
+      range = events.subMap(from, true, to, false);
+    } else if (from != null) {
+      range = events.tailMap(from, true);
+    } else if (to != null) {
+      range = events.headMap(to, false);
+    } else {
+      range = events;
+    }
+    return range.descendingMap();
+  }
+
+  private static void collect(Iterator<List<TimelineEvent>> newestFirst, int limit,
+      List<TimelineEvent> out) {
+    while (out.size() < limit && newestFirst.hasNext()) {
+      addNewestFirst(newestFirst.next(), limit, out);
+    }
+  }
+
+  private static void addNewestFirst(List<TimelineEvent> sameInstant, int limit,
+      List<TimelineEvent> out) {
+    ListIterator<TimelineEvent> it = sameInstant.listIterator(sameInstant.size());
+    while (out.size() < limit && it.hasPrevious()) {
+      out.add(it.previous());
+    }
+  }
+
+  private static final class Source {
+    private final Iterator<Map.Entry<Instant, List<TimelineEvent>>> entries;
+    private Map.Entry<Instant, List<TimelineEvent>> current;
+
+    Source(Iterator<Map.Entry<Instant, List<TimelineEvent>>> entries) {
+      this.entries = entries;
+    }
+
+    boolean advance() {
+      current = entries.hasNext() ? entries.next() : null;
+      return current != null;
+    }
+  }
+}
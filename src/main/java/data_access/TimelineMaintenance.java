@@ -0,0 +1,203 @@
+package data_access;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a {@link TimelineRetentionPolicy} to a timeline on a background
+ * thread and keeps totals of what the runs reclaimed, including the stored
+ * payloads that archiving left unreferenced.
+ *
+ * <p>Runs go through the same repository the application saves to, so
+ * decorators such as the search index and statistics learn which events
+ * were archived. The file repository underneath handles one course at a
+ * time, so saves only wait for the course being rewritten; a run is cheap
+ * when there is nothing old enough to move.
+ */
+public class TimelineMaintenance implements AutoCloseable {
+  private final ITimelineRepository repository;
+  private final TimelineRetentionPolicy policy;
+  private final Clock clock;
+  private final AtomicLong runs = new AtomicLong();
+  private final AtomicLong eventsSummarized = new AtomicLong();
+  private final AtomicLong eventsArchived = new AtomicLong();
+  private final AtomicLong bytesReclaimed = new AtomicLong();
+  private final AtomicLong archiveBytesWritten = new AtomicLong();
+  private final AtomicLong payloadBytesFreed = new AtomicLong();
+  private volatile RetentionReport lastReport;
+  private volatile PayloadCollectionReport lastCollection;
+  private ScheduledExecutorService executor;
+
+  /**
+   * Constructs a TimelineMaintenance that ages events by the system clock.
+   *
+   * @param repository the timeline to maintain
+   * @param policy how long events and payloads stay live
+   */
+  public TimelineMaintenance(ITimelineRepository repository, TimelineRetentionPolicy policy) {
+    this(repository, policy, Clock.systemUTC());
+  }
+
+  /**
+   * Constructs a TimelineMaintenance.
+   *
+   * @param repository the timeline to maintain
+   * @param policy how long events and payloads stay live
+   * @param clock the clock events are aged by
+   */
+  TimelineMaintenance(ITimelineRepository repository, TimelineRetentionPolicy policy,
+      Clock clock) {
+    this.repository = repository;
+    this.policy = policy;
+    this.clock = clock;
+  }
+
+  /**
+   * Starts running retention periodically on a daemon thread. Does nothing
+   * if already started.
+   *
+   * @param initialDelay how long to wait before the first run
+   * @param period the time between the starts of two runs
+   */
+  public synchronized void start(Duration initialDelay, Duration period) {
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "timeline-maintenance");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(this::runQuietly, initialDelay.toMillis(), period.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs retention once on the calling thread.
+   *
+   * @return what retention did
+   */
+  public RetentionReport runNow() {
+    RetentionReport report = repository.applyRetention(policy, clock.instant());
+    // Rewriting the changed courses freed payloads only archived events used
+    PayloadCollectionReport collection = report.getPayloads();
+    payloadBytesFreed.addAndGet(collection.getBytesFreed());
+    lastCollection = collection;
+    runs.incrementAndGet();
+    eventsSummarized.addAndGet(report.getEventsSummarized());
+    eventsArchived.addAndGet(report.getEventsArchived());
+    bytesReclaimed.addAndGet(report.getBytesReclaimed());
+    archiveBytesWritten.addAndGet(report.getArchiveBytesWritten());
+    lastReport = report;
+    return report;
+  }
+
+  /**
+   * Gets the number of completed runs.
+   *
+   * @return the number of runs
+   */
+  public long getRuns() {
+    return runs.get();
+  }
+
+  /**
+   * Gets the number of events whose payloads all runs moved to the archive.
+   *
+   * @return the number of summarized events
+   */
+  public long getEventsSummarized() {
+    return eventsSummarized.get();
+  }
+
+  /**
+   * Gets the number of events all runs removed from the live timeline.
+   *
+   * @return the number of archived events
+   */
+  public long getEventsArchived() {
+    return eventsArchived.get();
+  }
+
+  /**
+   * Gets how much smaller all runs made the live timeline.
+   *
+   * @return the bytes reclaimed
+   */
+  public long getBytesReclaimed() {
+    return bytesReclaimed.get();
+  }
+
+  /**
+   * Gets the compressed bytes all runs added to the archive.
+   *
+   * @return the size in bytes
+   */
+  public long getArchiveBytesWritten() {
+    return archiveBytesWritten.get();
+  }
+
+  /**
+   * Gets the bytes of payloads freed since the previous run, summed over
+   * all runs.
+   *
+   * @return the size in bytes
+   */
+  public long getPayloadBytesFreed() {
+    return payloadBytesFreed.get();
+  }
+
+  /**
+   * Gets the payload report of the most recent run.
+   *
+   * @return the report, or null if nothing has run yet
+   */
+  public PayloadCollectionReport getLastCollection() {
+    return lastCollection;
+  }
+
+  /**
+   * Gets the retention report of the most recent run.
+   *
+   * @return the report, or null if nothing has run yet
+   */
+  public RetentionReport getLastReport() {
+    return lastReport;
+  }
+
+  /**
+   * Stops the periodic runs, waiting briefly for one in progress.
+   */
+  @Override
+  public synchronized void close() {
+    if (executor == null) {
+      return;
+    }
+    executor.shutdown();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void runQuietly() {
+    try {
+      RetentionReport report = runNow();
+      long freed = lastCollection.getBytesFreed();
+      if (report.getEventsSummarized() > 0 || report.getEventsArchived() > 0 || freed > 0) {
+        System.out.println("Timeline retention: " + report.getEventsSummarized()
+            + " events summarized, " + report.getEventsArchived() + " archived, "
+            + (report.getBytesReclaimed() + freed) + " bytes reclaimed");
+      }
+    } catch (RuntimeException e) {
+      // A failed run must not cancel the later ones
+      System.err.println("Error applying timeline retention: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+}
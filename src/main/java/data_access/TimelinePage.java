@@ -0,0 +1,127 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * One page of a course's timeline, newest first, plus the cursor that
+ * fetches the page after it.
+ *
+ * <p>A cursor is the occurredAt of the oldest event on the previous page, in
+ * nanoseconds since the epoch, and the next page holds the events that
+ * occurred before it. It does not depend on where events sit in the
+ * history, so it stays valid while events are saved, deleted, summarized
+ * by retention or merged in from another course. A page never splits the
+ * events that share an instant, so it may hold a few more than the limit.
+ */
+public final class TimelinePage {
+  /** The cursor of a page with no page after it. */
+  public static final long END = Long.MIN_VALUE;
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private final List<TimelineEvent> events;
+  private final long nextCursor;
+
+  /**
+   * Constructs a TimelinePage.
+   *
+   * @param events the events on this page, newest first
+   * @param nextCursor the cursor for the next, older page; {@link #END} when
+   *     there is none
+   */
+  public TimelinePage(List<TimelineEvent> events, long nextCursor) {
+    this.events = Collections.unmodifiableList(events);
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Reads a page from a course's events by walking them backwards from the
+   * cursor. Only the returned events are touched, so the cost does not
+   * depend on the length of the history. Events sharing an instant are
+   * returned most recently saved first.
+   *
+   * @param byTime the course's events by occurredAt, each list oldest saved
+   *     first
+   * @param beforeCursor only events that occurred before this cursor are
+   *     returned
+   * @param limit the most events to return, unless the last instant holds
+   *     more
+   * @return the page
+   * @throws IllegalArgumentException if limit is not positive
+   */
+  static TimelinePage walkBack(NavigableMap<Instant, List<TimelineEvent>> byTime,
+      long beforeCursor, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive: " + limit);
+    }
+    NavigableMap<Instant, List<TimelineEvent>> older = beforeCursor == ITimelineRepository.NEWEST
+        ? byTime : byTime.headMap(instantOf(beforeCursor), false);
+    List<TimelineEvent> events = new ArrayList<>(limit);
+    Instant oldest = null;
+    for (Map.Entry<Instant, List<TimelineEvent>> entry : older.descendingMap().entrySet()) {
+      if (events.size() >= limit) {
+        break;
+      }
+      List<TimelineEvent> sameInstant = entry.getValue();
+      for (int i = sameInstant.size() - 1; i >= 0; i--) {
+        events.add(sameInstant.get(i));
+      }
+      oldest = entry.getKey();
+    }
+    boolean more = oldest != null && byTime.lowerKey(oldest) != null;
+    return new TimelinePage(events, more ? cursorOf(oldest) : END);
+  }
+
+  /**
+   * Converts an instant to a cursor. Instants too far from the epoch to
+   * count in nanoseconds are clamped.
+   *
+   * @param at the instant
+   * @return the cursor that returns the events before it
+   */
+  static long cursorOf(Instant at) {
+    try {
+      return Math.addExact(Math.multiplyExact(at.getEpochSecond(), NANOS_PER_SECOND), at.getNano());
+    } catch (ArithmeticException e) {
+      return at.getEpochSecond() < 0 ? END + 1 : ITimelineRepository.NEWEST - 1;
+    }
+  }
+
+  private static Instant instantOf(long cursor) {
+    return Instant.ofEpochSecond(Math.floorDiv(cursor, NANOS_PER_SECOND),
+        Math.floorMod(cursor, NANOS_PER_SECOND));
+  }
+
+  /**
+   * Gets the events on this page.
+   *
+   * @return the events, newest first
+   */
+  public List<TimelineEvent> getEvents() {
+    return events;
+  }
+
+  /**
+   * Gets the cursor to pass as {@code beforeCursor} for the next page.
+   *
+   * @return the cursor
+   */
+  public long getNextCursor() {
+    return nextCursor;
+  }
+
+  /**
+   * Tells whether older events exist beyond this page.
+   *
+   * @return true if another page can be fetched
+   */
+  public boolean hasMore() {
+    return nextCursor != END;
+  }
+}
@@ -0,0 +1,104 @@
+package data_access;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Filter for a course's timeline: which event types, which time range, and
+ * how many of the newest matching events to return.
+ */
+public final class TimelineQuery {
+  private final Set<TimelineEventType> types;
+  private final Instant from;
+  private final Instant to;
+  private final int limit;
+
+  /**
+   * Constructs a TimelineQuery.
+   *
+   * @param types the event types to include, or null for every type
+   * @param from the earliest occurredAt to include, or null for no lower bound
+   * @param to the occurredAt to stop before, or null for no upper bound
+   * @param limit the most events to return
+   * @throws IllegalArgumentException if limit is not positive, types is
+   *     empty, or from is after to
+   */
+  public TimelineQuery(Set<TimelineEventType> types, Instant from, Instant to, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive: " + limit);
+    }
+    if (types != null && types.isEmpty()) {
+      throw new IllegalArgumentException("types must not be empty");
+    }
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new IllegalArgumentException("from must not be after to");
+    }
+    this.types = types == null
+        ? null : Collections.unmodifiableSet(EnumSet.copyOf(types));
+    this.from = from;
+    this.to = to;
+    this.limit = limit;
+  }
+
+  /**
+   * Gets the event types to include.
+   *
+   * @return the types, or null for every type
+   */
+  public Set<TimelineEventType> getTypes() {
+    return types;
+  }
+
+  /**
+   * Gets the inclusive lower bound on occurredAt.
+   *
+   * @return the bound, or null
+   */
+  public Instant getFrom() {
+    return from;
+  }
+
+  /**
+   * Gets the exclusive upper bound on occurredAt.
+   *
+   * @return the bound, or null
+   */
+  public Instant getTo() {
+    return to;
+  }
+
+  /**
+   * Gets the most events to return.
+   *
+   * @return the limit
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Tells whether the query includes every event type.
+   *
+   * @return true if no type filter applies
+   */
+  boolean allTypes() {
+    return types == null || types.size() == TimelineEventType.values().length;
+  }
+
+  /**
+   * Tells whether an event passes this query's type and time filters.
+   *
+   * @param event the event to test
+   * @return true if the event matches
+   */
+  public boolean matches(TimelineEvent event) {
+    Instant at = event.getOccurredAt();
+    return (types == null || types.contains(event.getType()))
+        && (from == null || !at.isBefore(from))
+        && (to == null || at.isBefore(to));
+  }
+}
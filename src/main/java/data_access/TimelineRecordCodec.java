@@ -0,0 +1,41 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+
+/**
+ * Record format of a timeline log: how one {@link TimelineEventData} is
+ * framed on disk and read back. Every record is written with a single
+ * append, so only the last one can be torn by a crash.
+ */
+interface TimelineRecordCodec {
+
+  /**
+   * Encodes a record, including whatever framing separates it from the
+   * next one.
+   *
+   * @param data the record
+   * @return the bytes to append
+   */
+  byte[] encode(TimelineEventData data);
+
+  /**
+   * Finds the end of the last complete record, so a torn tail can be cut off.
+   *
+   * @param file the log, opened for reading
+   * @return the length of the prefix holding only complete records
+   * @throws IOException if the file cannot be read
+   */
+  long completeLength(FileChannel file) throws IOException;
+
+  /**
+   * Decodes every record in a stream, skipping unreadable ones.
+   *
+   * @param in the log's contents, up to the end of the last complete record
+   * @param sink receives each record in log order
+   * @throws IOException if the stream cannot be read
+   */
+  void decodeAll(InputStream in, Consumer<TimelineEventData> sink) throws IOException;
+}
@@ -0,0 +1,70 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * How long timeline events stay in the live timeline. Past the payload age
+ * an event keeps only its summary fields (title, snippet, counts, score)
+ * and its notes, cards, quiz and evaluation are read from the archive when
+ * opened. Past the live age the whole event leaves the timeline for the
+ * archive.
+ */
+public final class TimelineRetentionPolicy {
+  private static final Duration DEFAULT_KEEP_PAYLOADS = Duration.ofDays(90);
+  private static final Duration DEFAULT_KEEP_LIVE = Duration.ofDays(365);
+
+  private final Duration keepPayloadsFor;
+  private final Duration keepLiveFor;
+
+  /**
+   * Constructs a TimelineRetentionPolicy.
+   *
+   * @param keepPayloadsFor how long events keep their payloads in the live
+   *     timeline, or null to keep them forever
+   * @param keepLiveFor how long events stay in the live timeline, or null to
+   *     keep them forever
+   */
+  public TimelineRetentionPolicy(Duration keepPayloadsFor, Duration keepLiveFor) {
+    this.keepPayloadsFor = keepPayloadsFor;
+    this.keepLiveFor = keepLiveFor;
+  }
+
+  /**
+   * Gets the default policy: payloads for 90 days, events for a year.
+   *
+   * @return the policy
+   */
+  public static TimelineRetentionPolicy defaults() {
+    return new TimelineRetentionPolicy(DEFAULT_KEEP_PAYLOADS, DEFAULT_KEEP_LIVE);
+  }
+
+  /**
+   * Checks whether an event is old enough to lose its payloads.
+   *
+   * @param event the event
+   * @param now the current time
+   * @return true if its payloads belong in the archive
+   */
+  public boolean summarizes(TimelineEvent event, Instant now) {
+    return olderThan(event, keepPayloadsFor, now);
+  }
+
+  /**
+   * Checks whether an event is old enough to leave the live timeline.
+   *
+   * @param event the event
+   * @param now the current time
+   * @return true if the event belongs in the archive
+   */
+  public boolean archives(TimelineEvent event, Instant now) {
+    return olderThan(event, keepLiveFor, now);
+  }
+
+  private static boolean olderThan(TimelineEvent event, Duration age, Instant now) {
+    // Events without a time cannot be aged and stay live
+    return age != null && event.getOccurredAt() != null
+        && event.getOccurredAt().isBefore(now.minus(age));
+  }
+}
@@ -0,0 +1,40 @@
+package data_access;
+
+import entities.TimelineEvent;
+
+/**
+ * A timeline event that matched a search, with its relevance.
+ */
+public final class TimelineSearchHit {
+  private final TimelineEvent event;
+  private final double score;
+
+  /**
+   * Constructs a TimelineSearchHit.
+   *
+   * @param event the matching event
+   * @param score the BM25 relevance; higher is better
+   */
+  public TimelineSearchHit(TimelineEvent event, double score) {
+    this.event = event;
+    this.score = score;
+  }
+
+  /**
+   * Gets the matching event.
+   *
+   * @return the event
+   */
+  public TimelineEvent getEvent() {
+    return event;
+  }
+
+  /**
+   * Gets the relevance of the event to the query.
+   *
+   * @return the BM25 score; only comparable between hits of one search
+   */
+  public double getScore() {
+    return score;
+  }
+}
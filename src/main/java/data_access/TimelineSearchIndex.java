@@ -0,0 +1,823 @@
+package data_access;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Inverted index over the searchable text of timeline events, ranked with
+ * BM25.
+ *
+ * <p>Events are added in batches; each batch becomes an immutable segment
+ * holding its documents and a sorted term dictionary with postings of
+ * (document, term frequency). Whenever {@value #MERGE_FACTOR} segments of
+ * the same size tier exist they are merged into one, so a steady trickle of
+ * events keeps the segment count logarithmic in the number of documents.
+ * Each document records where its event is stored (course, type, content
+ * and time), so a match can be fetched without reading the course's
+ * history.
+ *
+ * <p>Segments never change, so deleting an event only marks its document
+ * as deleted. Deleted documents are skipped when ranking and left out of
+ * the document counts and average length BM25 uses, and a merge leaves
+ * them behind; a segment whose documents are all deleted is dropped.
+ *
+ * <p>With a directory, every segment is written to its own file before it
+ * is used, and a manifest renamed into place lists the live segments and
+ * their deleted documents, so an interrupted write or merge leaves the
+ * previous index intact. Without a directory the index lives in memory
+ * only.
+ *
+ * <p>An index being rebuilt also records the courses whose stored events
+ * are not added yet. Each course is added as one segment together with
+ * the manifest that drops it from the list, so a rebuild that is cut short
+ * resumes where it stopped the next time the index is opened.
+ */
+final class TimelineSearchIndex {
+  static final double K1 = 1.2;
+  static final double B = 0.75;
+  static final int MERGE_FACTOR = 10;
+  private static final String MANIFEST_FILE = "segments.json";
+  private static final String SEGMENT_EXTENSION = ".seg";
+  private static final int MANIFEST_VERSION = 2;
+  private static final int SEGMENT_MAGIC = 0x54534932;  // "TSI2"
+  private static final TimelineEventType[] TYPES = TimelineEventType.values();
+
+  private final Path directory;
+  private final List<Segment> segments = new ArrayList<>();
+  private final Set<UUID> pendingCourses = new LinkedHashSet<>();
+  private int nextSegment;
+  private int docCount;
+  private long totalLength;
+  private boolean created;
+
+  /**
+   * The manifest file: the live segments, oldest first, and the deleted
+   * documents of each segment that has any.
+   */
+  private static final class Manifest {
+    int version = MANIFEST_VERSION;
+    int nextSegment;
+    List<String> segments = new ArrayList<>();
+    Map<String, int[]> deleted = new HashMap<>();
+    List<UUID> pendingCourses = new ArrayList<>();
+  }
+
+  /**
+   * A document that matched a query.
+   */
+  static final class Match {
+    final UUID courseId;
+    final UUID contentId;
+    final TimelineEventType type;
+    final Instant occurredAt;
+    final double score;
+
+    Match(UUID courseId, UUID contentId, TimelineEventType type, Instant occurredAt,
+        double score) {
+      this.courseId = courseId;
+      this.contentId = contentId;
+      this.type = type;
+      this.occurredAt = occurredAt;
+      this.score = score;
+    }
+  }
+
+  /**
+   * Constructs an empty index kept in memory only.
+   */
+  TimelineSearchIndex() {
+    this.directory = null;
+    this.created = true;
+  }
+
+  /**
+   * Opens the index stored in a directory, or starts an empty one if the
+   * directory holds none or it cannot be read.
+   *
+   * @param directory the directory holding the manifest and segments
+   */
+  TimelineSearchIndex(Path directory) {
+    this.directory = directory;
+    Path manifestFile = directory.resolve(MANIFEST_FILE);
+    if (!Files.exists(manifestFile)) {
+      created = true;
+      return;
+    }
+    try {
+      readManifest(manifestFile);
+      deleteUnlistedSegments();
+    } catch (IOException | RuntimeException e) {
+      // Start over; the owner rebuilds the index from the timeline
+      System.err.println("Error loading search index, rebuilding it: " + e.getMessage());
+      segments.clear();
+      pendingCourses.clear();
+      docCount = 0;
+      totalLength = 0;
+      created = true;
+    }
+  }
+
+  /**
+   * Tells whether this index was started empty rather than read from disk,
+   * in which case events stored earlier still need to be added.
+   *
+   * @return true if the index was not read from disk
+   */
+  boolean isNew() {
+    return created;
+  }
+
+  /**
+   * Gets the number of indexed documents that are not deleted.
+   *
+   * @return the number of documents
+   */
+  synchronized int size() {
+    return docCount;
+  }
+
+  /**
+   * Gets the number of live segments.
+   *
+   * @return the number of segments
+   */
+  synchronized int segmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Adds events as one new segment. Events without searchable text are
+   * skipped.
+   *
+   * @param events the events
+   */
+  synchronized void add(List<TimelineEvent> events) {
+    List<Segment> replaced = new ArrayList<>();
+    if (addSegment(events, replaced)) {
+      writeManifest();
+    }
+    for (Segment old : replaced) {
+      deleteFile(old);
+    }
+  }
+
+  /**
+   * Adds the stored events of a course that is waiting to be indexed and
+   * records that it no longer is, in one manifest write.
+   *
+   * @param courseId the course
+   * @param history the course's events
+   */
+  synchronized void addCourse(UUID courseId, List<TimelineEvent> history) {
+    List<Segment> replaced = new ArrayList<>();
+    addSegment(history, replaced);
+    pendingCourses.remove(courseId);
+    writeManifest();
+    for (Segment old : replaced) {
+      deleteFile(old);
+    }
+  }
+
+  private boolean addSegment(List<TimelineEvent> events, List<Segment> replaced) {
+    Segment segment = Segment.build(events);
+    if (segment.size() == 0) {
+      return false;
+    }
+    persist(segment);
+    segments.add(segment);
+    docCount += segment.size();
+    totalLength += segment.totalLength;
+    mergeFullTiers(replaced);
+    return true;
+  }
+
+  /**
+   * Marks the documents of events as deleted, so searches no longer find
+   * them. A document is matched by its event's course, type, content and
+   * time; events that were never indexed are ignored. Every document is
+   * checked once, without reading postings.
+   *
+   * @param events the deleted events
+   */
+  synchronized void delete(List<TimelineEvent> events) {
+    Set<String> keys = new HashSet<>();
+    for (TimelineEvent event : events) {
+      keys.add(key(event.getCourseId(), event.getType(), event.getContentId(),
+          event.getOccurredAt()));
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+    List<Segment> emptied = new ArrayList<>();
+    boolean changed = false;
+    for (Segment segment : segments) {
+      for (int doc = 0; doc < segment.size(); doc++) {
+        if (!segment.deleted.get(doc) && keys.contains(key(segment.courseIds[doc],
+            segment.types[doc], segment.contentIds[doc], segment.occurredAt[doc]))) {
+          segment.deleted.set(doc);
+          docCount--;
+          totalLength -= segment.lengths[doc];
+          changed = true;
+        }
+      }
+      if (segment.liveSize() == 0) {
+        emptied.add(segment);
+      }
+    }
+    if (!changed) {
+      return;
+    }
+    segments.removeAll(emptied);
+    writeManifest();
+    for (Segment old : emptied) {
+      deleteFile(old);
+    }
+  }
+
+  /**
+   * Records the courses whose stored events still have to be added, so a
+   * new index is not started over the next time it is opened. Events
+   * saved to other courses can be added as usual meanwhile.
+   *
+   * @param courseIds the courses to add with {@link #addCourse(UUID, List)}
+   */
+  synchronized void startRebuild(Set<UUID> courseIds) {
+    pendingCourses.addAll(courseIds);
+    writeManifest();
+  }
+
+  /**
+   * Gets the courses whose stored events are not added yet.
+   *
+   * @return the courses, in the order they were recorded
+   */
+  synchronized List<UUID> pendingCourses() {
+    return new ArrayList<>(pendingCourses);
+  }
+
+  /**
+   * Tells whether a course's stored events are not added yet.
+   *
+   * @param courseId the course
+   * @return true if the course is waiting to be indexed
+   */
+  synchronized boolean isPending(UUID courseId) {
+    return pendingCourses.contains(courseId);
+  }
+
+  /**
+   * Finds the documents that best match a query. Every query term that
+   * occurs in a document adds its BM25 weight; the query's terms are
+   * tokenized like the documents, so case and punctuation do not matter.
+   *
+   * @param query the words to search for
+   * @param limit the most matches to return
+   * @return the matches, best first; empty if the query has no terms
+   * @throws IllegalArgumentException if limit is not positive
+   */
+  synchronized List<Match> search(String query, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive: " + limit);
+    }
+    Set<String> terms = new LinkedHashSet<>(TimelineSearchText.terms(query));
+    if (terms.isEmpty() || docCount == 0) {
+      return List.of();
+    }
+    double averageLength = (double) totalLength / docCount;
+    Map<String, Double> idf = new HashMap<>();
+    for (String term : terms) {
+      int df = 0;
+      for (Segment segment : segments) {
+        df += segment.documentFrequency(term);
+      }
+      if (df > 0) {
+        idf.put(term, Math.log(1 + (docCount - df + 0.5) / (df + 0.5)));
+      }
+    }
+    if (idf.isEmpty()) {
+      return List.of();
+    }
+
+    PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(m -> m.score));
+    for (Segment segment : segments) {
+      float[] scores = segment.score(idf, averageLength);
+      if (scores == null) {
+        continue;
+      }
+      for (int doc = 0; doc < scores.length; doc++) {
+        if (scores[doc] > 0 && (best.size() < limit || scores[doc] > best.peek().score)) {
+          if (best.size() == limit) {
+            best.poll();
+          }
+          best.add(new Match(segment.courseIds[doc], segment.contentIds[doc],
+              segment.types[doc], segment.occurredAt[doc], scores[doc]));
+        }
+      }
+    }
+    List<Match> matches = new ArrayList<>(best);
+    matches.sort(Comparator.comparingDouble((Match m) -> m.score).reversed());
+    return matches;
+  }
+
+  /**
+   * Merges groups of {@value #MERGE_FACTOR} segments of the same tier until
+   * no tier is full. Tiers go by documents not deleted, so a segment that
+   * lost many documents is merged, and purged, sooner. Merged segments are
+   * added to replaced so their files can be deleted once the manifest no
+   * longer lists them.
+   */
+  private void mergeFullTiers(List<Segment> replaced) {
+    boolean merged = true;
+    while (merged) {
+      merged = false;
+      Map<Integer, List<Segment>> tiers = new HashMap<>();
+      for (Segment segment : segments) {
+        List<Segment> tier = tiers.computeIfAbsent(tier(segment.liveSize()),
+            k -> new ArrayList<>());
+        tier.add(segment);
+        if (tier.size() == MERGE_FACTOR) {
+          Segment combined = Segment.merge(tier);
+          persist(combined);
+          int position = segments.indexOf(tier.get(0));
+          segments.removeAll(tier);
+          segments.add(position, combined);
+          replaced.addAll(tier);
+          merged = true;
+          break;
+        }
+      }
+    }
+  }
+
+  private static int tier(int documents) {
+    int tier = 0;
+    while (documents >= MERGE_FACTOR) {
+      documents /= MERGE_FACTOR;
+      tier++;
+    }
+    return tier;
+  }
+
+  /**
+   * Writes a segment to its own file. If that fails the segment stays in
+   * memory only and is rebuilt the next time the index is created.
+   */
+  private void persist(Segment segment) {
+    if (directory == null) {
+      return;
+    }
+    String name = "seg-" + nextSegment++ + SEGMENT_EXTENSION;
+    try {
+      Files.createDirectories(directory);
+      Path target = directory.resolve(name);
+      Path temp = target.resolveSibling(name + ".tmp");
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+        segment.writeTo(new DataOutputStream(out));
+        out.flush();
+        channel.force(true);
+      }
+      move(temp, target);
+      segment.fileName = name;
+    } catch (IOException e) {
+      System.err.println("Error saving search index segment: " + e.getMessage());
+    }
+  }
+
+  private void readManifest(Path manifestFile) throws IOException {
+    Manifest read;
+    try (Reader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+      read = JsonAdapters.prettyGson().fromJson(reader, Manifest.class);
+    }
+    if (read == null || read.segments == null) {
+      throw new IOException("empty manifest");
+    }
+    nextSegment = read.nextSegment;
+    if (read.pendingCourses != null) {
+      pendingCourses.addAll(read.pendingCourses);
+    }
+    for (String name : read.segments) {
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(directory.resolve(name)))) {
+        Segment segment = Segment.readFrom(new DataInputStream(in));
+        segment.fileName = name;
+        int[] deleted = read.deleted == null ? null : read.deleted.get(name);
+        if (deleted != null) {
+          for (int doc : deleted) {
+            segment.deleted.set(doc);
+          }
+        }
+        segments.add(segment);
+        docCount += segment.liveSize();
+        totalLength += segment.liveLength();
+      }
+    }
+  }
+
+  /**
+   * Writes the manifest to a temporary file and renames it into place.
+   * Segments that were never written to disk are left out.
+   */
+  private void writeManifest() {
+    if (directory == null) {
+      return;
+    }
+    Manifest out = new Manifest();
+    out.nextSegment = nextSegment;
+    out.pendingCourses.addAll(pendingCourses);
+    for (Segment segment : segments) {
+      if (segment.fileName != null) {
+        out.segments.add(segment.fileName);
+        if (!segment.deleted.isEmpty()) {
+          out.deleted.put(segment.fileName, segment.deleted.stream().toArray());
+        }
+      }
+    }
+    Path target = directory.resolve(MANIFEST_FILE);
+    Path temp = target.resolveSibling(MANIFEST_FILE + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        JsonAdapters.prettyGson().toJson(out, writer);
+        writer.flush();
+        channel.force(true);
+      }
+      move(temp, target);
+    } catch (IOException e) {
+      System.err.println("Error saving search index manifest: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Deletes segment files left behind by an interrupted write or merge.
+   */
+  private void deleteUnlistedSegments() throws IOException {
+    Set<String> live = new HashSet<>();
+    for (Segment segment : segments) {
+      live.add(segment.fileName);
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+        "*" + SEGMENT_EXTENSION + "*")) {
+      for (Path file : files) {
+        if (!live.contains(file.getFileName().toString())) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  private void deleteFile(Segment segment) {
+    if (directory == null || segment.fileName == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(directory.resolve(segment.fileName));
+    } catch (IOException e) {
+      // Deleted as unlisted the next time the index is opened
+      System.err.println("Error deleting merged search index segment: " + e.getMessage());
+    }
+  }
+
+  private static String key(UUID courseId, TimelineEventType type, UUID contentId,
+      Instant occurredAt) {
+    return courseId + "/" + type + "/" + contentId + "/" + occurredAt;
+  }
+
+  private static void move(Path temp, Path target) throws IOException {
+    try {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * An immutable batch of documents and their postings.
+   *
+   * <p>Document d has courseIds[d], contentIds[d], types[d], occurredAt[d]
+   * and lengths[d] (its number of terms). Term t is terms[t]; its postings
+   * are the pairs (document, frequency) stored in postings from index
+   * 2 * starts[t] up to 2 * starts[t + 1], by ascending document. Only the
+   * deleted set changes once a segment is built.
+   */
+  private static final class Segment {
+    private String fileName;
+    private final BitSet deleted = new BitSet();
+    private final UUID[] courseIds;
+    private final UUID[] contentIds;
+    private final TimelineEventType[] types;
+    private final Instant[] occurredAt;
+    private final int[] lengths;
+    private final String[] terms;
+    private final int[] starts;
+    private final int[] postings;
+    private final long totalLength;
+
+    private Segment(UUID[] courseIds, UUID[] contentIds, TimelineEventType[] types,
+        Instant[] occurredAt, int[] lengths, String[] terms, int[] starts, int[] postings) {
+      this.courseIds = courseIds;
+      this.contentIds = contentIds;
+      this.types = types;
+      this.occurredAt = occurredAt;
+      this.lengths = lengths;
+      this.terms = terms;
+      this.starts = starts;
+      this.postings = postings;
+      long total = 0;
+      for (int length : lengths) {
+        total += length;
+      }
+      this.totalLength = total;
+    }
+
+    int size() {
+      return lengths.length;
+    }
+
+    int liveSize() {
+      return size() - deleted.cardinality();
+    }
+
+    long liveLength() {
+      long length = totalLength;
+      for (int doc = deleted.nextSetBit(0); doc >= 0; doc = deleted.nextSetBit(doc + 1)) {
+        length -= lengths[doc];
+      }
+      return length;
+    }
+
+    int documentFrequency(String term) {
+      int t = Arrays.binarySearch(terms, term);
+      if (t < 0) {
+        return 0;
+      }
+      if (deleted.isEmpty()) {
+        return starts[t + 1] - starts[t];
+      }
+      int df = 0;
+      for (int p = 2 * starts[t]; p < 2 * starts[t + 1]; p += 2) {
+        if (!deleted.get(postings[p])) {
+          df++;
+        }
+      }
+      return df;
+    }
+
+    /**
+     * Scores every document of this segment against the query terms.
+     * Deleted documents score zero.
+     *
+     * @return the scores by document, or null if no term occurs here
+     */
+    float[] score(Map<String, Double> idf, double averageLength) {
+      float[] scores = null;
+      for (Map.Entry<String, Double> entry : idf.entrySet()) {
+        int t = Arrays.binarySearch(terms, entry.getKey());
+        if (t < 0) {
+          continue;
+        }
+        if (scores == null) {
+          scores = new float[size()];
+        }
+        double weight = entry.getValue();
+        for (int p = 2 * starts[t]; p < 2 * starts[t + 1]; p += 2) {
+          int doc = postings[p];
+          if (deleted.get(doc)) {
+            continue;
+          }
+          int tf = postings[p + 1];
+          double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+          scores[doc] += (float) (weight * tf * (K1 + 1) / (tf + norm));
+        }
+      }
+      return scores;
+    }
+
+    static Segment build(List<TimelineEvent> events) {
+      List<TimelineEvent> documents = new ArrayList<>();
+      List<Integer> lengths = new ArrayList<>();
+      Map<String, IntBuffer> postings = new HashMap<>();
+      for (TimelineEvent event : events) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TimelineSearchText.tokenize(TimelineSearchText.of(event),
+            (term, start, end) -> frequencies.merge(term, 1, Integer::sum));
+        if (frequencies.isEmpty()) {
+          continue;
+        }
+        int doc = documents.size();
+        documents.add(event);
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+          postings.computeIfAbsent(entry.getKey(), k -> new IntBuffer())
+              .add(doc, entry.getValue());
+          length += entry.getValue();
+        }
+        lengths.add(length);
+      }
+
+      int count = documents.size();
+      UUID[] courseIds = new UUID[count];
+      UUID[] contentIds = new UUID[count];
+      TimelineEventType[] types = new TimelineEventType[count];
+      Instant[] occurredAt = new Instant[count];
+      int[] lengthArray = new int[count];
+      for (int doc = 0; doc < count; doc++) {
+        TimelineEvent event = documents.get(doc);
+        courseIds[doc] = event.getCourseId();
+        contentIds[doc] = event.getContentId();
+        types[doc] = event.getType();
+        occurredAt[doc] = event.getOccurredAt() == null ? Instant.EPOCH : event.getOccurredAt();
+        lengthArray[doc] = lengths.get(doc);
+      }
+      String[] terms = postings.keySet().toArray(new String[0]);
+      Arrays.sort(terms);
+      IntBuffer all = new IntBuffer();
+      int[] starts = new int[terms.length + 1];
+      for (int t = 0; t < terms.length; t++) {
+        starts[t] = all.size / 2;
+        all.addAll(postings.get(terms[t]));
+      }
+      starts[terms.length] = all.size / 2;
+      return new Segment(courseIds, contentIds, types, occurredAt, lengthArray, terms, starts,
+          all.toArray());
+    }
+
+    /**
+     * Combines segments into one, leaving out deleted documents and
+     * renumbering the rest after those of the segments before them.
+     */
+    static Segment merge(List<Segment> parts) {
+      int count = 0;
+      TreeSet<String> allTerms = new TreeSet<>();
+      for (Segment part : parts) {
+        count += part.liveSize();
+        allTerms.addAll(Arrays.asList(part.terms));
+      }
+      UUID[] courseIds = new UUID[count];
+      UUID[] contentIds = new UUID[count];
+      TimelineEventType[] types = new TimelineEventType[count];
+      Instant[] occurredAt = new Instant[count];
+      int[] lengths = new int[count];
+      // renumbered[i][d] is document d of part i in the merged segment, or -1
+      int[][] renumbered = new int[parts.size()][];
+      int next = 0;
+      for (int i = 0; i < parts.size(); i++) {
+        Segment part = parts.get(i);
+        renumbered[i] = new int[part.size()];
+        for (int doc = 0; doc < part.size(); doc++) {
+          if (part.deleted.get(doc)) {
+            renumbered[i][doc] = -1;
+            continue;
+          }
+          courseIds[next] = part.courseIds[doc];
+          contentIds[next] = part.contentIds[doc];
+          types[next] = part.types[doc];
+          occurredAt[next] = part.occurredAt[doc];
+          lengths[next] = part.lengths[doc];
+          renumbered[i][doc] = next++;
+        }
+      }
+
+      String[] terms = allTerms.toArray(new String[0]);
+      int[] starts = new int[terms.length + 1];
+      IntBuffer all = new IntBuffer();
+      for (int t = 0; t < terms.length; t++) {
+        starts[t] = all.size / 2;
+        for (int i = 0; i < parts.size(); i++) {
+          Segment part = parts.get(i);
+          int pt = Arrays.binarySearch(part.terms, terms[t]);
+          if (pt < 0) {
+            continue;
+          }
+          for (int p = 2 * part.starts[pt]; p < 2 * part.starts[pt + 1]; p += 2) {
+            int doc = renumbered[i][part.postings[p]];
+            if (doc >= 0) {
+              all.add(doc, part.postings[p + 1]);
+            }
+          }
+        }
+      }
+      starts[terms.length] = all.size / 2;
+      return new Segment(courseIds, contentIds, types, occurredAt, lengths, terms, starts,
+          all.toArray());
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      out.writeInt(SEGMENT_MAGIC);
+      out.writeInt(size());
+      for (int doc = 0; doc < size(); doc++) {
+        out.writeLong(courseIds[doc].getMostSignificantBits());
+        out.writeLong(courseIds[doc].getLeastSignificantBits());
+        out.writeLong(contentIds[doc].getMostSignificantBits());
+        out.writeLong(contentIds[doc].getLeastSignificantBits());
+        out.writeByte(types[doc].ordinal());
+        out.writeLong(occurredAt[doc].getEpochSecond());
+        out.writeInt(occurredAt[doc].getNano());
+        out.writeInt(lengths[doc]);
+      }
+      out.writeInt(terms.length);
+      for (int t = 0; t < terms.length; t++) {
+        out.writeUTF(terms[t]);
+        out.writeInt(starts[t + 1] - starts[t]);
+      }
+      for (int posting : postings) {
+        out.writeInt(posting);
+      }
+    }
+
+    static Segment readFrom(DataInputStream in) throws IOException {
+      if (in.readInt() != SEGMENT_MAGIC) {
+        throw new IOException("not a search index segment");
+      }
+      int count = in.readInt();
+      UUID[] courseIds = new UUID[count];
+      UUID[] contentIds = new UUID[count];
+      TimelineEventType[] types = new TimelineEventType[count];
+      Instant[] occurredAt = new Instant[count];
+      int[] lengths = new int[count];
+      for (int doc = 0; doc < count; doc++) {
+        courseIds[doc] = new UUID(in.readLong(), in.readLong());
+        contentIds[doc] = new UUID(in.readLong(), in.readLong());
+        types[doc] = TYPES[in.readUnsignedByte()];
+        occurredAt[doc] = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        lengths[doc] = in.readInt();
+      }
+      int termCount = in.readInt();
+      String[] terms = new String[termCount];
+      int[] starts = new int[termCount + 1];
+      for (int t = 0; t < termCount; t++) {
+        terms[t] = in.readUTF();
+        starts[t + 1] = starts[t] + in.readInt();
+      }
+      int[] postings = new int[2 * starts[termCount]];
+      for (int p = 0; p < postings.length; p++) {
+        postings[p] = in.readInt();
+      }
+      return new Segment(courseIds, contentIds, types, occurredAt, lengths, terms, starts,
+          postings);
+    }
+  }
+
+  /**
+   * Growable int array for building postings.
+   */
+  private static final class IntBuffer {
+    private int[] values = new int[8];
+    private int size;
+
+    void add(int first, int second) {
+      if (size + 2 > values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+      values[size++] = first;
+      values[size++] = second;
+    }
+
+    void addAll(IntBuffer other) {
+      if (size + other.size > values.length) {
+        values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+      }
+      System.arraycopy(other.values, 0, values, size, other.size);
+      size += other.size;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package data_access;
+
+import entities.Flashcard;
+import entities.FlashcardSet;
+import entities.TestData;
+import entities.TimelineEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The searchable text of timeline events and how it is split into terms.
+ *
+ * <p>A term is a run of letters or digits, lower-cased, two to
+ * {@value #MAX_TERM_LENGTH} characters long and not a common English stop
+ * word; longer runs are usually encoded data rather than words. The index
+ * and the highlighting of results use the same rules, so every highlighted
+ * word is one that matched.
+ */
+public final class TimelineSearchText {
+  private static final int MIN_TERM_LENGTH = 2;
+  private static final int MAX_TERM_LENGTH = 64;
+  private static final Set<String> STOP_WORDS = Set.of(
+      "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on",
+      "or", "that", "the", "this", "to", "was", "with");
+
+  /**
+   * Receives the terms of a text in order.
+   */
+  public interface TermSink {
+    /**
+     * Accepts one term.
+     *
+     * @param term the lower-cased term
+     * @param start the index of its first character in the text
+     * @param end the index after its last character
+     */
+    void accept(String term, int start, int end);
+  }
+
+  private TimelineSearchText() {
+  }
+
+  /**
+   * Gets the text of an event that is searched: the title and full text of
+   * notes, the questions and answers of flashcards and the questions of
+   * generated quizzes. Other events have no searchable text.
+   *
+   * @param event the event
+   * @return the text, empty if there is none
+   */
+  public static String of(TimelineEvent event) {
+    StringBuilder text = new StringBuilder();
+    switch (event.getType()) {
+      case NOTES_GENERATED:
+        line(text, event.getTitle());
+        line(text, event.getFullNotesText() != null
+            ? event.getFullNotesText() : event.getSnippet());
+        break;
+      case FLASHCARDS_GENERATED:
+        FlashcardSet cards = event.getFlashcardData();
+        if (cards != null && cards.getFlashcards() != null) {
+          for (Flashcard card : cards.getFlashcards()) {
+            line(text, card.getQuestion());
+            line(text, card.getAnswer());
+          }
+        }
+        break;
+      case QUIZ_GENERATED:
+        TestData test = event.getTestData();
+        if (test != null && test.getQuestions() != null) {
+          for (String question : test.getQuestions()) {
+            line(text, question);
+          }
+        }
+        break;
+      default:
+        break;
+    }
+    return text.toString();
+  }
+
+  /**
+   * Splits a text into terms.
+   *
+   * @param text the text
+   * @param sink receives each term with its position
+   */
+  public static void tokenize(String text, TermSink sink) {
+    int length = text.length();
+    int i = 0;
+    while (i < length) {
+      while (i < length && !Character.isLetterOrDigit(text.codePointAt(i))) {
+        i += Character.charCount(text.codePointAt(i));
+      }
+      int start = i;
+      while (i < length && Character.isLetterOrDigit(text.codePointAt(i))) {
+        i += Character.charCount(text.codePointAt(i));
+      }
+      if (i - start >= MIN_TERM_LENGTH && i - start <= MAX_TERM_LENGTH) {
+        String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+        if (!STOP_WORDS.contains(term)) {
+          sink.accept(term, start, i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Splits a text into terms.
+   *
+   * @param text the text
+   * @return the terms in order, with repeats
+   */
+  public static List<String> terms(String text) {
+    List<String> terms = new ArrayList<>();
+    tokenize(text, (term, start, end) -> terms.add(term));
+    return terms;
+  }
+
+  private static void line(StringBuilder text, String value) {
+    if (value != null && !value.isBlank()) {
+      if (text.length() > 0) {
+        text.append('\n');
+      }
+      text.append(value);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package data_access;
+
+import entities.TimelineEvent;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Persistence strategy behind {@link FileTimelineRepository}.
+ */
+interface TimelineStorage {
+
+  /**
+   * Gives the storage access to the repository's events, for storages that
+   * rewrite everything on save or compaction.
+   *
+   * @param currentEvents returns the events per course, oldest first
+   */
+  void attach(Supplier<Map<UUID, List<TimelineEvent>>> currentEvents);
+
+  /**
+   * Reads every stored event and restores the CourseIdMapper mappings
+   * recorded with them.
+   *
+   * @return the events in the order they were saved within each course
+   */
+  List<TimelineEvent> load();
+
+  /**
+   * Reads the stored events of one course, for storages that load courses
+   * on demand. Called at most once per course, before the repository first
+   * reads or saves any of its events. Storages that return every event from
+   * {@link #load()} return nothing here.
+   *
+   * @param courseId the course UUID
+   * @return the course's events in the order they were saved
+   */
+  default List<TimelineEvent> loadCourse(UUID courseId) {
+    return List.of();
+  }
+
+  /**
+   * Lists the courses that have stored events, for storages that load
+   * courses on demand. Storages that return every event from
+   * {@link #load()} list nothing here.
+   *
+   * @return the course UUIDs
+   */
+  default Set<UUID> courseIds() {
+    return Set.of();
+  }
+
+  /**
+   * Persists an event that was just added to the repository.
+   *
+   * @param event the new event
+   */
+  void append(TimelineEvent event);
+
+  /**
+   * Persists several events that were just added to the repository.
+   * Storages that can should write the whole batch at once.
+   *
+   * @param events the new events, oldest first
+   */
+  default void appendAll(List<TimelineEvent> events) {
+    for (TimelineEvent event : events) {
+      append(event);
+    }
+  }
+
+  /**
+   * Rewrites the stored data into its most compact form. Storages that
+   * already keep a compact form do nothing.
+   */
+  void compact();
+
+  /**
+   * Rewrites one course's stored data into its most compact form. Storages
+   * that do not keep courses apart compact everything.
+   *
+   * @param courseId the course UUID
+   */
+  default void compactCourse(UUID courseId) {
+    compact();
+  }
+
+  /**
+   * Rewrites several courses' stored data into its most compact form.
+   * Storages that do not keep courses apart compact everything once.
+   *
+   * @param courseIds the course UUIDs
+   */
+  default void compactCourses(Set<UUID> courseIds) {
+    compact();
+  }
+
+  /**
+   * Rewrites one course's stored data to hold exactly the given events,
+   * for a course the repository has not loaded. Only storages that load
+   * courses on demand have such courses; the others are only given a
+   * loaded course, whose events the repository already holds, and compact
+   * it.
+   *
+   * @param courseId the course UUID
+   * @param events the course's events, oldest first
+   */
+  default void replaceCourse(UUID courseId, List<TimelineEvent> events) {
+    compactCourse(courseId);
+  }
+
+  /**
+   * Removes everything stored for a course whose events the repository has
+   * dropped. Storages that do not keep courses apart rewrite everything.
+   *
+   * @param courseId the course UUID
+   */
+  default void dropCourse(UUID courseId) {
+    compact();
+  }
+
+  /**
+   * Gets how many bytes the stored events take on disk, not counting
+   * payloads kept in a blob store.
+   *
+   * @return the size in bytes, or 0 if nothing is stored yet
+   */
+  long storedBytes();
+
+  /**
+   * Reports the stored payloads. Storages with a blob store free a payload
+   * as soon as no record references it; this tells what is still kept and
+   * what was freed since the previous call, without reading any records.
+   * Storages that keep every payload inline have nothing to report.
+   *
+   * @return what is kept and what was freed
+   */
+  default PayloadCollectionReport collectPayloads() {
+    return PayloadCollectionReport.NOTHING;
+  }
+}
@@ -11,6 +11,7 @@ public class Course {
   private String name;
   private String description;
   private final List<PDFFile> uploadedFiles;
+  private long version;
 
   /**
    * Constructs a new Course with the given parameters.
@@ -80,6 +81,25 @@ public class Course {
     return description;
   }
 
+  /**
+   * Gets the stored version of the course. The repository increments it on
+   * every write; 0 means the course has not been stored yet.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Sets the stored version of the course.
+   *
+   * @param version the version to set
+   */
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
   /**
    * Adds a PDF file to the course.
    *
@@ -0,0 +1,205 @@
+package entities;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Study statistics of one course, aggregated from its timeline events.
+ *
+ * <p>Every figure is a running aggregate, so {@link #add(TimelineEvent)}
+ * takes constant time and space however long the history is. The recent
+ * average is an exponentially weighted moving average of submitted quiz
+ * scores, in which the latest score counts for {@value #RECENT_WEIGHT};
+ * it follows the trend of the last few quizzes.
+ */
+public class CourseStats {
+  /**
+   * Weight of the newest score in the recent average.
+   */
+  public static final double RECENT_WEIGHT = 0.3;
+
+  private final UUID courseId;
+  private int notesGenerated;
+  private int flashcardSetsGenerated;
+  private int quizzesGenerated;
+  private int quizzesSubmitted;
+  private int scoredQuizzes;
+  private double scoreSum;
+  private double bestScore;
+  private double worstScore;
+  private double recentAverageScore;
+  private Instant lastActivity;
+
+  /**
+   * Constructs empty statistics for a course.
+   *
+   * @param courseId the course UUID
+   */
+  public CourseStats(UUID courseId) {
+    this.courseId = courseId;
+  }
+
+  /**
+   * Constructs a copy of other statistics.
+   *
+   * @param other the statistics to copy
+   */
+  public CourseStats(CourseStats other) {
+    this.courseId = other.courseId;
+    this.notesGenerated = other.notesGenerated;
+    this.flashcardSetsGenerated = other.flashcardSetsGenerated;
+    this.quizzesGenerated = other.quizzesGenerated;
+    this.quizzesSubmitted = other.quizzesSubmitted;
+    this.scoredQuizzes = other.scoredQuizzes;
+    this.scoreSum = other.scoreSum;
+    this.bestScore = other.bestScore;
+    this.worstScore = other.worstScore;
+    this.recentAverageScore = other.recentAverageScore;
+    this.lastActivity = other.lastActivity;
+  }
+
+  /**
+   * Adds one event of this course to the statistics. Events should be
+   * added in the order they were saved, which the recent average follows.
+   *
+   * @param event the event
+   */
+  public void add(TimelineEvent event) {
+    switch (event.getType()) {
+      case NOTES_GENERATED:
+        notesGenerated++;
+        break;
+      case FLASHCARDS_GENERATED:
+        flashcardSetsGenerated++;
+        break;
+      case QUIZ_GENERATED:
+        quizzesGenerated++;
+        break;
+      case QUIZ_SUBMITTED:
+        quizzesSubmitted++;
+        if (event.getScore() != null) {
+          addScore(event.getScore());
+        }
+        break;
+      default:
+        break;
+    }
+    Instant occurredAt = event.getOccurredAt();
+    if (occurredAt != null && (lastActivity == null || occurredAt.isAfter(lastActivity))) {
+      lastActivity = occurredAt;
+    }
+  }
+
+  private void addScore(double score) {
+    if (scoredQuizzes == 0) {
+      bestScore = score;
+      worstScore = score;
+      recentAverageScore = score;
+    } else {
+      bestScore = Math.max(bestScore, score);
+      worstScore = Math.min(worstScore, score);
+      recentAverageScore += RECENT_WEIGHT * (score - recentAverageScore);
+    }
+    scoredQuizzes++;
+    scoreSum += score;
+  }
+
+  /**
+   * Gets the course UUID.
+   *
+   * @return the course UUID
+   */
+  public UUID getCourseId() {
+    return courseId;
+  }
+
+  /**
+   * Gets the number of lecture notes generated.
+   *
+   * @return the number of notes
+   */
+  public int getNotesGenerated() {
+    return notesGenerated;
+  }
+
+  /**
+   * Gets the number of flashcard sets generated.
+   *
+   * @return the number of flashcard sets
+   */
+  public int getFlashcardSetsGenerated() {
+    return flashcardSetsGenerated;
+  }
+
+  /**
+   * Gets the number of quizzes generated.
+   *
+   * @return the number of quizzes generated
+   */
+  public int getQuizzesGenerated() {
+    return quizzesGenerated;
+  }
+
+  /**
+   * Gets the number of quizzes submitted.
+   *
+   * @return the number of quizzes submitted
+   */
+  public int getQuizzesSubmitted() {
+    return quizzesSubmitted;
+  }
+
+  /**
+   * Tells whether any submitted quiz has a score.
+   *
+   * @return true if the score figures are available
+   */
+  public boolean hasScores() {
+    return scoredQuizzes > 0;
+  }
+
+  /**
+   * Gets the average score over all submitted quizzes.
+   *
+   * @return the average percentage, or null if no quiz has a score
+   */
+  public Double getAverageScore() {
+    return hasScores() ? scoreSum / scoredQuizzes : null;
+  }
+
+  /**
+   * Gets the recent average score, weighted towards the latest quizzes.
+   *
+   * @return the recent average percentage, or null if no quiz has a score
+   */
+  public Double getRecentAverageScore() {
+    return hasScores() ? recentAverageScore : null;
+  }
+
+  /**
+   * Gets the best quiz score.
+   *
+   * @return the best percentage, or null if no quiz has a score
+   */
+  public Double getBestScore() {
+    return hasScores() ? bestScore : null;
+  }
+
+  /**
+   * Gets the worst quiz score.
+   *
+   * @return the worst percentage, or null if no quiz has a score
+   */
+  public Double getWorstScore() {
+    return hasScores() ? worstScore : null;
+  }
+
+  /**
+   * Gets the time of the latest event.
+   *
+   * @return the last activity, or null if the course has no events
+   */
+  public Instant getLastActivity() {
+    return lastActivity;
+  }
+}
@@ -2,6 +2,7 @@ package entities;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 //    id is id of the timeline event
 //    courseid is id of the course e.g. course csc207
@@ -20,11 +21,20 @@ public class TimelineEvent {
     private Integer numQuestions;
     private Double score;
 
-    // Full content storage
-    private String fullNotesText;  // Full notes content
-    private String flashcardData;  // JSON or serialized flashcard data
-    private String testData;       // JSON or serialized test data (questions, answers, etc.)
-    private String evaluationData; // JSON or serialized evaluation data (results, feedback, etc.)
+    // Full content storage. Each payload is either held inline or, once
+    // persisted, fetched on demand through a loader so history does not
+    // have to live in the heap.
+    private String fullNotesText;          // Full notes content
+    private FlashcardSet flashcardData;    // The generated flashcards
+    private TestData testData;             // The generated questions, answers and choices
+    private EvaluationData evaluationData; // The submitted answers, results and feedback
+    private Supplier<String> fullNotesTextLoader;
+    private Supplier<FlashcardSet> flashcardDataLoader;
+    private Supplier<TestData> testDataLoader;
+    private Supplier<EvaluationData> evaluationDataLoader;
+    // Set once retention has moved the payloads to the archive; the live
+    // record keeps only the summary fields
+    private boolean payloadsArchived;
 
     public TimelineEvent(UUID courseId, UUID contentId, TimelineEventType type) {
         this.id = UUID.randomUUID();
@@ -62,19 +72,59 @@ public class TimelineEvent {
     public void setNumCards(Integer numCards) { this.numCards = numCards; }
     public void setNumQuestions(Integer numQuestions) { this.numQuestions = numQuestions; }
     public void setScore(Double score) { this.score = score; }
+    public boolean isPayloadsArchived() { return payloadsArchived; }
+    public void setPayloadsArchived(boolean payloadsArchived) { this.payloadsArchived = payloadsArchived; }
     
-    // Full content getters and setters
-    public String getFullNotesText() { return fullNotesText; }
-    public void setFullNotesText(String fullNotesText) { this.fullNotesText = fullNotesText; }
-    
-    public String getFlashcardData() { return flashcardData; }
-    public void setFlashcardData(String flashcardData) { this.flashcardData = flashcardData; }
-    
-    public String getTestData() { return testData; }
-    public void setTestData(String testData) { this.testData = testData; }
-    
-    public String getEvaluationData() { return evaluationData; }
-    public void setEvaluationData(String evaluationData) { this.evaluationData = evaluationData; }
-}
+    // Full content getters and setters. Setting a value drops the loader
+    // and vice versa; getters fall back to the loader on every call.
+    public String getFullNotesText() { return load(fullNotesText, fullNotesTextLoader); }
+    public void setFullNotesText(String fullNotesText) {
+        this.fullNotesText = fullNotesText;
+        this.fullNotesTextLoader = null;
+    }
+    public Supplier<String> getFullNotesTextLoader() { return fullNotesTextLoader; }
+    public void setFullNotesTextLoader(Supplier<String> loader) {
+        this.fullNotesTextLoader = loader;
+        this.fullNotesText = null;
+    }
+
+    public FlashcardSet getFlashcardData() { return load(flashcardData, flashcardDataLoader); }
+    public void setFlashcardData(FlashcardSet flashcardData) {
+        this.flashcardData = flashcardData;
+        this.flashcardDataLoader = null;
+    }
+    public Supplier<FlashcardSet> getFlashcardDataLoader() { return flashcardDataLoader; }
+    public void setFlashcardDataLoader(Supplier<FlashcardSet> loader) {
+        this.flashcardDataLoader = loader;
+        this.flashcardData = null;
+    }
+
+    public TestData getTestData() { return load(testData, testDataLoader); }
+    public void setTestData(TestData testData) {
+        this.testData = testData;
+        this.testDataLoader = null;
+    }
+    public Supplier<TestData> getTestDataLoader() { return testDataLoader; }
+    public void setTestDataLoader(Supplier<TestData> loader) {
+        this.testDataLoader = loader;
+        this.testData = null;
+    }
 
+    public EvaluationData getEvaluationData() { return load(evaluationData, evaluationDataLoader); }
+    public void setEvaluationData(EvaluationData evaluationData) {
+        this.evaluationData = evaluationData;
+        this.evaluationDataLoader = null;
+    }
+    public Supplier<EvaluationData> getEvaluationDataLoader() { return evaluationDataLoader; }
+    public void setEvaluationDataLoader(Supplier<EvaluationData> loader) {
+        this.evaluationDataLoader = loader;
+        this.evaluationData = null;
+    }
 
+    private static <T> T load(T value, Supplier<T> loader) {
+        if (value != null || loader == null) {
+            return value;
+        }
+        return loader.get();
+    }
+}
@@ -1,5 +1,6 @@
 package interface_adapters.dashboard;
 
+import usecases.course_stats.CourseStatsInputBoundary;
 import usecases.dashboard.CourseDashboardInputBoundary;
 
 /**
@@ -8,6 +9,7 @@ import usecases.dashboard.CourseDashboardInputBoundary;
  */
 public class CourseDashboardController {
   private final CourseDashboardInputBoundary courseDashboardInputBoundary;
+  private final CourseStatsInputBoundary courseStatsInputBoundary;
 
   /**
    * Constructs a CourseDashboardController with the given input boundary.
@@ -15,7 +17,19 @@ public class CourseDashboardController {
    * @param courseDashboardInputBoundary the interactor for dashboard operations
    */
   public CourseDashboardController(CourseDashboardInputBoundary courseDashboardInputBoundary) {
+    this(courseDashboardInputBoundary, null);
+  }
+
+  /**
+   * Constructs a CourseDashboardController that can also show course statistics.
+   *
+   * @param courseDashboardInputBoundary the interactor for dashboard operations
+   * @param courseStatsInputBoundary the interactor for course statistics, or null
+   */
+  public CourseDashboardController(CourseDashboardInputBoundary courseDashboardInputBoundary,
+      CourseStatsInputBoundary courseStatsInputBoundary) {
     this.courseDashboardInputBoundary = courseDashboardInputBoundary;
+    this.courseStatsInputBoundary = courseStatsInputBoundary;
   }
 
   /**
@@ -31,4 +45,14 @@ public class CourseDashboardController {
   public void createCourse() {
     this.courseDashboardInputBoundary.createCourse();
   }
+
+  /**
+   * Displays each course's study statistics, if this controller has a
+   * statistics interactor.
+   */
+  public void displayStats() {
+    if (this.courseStatsInputBoundary != null) {
+      this.courseStatsInputBoundary.loadStats();
+    }
+  }
 }
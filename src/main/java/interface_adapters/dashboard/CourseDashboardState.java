@@ -2,6 +2,7 @@ package interface_adapters.dashboard;
 
 import entities.Course;
 import java.util.List;
+import java.util.Map;
 
 /**
  * State class for the course dashboard view model.
@@ -9,6 +10,7 @@ import java.util.List;
 public class CourseDashboardState {
   private List<Course> courses;
   private String error;
+  private Map<String, String> statsSummaries = Map.of();
 
   /**
    * Constructs a new CourseDashboardState.
@@ -42,4 +44,22 @@ public class CourseDashboardState {
   public void setError(String error) {
     this.error = error;
   }
+
+  /**
+   * Gets the study statistics summary of each course.
+   *
+   * @return the summaries keyed by course ID
+   */
+  public Map<String, String> getStatsSummaries() {
+    return this.statsSummaries;
+  }
+
+  /**
+   * Sets the study statistics summary of each course.
+   *
+   * @param statsSummaries the summaries keyed by course ID
+   */
+  public void setStatsSummaries(Map<String, String> statsSummaries) {
+    this.statsSummaries = statsSummaries;
+  }
 }
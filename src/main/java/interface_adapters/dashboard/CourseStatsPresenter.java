@@ -0,0 +1,64 @@
+package interface_adapters.dashboard;
+
+import entities.CourseStats;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import usecases.course_stats.CourseStatsOutputBoundary;
+import usecases.course_stats.CourseStatsOutputData;
+
+/**
+ * Presenter for the course statistics use case.
+ * Turns each course's statistics into a short summary for the dashboard.
+ */
+public class CourseStatsPresenter implements CourseStatsOutputBoundary {
+  /**
+   * Property fired when the summaries change.
+   */
+  public static final String STATS_PROPERTY = "stats";
+  private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("MMM d, HH:mm");
+
+  private final CourseDashboardViewModel courseDashboardViewModel;
+
+  /**
+   * Constructs a CourseStatsPresenter.
+   *
+   * @param courseDashboardViewModel the view model for the dashboard
+   */
+  public CourseStatsPresenter(CourseDashboardViewModel courseDashboardViewModel) {
+    this.courseDashboardViewModel = courseDashboardViewModel;
+  }
+
+  @Override
+  public void prepareStatsView(CourseStatsOutputData outputData) {
+    Map<String, String> summaries = new LinkedHashMap<>();
+    for (Map.Entry<String, CourseStats> entry : outputData.getStatsByCourse().entrySet()) {
+      summaries.put(entry.getKey(), summarize(entry.getValue()));
+    }
+    courseDashboardViewModel.getState().setStatsSummaries(summaries);
+    courseDashboardViewModel.firePropertyChange(STATS_PROPERTY);
+  }
+
+  /**
+   * Formats statistics as up to three lines of HTML for a label.
+   */
+  private static String summarize(CourseStats stats) {
+    if (stats.getLastActivity() == null) {
+      return "<html>No activity yet</html>";
+    }
+    StringBuilder text = new StringBuilder("<html>");
+    text.append(stats.getQuizzesSubmitted()).append(" quizzes");
+    if (stats.hasScores()) {
+      text.append(String.format(" · avg %.0f%% (recent %.0f%%)",
+          stats.getAverageScore(), stats.getRecentAverageScore()));
+      text.append(String.format("<br>best %.0f%% · worst %.0f%%",
+          stats.getBestScore(), stats.getWorstScore()));
+    }
+    text.append("<br>").append(stats.getFlashcardSetsGenerated()).append(" card sets · ")
+        .append(stats.getNotesGenerated()).append(" notes");
+    text.append("<br>Last active ")
+        .append(FMT.format(stats.getLastActivity().atZone(ZoneId.systemDefault())));
+    return text.append("</html>").toString();
+  }
+}
@@ -27,4 +27,15 @@ public class GenerateFlashcardsController {
   public void generateFlashcards(String courseName, String content) {
     interactor.execute(courseName, content);
   }
+
+  /**
+   * Triggers flashcard generation, skipping any flashcards cached for the
+   * same content.
+   *
+   * @param courseName The name of the course
+   * @param content The topic or PDF path to generate flashcards from
+   */
+  public void regenerateFlashcards(String courseName, String content) {
+    interactor.execute(courseName, content, true);
+  }
 }
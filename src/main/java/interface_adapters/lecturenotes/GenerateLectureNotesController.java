@@ -25,6 +25,18 @@ public class GenerateLectureNotesController {
    * @param topic the topic for the lecture notes
    */
   public void execute(String courseId, String topic) {
-    interactor.execute(new GenerateLectureNotesInputData(courseId, topic));
+    execute(courseId, topic, false);
+  }
+
+  /**
+   * Executes the lecture notes generation process, optionally skipping
+   * notes cached for the same course files and topic.
+   *
+   * @param courseId the course ID
+   * @param topic the topic for the lecture notes
+   * @param fresh true to generate new notes instead of reusing cached ones
+   */
+  public void execute(String courseId, String topic, boolean fresh) {
+    interactor.execute(new GenerateLectureNotesInputData(courseId, topic, fresh));
   }
 }
@@ -11,7 +11,15 @@ public class MockTestController {
     }
 
     public void execute(String courseID) {
-        final MockTestGenerationInputData testGenerationData = new MockTestGenerationInputData(courseID);
+        execute(courseID, false);
+    }
+
+    /**
+     * @param fresh true to generate a new test instead of reusing a cached one
+     */
+    public void execute(String courseID, boolean fresh) {
+        final MockTestGenerationInputData testGenerationData =
+                new MockTestGenerationInputData(courseID, fresh);
         // Run the generation workflow off the EDT so the loading view can render.
     Thread worker = new Thread(() -> mockTestGenerationInteractor.execute(testGenerationData),
         "mock-test-generation-worker");
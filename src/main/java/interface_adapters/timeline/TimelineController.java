@@ -1,19 +1,66 @@
 package interface_adapters.timeline;
 
+import entities.TimelineEventType;
+import usecases.Timeline.SearchTimelineInputBoundary;
 import usecases.Timeline.ViewTimelineInputBoundary;
 
+import java.time.Instant;
+import java.util.Set;
 import java.util.UUID;
 
 public class TimelineController {
     private final ViewTimelineInputBoundary interactor;
+    private final SearchTimelineInputBoundary searchInteractor;
 
     public TimelineController(ViewTimelineInputBoundary interactor) {
+        this(interactor, null);
+    }
+
+    /** Constructs a controller that can also search; searchInteractor may be null. */
+    public TimelineController(ViewTimelineInputBoundary interactor,
+                              SearchTimelineInputBoundary searchInteractor) {
         this.interactor = interactor;
+        this.searchInteractor = searchInteractor;
     }
 
     public void open(UUID courseId) {
         interactor.execute(courseId);
     }
-}
 
+    public void loadMore(UUID courseId, long beforeCursor) {
+        interactor.loadMore(courseId, beforeCursor);
+    }
+
+    public void filter(UUID courseId, Set<TimelineEventType> types, Instant from, Instant to) {
+        interactor.filter(courseId, types, from, to);
+    }
+
+    public void openAll() {
+        interactor.executeAll();
+    }
+
+    public void loadMoreAll() {
+        interactor.loadMoreAll();
+    }
+
+    public void openArchived(UUID courseId) {
+        interactor.executeArchived(courseId);
+    }
+
+    /**
+     * Deletes an event on a worker thread, since it rewrites the course's
+     * storage and the search index.
+     */
+    public void delete(UUID courseId, String eventId, Instant occurredAt) {
+        Thread worker = new Thread(() -> interactor.delete(courseId, eventId, occurredAt),
+                "timeline-delete-worker");
+        worker.setDaemon(true);
+        worker.start();
+    }
 
+    public void search(String query) {
+        if (searchInteractor != null) {
+            searchInteractor.search(query);
+        }
+    }
+}
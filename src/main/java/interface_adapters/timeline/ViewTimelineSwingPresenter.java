@@ -27,6 +27,11 @@ public class ViewTimelineSwingPresenter implements ViewTimelineOutputBoundary {
 
         vm.setFromResponse(resp);
     }
+
+    @Override
+    public void presentDeleted(String eventId) {
+        vm.removeEvent(eventId);
+    }
 }
 
 
@@ -10,22 +10,63 @@ import java.util.UUID;
 
 public class ViewTimelineViewModel {
     public static final String VIEW_NAME = "timeline";
+    /** Fired with the newly added cards when a further page is appended. */
+    public static final String MORE_PROPERTY = "timelineMore";
+    /** Fired with the event ID when the event a card shows was deleted. */
+    public static final String DELETED_PROPERTY = "timelineDeleted";
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
     private UUID courseId;
     private boolean isEmpty = true;
     private List<ViewTimelineResponse.TimelineCardVM> items = new ArrayList<>();
+    private long nextCursor;
+    private boolean hasMore;
+    private boolean filtered;
+    private boolean allCourses;
+    private String searchQuery;
+    private boolean searchIncomplete;
+    private boolean archived;
 
     public void setFromResponse(ViewTimelineResponse resp) {
+        this.nextCursor = resp.getNextCursor();
+        this.hasMore = resp.hasMore();
+        if (resp.isAppend()) {
+            List<ViewTimelineResponse.TimelineCardVM> added = new ArrayList<>(resp.getItems());
+            this.items.addAll(added);
+            pcs.firePropertyChange(MORE_PROPERTY, null, added);
+            return;
+        }
         this.courseId = resp.getCourseId();
         this.isEmpty = resp.isEmpty();
+        this.filtered = resp.isFiltered();
+        this.allCourses = resp.isAllCourses();
+        this.searchQuery = resp.getSearchQuery();
+        this.searchIncomplete = resp.isSearchIncomplete();
+        this.archived = resp.isArchived();
         this.items = new ArrayList<>(resp.getItems()); // Defensive copy
         pcs.firePropertyChange("timeline", null, this);
     }
 
+    /** Drops the card of a deleted event. */
+    public void removeEvent(String eventId) {
+        items.removeIf(card -> eventId.equals(card.getEventId()));
+        isEmpty = items.isEmpty();
+        pcs.firePropertyChange(DELETED_PROPERTY, null, eventId);
+    }
+
     public UUID getCourseId() { return courseId; }
     public void setCourseId(UUID courseId) { this.courseId = courseId; }
     public boolean isEmpty() { return isEmpty; }
+    public long getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return hasMore; }
+    public boolean isFiltered() { return filtered; }
+    public boolean isAllCourses() { return allCourses; }
+    /** The query of the shown search results, or null when browsing. */
+    public String getSearchQuery() { return searchQuery; }
+    /** Whether the shown search results may miss events not indexed yet. */
+    public boolean isSearchIncomplete() { return searchIncomplete; }
+    /** Whether the shown events were read from the archive. */
+    public boolean isArchived() { return archived; }
     public List<ViewTimelineResponse.TimelineCardVM> getItems() { return new ArrayList<>(items); } // Defensive copy
 
     public void addPropertyChangeListener(PropertyChangeListener l) { pcs.addPropertyChangeListener(l); }
@@ -61,6 +61,21 @@ public class CourseController {
     this.courseWorkspaceInteractor.updateCourse(course);
   }
 
+  /**
+   * Updates an existing course, failing if it was changed after the given
+   * version was loaded into the editor.
+   *
+   * @param courseId the ID of the course to update
+   * @param name the new name of the course
+   * @param description the new description of the course
+   * @param version the version of the course the edit is based on
+   */
+  public void updateCourse(String courseId, String name, String description, long version) {
+    Course course = new Course(courseId, name, description);
+    course.setVersion(version);
+    this.courseWorkspaceInteractor.updateCourse(course);
+  }
+
   /**
    * Deletes a course by its ID.
    *
@@ -12,4 +12,16 @@ public interface GenerateFlashcardsInputBoundary {
    * @param content the content to generate flashcards from
    */
   void execute(String courseName, String content);
+
+  /**
+   * Executes the flashcard generation process, optionally skipping
+   * flashcards cached for the same content.
+   *
+   * @param courseName the name of the course
+   * @param content the content to generate flashcards from
+   * @param fresh true to generate new flashcards instead of reusing cached ones
+   */
+  default void execute(String courseName, String content, boolean fresh) {
+    execute(courseName, content);
+  }
 }
@@ -34,9 +34,24 @@ public class GenerateFlashcardsInteractor implements GenerateFlashcardsInputBoun
    */
   @Override
   public void execute(String courseName, String content) {
+    execute(courseName, content, false);
+  }
+
+  /**
+   * Executes the flashcard generation process, optionally skipping
+   * flashcards cached for the same content.
+   *
+   * @param courseName the name of the course
+   * @param content the content to generate flashcards from
+   * @param fresh true to generate new flashcards instead of reusing cached ones
+   */
+  @Override
+  public void execute(String courseName, String content, boolean fresh) {
     try {
       // Generate flashcards using the selected generator (Mock or Gemini)
-      FlashcardSet set = generator.generateForCourse(courseName, content);
+      FlashcardSet set = fresh
+          ? generator.regenerateForCourse(courseName, content)
+          : generator.generateForCourse(courseName, content);
 
       // Wrap result in a response model
       GenerateFlashcardsResponseModel response =
@@ -1,6 +1,8 @@
 package usecases;
 
 import entities.Course;
+import entities.PDFFile;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,6 +23,46 @@ public interface ICourseRepository {
    */
   void update(Course course);
 
+  /**
+   * Creates a course unless one with the same ID already exists. The check
+   * and the insert are atomic in implementations that support concurrent
+   * callers; this default is not.
+   *
+   * @param course the course to create; on success its version is set to
+   *     the stored version
+   * @return true if the course was created, false if the ID was taken
+   */
+  default boolean createIfAbsent(Course course) {
+    if (findById(course.getCourseId()) != null) {
+      return false;
+    }
+    course.setVersion(1);
+    create(course);
+    return true;
+  }
+
+  /**
+   * Replaces a course only if its stored version still matches, so an
+   * editor working from an outdated copy cannot overwrite someone else's
+   * change. The check and the write are atomic in implementations that
+   * support concurrent callers; this default is not.
+   *
+   * @param course the new course data; on success its version is set to
+   *     the new stored version
+   * @param expectedVersion the version the caller read
+   * @return true if the course was updated, false if it does not exist or
+   *     its version has moved on
+   */
+  default boolean updateIfVersion(Course course, long expectedVersion) {
+    Course current = findById(course.getCourseId());
+    if (current == null || current.getVersion() != expectedVersion) {
+      return false;
+    }
+    course.setVersion(expectedVersion + 1);
+    update(course);
+    return true;
+  }
+
   /**
    * Finds a course by its ID.
    *
@@ -36,10 +78,87 @@ public interface ICourseRepository {
    */
   List<Course> findAll();
 
+  /**
+   * Finds one page of courses, in the same order as {@link #findAll()}.
+   *
+   * @param offset number of courses to skip
+   * @param limit maximum number of courses to return
+   * @return the courses of the page
+   * @throws IllegalArgumentException if offset or limit is negative
+   */
+  default List<Course> findAll(int offset, int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("offset and limit must not be negative");
+    }
+    List<Course> all = findAll();
+    int from = Math.min(offset, all.size());
+    int to = (int) Math.min((long) from + limit, all.size());
+    return new ArrayList<>(all.subList(from, to));
+  }
+
   /**
    * Deletes a course by its ID.
    *
    * @param courseId the course ID
    */
   void delete(String courseId);
+
+  /**
+   * Attaches a file to a course. Implementations should only write the
+   * affected course; this default falls back to a full {@link #update}.
+   *
+   * @param courseId the course ID
+   * @param filePath the path of the file to attach
+   * @return true if the course exists and the file was attached
+   */
+  default boolean attachFile(String courseId, String filePath) {
+    Course course = findById(courseId);
+    if (course == null) {
+      return false;
+    }
+    course.addFile(new PDFFile(filePath));
+    update(course);
+    return true;
+  }
+
+  /**
+   * Detaches every file with the given path from a course. Implementations
+   * should only write the affected course; this default falls back to a
+   * full {@link #update}.
+   *
+   * @param courseId the course ID
+   * @param filePath the path of the file to detach
+   * @return true if the course exists and held the file
+   */
+  default boolean detachFile(String courseId, String filePath) {
+    Course course = findById(courseId);
+    if (course == null) {
+      return false;
+    }
+    boolean removed = course.getUploadedFiles()
+        .removeIf(file -> file.getPath().toString().equals(filePath));
+    if (removed) {
+      update(course);
+    }
+    return removed;
+  }
+
+  /**
+   * Changes a course's name and description, keeping its files.
+   *
+   * @param courseId the course ID
+   * @param name the new name
+   * @param description the new description
+   * @return true if the course exists and was changed
+   */
+  default boolean renameCourse(String courseId, String name, String description) {
+    Course course = findById(courseId);
+    if (course == null) {
+      return false;
+    }
+    course.setName(name);
+    course.setDescription(description);
+    update(course);
+    return true;
+  }
 }
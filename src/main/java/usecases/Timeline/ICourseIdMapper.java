@@ -0,0 +1,62 @@
+package usecases.Timeline;
+
+import java.util.UUID;
+
+/**
+ * Maps the String course IDs of the course system to the UUIDs the
+ * timeline files events under. Implementations must be safe to call from
+ * any thread.
+ */
+public interface ICourseIdMapper {
+  /**
+   * Gets or creates the UUID of a course.
+   *
+   * @param courseId the String course ID (e.g., "PHL245")
+   * @return the corresponding UUID
+   * @throws IllegalArgumentException if courseId is null or empty
+   */
+  UUID getUuidForCourseId(String courseId);
+
+  /**
+   * Gets the String course ID of a UUID.
+   *
+   * @param uuid the UUID
+   * @return the corresponding String course ID, or null if not found
+   */
+  String getCourseIdForUuid(UUID uuid);
+
+  /**
+   * Checks if a UUID exists for a course ID.
+   *
+   * @param courseId the String course ID
+   * @return true if a mapping exists
+   */
+  boolean hasUuid(String courseId);
+
+  /**
+   * Restores a mapping recorded with stored timeline events, unless the
+   * course ID is already mapped.
+   *
+   * @param courseId the String course ID
+   * @param uuid the UUID to associate with the course ID
+   */
+  void restoreMapping(String courseId, UUID uuid);
+
+  /**
+   * Tells whether UUIDs are computed from the course IDs. Such mappers
+   * only need the course IDs stored with timeline events, never ones
+   * guessed from event titles.
+   *
+   * @return true if UUIDs are derived, false if they are assigned
+   */
+  default boolean derivesUuids() {
+    return false;
+  }
+
+  /**
+   * Persists mappings that are still waiting to be written. Mappers that
+   * write at once do nothing.
+   */
+  default void flush() {
+  }
+}
@@ -0,0 +1,106 @@
+package usecases.Timeline;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course ID mapper that derives each course's UUID from its ID: a version 5
+ * (SHA-1, name-based) UUID in a namespace of its own, so the same course ID
+ * maps to the same UUID on every machine and after every restart. Nothing
+ * is written to disk.
+ *
+ * <p>The reverse direction cannot be computed, so it is learned from the
+ * course IDs looked up here and those the timeline restores from its
+ * stored records.
+ */
+public final class NameBasedCourseIdMapper implements ICourseIdMapper {
+  /** The namespace course UUIDs are derived in. Changing it re-keys every course. */
+  static final UUID NAMESPACE = UUID.fromString("f745fa34-eb69-450f-835c-aa033053c0f0");
+
+  private final Map<String, UUID> courseIdToUuid = new ConcurrentHashMap<>();
+  private final Map<UUID, String> uuidToCourseId = new ConcurrentHashMap<>();
+
+  /**
+   * Derives the UUID of a course.
+   *
+   * @param courseId the String course ID
+   * @return the version 5 UUID of the course ID in this mapper's namespace
+   */
+  public static UUID uuidFor(String courseId) {
+    MessageDigest sha1;
+    try {
+      sha1 = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not available", e);
+    }
+    ByteBuffer namespace = ByteBuffer.allocate(16)
+        .putLong(NAMESPACE.getMostSignificantBits())
+        .putLong(NAMESPACE.getLeastSignificantBits());
+    sha1.update(namespace.array());
+    ByteBuffer hash = ByteBuffer.wrap(sha1.digest(courseId.getBytes(StandardCharsets.UTF_8)));
+    long msb = hash.getLong();
+    long lsb = hash.getLong();
+    // RFC 4122: version 5 in the high nibble of time_hi, IETF variant bits 10
+    msb = (msb & ~0xF000L) | 0x5000L;
+    lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(msb, lsb);
+  }
+
+  @Override
+  public UUID getUuidForCourseId(String courseId) {
+    if (courseId == null || courseId.isEmpty()) {
+      throw new IllegalArgumentException("Course ID cannot be null or empty");
+    }
+    UUID uuid = courseIdToUuid.get(courseId);
+    if (uuid == null) {
+      uuid = uuidFor(courseId);
+      courseIdToUuid.put(courseId, uuid);
+      uuidToCourseId.put(uuid, courseId);
+    }
+    return uuid;
+  }
+
+  @Override
+  public String getCourseIdForUuid(UUID uuid) {
+    return uuid == null ? null : uuidToCourseId.get(uuid);
+  }
+
+  /**
+   * Checks whether a course ID has been looked up or restored. Every
+   * course ID has a UUID, but only these can have timeline events.
+   *
+   * @param courseId the String course ID
+   * @return true if the course ID is known
+   */
+  @Override
+  public boolean hasUuid(String courseId) {
+    return courseId != null && courseIdToUuid.containsKey(courseId);
+  }
+
+  /**
+   * Learns the course ID of a stored UUID. The UUID is remembered for
+   * labels even when it predates name-based UUIDs, but looking up the
+   * course ID still gives its derived UUID.
+   *
+   * @param courseId the String course ID
+   * @param uuid the UUID the course's events are stored under
+   */
+  @Override
+  public void restoreMapping(String courseId, UUID uuid) {
+    if (courseId == null || courseId.isEmpty() || uuid == null) {
+      return;
+    }
+    uuidToCourseId.putIfAbsent(uuid, courseId);
+    getUuidForCourseId(courseId);
+  }
+
+  @Override
+  public boolean derivesUuids() {
+    return true;
+  }
+}
@@ -0,0 +1,9 @@
+package usecases.Timeline;
+
+public interface SearchTimelineInputBoundary {
+    /**
+     * Shows the events of every course whose text best matches the query,
+     * best first. A blank query shows nothing.
+     */
+    void search(String query);
+}
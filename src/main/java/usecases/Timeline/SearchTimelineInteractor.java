@@ -0,0 +1,122 @@
+package usecases.Timeline;
+
+import data_access.ITimelineRepository;
+import data_access.TimelineSearchHit;
+import data_access.TimelineSearchText;
+import entities.TimelineEvent;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Full-text search over the timelines of all courses. Results are shown
+ * in the timeline view, each with the passage that matched best and the
+ * matched words marked.
+ */
+public class SearchTimelineInteractor implements SearchTimelineInputBoundary {
+    // Search results are ranked, so only the best few are worth showing
+    static final int RESULT_LIMIT = 50;
+    // Characters of context shown around the matched words
+    static final int PASSAGE_LENGTH = 160;
+    // How far before the first matched word a passage starts
+    private static final int LEAD = 40;
+    private static final String ELLIPSIS = "…";
+
+    private final ITimelineRepository timelineRepo;
+    private final ViewTimelineOutputBoundary presenter;
+    private final ICourseIdMapper courseIds;
+
+    public SearchTimelineInteractor(ITimelineRepository t, ViewTimelineOutputBoundary p) {
+        this(t, p, CourseIdMapper.shared());
+    }
+
+    public SearchTimelineInteractor(ITimelineRepository t, ViewTimelineOutputBoundary p,
+                                    ICourseIdMapper courseIds) {
+        this.timelineRepo = t;
+        this.presenter = p;
+        this.courseIds = courseIds;
+    }
+
+    @Override
+    public void search(String query) {
+        String trimmed = query == null ? "" : query.trim();
+        List<TimelineSearchHit> hits = trimmed.isEmpty()
+                ? List.of() : timelineRepo.search(trimmed, RESULT_LIMIT);
+        Set<String> terms = new HashSet<>(TimelineSearchText.terms(trimmed));
+
+        ViewTimelineResponse resp = new ViewTimelineResponse();
+        resp.setSearchQuery(trimmed);
+        resp.setSearchIncomplete(!timelineRepo.isSearchComplete());
+        resp.setFiltered(true);
+        List<ViewTimelineResponse.TimelineCardVM> cards = new ArrayList<>();
+        for (TimelineSearchHit hit : hits) {
+            TimelineEvent e = hit.getEvent();
+            ViewTimelineResponse.TimelineCardVM card = ViewTimelineInteractor.toCard(e, resp);
+            card.setCourseLabel(courseIds.getCourseIdForUuid(e.getCourseId()));
+            setPassage(card, TimelineSearchText.of(e), terms);
+            cards.add(card);
+        }
+        resp.setItems(cards);
+        resp.setEmpty(cards.isEmpty());
+        presenter.present(resp);
+    }
+
+    /**
+     * Picks the window of the text holding the most matched words and
+     * records where in it they are.
+     */
+    static void setPassage(ViewTimelineResponse.TimelineCardVM card, String text, Set<String> terms) {
+        List<int[]> matches = new ArrayList<>();
+        TimelineSearchText.tokenize(text, (term, start, end) -> {
+            if (terms.contains(term)) matches.add(new int[] {start, end});
+        });
+
+        // Slide a window that starts shortly before each match; both ends only move forward
+        int from = 0;
+        int best = 0;
+        int end = 0;
+        for (int i = 0; i < matches.size(); i++) {
+            int candidate = Math.max(0, matches.get(i)[0] - LEAD);
+            end = Math.max(end, i);
+            while (end < matches.size() && matches.get(end)[1] <= candidate + PASSAGE_LENGTH) {
+                end++;
+            }
+            if (end - i > best) {
+                best = end - i;
+                from = candidate;
+            }
+        }
+        // Start and end on word boundaries
+        if (from > 0) {
+            int space = text.indexOf(' ', from);
+            if (space >= 0 && space < firstAtOrAfter(matches, from)) {
+                from = space + 1;
+            }
+        }
+        int to = Math.min(text.length(), from + PASSAGE_LENGTH);
+        if (to < text.length()) {
+            int space = text.lastIndexOf(' ', to);
+            if (space > from) to = space;
+        }
+
+        String prefix = from > 0 ? ELLIPSIS : "";
+        String passage = prefix + text.substring(from, to).replace('\n', ' ')
+                + (to < text.length() ? ELLIPSIS : "");
+        List<int[]> ranges = new ArrayList<>();
+        for (int[] match : matches) {
+            if (match[0] >= from && match[1] <= to) {
+                int shift = prefix.length() - from;
+                ranges.add(new int[] {match[0] + shift, match[1] + shift});
+            }
+        }
+        card.setMatch(passage, ranges);
+    }
+
+    private static int firstAtOrAfter(List<int[]> matches, int from) {
+        for (int[] match : matches) {
+            if (match[0] >= from) return match[0];
+        }
+        return Integer.MAX_VALUE;
+    }
+}
@@ -1,16 +1,16 @@
 package usecases.Timeline;
 
-import com.google.gson.Gson;
 import data_access.ITimelineRepository;
+import entities.EvaluationData;
 import entities.FlashcardSet;
+import entities.TestData;
 import entities.TimelineEvent;
 import entities.TimelineEventType;
 
 import java.util.UUID;
 
-public class TimelineLogger {
+public class TimelineLogger implements AutoCloseable {
     private final ITimelineRepository repo;
-    private final Gson gson = new Gson();
 
     public TimelineLogger(ITimelineRepository repo) {
         this.repo = repo;
@@ -28,27 +28,40 @@ public class TimelineLogger {
         var e = new TimelineEvent(courseId, contentId, TimelineEventType.FLASHCARDS_GENERATED);
         e.setNumCards(numCards);
         if (flashcardSet != null) {
-            e.setFlashcardData(gson.toJson(flashcardSet));
+            e.setFlashcardData(flashcardSet);
         }
         repo.save(e);
     }
 
-    public void logQuizGenerated(UUID courseId, UUID contentId, int numQuestions, String testDataJson) {
+    public void logQuizGenerated(UUID courseId, UUID contentId, int numQuestions, TestData testData) {
         var e = new TimelineEvent(courseId, contentId, TimelineEventType.QUIZ_GENERATED);
         e.setNumQuestions(numQuestions);
-        if (testDataJson != null && !testDataJson.isEmpty()) {
-            e.setTestData(testDataJson);
-        }
+        e.setTestData(testData);
         repo.save(e);
     }
 
-    public void logQuizSubmitted(UUID courseId, UUID contentId, int numQuestions, double score, String evaluationDataJson) {
+    public void logQuizSubmitted(UUID courseId, UUID contentId, int numQuestions, double score, EvaluationData evaluationData) {
         var e = new TimelineEvent(courseId, contentId, TimelineEventType.QUIZ_SUBMITTED);
         e.setNumQuestions(numQuestions);
         e.setScore(score);
-        if (evaluationDataJson != null && !evaluationDataJson.isEmpty()) {
-            e.setEvaluationData(evaluationDataJson);
-        }
+        e.setEvaluationData(evaluationData);
         repo.save(e);
     }
+
+    /**
+     * Waits until every logged event has been written, for repositories that
+     * write in the background.
+     */
+    public void flush() {
+        repo.flush();
+    }
+
+    /**
+     * Writes any pending events and releases the repository's writer.
+     * Call once when the application shuts down.
+     */
+    @Override
+    public void close() {
+        repo.close();
+    }
 }
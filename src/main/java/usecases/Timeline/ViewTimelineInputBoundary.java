@@ -1,7 +1,40 @@
 package usecases.Timeline;
 
+import entities.TimelineEventType;
+import java.time.Instant;
+import java.util.Set;
 import java.util.UUID;
 
 public interface ViewTimelineInputBoundary {
+    /** Shows the newest page of a course's timeline. */
     void execute(UUID courseId);
+
+    /** Appends the page of events older than the given cursor. */
+    void loadMore(UUID courseId, long beforeCursor);
+
+    /**
+     * Shows the newest events of the given types in [from, to).
+     * A null types set or bound means no restriction.
+     */
+    void filter(UUID courseId, Set<TimelineEventType> types, Instant from, Instant to);
+
+    /** Shows the newest page of the merged timeline of every course. */
+    void executeAll();
+
+    /** Appends the next page of the merged timeline opened by {@link #executeAll()}. */
+    void loadMoreAll();
+
+    /**
+     * Shows the events retention moved out of a course's timeline, newest
+     * first. They are read from the archive only when asked for.
+     */
+    void executeArchived(UUID courseId);
+
+    /**
+     * Deletes the event a card shows, freeing payloads nothing else uses.
+     * The event is looked up by when it occurred, so only the events of
+     * that instant are read. Reports the deletion, or that the event is
+     * gone, to the presenter.
+     */
+    void delete(UUID courseId, String eventId, Instant occurredAt);
 }
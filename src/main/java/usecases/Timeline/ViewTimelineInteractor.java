@@ -1,46 +1,150 @@
 package usecases.Timeline;
 
 import data_access.ITimelineRepository;
+import data_access.TimelineFeed;
+import data_access.TimelinePage;
+import data_access.TimelineQuery;
 import entities.TimelineEvent;
+import entities.TimelineEventType;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class ViewTimelineInteractor implements ViewTimelineInputBoundary {
     private final ITimelineRepository timelineRepo;
     private final ViewTimelineOutputBoundary presenter;
+    private final ICourseIdMapper courseIds;
 
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("MMM d, HH:mm");
+    // Roughly a few screenfuls; more pages are fetched as the user scrolls
+    static final int PAGE_SIZE = 50;
+    // Filtered views show the newest matches only
+    static final int FILTER_LIMIT = 200;
+
+    // The all-courses feed being paged through, replaced by each executeAll()
+    private TimelineFeed allCoursesFeed;
 
     public ViewTimelineInteractor(ITimelineRepository t, ViewTimelineOutputBoundary p) {
+        this(t, p, CourseIdMapper.shared());
+    }
+
+    public ViewTimelineInteractor(ITimelineRepository t, ViewTimelineOutputBoundary p,
+                                  ICourseIdMapper courseIds) {
         this.timelineRepo = t;
         this.presenter = p;
+        this.courseIds = courseIds;
     }
 
     @Override
     public void execute(UUID courseId) {
-        List<TimelineEvent> events = timelineRepo.findByCourseNewestFirst(courseId);
+        TimelinePage page = timelineRepo.findByCourse(courseId, ITimelineRepository.NEWEST, PAGE_SIZE);
 
-        if (events.isEmpty()) {
+        if (page.getEvents().isEmpty()) {
             presenter.presentNotFound("This page is empty");
             return;
         }
 
+        presenter.present(toResponse(courseId, page, false));
+    }
+
+    @Override
+    public void loadMore(UUID courseId, long beforeCursor) {
+        TimelinePage page = timelineRepo.findByCourse(courseId, beforeCursor, PAGE_SIZE);
+        presenter.present(toResponse(courseId, page, true));
+    }
+
+    @Override
+    public void executeAll() {
+        allCoursesFeed = TimelineFeed.allCourses(timelineRepo, PAGE_SIZE);
+        presenter.present(toAllCoursesResponse(false));
+    }
+
+    @Override
+    public void loadMoreAll() {
+        if (allCoursesFeed == null) {
+            executeAll();
+            return;
+        }
+        presenter.present(toAllCoursesResponse(true));
+    }
+
+    @Override
+    public void executeArchived(UUID courseId) {
+        List<TimelineEvent> events = timelineRepo.findArchivedByCourse(courseId);
+
         ViewTimelineResponse resp = new ViewTimelineResponse();
         resp.setCourseId(courseId);
         resp.setItems(events.stream().map(e -> toCard(e, resp)).collect(Collectors.toList()));
         resp.setEmpty(resp.getItems().isEmpty());
+        resp.setFiltered(true);
+        resp.setArchived(true);
+        presenter.present(resp);
+    }
+
+    @Override
+    public void delete(UUID courseId, String eventId, Instant occurredAt) {
+        // The time index narrows the lookup to the events of that instant
+        List<TimelineEvent> candidates = timelineRepo.findByCourse(courseId,
+                new TimelineQuery(null, occurredAt, occurredAt.plusNanos(1), Integer.MAX_VALUE));
+        for (TimelineEvent e : candidates) {
+            if (e.getId().toString().equals(eventId) && timelineRepo.delete(e)) {
+                presenter.presentDeleted(eventId);
+                return;
+            }
+        }
+        presenter.presentNotFound("This event is no longer in the history");
+    }
 
+    @Override
+    public void filter(UUID courseId, Set<TimelineEventType> types, Instant from, Instant to) {
+        List<TimelineEvent> events = timelineRepo.findByCourse(courseId,
+                new TimelineQuery(types, from, to, FILTER_LIMIT));
+
+        ViewTimelineResponse resp = new ViewTimelineResponse();
+        resp.setCourseId(courseId);
+        resp.setItems(events.stream().map(e -> toCard(e, resp)).collect(Collectors.toList()));
+        resp.setEmpty(resp.getItems().isEmpty());
+        resp.setFiltered(true);
         presenter.present(resp);
     }
 
-    private ViewTimelineResponse.TimelineCardVM toCard(TimelineEvent e, ViewTimelineResponse response) {
+    private ViewTimelineResponse toResponse(UUID courseId, TimelinePage page, boolean append) {
+        ViewTimelineResponse resp = new ViewTimelineResponse();
+        resp.setCourseId(courseId);
+        resp.setItems(page.getEvents().stream().map(e -> toCard(e, resp)).collect(Collectors.toList()));
+        resp.setEmpty(!append && resp.getItems().isEmpty());
+        resp.setNextCursor(page.getNextCursor());
+        resp.setHasMore(page.hasMore());
+        resp.setAppend(append);
+        return resp;
+    }
+
+    private ViewTimelineResponse toAllCoursesResponse(boolean append) {
+        List<TimelineEvent> events = allCoursesFeed.next(PAGE_SIZE);
+        ViewTimelineResponse resp = new ViewTimelineResponse();
+        resp.setAllCourses(true);
+        resp.setItems(events.stream().map(e -> {
+            ViewTimelineResponse.TimelineCardVM card = toCard(e, resp);
+            card.setCourseLabel(courseIds.getCourseIdForUuid(e.getCourseId()));
+            return card;
+        }).collect(Collectors.toList()));
+        resp.setEmpty(!append && resp.getItems().isEmpty());
+        resp.setHasMore(allCoursesFeed.hasMore());
+        resp.setAppend(append);
+        return resp;
+    }
+
+    static ViewTimelineResponse.TimelineCardVM toCard(TimelineEvent e, ViewTimelineResponse response) {
         ViewTimelineResponse.TimelineCardVM vm = response.new TimelineCardVM();
         vm.setTime(FMT.format(e.getOccurredAt().atZone(ZoneId.systemDefault())));
         vm.setContentId(e.getContentId());
         vm.setEventId(e.getId().toString());
+        vm.setCourseId(e.getCourseId());
+        vm.setOccurredAt(e.getOccurredAt());
 
         switch (e.getType()) {
             case NOTES_GENERATED:
@@ -48,21 +152,21 @@ public class ViewTimelineInteractor implements ViewTimelineInputBoundary {
                 vm.setType("NOTES");
                 vm.setTitle(e.getTitle() == null || e.getTitle().isEmpty() ? "Notes" : e.getTitle());
                 vm.setSnippet(e.getSnippet());
-                vm.setFullNotesText(e.getFullNotesText());
+                vm.setFullNotesTextSource(e::getFullNotesText);
                 break;
             case FLASHCARDS_GENERATED:
                 vm.setIcon("cards");
                 vm.setType("FLASHCARDS");
                 vm.setTitle("Flashcards");
                 vm.setSubtitle(e.getNumCards() == null ? "" : e.getNumCards() + " cards");
-                vm.setFlashcardData(e.getFlashcardData());
+                vm.setFlashcardDataSource(e::getFlashcardData);
                 break;
             case QUIZ_GENERATED:
                 vm.setIcon("quiz");
                 vm.setType("QUIZ");
                 vm.setTitle("Quiz");
                 vm.setSubtitle(e.getNumQuestions() == null ? "" : e.getNumQuestions() + " questions");
-                vm.setTestData(e.getTestData());
+                vm.setTestDataSource(e::getTestData);
                 break;
             case QUIZ_SUBMITTED:
                 vm.setIcon("score");
@@ -75,7 +179,7 @@ public class ViewTimelineInteractor implements ViewTimelineInputBoundary {
                 } else {
                     vm.setSubtitle("");
                 }
-                vm.setEvaluationData(e.getEvaluationData());
+                vm.setEvaluationDataSource(e::getEvaluationData);
                 break;
         }
         return vm;
@@ -3,4 +3,6 @@ package usecases.Timeline;
 public interface ViewTimelineOutputBoundary {
     void present(ViewTimelineResponse response);
     void presentNotFound(String message);
+    /** Tells that the event with this ID was deleted, so its card can be removed. */
+    void presentDeleted(String eventId);
 }
@@ -1,13 +1,32 @@
 package usecases.Timeline;
 
+import entities.EvaluationData;
+import entities.FlashcardSet;
+import entities.TestData;
+
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public class ViewTimelineResponse {
     private UUID courseId;
     private boolean isEmpty;
     private List<TimelineCardVM> items = new ArrayList<>();
+    // Paging: where the next page starts, and whether these items extend the shown ones
+    private long nextCursor;
+    private boolean hasMore;
+    private boolean append;
+    private boolean filtered;
+    // Items come from every course, newest first; paged by the interactor's feed
+    private boolean allCourses;
+    // The query these items were found by, or null when browsing
+    private String searchQuery;
+    // The search index is still being built, so older matches may be missing
+    private boolean searchIncomplete;
+    // Items were read from the course's archive and are no longer live
+    private boolean archived;
 
     public UUID getCourseId() { return courseId; }
     public void setCourseId(UUID courseId) { this.courseId = courseId; }
@@ -18,6 +37,30 @@ public class ViewTimelineResponse {
     public List<TimelineCardVM> getItems() { return items; }
     public void setItems(List<TimelineCardVM> items) { this.items = items; }
 
+    public long getNextCursor() { return nextCursor; }
+    public void setNextCursor(long nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean hasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public boolean isAppend() { return append; }
+    public void setAppend(boolean append) { this.append = append; }
+
+    public boolean isFiltered() { return filtered; }
+    public void setFiltered(boolean filtered) { this.filtered = filtered; }
+
+    public boolean isAllCourses() { return allCourses; }
+    public void setAllCourses(boolean allCourses) { this.allCourses = allCourses; }
+
+    public String getSearchQuery() { return searchQuery; }
+    public void setSearchQuery(String searchQuery) { this.searchQuery = searchQuery; }
+
+    public boolean isSearchIncomplete() { return searchIncomplete; }
+    public void setSearchIncomplete(boolean searchIncomplete) { this.searchIncomplete = searchIncomplete; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
+
     public class TimelineCardVM {
         private String time;
         private String icon;
@@ -27,12 +70,19 @@ public class ViewTimelineResponse {
         private String snippet;
         private UUID contentId;
         private String eventId;
+        private UUID courseId;
+        private Instant occurredAt;
+        // Which course the event belongs to, shown in the all-courses feed
+        private String courseLabel;
+        // Search results: the matching passage and the [start, end) ranges of matched words in it
+        private String matchText;
+        private List<int[]> matchRanges = new ArrayList<>();
         
-        // Full content fields
-        private String fullNotesText;
-        private String flashcardData;
-        private String testData;
-        private String evaluationData;
+        // Full content fields, resolved only when a card is opened
+        private Supplier<String> fullNotesText = () -> null;
+        private Supplier<FlashcardSet> flashcardData = () -> null;
+        private Supplier<TestData> testData = () -> null;
+        private Supplier<EvaluationData> evaluationData = () -> null;
 
         // Getters
         public String getTime() { return time; }
@@ -43,10 +93,15 @@ public class ViewTimelineResponse {
         public String getSnippet() { return snippet; }
         public UUID getContentId() { return contentId; }
         public String getEventId() { return eventId; }
-        public String getFullNotesText() { return fullNotesText; }
-        public String getFlashcardData() { return flashcardData; }
-        public String getTestData() { return testData; }
-        public String getEvaluationData() { return evaluationData; }
+        public UUID getCourseId() { return courseId; }
+        public Instant getOccurredAt() { return occurredAt; }
+        public String getCourseLabel() { return courseLabel; }
+        public String getMatchText() { return matchText; }
+        public List<int[]> getMatchRanges() { return matchRanges; }
+        public String getFullNotesText() { return fullNotesText.get(); }
+        public FlashcardSet getFlashcardData() { return flashcardData.get(); }
+        public TestData getTestData() { return testData.get(); }
+        public EvaluationData getEvaluationData() { return evaluationData.get(); }
 
         // Setters
         public void setTime(String time) { this.time = time; }
@@ -57,9 +112,22 @@ public class ViewTimelineResponse {
         public void setSnippet(String snippet) { this.snippet = snippet; }
         public void setContentId(UUID contentId) { this.contentId = contentId; }
         public void setEventId(String eventId) { this.eventId = eventId; }
-        public void setFullNotesText(String fullNotesText) { this.fullNotesText = fullNotesText; }
-        public void setFlashcardData(String flashcardData) { this.flashcardData = flashcardData; }
-        public void setTestData(String testData) { this.testData = testData; }
-        public void setEvaluationData(String evaluationData) { this.evaluationData = evaluationData; }
+        public void setCourseId(UUID courseId) { this.courseId = courseId; }
+        public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+        public void setCourseLabel(String courseLabel) { this.courseLabel = courseLabel; }
+        public void setMatch(String matchText, List<int[]> matchRanges) {
+            this.matchText = matchText;
+            this.matchRanges = matchRanges;
+        }
+        public void setFullNotesText(String fullNotesText) { this.fullNotesText = () -> fullNotesText; }
+        public void setFlashcardData(FlashcardSet flashcardData) { this.flashcardData = () -> flashcardData; }
+        public void setTestData(TestData testData) { this.testData = () -> testData; }
+        public void setEvaluationData(EvaluationData evaluationData) { this.evaluationData = () -> evaluationData; }
+
+        // Lazy setters: the source is only asked when the getter is called
+        public void setFullNotesTextSource(Supplier<String> source) { this.fullNotesText = source; }
+        public void setFlashcardDataSource(Supplier<FlashcardSet> source) { this.flashcardData = source; }
+        public void setTestDataSource(Supplier<TestData> source) { this.testData = source; }
+        public void setEvaluationDataSource(Supplier<EvaluationData> source) { this.evaluationData = source; }
     }
 }
@@ -0,0 +1,11 @@
+package usecases.course_stats;
+
+/**
+ * Input boundary for the course statistics use case.
+ */
+public interface CourseStatsInputBoundary {
+  /**
+   * Retrieves the study statistics of every course and presents them.
+   */
+  void loadStats();
+}
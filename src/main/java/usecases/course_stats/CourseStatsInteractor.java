@@ -0,0 +1,75 @@
+package usecases.course_stats;
+
+import data_access.ITimelineRepository;
+import entities.Course;
+import entities.CourseStats;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import usecases.ICourseRepository;
+import usecases.Timeline.CourseIdMapper;
+import usecases.Timeline.ICourseIdMapper;
+
+/**
+ * Interactor for the course statistics use case.
+ * Reads each course's materialized statistics from the timeline repository
+ * rather than its raw events.
+ */
+public class CourseStatsInteractor implements CourseStatsInputBoundary {
+  private final ICourseRepository courseRepository;
+  private final ITimelineRepository timelineRepository;
+  private final CourseStatsOutputBoundary statsPresenter;
+  private final ICourseIdMapper courseIds;
+
+  /**
+   * Constructs a CourseStatsInteractor.
+   *
+   * @param courseRepository the repository listing the courses
+   * @param timelineRepository the repository holding the statistics
+   * @param statsPresenter the presenter for the statistics
+   */
+  public CourseStatsInteractor(ICourseRepository courseRepository,
+      ITimelineRepository timelineRepository, CourseStatsOutputBoundary statsPresenter) {
+    this(courseRepository, timelineRepository, statsPresenter, CourseIdMapper.shared());
+  }
+
+  /**
+   * Constructs a CourseStatsInteractor with a specific course ID mapper.
+   *
+   * @param courseRepository the repository listing the courses
+   * @param timelineRepository the repository holding the statistics
+   * @param statsPresenter the presenter for the statistics
+   * @param courseIds maps the courses to their timeline UUIDs
+   */
+  public CourseStatsInteractor(ICourseRepository courseRepository,
+      ITimelineRepository timelineRepository, CourseStatsOutputBoundary statsPresenter,
+      ICourseIdMapper courseIds) {
+    this.courseRepository = courseRepository;
+    this.timelineRepository = timelineRepository;
+    this.statsPresenter = statsPresenter;
+    this.courseIds = courseIds;
+  }
+
+  /**
+   * Presents the statistics of every course. A course that has never been
+   * logged to the timeline gets empty statistics.
+   */
+  @Override
+  public void loadStats() {
+    Map<String, CourseStats> statsByCourse = new LinkedHashMap<>();
+    List<Course> courses = courseRepository.findAll();
+    if (courses != null) {
+      for (Course course : courses) {
+        String courseId = course.getCourseId();
+        if (courseIds.hasUuid(courseId)) {
+          UUID courseUuid = courseIds.getUuidForCourseId(courseId);
+          statsByCourse.put(courseId, timelineRepository.getStats(courseUuid));
+        } else {
+          statsByCourse.put(courseId, new CourseStats((UUID) null));
+        }
+      }
+    }
+    statsPresenter.prepareStatsView(new CourseStatsOutputData(statsByCourse));
+  }
+}
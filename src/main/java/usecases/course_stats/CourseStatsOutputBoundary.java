@@ -0,0 +1,13 @@
+package usecases.course_stats;
+
+/**
+ * Output boundary for the course statistics use case.
+ */
+public interface CourseStatsOutputBoundary {
+  /**
+   * Prepares the statistics view.
+   *
+   * @param outputData the statistics of each course
+   */
+  void prepareStatsView(CourseStatsOutputData outputData);
+}
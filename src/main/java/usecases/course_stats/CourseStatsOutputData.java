@@ -0,0 +1,29 @@
+package usecases.course_stats;
+
+import entities.CourseStats;
+import java.util.Map;
+
+/**
+ * Output data model for the course statistics use case.
+ */
+public class CourseStatsOutputData {
+  private final Map<String, CourseStats> statsByCourse;
+
+  /**
+   * Constructs a CourseStatsOutputData.
+   *
+   * @param statsByCourse the statistics keyed by course ID, in dashboard order
+   */
+  public CourseStatsOutputData(Map<String, CourseStats> statsByCourse) {
+    this.statsByCourse = statsByCourse;
+  }
+
+  /**
+   * Gets the statistics keyed by course ID.
+   *
+   * @return the statistics, in dashboard order
+   */
+  public Map<String, CourseStats> getStatsByCourse() {
+    return statsByCourse;
+  }
+}
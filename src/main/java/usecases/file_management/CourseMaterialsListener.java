@@ -0,0 +1,19 @@
+package usecases.file_management;
+
+import entities.PDFFile;
+import java.util.List;
+
+/**
+ * Told when files are uploaded to or deleted from a course, so anything
+ * built from the course's materials can be refreshed.
+ */
+public interface CourseMaterialsListener {
+  /**
+   * Called after a course's files changed.
+   *
+   * @param courseId the course ID
+   * @param changedFile the path of the file that was uploaded or deleted
+   * @param files the course's files after the change
+   */
+  void materialsChanged(String courseId, String changedFile, List<PDFFile> files);
+}
@@ -11,6 +11,7 @@ import usecases.ICourseRepository;
 public class FileManagementInteractor implements FileManagementInputBoundary {
   private final ICourseRepository courseRepository;
   private final FileManagementOutputBoundary fileManagementPresenter;
+  private final CourseMaterialsListener materialsListener;
 
   /**
    * Constructs a FileManagementInteractor with the given repository and presenter.
@@ -20,8 +21,22 @@ public class FileManagementInteractor implements FileManagementInputBoundary {
    */
   public FileManagementInteractor(ICourseRepository courseRepository,
       FileManagementOutputBoundary fileManagementPresenter) {
+    this(courseRepository, fileManagementPresenter, (courseId, changedFile, files) -> { });
+  }
+
+  /**
+   * Constructs a FileManagementInteractor that reports file changes.
+   *
+   * @param courseRepository the repository for accessing course data
+   * @param fileManagementPresenter the presenter for preparing file management views
+   * @param materialsListener told after a file is uploaded or deleted
+   */
+  public FileManagementInteractor(ICourseRepository courseRepository,
+      FileManagementOutputBoundary fileManagementPresenter,
+      CourseMaterialsListener materialsListener) {
     this.courseRepository = courseRepository;
     this.fileManagementPresenter = fileManagementPresenter;
+    this.materialsListener = materialsListener;
   }
 
   @Override
@@ -35,15 +50,12 @@ public class FileManagementInteractor implements FileManagementInputBoundary {
       return;
     }
 
-    Course course = courseRepository.findById(courseId);
-    if (course == null) {
+    // Only the affected course is written, not the whole catalog
+    if (!courseRepository.attachFile(courseId, filePath)) {
       fileManagementPresenter.prepareFailView("Course not found");
       return;
     }
-
-    PDFFile pdfFile = new PDFFile(filePath);
-    course.addFile(pdfFile);
-    courseRepository.update(course);
+    notifyMaterialsChanged(courseId, filePath);
 
     // Refresh the file list view
     viewFiles(courseId);
@@ -78,23 +90,24 @@ public class FileManagementInteractor implements FileManagementInputBoundary {
       return;
     }
 
-    Course course = courseRepository.findById(courseId);
-    if (course == null) {
-      fileManagementPresenter.prepareFailView("Course not found");
+    if (!courseRepository.detachFile(courseId, filePath)) {
+      if (courseRepository.findById(courseId) == null) {
+        fileManagementPresenter.prepareFailView("Course not found");
+      } else {
+        fileManagementPresenter.prepareFailView("File not found");
+      }
       return;
     }
-
-    List<PDFFile> files = course.getUploadedFiles();
-    boolean removed = files.removeIf(file -> file.getPath().toString().equals(filePath));
-
-    if (!removed) {
-      fileManagementPresenter.prepareFailView("File not found");
-      return;
-    }
-
-    courseRepository.update(course);
+    notifyMaterialsChanged(courseId, filePath);
 
     // Refresh the file list view
     viewFiles(courseId);
   }
+
+  private void notifyMaterialsChanged(String courseId, String filePath) {
+    Course course = courseRepository.findById(courseId);
+    List<PDFFile> files = course == null || course.getUploadedFiles() == null
+        ? List.of() : course.getUploadedFiles();
+    materialsListener.materialsChanged(courseId, filePath, files);
+  }
 }
@@ -6,6 +6,7 @@ package usecases.lecturenotes;
 public class GenerateLectureNotesInputData {
   private final String courseId;
   private final String topic;
+  private final boolean fresh;
 
   /**
    * Constructs a GenerateLectureNotesInputData with the given course ID
@@ -15,8 +16,20 @@ public class GenerateLectureNotesInputData {
    * @param topic the topic for the lecture notes
    */
   public GenerateLectureNotesInputData(String courseId, String topic) {
+    this(courseId, topic, false);
+  }
+
+  /**
+   * Constructs a GenerateLectureNotesInputData that may skip cached notes.
+   *
+   * @param courseId the course ID
+   * @param topic the topic for the lecture notes
+   * @param fresh true to generate new notes instead of reusing cached ones
+   */
+  public GenerateLectureNotesInputData(String courseId, String topic, boolean fresh) {
     this.courseId = courseId;
     this.topic = topic;
+    this.fresh = fresh;
   }
 
   /**
@@ -36,4 +49,13 @@ public class GenerateLectureNotesInputData {
   public String getTopic() {
     return topic;
   }
+
+  /**
+   * Checks whether cached notes must not be reused.
+   *
+   * @return true to generate new notes
+   */
+  public boolean isFresh() {
+    return fresh;
+  }
 }
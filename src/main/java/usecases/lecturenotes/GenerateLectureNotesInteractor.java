@@ -44,7 +44,9 @@ public class GenerateLectureNotesInteractor implements GenerateLectureNotesInput
     }
 
     try {
-      LectureNotes lectureNotes = notesGateway.generateNotes(course, topic);
+      LectureNotes lectureNotes = inputData.isFresh()
+          ? notesGateway.regenerateNotes(course, topic)
+          : notesGateway.generateNotes(course, topic);
 
       // Your OutputData constructor expects 3 args: (courseId, topic, notesText/content)
       GenerateLectureNotesOutputData outputData = new GenerateLectureNotesOutputData(
@@ -17,4 +17,15 @@ public interface NotesGeminiGateway {
      */
     LectureNotes generateNotes(Course course, String topic)
             throws NotesGenerationException;
+
+    /**
+     * Generates new notes even if earlier notes for the same course files
+     * and topic could be reused. Gateways that reuse nothing just generate.
+     *
+     * @throws NotesGenerationException if the Gemini call or I/O fails.
+     */
+    default LectureNotes regenerateNotes(Course course, String topic)
+            throws NotesGenerationException {
+        return generateNotes(course, topic);
+    }
 }
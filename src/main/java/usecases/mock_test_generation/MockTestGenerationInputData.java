@@ -2,12 +2,25 @@ package usecases.mock_test_generation;
 
 public class MockTestGenerationInputData {
     private final String courseID;
+    private final boolean fresh;
 
     public MockTestGenerationInputData(String courseID) {
+        this(courseID, false);
+    }
+
+    /**
+     * @param fresh true to generate a new test instead of reusing a cached one
+     */
+    public MockTestGenerationInputData(String courseID, boolean fresh) {
         this.courseID = courseID;
+        this.fresh = fresh;
     }
 
     public String getCourseID() {
         return courseID;
     }
+
+    public boolean isFresh() {
+        return fresh;
+    }
 }
@@ -32,7 +32,9 @@ public class MockTestGenerationInteractor implements MockTestGenerationInputBoun
 
             List<PDFFile> courseMaterials = mockTestGenerationCourseDAO.getCourseMaterials(courseId);
 
-            TestData testData = mockTestGenerationDAO.getTestData(courseMaterials);
+            TestData testData = mockTestGenerationInputData.isFresh()
+                    ? mockTestGenerationDAO.regenerateTestData(courseMaterials)
+                    : mockTestGenerationDAO.getTestData(courseMaterials);
 
             List<List<String>> choices = buildChoiceMatrix(testData.getQuestions(), testData.getQuestionTypes());
             testData.setChoices(choices);
@@ -8,4 +8,13 @@ import java.util.List;
 
 public interface MockTestGenerationTestDataAccessInterface {
     TestData getTestData(List<PDFFile> courseMaterials) throws IOException;
+
+    /**
+     * Generates a new mock test even if an earlier one for the same
+     * materials could be reused. Generators that reuse nothing just
+     * generate.
+     */
+    default TestData regenerateTestData(List<PDFFile> courseMaterials) throws IOException {
+        return getTestData(courseMaterials);
+    }
 }
@@ -1,8 +1,11 @@
 package usecases.workspace;
 
 import entities.Course;
+import entities.PDFFile;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import usecases.ICourseRepository;
 import usecases.dashboard.CourseDashboardOutputBoundary;
 import usecases.dashboard.CourseDashboardOutputData;
@@ -16,6 +19,9 @@ public class CourseWorkspaceInteractor implements CourseWorkspaceInputBoundary {
   private final CourseWorkspaceOutputBoundary courseWorkspacePresenter;
   private final CourseDashboardOutputBoundary courseDashboardPresenter;
 
+  /** How often an unversioned edit is tried before giving up. */
+  static final int MAX_UPDATE_ATTEMPTS = 3;
+
   /**
    * Constructs a CourseWorkspaceInteractor with the given repository and presenters.
    *
@@ -69,25 +75,31 @@ public class CourseWorkspaceInteractor implements CourseWorkspaceInputBoundary {
       throw new IllegalArgumentException("course id is null");
     }
 
-    List<Course> courses = this.courseRepository.findAll();
-    Optional<Course> foundObject = courses.stream()
-        .filter(obj -> obj.getCourseId().equals(course.getCourseId()))
-        .findFirst();
-    if (foundObject.isPresent()) {
+    if (!this.courseRepository.createIfAbsent(course)) {
       throw new RuntimeException("course already exist, course id: " + course.getCourseId());
     }
-    this.courseRepository.create(course);
     CourseWorkspaceOutputData courseWorkspaceOutputData =
         new CourseWorkspaceOutputData(course);
     this.courseWorkspacePresenter.prepareWorkspaceView(courseWorkspaceOutputData);
   }
 
   /**
-   * Updates an existing course in the repository and prepares the workspace view.
+   * Updates the name and description of an existing course and prepares the
+   * workspace view. If the course carries a version, the update only
+   * succeeds while the stored course still has that version; a course with
+   * version 0 is applied to whatever is stored, retrying a few times if
+   * other writers keep getting in first.
+   *
+   * <p>Files are merged rather than replaced: the stored files are kept and
+   * any of the given course's files not yet attached are added. The editor
+   * only knows a course's name and description, so replacing the file list
+   * would drop every upload. Files are removed through
+   * {@link ICourseRepository#detachFile}.
    *
    * @param course the course to update
    * @throws IllegalArgumentException if the course is null or the course ID is null
-   * @throws RuntimeException if the course does not exist
+   * @throws RuntimeException if the course does not exist or was changed
+   *     since the given version was read
    */
   @Override
   public void updateCourse(Course course) {
@@ -98,16 +110,27 @@ public class CourseWorkspaceInteractor implements CourseWorkspaceInputBoundary {
       throw new IllegalArgumentException("course id is null");
     }
 
-    List<Course> courses = this.courseRepository.findAll();
-    Optional<Course> foundObject = courses.stream()
-        .filter(obj -> obj.getCourseId().equals(course.getCourseId()))
-        .findFirst();
-    if (!foundObject.isPresent()) {
-      throw new RuntimeException("course does not exist, course id: " + course.getCourseId());
+    Course edited = null;
+    boolean updated = false;
+    int attempts = course.getVersion() != 0 ? 1 : MAX_UPDATE_ATTEMPTS;
+    for (int attempt = 0; attempt < attempts && !updated; attempt++) {
+      Course stored = this.courseRepository.findById(course.getCourseId());
+      if (stored == null) {
+        throw new RuntimeException("course does not exist, course id: " + course.getCourseId());
+      }
+      long expectedVersion = course.getVersion() != 0 ? course.getVersion() : stored.getVersion();
+      edited = new Course(course.getCourseId(), course.getName(), course.getDescription());
+      for (PDFFile file : mergeFiles(stored.getUploadedFiles(), course.getUploadedFiles())) {
+        edited.addFile(file);
+      }
+      updated = this.courseRepository.updateIfVersion(edited, expectedVersion);
+    }
+    if (!updated) {
+      throw new RuntimeException("course was changed by someone else, course id: "
+          + course.getCourseId());
     }
-    this.courseRepository.update(course);
     CourseWorkspaceOutputData courseWorkspaceOutputData =
-        new CourseWorkspaceOutputData(course);
+        new CourseWorkspaceOutputData(edited);
     this.courseWorkspacePresenter.prepareWorkspaceView(courseWorkspaceOutputData);
   }
 
@@ -130,4 +153,26 @@ public class CourseWorkspaceInteractor implements CourseWorkspaceInputBoundary {
         new CourseDashboardOutputData(courses);
     this.courseDashboardPresenter.prepareDashboardView(courseDashboardOutputData);
   }
+
+  /**
+   * Combines the stored files with the files of an edit, in stored order
+   * followed by the new ones.
+   *
+   * @param stored the files currently attached
+   * @param given the files the edit carries
+   * @return the merged files, each path once
+   */
+  private static List<PDFFile> mergeFiles(List<PDFFile> stored, List<PDFFile> given) {
+    List<PDFFile> merged = new ArrayList<>(stored);
+    Set<String> paths = new HashSet<>();
+    for (PDFFile file : stored) {
+      paths.add(file.getPath().toString());
+    }
+    for (PDFFile file : given) {
+      if (paths.add(file.getPath().toString())) {
+        merged.add(file);
+      }
+    }
+    return merged;
+  }
 }
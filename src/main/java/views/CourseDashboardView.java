@@ -4,15 +4,21 @@ import entities.Course;
 import interface_adapters.dashboard.CourseDashboardController;
 import interface_adapters.dashboard.CourseDashboardState;
 import interface_adapters.dashboard.CourseDashboardViewModel;
+import interface_adapters.dashboard.CourseStatsPresenter;
 import interface_adapters.workspace.CourseController;
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JLabel;
@@ -29,6 +35,8 @@ public class CourseDashboardView extends JPanel implements ActionListener, Prope
   private CourseDashboardController courseDashboardController = null;
   private CourseController courseController = null;
   private CourseDashboardViewModel courseDashboardViewModel = null;
+  // Study statistics label under each course button, by course ID
+  private final Map<String, JLabel> statsLabels = new HashMap<>();
 
   /**
    * Constructs a CourseDashboardView with the given view model.
@@ -80,6 +88,16 @@ public class CourseDashboardView extends JPanel implements ActionListener, Prope
       }
     });
     this.add(bottomPanel, BorderLayout.SOUTH);
+
+    // Refresh the statistics whenever the dashboard is shown again
+    this.addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentShown(ComponentEvent e) {
+        if (courseDashboardController != null) {
+          courseDashboardController.displayStats();
+        }
+      }
+    });
   }
 
   /**
@@ -87,13 +105,25 @@ public class CourseDashboardView extends JPanel implements ActionListener, Prope
    */
   public void renderDashboard() {
     this.courseDashboardController.displayCourses();
+    this.courseDashboardController.displayStats();
   }
 
   @Override
   public void propertyChange(PropertyChangeEvent evt) {
-    if (evt.getPropertyName().equals("state")) {
+    if (evt.getPropertyName().equals(CourseStatsPresenter.STATS_PROPERTY)) {
+      final CourseDashboardState state = (CourseDashboardState) evt.getNewValue();
+      state.getStatsSummaries().forEach((courseId, summary) -> {
+        JLabel label = statsLabels.get(courseId);
+        if (label != null) {
+          label.setText(summary);
+        }
+      });
+      centerPanel.revalidate();
+      centerPanel.repaint();
+    } else if (evt.getPropertyName().equals("state")) {
       final CourseDashboardState state = (CourseDashboardState) evt.getNewValue();
       centerPanel.removeAll();
+      statsLabels.clear();
       List<Course> courses = state.getCourses();
       if (courses == null || courses.isEmpty()) {
         return;
@@ -101,6 +131,7 @@ public class CourseDashboardView extends JPanel implements ActionListener, Prope
       courses.forEach(course -> {
         JButton button = new JButton(course.getCourseId());
         button.setPreferredSize(new Dimension(80, 30));
+        button.setAlignmentX(Component.LEFT_ALIGNMENT);
         defaultButtonColor = button.getBackground();
 
         button.addActionListener(new ActionListener() {
@@ -111,8 +142,21 @@ public class CourseDashboardView extends JPanel implements ActionListener, Prope
           }
         });
 
-        centerPanel.add(button);
+        JLabel statsLabel = new JLabel(
+            state.getStatsSummaries().getOrDefault(course.getCourseId(), ""));
+        statsLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        statsLabels.put(course.getCourseId(), statsLabel);
+
+        JPanel tile = new JPanel();
+        tile.setLayout(new BoxLayout(tile, BoxLayout.Y_AXIS));
+        tile.setBackground(Color.WHITE);
+        tile.setBorder(new EmptyBorder(5, 5, 5, 5));
+        tile.add(button);
+        tile.add(statsLabel);
+        centerPanel.add(tile);
       });
+      centerPanel.revalidate();
+      centerPanel.repaint();
     }
   }
 
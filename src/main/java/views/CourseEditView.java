@@ -26,6 +26,7 @@ public class CourseEditView extends JPanel implements ActionListener, PropertyCh
   private final String viewName = "editCourse";
   private JPanel centerPanel = null; // To keep track of the previously selected button
   private String courseId = null;
+  private long courseVersion = 0;
   private CourseController courseController = null;
   private CourseEditViewModel courseEditViewModel = null;
   private JTextField idText = null;
@@ -76,7 +77,7 @@ public class CourseEditView extends JPanel implements ActionListener, PropertyCh
         String name = nameText.getText();
         String description = descriptionText.getText();
         // TODO: validation if value is missing
-        courseController.updateCourse(id, name, description);
+        courseController.updateCourse(id, name, description, courseVersion);
       }
     });
     bottomPanel.add(noteButton);
@@ -106,6 +107,7 @@ public class CourseEditView extends JPanel implements ActionListener, PropertyCh
 
       if (course != null) {
         courseId = course.getCourseId();
+        courseVersion = course.getVersion();
         courseName = course.getName();
         description = course.getDescription();
       }
@@ -185,22 +185,13 @@ public class CourseWorkspaceView extends JPanel implements ActionListener, Prope
     createtestButton.setPreferredSize(new Dimension(150, 30));
     bottomPanel.add(createtestButton);
 
-    createtestButton.addActionListener(e -> {
-      if (mockTestController == null || courseId == null) {
-        JOptionPane.showMessageDialog(CourseWorkspaceView.this,
-            "MockTestController is not set or course is not selected.");
-        return;
-      }
+    createtestButton.addActionListener(e -> createTest(false));
 
-      // Trigger generation (presenter will navigate to "mock test" after success)
-      mockTestController.execute(courseId);
-
-      // Optional: immediate navigation (safe even if generation is async)
-      if (viewManagerModel != null) {
-        viewManagerModel.setState("mock test");
-        viewManagerModel.firePropertyChange();
-      }
-    });
+    // generate a new test instead of reopening the saved one
+    JButton newTestButton = new JButton("New Test");
+    newTestButton.setPreferredSize(new Dimension(120, 30));
+    bottomPanel.add(newTestButton);
+    newTestButton.addActionListener(e -> createTest(true));
 
     // open history/timeline
     JButton historyButton = new JButton("History");
@@ -225,6 +216,28 @@ public class CourseWorkspaceView extends JPanel implements ActionListener, Prope
     this.add(bottomPanel, BorderLayout.SOUTH);
   }
 
+  /**
+   * Generates a mock test for the course and opens the test screen.
+   *
+   * @param fresh true to generate a new test instead of reusing a cached one
+   */
+  private void createTest(boolean fresh) {
+    if (mockTestController == null || courseId == null) {
+      JOptionPane.showMessageDialog(CourseWorkspaceView.this,
+          "MockTestController is not set or course is not selected.");
+      return;
+    }
+
+    // Trigger generation (presenter will navigate to "mock test" after success)
+    mockTestController.execute(courseId, fresh);
+
+    // Optional: immediate navigation (safe even if generation is async)
+    if (viewManagerModel != null) {
+      viewManagerModel.setState("mock test");
+      viewManagerModel.firePropertyChange();
+    }
+  }
+
   @Override
   public void propertyChange(PropertyChangeEvent evt) {
     if (evt.getPropertyName().equals("state")) {
@@ -36,6 +36,7 @@ public class GenerateFlashcardsView extends JPanel implements PropertyChangeList
   private final JTextField courseNameField;
   private final JTextField topicField;
   private final JButton generateButton;
+  private final JButton regenerateButton;
   private final JButton backButton;
   private final JLabel statusLabel;
 
@@ -53,6 +54,7 @@ public class GenerateFlashcardsView extends JPanel implements PropertyChangeList
     this.courseNameField = new JTextField(20);
     this.topicField = new JTextField(30);
     this.generateButton = new JButton("Generate Flashcards");
+    this.regenerateButton = new JButton("Regenerate");
     this.backButton = new JButton("Back to Workspace");
     this.statusLabel = new JLabel("", SwingConstants.CENTER);
 
@@ -142,9 +144,12 @@ public class GenerateFlashcardsView extends JPanel implements PropertyChangeList
     generateButton.setForeground(Color.WHITE);
     generateButton.setFocusPainted(false);
 
+    regenerateButton.setPreferredSize(new Dimension(130, 40));
+    regenerateButton.setToolTipText("Generate new flashcards instead of reusing saved ones");
     backButton.setPreferredSize(new Dimension(150, 40));
 
     buttonPanel.add(generateButton);
+    buttonPanel.add(regenerateButton);
     buttonPanel.add(backButton);
     bottomPanel.add(buttonPanel, BorderLayout.CENTER);
 
@@ -155,40 +160,8 @@ public class GenerateFlashcardsView extends JPanel implements PropertyChangeList
    * Adds event listeners to the buttons.
    */
   private void addEventListeners() {
-    generateButton.addActionListener(e -> {
-      String courseName = courseNameField.getText().trim();
-      String topic = topicField.getText().trim();
-
-      // Validation
-      if (courseName.isEmpty() || topic.isEmpty()) {
-        JOptionPane.showMessageDialog(this,
-            "Please enter both course name and topic",
-            "Input Required",
-            JOptionPane.WARNING_MESSAGE);
-        return;
-      }
-
-      // Use controller to trigger flashcard generation
-      if (controller != null) {
-        statusLabel.setText("Generating flashcards...");
-        viewModel.setLoading(true);
-
-        // Run in background thread
-        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-          @Override
-          protected Void doInBackground() {
-            controller.generateFlashcards(courseName, topic);
-            return null;
-          }
-        };
-        worker.execute();
-      } else {
-        JOptionPane.showMessageDialog(this,
-            "Controller not initialized",
-            "Error",
-            JOptionPane.ERROR_MESSAGE);
-      }
-    });
+    generateButton.addActionListener(e -> generate(false));
+    regenerateButton.addActionListener(e -> generate(true));
 
     backButton.addActionListener(e -> {
       // Navigate back to workspace
@@ -197,6 +170,50 @@ public class GenerateFlashcardsView extends JPanel implements PropertyChangeList
     });
   }
 
+  /**
+   * Validates the input and generates flashcards in the background.
+   *
+   * @param fresh true to generate new flashcards instead of reusing cached ones
+   */
+  private void generate(boolean fresh) {
+    String courseName = courseNameField.getText().trim();
+    String topic = topicField.getText().trim();
+
+    // Validation
+    if (courseName.isEmpty() || topic.isEmpty()) {
+      JOptionPane.showMessageDialog(this,
+          "Please enter both course name and topic",
+          "Input Required",
+          JOptionPane.WARNING_MESSAGE);
+      return;
+    }
+
+    // Use controller to trigger flashcard generation
+    if (controller != null) {
+      statusLabel.setText("Generating flashcards...");
+      viewModel.setLoading(true);
+
+      // Run in background thread
+      SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+        @Override
+        protected Void doInBackground() {
+          if (fresh) {
+            controller.regenerateFlashcards(courseName, topic);
+          } else {
+            controller.generateFlashcards(courseName, topic);
+          }
+          return null;
+        }
+      };
+      worker.execute();
+    } else {
+      JOptionPane.showMessageDialog(this,
+          "Controller not initialized",
+          "Error",
+          JOptionPane.ERROR_MESSAGE);
+    }
+  }
+
   @Override
   public void propertyChange(PropertyChangeEvent evt) {
     String propertyName = evt.getPropertyName();
@@ -224,6 +241,7 @@ public class GenerateFlashcardsView extends JPanel implements PropertyChangeList
       case FlashcardViewModel.LOADING_CHANGED:
         boolean isLoading = viewModel.isLoading();
         generateButton.setEnabled(!isLoading);
+        regenerateButton.setEnabled(!isLoading);
         courseNameField.setEnabled(!isLoading);
         topicField.setEnabled(!isLoading);
         if (!isLoading) {
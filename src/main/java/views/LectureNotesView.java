@@ -1,6 +1,6 @@
 package views;
 
-import com.google.gson.Gson;
+import data_access.JsonAdapters;
 import interface_adapters.lecturenotes.GenerateLectureNotesController;
 import interface_adapters.lecturenotes.LectureNotesState;
 import interface_adapters.lecturenotes.LectureNotesViewModel;
@@ -63,6 +63,7 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
   private DefaultListModel<String> listModel;
   private JList<String> notesList;
   private JButton generateBtn;
+  private JButton regenerateBtn;
   private JButton saveBtn;
   private JButton deleteBtn;
   private JButton refreshBtn;
@@ -79,7 +80,6 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
   private final List<int[]> highlightRanges = new ArrayList<>();
   private final Highlighter.HighlightPainter painter =
       new DefaultHighlighter.DefaultHighlightPainter(new Color(255, 255, 120));
-  private final Gson gson = new Gson();
 
   /**
    * Constructs a LectureNotesView with the given view model and controller.
@@ -164,11 +164,17 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
     centerTop.add(topicField, BorderLayout.CENTER);
 
     generateBtn = new JButton("Generate");
-    generateBtn.addActionListener(e -> onGenerate());
+    generateBtn.addActionListener(e -> onGenerate(false));
+    // Skips the notes cached for the same topic and materials
+    regenerateBtn = new JButton("Regenerate");
+    regenerateBtn.addActionListener(e -> onGenerate(true));
+    JPanel rightTop = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+    rightTop.add(generateBtn);
+    rightTop.add(regenerateBtn);
 
     top.add(leftTop, BorderLayout.WEST);
     top.add(centerTop, BorderLayout.CENTER);
-    top.add(generateBtn, BorderLayout.EAST);
+    top.add(rightTop, BorderLayout.EAST);
 
     JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
     split.setResizeWeight(0.7);
@@ -221,9 +227,11 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
   }
 
   /**
-   * Handles the generate button action.
+   * Handles the generate and regenerate button actions.
+   *
+   * @param fresh true to generate new notes instead of reusing cached ones
    */
-  private void onGenerate() {
+  private void onGenerate(boolean fresh) {
     if (controller == null) {
       JOptionPane.showMessageDialog(this, "Controller is not set.", "Error",
           JOptionPane.ERROR_MESSAGE);
@@ -245,7 +253,7 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
     setBusy(true);
     new Thread(() -> {
       try {
-        controller.execute(courseId, topic);
+        controller.execute(courseId, topic, fresh);
       } finally {
         SwingUtilities.invokeLater(() -> {
           setBusy(false);
@@ -418,7 +426,7 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
       String raw = Files.readString(p, StandardCharsets.UTF_8);
       NotePayload payload;
       if (raw.trim().startsWith("{")) {
-        payload = gson.fromJson(raw, NotePayload.class);
+        payload = JsonAdapters.gson().fromJson(raw, NotePayload.class);
         if (payload == null) {
           payload = new NotePayload();
         }
@@ -485,7 +493,7 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
       payload.highlights.addAll(ranges);
     }
 
-    String json = gson.toJson(payload);
+    String json = JsonAdapters.gson().toJson(payload);
     try {
       Files.createDirectories(target.getParent());
       Files.writeString(
@@ -543,6 +551,7 @@ public class LectureNotesView extends JPanel implements PropertyChangeListener {
         : Cursor.getDefaultCursor());
     boolean enable = !busy;
     generateBtn.setEnabled(enable);
+    regenerateBtn.setEnabled(enable);
     saveBtn.setEnabled(enable);
     deleteBtn.setEnabled(enable);
     refreshBtn.setEnabled(enable);
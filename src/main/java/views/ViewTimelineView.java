@@ -1,7 +1,9 @@
 package views;
 
-import com.google.gson.Gson;
+import entities.EvaluationData;
 import entities.FlashcardSet;
+import entities.TestData;
+import entities.TimelineEventType;
 import interface_adapters.ViewManagerModel;
 import interface_adapters.lecturenotes.LectureNotesViewModel;
 import interface_adapters.lecturenotes.LectureNotesState;
@@ -13,22 +15,33 @@ import interface_adapters.mock_test.MockTestState;
 import interface_adapters.timeline.TimelineController;
 import interface_adapters.timeline.ViewTimelineViewModel;
 import usecases.Timeline.ViewTimelineResponse;
-import usecases.evaluate_test.EvaluateTestOutputData;
-import usecases.mock_test_generation.MockTestGenerationOutputData;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.AdjustmentEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 public class ViewTimelineView extends JPanel implements PropertyChangeListener {
     private static final String TIMELINE_PROPERTY = "timeline";
     private static final String ERROR_TITLE = "Error";
     private static final String NON_DIGIT_PATTERN = "\\D+";
+    // Fetch the next page once the user scrolls within this many pixels of the end
+    private static final int LOAD_MORE_MARGIN = 200;
+    private static final String[] TYPE_FILTERS = {
+            "All types", "Notes", "Flashcards", "Quizzes", "Quiz submissions"};
+    private static final String[] PERIOD_FILTERS = {
+            "Any time", "Last 7 days", "Last 30 days", "Last 365 days"};
+    private static final int[] PERIOD_DAYS = {0, 7, 30, 365};
     
     private final ViewTimelineViewModel vm;
     private final ViewManagerModel viewManagerModel;
@@ -39,7 +52,18 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
     private final DefaultListModel<ViewTimelineResponse.TimelineCardVM> listModel = new DefaultListModel<>();
     private final JList<ViewTimelineResponse.TimelineCardVM> list = new JList<>(listModel);
     private final JLabel emptyLabel = new JLabel("This page is empty", SwingConstants.CENTER);
-    private final Gson gson = new Gson();
+    private final JScrollPane scrollPane = new JScrollPane(list);
+    private final TimelineController controller;
+    private boolean loadingMore;
+    private final JComboBox<String> typeFilter = new JComboBox<>(TYPE_FILTERS);
+    private final JComboBox<String> periodFilter = new JComboBox<>(PERIOD_FILTERS);
+    private boolean resettingFilters;
+    private final JCheckBox allCoursesToggle = new JCheckBox("All courses");
+    // Shows what retention moved out of the course's history, read on demand
+    private final JCheckBox archivedToggle = new JCheckBox("Archived");
+    // The course shown before switching to all courses, to switch back to
+    private UUID lastCourseId;
+    private final JTextField searchField = new JTextField(16);
 
     public ViewTimelineView(ViewTimelineViewModel vm, TimelineController controller, 
                            ViewManagerModel viewManagerModel,
@@ -48,6 +72,7 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
                            EvaluateTestViewModel evaluateTestViewModel,
                            MockTestViewModel mockTestViewModel) {
         this.vm = vm;
+        this.controller = controller;
         this.viewManagerModel = viewManagerModel;
         this.lectureNotesViewModel = lectureNotesViewModel;
         this.flashcardViewModel = flashcardViewModel;
@@ -73,6 +98,24 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
         JButton refreshBtn = new JButton("Refresh");
         header.add(refreshBtn, BorderLayout.EAST);
 
+        // Filters below the header; "All types" and "Any time" show the paged history
+        var filters = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filters.add(new JLabel("Show:"));
+        filters.add(typeFilter);
+        filters.add(periodFilter);
+        filters.add(allCoursesToggle);
+        filters.add(archivedToggle);
+        filters.add(new JLabel("Search:"));
+        filters.add(searchField);
+        searchField.addActionListener(e -> runSearch());
+        typeFilter.addActionListener(e -> applyFilters());
+        allCoursesToggle.addActionListener(e -> toggleAllCourses());
+        archivedToggle.addActionListener(e -> applyFilters());
+        periodFilter.addActionListener(e -> applyFilters());
+        var north = new JPanel(new BorderLayout());
+        north.add(header, BorderLayout.NORTH);
+        north.add(filters, BorderLayout.SOUTH);
+
         list.setCellRenderer(new TimelineCardRenderer());
         list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
@@ -80,6 +123,8 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
         list.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
+                // Right clicks open the card's menu instead
+                if (SwingUtilities.isRightMouseButton(e)) return;
                 int index = list.locationToIndex(e.getPoint());
                 if (index >= 0 && index < listModel.getSize()) {
                     ViewTimelineResponse.TimelineCardVM card = listModel.getElementAt(index);
@@ -97,32 +142,224 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
                     }
                 }
             }
+
+            // Platforms differ in whether press or release triggers a popup
+            @Override
+            public void mousePressed(MouseEvent e) {
+                showCardMenu(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                showCardMenu(e);
+            }
         });
 
-        add(header, BorderLayout.NORTH);
-        add(new JScrollPane(list), BorderLayout.CENTER);
+        add(north, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(this::onScroll);
         add(emptyLabel, BorderLayout.SOUTH);
 
         emptyLabel.setVisible(false);
 
-        final TimelineController controllerRef = controller;
-        refreshBtn.addActionListener(e -> {
-            if (vm.getCourseId() != null) controllerRef.open(vm.getCourseId());
-        });
+        refreshBtn.addActionListener(e -> applyFilters());
     }
 
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
-        if (!TIMELINE_PROPERTY.equals(evt.getPropertyName())) return;
-
-        listModel.clear();
-        for (ViewTimelineResponse.TimelineCardVM card : vm.getItems()) {
-            listModel.addElement(card);
+        // Deletes are reported from the controller's worker thread
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> propertyChange(evt));
+            return;
+        }
+        if (ViewTimelineViewModel.DELETED_PROPERTY.equals(evt.getPropertyName())) {
+            removeCard((String) evt.getNewValue());
+            return;
+        }
+        if (ViewTimelineViewModel.MORE_PROPERTY.equals(evt.getPropertyName())) {
+            @SuppressWarnings("unchecked")
+            List<ViewTimelineResponse.TimelineCardVM> added =
+                    (List<ViewTimelineResponse.TimelineCardVM>) evt.getNewValue();
+            for (ViewTimelineResponse.TimelineCardVM card : added) {
+                listModel.addElement(card);
+            }
+        } else if (TIMELINE_PROPERTY.equals(evt.getPropertyName())) {
+            listModel.clear();
+            for (ViewTimelineResponse.TimelineCardVM card : vm.getItems()) {
+                listModel.addElement(card);
+            }
+            if (vm.isSearchIncomplete()) {
+                emptyLabel.setText("Still indexing older history; some matches may be missing");
+            } else {
+                emptyLabel.setText(vm.getSearchQuery() != null ? "No matches"
+                        : vm.isArchived() ? "Nothing archived" : "This page is empty");
+            }
+            emptyLabel.setVisible(vm.isEmpty() || vm.isSearchIncomplete());
+            if (vm.getCourseId() != null) lastCourseId = vm.getCourseId();
+            // The timeline was (re)opened elsewhere, e.g. for another course
+            if (!vm.isFiltered()) resetFilters();
+            // The type and period filters apply to one course's history only
+            boolean courseHistory = !vm.isAllCourses() && vm.getSearchQuery() == null;
+            typeFilter.setEnabled(courseHistory && !vm.isArchived());
+            periodFilter.setEnabled(courseHistory && !vm.isArchived());
+            archivedToggle.setEnabled(courseHistory);
+        } else {
+            return;
         }
 
-        emptyLabel.setVisible(vm.isEmpty());
         revalidate();
         repaint();
+        // A short first page may not fill the viewport, so no scroll event would come
+        SwingUtilities.invokeLater(this::loadMoreIfNearEnd);
+    }
+
+    /**
+     * Shows the menu of the card under the pointer, selecting that card.
+     */
+    private void showCardMenu(MouseEvent e) {
+        // Archived events are no longer in the history to delete them from
+        if (!e.isPopupTrigger() || vm.isArchived()) return;
+        int index = list.locationToIndex(e.getPoint());
+        if (index < 0 || index >= listModel.getSize()) return;
+        ViewTimelineResponse.TimelineCardVM card = listModel.getElementAt(index);
+        if (card.getEventId() == null || card.getCourseId() == null || card.getOccurredAt() == null) return;
+        list.setSelectedIndex(index);
+        JPopupMenu menu = new JPopupMenu();
+        JMenuItem delete = new JMenuItem("Delete");
+        delete.addActionListener(a -> deleteCard(card));
+        menu.add(delete);
+        menu.show(list, e.getX(), e.getY());
+    }
+
+    private void deleteCard(ViewTimelineResponse.TimelineCardVM card) {
+        String name = card.getTitle() != null ? card.getTitle() : card.getType();
+        int choice = JOptionPane.showConfirmDialog(this,
+                "Delete \"" + name + "\" from the history? This cannot be undone.",
+                "Delete", JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) return;
+        controller.delete(card.getCourseId(), card.getEventId(), card.getOccurredAt());
+    }
+
+    private void removeCard(String eventId) {
+        for (int i = 0; i < listModel.getSize(); i++) {
+            if (eventId.equals(listModel.getElementAt(i).getEventId())) {
+                listModel.remove(i);
+                break;
+            }
+        }
+        emptyLabel.setVisible(listModel.isEmpty());
+    }
+
+    private void applyFilters() {
+        if (resettingFilters) return;
+        if (vm.getSearchQuery() != null) {
+            controller.search(vm.getSearchQuery());
+            return;
+        }
+        if (vm.isAllCourses()) {
+            controller.openAll();
+            return;
+        }
+        if (vm.getCourseId() == null) return;
+        if (archivedToggle.isSelected()) {
+            controller.openArchived(vm.getCourseId());
+            return;
+        }
+        int type = typeFilter.getSelectedIndex();
+        int period = periodFilter.getSelectedIndex();
+        if (type <= 0 && period <= 0) {
+            controller.open(vm.getCourseId());
+            return;
+        }
+        Instant from = period <= 0 ? null : Instant.now().minus(Duration.ofDays(PERIOD_DAYS[period]));
+        controller.filter(vm.getCourseId(), typesFor(type), from, null);
+    }
+
+    private static Set<TimelineEventType> typesFor(int typeFilterIndex) {
+        switch (typeFilterIndex) {
+            case 1:
+                return EnumSet.of(TimelineEventType.NOTES_GENERATED);
+            case 2:
+                return EnumSet.of(TimelineEventType.FLASHCARDS_GENERATED);
+            case 3:
+                return EnumSet.of(TimelineEventType.QUIZ_GENERATED, TimelineEventType.QUIZ_SUBMITTED);
+            case 4:
+                return EnumSet.of(TimelineEventType.QUIZ_SUBMITTED);
+            default:
+                return null;
+        }
+    }
+
+    private void resetFilters() {
+        resettingFilters = true;
+        try {
+            typeFilter.setSelectedIndex(0);
+            periodFilter.setSelectedIndex(0);
+            allCoursesToggle.setSelected(vm.isAllCourses());
+            archivedToggle.setSelected(false);
+            searchField.setText("");
+        } finally {
+            resettingFilters = false;
+        }
+    }
+
+    /**
+     * Switches between the merged history of every course and the history
+     * of the course shown last.
+     */
+    private void toggleAllCourses() {
+        if (resettingFilters) return;
+        if (!allCoursesToggle.isSelected() && lastCourseId == null) {
+            allCoursesToggle.setSelected(true);
+            return;
+        }
+        browse();
+    }
+
+    /**
+     * Searches every course for the words in the search field, or goes back
+     * to browsing when the field is cleared.
+     */
+    private void runSearch() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            browse();
+        } else {
+            controller.search(query);
+        }
+    }
+
+    private void browse() {
+        if (allCoursesToggle.isSelected()) {
+            controller.openAll();
+        } else if (lastCourseId != null) {
+            controller.open(lastCourseId);
+        }
+    }
+
+    private void onScroll(AdjustmentEvent e) {
+        loadMoreIfNearEnd();
+    }
+
+    /**
+     * Asks for the next page when more events exist and the list is scrolled
+     * close to its end.
+     */
+    private void loadMoreIfNearEnd() {
+        if (loadingMore || !vm.hasMore() || (!vm.isAllCourses() && vm.getCourseId() == null)) return;
+        BoundedRangeModel bar = scrollPane.getVerticalScrollBar().getModel();
+        if (bar.getValue() + bar.getExtent() < bar.getMaximum() - LOAD_MORE_MARGIN) return;
+
+        loadingMore = true;
+        try {
+            if (vm.isAllCourses()) {
+                controller.loadMoreAll();
+            } else {
+                controller.loadMore(vm.getCourseId(), vm.getNextCursor());
+            }
+        } finally {
+            loadingMore = false;
+        }
     }
 
     private static class TimelineCardRenderer extends JPanel implements ListCellRenderer<ViewTimelineResponse.TimelineCardVM> {
@@ -153,8 +390,9 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
             String sub = (value.getSubtitle() == null || value.getSubtitle().isEmpty())
                     ? (value.getSnippet() == null ? "" : value.getSnippet())
                     : value.getSubtitle();
-            subtitle.setText(sub);
-            time.setText(value.getTime() != null ? value.getTime() : "");
+            subtitle.setText(value.getMatchText() != null ? highlighted(value) : sub);
+            String when = value.getTime() != null ? value.getTime() : "";
+            time.setText(value.getCourseLabel() != null ? value.getCourseLabel() + " · " + when : when);
 
             setBackground(isSelected ? list.getSelectionBackground() : list.getBackground());
             setForeground(isSelected ? list.getSelectionForeground() : list.getForeground());
@@ -162,6 +400,25 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
         }
     }
 
+    /**
+     * Renders a search result's passage as HTML with the matched words in bold.
+     */
+    private static String highlighted(ViewTimelineResponse.TimelineCardVM card) {
+        String text = card.getMatchText();
+        StringBuilder html = new StringBuilder("<html>");
+        int at = 0;
+        for (int[] range : card.getMatchRanges()) {
+            html.append(escapeHtml(text.substring(at, range[0])))
+                    .append("<b>").append(escapeHtml(text.substring(range[0], range[1]))).append("</b>");
+            at = range[1];
+        }
+        return html.append(escapeHtml(text.substring(at))).append("</html>").toString();
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
     /**
      * Opens the appropriate study material view based on the card type.
      * @param card The timeline card representing the study material
@@ -212,8 +469,8 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
     }
 
     private void openFlashcards(ViewTimelineResponse.TimelineCardVM card) {
-        FlashcardSet flashcardSet = deserializeFlashcards(card.getFlashcardData());
-        
+        FlashcardSet flashcardSet = card.getFlashcardData();
+
         if (flashcardSet != null) {
             flashcardViewModel.setCurrentFlashcardSet(flashcardSet);
             navigateToView("flashcardDisplay");
@@ -225,22 +482,15 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
         }
     }
 
-    private FlashcardSet deserializeFlashcards(String jsonData) {
-        if (jsonData == null || jsonData.isEmpty()) {
-            return null;
-        }
-        try {
-            return gson.fromJson(jsonData, FlashcardSet.class);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     private void openQuiz(ViewTimelineResponse.TimelineCardVM card) {
-        if (card.getEvaluationData() != null && !card.getEvaluationData().isEmpty()) {
-            openSubmittedQuiz(card.getEvaluationData());
-        } else if (card.getTestData() != null && !card.getTestData().isEmpty()) {
-            openGeneratedQuiz(card.getTestData());
+        EvaluationData evaluationData = card.getEvaluationData();
+        TestData testData = evaluationData == null ? card.getTestData() : null;
+        if (evaluationData != null) {
+            setEvaluationState(evaluationData);
+            navigateToView(evaluateTestViewModel.getViewName());
+        } else if (testData != null) {
+            setTestState(testData);
+            navigateToView(mockTestViewModel.getViewName());
         } else {
             JOptionPane.showMessageDialog(this,
                     "Quiz data is not available.",
@@ -249,31 +499,7 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
         }
     }
 
-    private void openSubmittedQuiz(String jsonData) {
-        try {
-            EvaluateTestOutputData evaluationData = gson.fromJson(jsonData, EvaluateTestOutputData.class);
-            if (evaluationData != null) {
-                setEvaluationState(evaluationData);
-                navigateToView(evaluateTestViewModel.getViewName());
-            }
-        } catch (Exception e) {
-            showError("Failed to load evaluation data.");
-        }
-    }
-
-    private void openGeneratedQuiz(String jsonData) {
-        try {
-            MockTestGenerationOutputData testData = gson.fromJson(jsonData, MockTestGenerationOutputData.class);
-            if (testData != null) {
-                setTestState(testData);
-                navigateToView(mockTestViewModel.getViewName());
-            }
-        } catch (Exception e) {
-            showError("Failed to load test data.");
-        }
-    }
-
-    private void setEvaluationState(EvaluateTestOutputData evaluationData) {
+    private void setEvaluationState(EvaluationData evaluationData) {
         EvaluateTestState evalState = evaluateTestViewModel.getState();
         evalState.setQuestions(toSafeList(evaluationData.getQuestions()));
         evalState.setAnswers(toSafeList(evaluationData.getAnswers()));
@@ -286,7 +512,7 @@ public class ViewTimelineView extends JPanel implements PropertyChangeListener {
         evaluateTestViewModel.firePropertyChange();
     }
 
-    private void setTestState(MockTestGenerationOutputData testData) {
+    private void setTestState(TestData testData) {
         MockTestState testState = mockTestViewModel.getState();
         testState.setQuestions(toSafeList(testData.getQuestions()));
         testState.setAnswers(toSafeList(testData.getAnswers()));
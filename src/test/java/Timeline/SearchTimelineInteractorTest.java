@@ -0,0 +1,67 @@
+package Timeline;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecases.Timeline.SearchTimelineInteractor;
+import usecases.Timeline.ViewTimelineResponse;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTimelineInteractorTest {
+    private TestTimelineRepository repository;
+    private TestViewTimelineOutputBoundary presenter;
+    private SearchTimelineInteractor interactor;
+    private UUID courseId;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TestTimelineRepository();
+        presenter = new TestViewTimelineOutputBoundary();
+        interactor = new SearchTimelineInteractor(repository, presenter);
+        courseId = UUID.randomUUID();
+    }
+
+    @Test
+    void testSearchShowsBestPassageWithMatchedWordsMarked() {
+        TimelineEvent event = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        event.setTitle("Week 3");
+        event.setFullNotesText("Intro. " + "Filler words here. ".repeat(30)
+                + "The Observer pattern decouples subjects; observers subscribe to a subject.");
+        repository.save(event);
+
+        interactor.search("  observer subject ");
+
+        ViewTimelineResponse response = presenter.getLastResponse();
+        assertEquals("observer subject", response.getSearchQuery());
+        assertTrue(response.isFiltered());
+        assertEquals(1, response.getItems().size());
+        ViewTimelineResponse.TimelineCardVM card = response.getItems().get(0);
+        assertEquals("Week 3", card.getTitle());
+        String passage = card.getMatchText();
+        assertTrue(passage.startsWith("…"), passage);
+        assertTrue(passage.length() <= 162, passage);
+        assertEquals(2, card.getMatchRanges().size());
+        int[] first = card.getMatchRanges().get(0);
+        assertEquals("Observer", passage.substring(first[0], first[1]));
+        int[] second = card.getMatchRanges().get(1);
+        assertEquals("subject", passage.substring(second[0], second[1]));
+    }
+
+    @Test
+    void testBlankOrUnmatchedQueryShowsNoResults() {
+        TimelineEvent event = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        event.setFullNotesText("Inheritance");
+        repository.save(event);
+
+        interactor.search("   ");
+        assertTrue(presenter.getLastResponse().isEmpty());
+
+        interactor.search("polymorphism");
+        assertTrue(presenter.getLastResponse().isEmpty());
+        assertEquals("polymorphism", presenter.getLastResponse().getSearchQuery());
+    }
+}
@@ -7,12 +7,24 @@ import java.util.*;
 
 public class TestTimelineRepository implements ITimelineRepository {
     private final Map<UUID, List<TimelineEvent>> byCourse = new HashMap<>();
+    private final Map<UUID, List<TimelineEvent>> archivedByCourse = new HashMap<>();
+
+    /** Stores an event as if retention had moved it to the archive. */
+    public void saveArchived(TimelineEvent event) {
+        archivedByCourse.computeIfAbsent(event.getCourseId(), k -> new ArrayList<>()).add(event);
+    }
 
     @Override
     public void save(TimelineEvent event) {
         byCourse.computeIfAbsent(event.getCourseId(), k -> new ArrayList<>()).add(event);
     }
 
+    @Override
+    public boolean delete(TimelineEvent event) {
+        List<TimelineEvent> events = byCourse.get(event.getCourseId());
+        return events != null && events.removeIf(e -> e == event);
+    }
+
     @Override
     public List<TimelineEvent> findByCourseNewestFirst(UUID courseId) {
         List<TimelineEvent> list = byCourse.getOrDefault(courseId, new ArrayList<>());
@@ -20,5 +32,16 @@ public class TestTimelineRepository implements ITimelineRepository {
         Collections.reverse(out);
         return out;
     }
-}
 
+    @Override
+    public List<TimelineEvent> findArchivedByCourse(UUID courseId) {
+        List<TimelineEvent> out = new ArrayList<>(archivedByCourse.getOrDefault(courseId, List.of()));
+        Collections.reverse(out);
+        return out;
+    }
+
+    @Override
+    public Set<UUID> findCourseIds() {
+        return new HashSet<>(byCourse.keySet());
+    }
+}
@@ -3,10 +3,14 @@ package Timeline;
 import usecases.Timeline.ViewTimelineOutputBoundary;
 import usecases.Timeline.ViewTimelineResponse;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class TestViewTimelineOutputBoundary implements ViewTimelineOutputBoundary {
     private ViewTimelineResponse lastResponse;
     private int presentNotFoundCount = 0;
     private String lastNotFoundMessage;
+    private final List<String> deletedEventIds = new ArrayList<>();
 
     @Override
     public void present(ViewTimelineResponse response) {
@@ -19,6 +23,11 @@ public class TestViewTimelineOutputBoundary implements ViewTimelineOutputBoundar
         this.lastNotFoundMessage = message;
     }
 
+    @Override
+    public void presentDeleted(String eventId) {
+        deletedEventIds.add(eventId);
+    }
+
     public ViewTimelineResponse getLastResponse() {
         return lastResponse;
     }
@@ -30,5 +39,8 @@ public class TestViewTimelineOutputBoundary implements ViewTimelineOutputBoundar
     public String getLastNotFoundMessage() {
         return lastNotFoundMessage;
     }
-}
 
+    public List<String> getDeletedEventIds() {
+        return deletedEventIds;
+    }
+}
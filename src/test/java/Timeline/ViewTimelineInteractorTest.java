@@ -7,7 +7,9 @@ import entities.TimelineEventType;
 import usecases.Timeline.ViewTimelineInteractor;
 import usecases.Timeline.ViewTimelineResponse;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -351,5 +353,151 @@ class ViewTimelineInteractorTest {
         ViewTimelineResponse.TimelineCardVM card = response.getItems().get(0);
         assertNull(card.getSnippet());
     }
-}
 
+    @Test
+    void testExecuteShowsFirstPageAndLoadMoreAppendsOlderEvents() {
+        Instant start = Instant.parse("2025-03-01T12:00:00Z");
+        for (int i = 0; i < 120; i++) {
+            TimelineEvent event = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+            event.setTitle("Notes " + i);
+            event.setOccurredAt(start.plusSeconds(i));
+            repository.save(event);
+        }
+
+        interactor.execute(courseId);
+        ViewTimelineResponse first = presenter.getLastResponse();
+        assertEquals(50, first.getItems().size());
+        assertEquals("Notes 119", first.getItems().get(0).getTitle());
+        assertTrue(first.hasMore());
+        assertFalse(first.isAppend());
+
+        interactor.loadMore(courseId, first.getNextCursor());
+        ViewTimelineResponse second = presenter.getLastResponse();
+        assertTrue(second.isAppend());
+        assertEquals("Notes 69", second.getItems().get(0).getTitle());
+
+        interactor.loadMore(courseId, second.getNextCursor());
+        ViewTimelineResponse last = presenter.getLastResponse();
+        assertEquals(20, last.getItems().size());
+        assertEquals("Notes 0", last.getItems().get(19).getTitle());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    void testFilterShowsOnlyMatchingTypesSinceGivenInstant() {
+        Instant start = Instant.parse("2025-03-01T12:00:00Z");
+        TimelineEvent oldSubmission = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.QUIZ_SUBMITTED);
+        oldSubmission.setOccurredAt(start.minusSeconds(86400 * 40));
+        TimelineEvent notes = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        notes.setOccurredAt(start);
+        TimelineEvent submission = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.QUIZ_SUBMITTED);
+        submission.setOccurredAt(start.plusSeconds(60));
+        repository.save(oldSubmission);
+        repository.save(notes);
+        repository.save(submission);
+
+        interactor.filter(courseId, EnumSet.of(TimelineEventType.QUIZ_SUBMITTED), start.minusSeconds(86400 * 30), null);
+
+        ViewTimelineResponse response = presenter.getLastResponse();
+        assertTrue(response.isFiltered());
+        assertFalse(response.hasMore());
+        assertEquals(1, response.getItems().size());
+        assertEquals(submission.getId().toString(), response.getItems().get(0).getEventId());
+        assertEquals(courseId, response.getCourseId());
+    }
+
+    @Test
+    void testExecuteAllMergesCoursesNewestFirstAndPages() {
+        UUID otherCourse = UUID.randomUUID();
+        Instant start = Instant.parse("2025-03-01T12:00:00Z");
+        for (int i = 0; i < 60; i++) {
+            TimelineEvent event = new TimelineEvent(i % 2 == 0 ? courseId : otherCourse,
+                    UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+            event.setTitle("Notes " + i);
+            event.setOccurredAt(start.plusSeconds(60L * i));
+            repository.save(event);
+        }
+
+        interactor.executeAll();
+        ViewTimelineResponse first = presenter.getLastResponse();
+        assertTrue(first.isAllCourses());
+        assertFalse(first.isAppend());
+        assertTrue(first.hasMore());
+        assertEquals(50, first.getItems().size());
+        assertEquals("Notes 59", first.getItems().get(0).getTitle());
+        assertEquals("Notes 58", first.getItems().get(1).getTitle());
+
+        interactor.loadMoreAll();
+        ViewTimelineResponse second = presenter.getLastResponse();
+        assertTrue(second.isAppend());
+        assertFalse(second.hasMore());
+        assertEquals(List.of("Notes 9", "Notes 8", "Notes 7", "Notes 6", "Notes 5",
+                        "Notes 4", "Notes 3", "Notes 2", "Notes 1", "Notes 0"),
+                second.getItems().stream().map(ViewTimelineResponse.TimelineCardVM::getTitle)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testExecuteAllWithNoEventsIsEmpty() {
+        interactor.executeAll();
+
+        ViewTimelineResponse response = presenter.getLastResponse();
+        assertTrue(response.isAllCourses());
+        assertTrue(response.isEmpty());
+        assertFalse(response.hasMore());
+    }
+
+    @Test
+    void testDeleteRemovesOnlyTheChosenEvent() {
+        TimelineEvent kept = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        TimelineEvent deleted = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        repository.save(kept);
+        repository.save(deleted);
+
+        interactor.delete(courseId, deleted.getId().toString(), deleted.getOccurredAt());
+        assertEquals(List.of(deleted.getId().toString()), presenter.getDeletedEventIds());
+        interactor.execute(courseId);
+
+        ViewTimelineResponse response = presenter.getLastResponse();
+        assertEquals(1, response.getItems().size());
+        assertEquals(kept.getId().toString(), response.getItems().get(0).getEventId());
+        assertEquals(courseId, response.getItems().get(0).getCourseId());
+    }
+
+    @Test
+    void testDeleteOfAMissingEventIsReported() {
+        TimelineEvent gone = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        repository.save(gone);
+        assertTrue(repository.delete(gone));
+
+        interactor.delete(courseId, gone.getId().toString(), gone.getOccurredAt());
+
+        assertTrue(presenter.getDeletedEventIds().isEmpty());
+        assertEquals(1, presenter.getPresentNotFoundCount());
+        assertEquals("This event is no longer in the history", presenter.getLastNotFoundMessage());
+    }
+
+    @Test
+    void testExecuteArchivedShowsOnlyArchivedEvents() {
+        repository.save(new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED));
+        TimelineEvent archived = new TimelineEvent(courseId, UUID.randomUUID(), TimelineEventType.FLASHCARDS_GENERATED);
+        repository.saveArchived(archived);
+
+        interactor.executeArchived(courseId);
+
+        ViewTimelineResponse response = presenter.getLastResponse();
+        assertTrue(response.isArchived());
+        assertTrue(response.isFiltered());
+        assertEquals(1, response.getItems().size());
+        assertEquals(archived.getContentId(), response.getItems().get(0).getContentId());
+    }
+
+    @Test
+    void testExecuteArchivedWithNothingArchivedIsEmpty() {
+        interactor.executeArchived(courseId);
+
+        ViewTimelineResponse response = presenter.getLastResponse();
+        assertTrue(response.isArchived());
+        assertTrue(response.isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package data_access;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AsyncTimelineRepository's batching, flush and close behavior.
+ */
+class AsyncTimelineRepositoryTest {
+
+    private final UUID course = UUID.randomUUID();
+
+    /** In-memory repository that records the size of every batch written. */
+    private static class RecordingRepository extends InMemoryTimelineRepository {
+        final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void saveAll(List<TimelineEvent> events) {
+            batches.add(events.size());
+            super.saveAll(events);
+        }
+    }
+
+    private TimelineEvent event() {
+        return new TimelineEvent(course, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+    }
+
+    @Test
+    void eventsSavedWithinTheLatencyAreWrittenAsOneBatch() {
+        RecordingRepository delegate = new RecordingRepository();
+        // A long latency: only the flush below ends the batch
+        AsyncTimelineRepository repository =
+                new AsyncTimelineRepository(delegate, 100, 100, Duration.ofSeconds(30));
+        for (int i = 0; i < 20; i++) {
+            repository.save(event());
+        }
+
+        repository.flush();
+
+        assertEquals(List.of(20), delegate.batches);
+        repository.close();
+    }
+
+    @Test
+    void batchesAreSplitAtMaxBatchAndQueriesSeeEverySavedEvent() {
+        RecordingRepository delegate = new RecordingRepository();
+        AsyncTimelineRepository repository =
+                new AsyncTimelineRepository(delegate, 4, 3, Duration.ofMillis(5));
+        for (int i = 0; i < 25; i++) {
+            repository.save(event());
+        }
+
+        assertEquals(25, repository.findByCourseNewestFirst(course).size());
+        assertTrue(delegate.batches.stream().allMatch(size -> size <= 3));
+        repository.close();
+    }
+
+    @Test
+    void closeWritesPendingEventsAndLaterSavesAreSynchronous() {
+        RecordingRepository delegate = new RecordingRepository();
+        AsyncTimelineRepository repository =
+                new AsyncTimelineRepository(delegate, 100, 100, Duration.ofSeconds(30));
+        repository.save(event());
+        repository.save(event());
+
+        repository.close();
+        assertEquals(2, delegate.findByCourseNewestFirst(course).size());
+
+        repository.save(event());
+        assertEquals(3, delegate.findByCourseNewestFirst(course).size());
+    }
+
+    @Test
+    void logModeBatchIsAppendedAsOneLinePerEvent(@TempDir Path dir) throws Exception {
+        Path log = dir.resolve("timeline.jsonl");
+        AsyncTimelineRepository repository = new AsyncTimelineRepository(
+                new FileTimelineRepository(log.toString(), FileTimelineRepository.StorageMode.LOG));
+        for (int i = 0; i < 10; i++) {
+            repository.save(event());
+        }
+        repository.close();
+
+        assertEquals(10, Files.readAllLines(log).size());
+        assertEquals(10, new FileTimelineRepository(log.toString(),
+                FileTimelineRepository.StorageMode.LOG).findByCourseNewestFirst(course).size());
+    }
+}
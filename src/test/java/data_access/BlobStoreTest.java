@@ -0,0 +1,118 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the content-addressed BlobStore and its LRU cache.
+ */
+class BlobStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void put_identicalContentIsStoredOnce() throws IOException {
+        BlobStore store = new BlobStore(dir, 1024);
+
+        BlobStore.Blob first = store.put("hello");
+        BlobStore.Blob second = store.put("hello");
+
+        assertEquals(first.hash(), second.hash());
+        assertEquals(5, first.size());
+        assertEquals(1, fileCount());
+        assertEquals("hello", store.blob(first.hash(), first.size()).get());
+    }
+
+    @Test
+    void initializeReferences_deletesUnreferencedBlobsAndLeftoverTempFiles() throws IOException {
+        BlobStore store = new BlobStore(dir, 1024);
+        BlobStore.Blob kept = store.put("kept");
+        BlobStore.Blob dropped = store.put("dropped");
+        assertEquals("dropped", dropped.get());
+        Files.write(Files.createDirectories(dir.resolve("ab")).resolve("abc.tmp"), new byte[3]);
+
+        PayloadCollectionReport report = store.initializeReferences(List.of(kept, kept, kept));
+
+        assertEquals(1, report.getPayloadsKept());
+        assertEquals(8, report.getBytesShared());
+        assertEquals(1, report.getPayloadsFreed());
+        assertEquals(7 + 3, report.getBytesFreed());
+        assertEquals(1, fileCount() - 1, "only the kept blob besides the reference journal");
+        assertNull(dropped.get(), "freed payloads leave the cache too");
+        assertEquals("kept", kept.get());
+    }
+
+    @Test
+    void release_deletesBlobWithItsLastReferenceAndCountsSurviveReopening() throws IOException {
+        BlobStore store = new BlobStore(dir, 1024);
+        assertTrue(store.hasReferenceCounts(), "an empty store starts counting");
+        BlobStore.Blob shared = store.put("shared");
+        BlobStore.Blob single = store.put("single");
+        store.retain(List.of(shared, shared, single));
+
+        store.release(List.of(shared, single));
+        assertNull(single.get(), "freed with its last reference");
+        assertEquals("shared", shared.get());
+        PayloadCollectionReport report = store.report();
+        assertEquals(1, report.getPayloadsFreed());
+        assertEquals(6, report.getBytesFreed());
+        assertEquals(1, report.getPayloadsKept());
+        assertEquals(0, store.report().getPayloadsFreed(), "each report covers what was freed since the last");
+
+        BlobStore reopened = new BlobStore(dir, 1024);
+        assertTrue(reopened.hasReferenceCounts());
+        reopened.release(List.of(shared));
+        assertNull(reopened.blob(shared.hash(), shared.size()).get());
+        assertEquals(0, reopened.report().getPayloadsKept());
+    }
+
+    @Test
+    void storeWrittenWithoutCounts_neverFreesUntilInitialized() throws IOException {
+        BlobStore.Blob old = new BlobStore(dir, 1024).put("old");
+
+        BlobStore store = new BlobStore(dir, 1024);
+        assertFalse(store.hasReferenceCounts());
+        store.release(List.of(old));
+        assertEquals("old", old.get());
+    }
+
+    @Test
+    void cache_servesRecentBlobsAndEvictsLeastRecentlyUsed() throws IOException {
+        BlobStore store = new BlobStore(dir, 10);
+        BlobStore.Blob a = store.put("aaaa");
+        BlobStore.Blob b = store.put("bbbb");
+        assertEquals("aaaa", a.get());
+        assertEquals("bbbb", b.get());
+
+        // Both are cached, so they survive their files being removed
+        deleteAllFiles();
+        assertEquals("aaaa", a.get());
+
+        // Caching a third blob pushes out b, the least recently used
+        BlobStore.Blob c = store.put("cccc");
+        assertEquals("cccc", c.get());
+        assertNull(b.get());
+        assertEquals("aaaa", a.get());
+    }
+
+    private void deleteAllFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(Files::isRegularFile).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package data_access;
+
+import entities.PDFFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static data_access.TestFixtures.NOW;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseContextCacheTest {
+    private static final Duration TTL = Duration.ofHours(1);
+
+    @TempDir
+    Path dir;
+    // Stands in for the caching API: records what was created and deleted
+    private final List<List<Path>> created = new ArrayList<>();
+    private final List<String> deleted = new ArrayList<>();
+    private volatile int attempts;
+    private CountDownLatch uploading;
+    private Instant now = NOW;
+    private final CourseContextCache.Creator stub = new CourseContextCache.Creator() {
+        @Override
+        public CourseContextCache.Context create(String model, List<Path> materials,
+                                                 Duration timeToLive) throws IOException {
+            attempts++;
+            if (materials.stream().anyMatch(m -> m.toString().endsWith("tiny.pdf"))) {
+                throw new CourseContextCache.RefusedException("too few tokens to cache", null);
+            }
+            if (attempts == 1 && materials.stream().anyMatch(m -> m.toString().endsWith("busy.pdf"))) {
+                throw new IOException("rate limited");
+            }
+            if (uploading != null) {
+                try {
+                    uploading.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            created.add(materials);
+            return new CourseContextCache.Context("cachedContents/" + created.size(),
+                    now.plus(timeToLive));
+        }
+
+        @Override
+        public void delete(String name) {
+            deleted.add(name);
+        }
+    };
+
+    private CourseContextCache cache() {
+        return new CourseContextCache(stub, TTL, new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        }, Runnable::run);
+    }
+
+    @Test
+    void contextIsSharedUntilItNearlyExpires() throws IOException {
+        Path week1 = Files.writeString(dir.resolve("week1.pdf"), "%PDF week 1");
+        Path week2 = Files.writeString(dir.resolve("week2.pdf"), "%PDF week 2");
+        CourseContextCache cache = cache();
+
+        assertEquals("cachedContents/1", cache.contextFor("model", List.of(week1, week2)));
+        now = NOW.plus(Duration.ofMinutes(50));
+        assertEquals("cachedContents/1", cache.contextFor("model", List.of(week1, week2)));
+        assertEquals("cachedContents/2", cache.contextFor("other model", List.of(week1, week2)));
+
+        now = NOW.plus(Duration.ofMinutes(56));
+        assertEquals("cachedContents/3", cache.contextFor("model", List.of(week1, week2)));
+        assertEquals(3, cache.getCreated());
+        assertNull(cache.contextFor("model", List.of()));
+    }
+
+    @Test
+    void uploadingOrDeletingAFileDropsTheCourseContext() throws IOException {
+        Path week1 = Files.writeString(dir.resolve("week1.pdf"), "%PDF week 1");
+        Path week2 = Files.writeString(dir.resolve("week2.pdf"), "%PDF week 2");
+        Path other = Files.writeString(dir.resolve("other.pdf"), "%PDF other course");
+        CourseContextCache cache = cache();
+        cache.contextFor("model", List.of(week1));
+        cache.contextFor("model", List.of(other));
+
+        List<PDFFile> afterUpload = List.of(new PDFFile(week1.toString()),
+                new PDFFile(week2.toString()));
+        cache.materialsChanged("CSC207", week2.toString(), afterUpload);
+        assertEquals(List.of("cachedContents/1"), deleted);
+
+        assertEquals("cachedContents/3", cache.contextForFiles("model", afterUpload));
+        assertEquals(List.of(week1, week2), created.get(2));
+        assertEquals("cachedContents/2", cache.contextFor("model", List.of(other)));
+
+        cache.materialsChanged("CSC207", week2.toString(), List.of(new PDFFile(week1.toString())));
+        assertEquals(List.of("cachedContents/1", "cachedContents/3"), deleted);
+    }
+
+    @Test
+    void materialsThatCannotBeCachedAreSentInline() throws IOException {
+        Path tiny = Files.writeString(dir.resolve("tiny.pdf"), "%PDF");
+        CourseContextCache cache = cache();
+
+        assertNull(cache.contextFor("model", List.of(tiny)));
+        assertNull(cache.contextFor("model", List.of(tiny)));
+        assertNull(cache.contextFor("model", List.of(dir.resolve("missing.pdf"))));
+        assertEquals(0, cache.getCreated());
+        assertEquals(1, attempts);
+    }
+
+    @Test
+    void failuresThatAreNotRefusalsAreTriedAgain() throws IOException {
+        Path busy = Files.writeString(dir.resolve("busy.pdf"), "%PDF busy");
+        CourseContextCache cache = cache();
+
+        assertNull(cache.contextFor("model", List.of(busy)));
+        assertEquals("cachedContents/1", cache.contextFor("model", List.of(busy)));
+        assertEquals(2, attempts);
+    }
+
+    @Test
+    void materialsChangedDoesNotWaitForABuildInProgress() throws Exception {
+        Path week1 = Files.writeString(dir.resolve("week1.pdf"), "%PDF week 1");
+        CourseContextCache cache = cache();
+        uploading = new CountDownLatch(1);
+        CompletableFuture<String> build = CompletableFuture.supplyAsync(
+                () -> cache.contextFor("model", List.of(week1)));
+        while (attempts == 0) {
+            Thread.onSpinWait();
+        }
+
+        cache.materialsChanged("CSC207", week1.toString(), List.of());
+        uploading.countDown();
+        assertEquals("cachedContents/1", build.get(5, TimeUnit.SECONDS));
+    }
+}
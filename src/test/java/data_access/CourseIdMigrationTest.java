@@ -0,0 +1,83 @@
+package data_access;
+
+import entities.TimelineEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import usecases.Timeline.NameBasedCourseIdMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static data_access.TestFixtures.NOW;
+import static data_access.TestFixtures.notes;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseIdMigrationTest {
+
+    @TempDir
+    Path dir;
+
+    private FileTimelineRepository open(String shards, usecases.Timeline.ICourseIdMapper courseIds) {
+        return new FileTimelineRepository(shards, FileTimelineRepository.StorageMode.SHARDED,
+                FileTimelineRepository.RecordFormat.JSON, courseIds);
+    }
+
+    @Test
+    void uuidsAreNameBasedVersion5() {
+        // Same value as Python's uuid.uuid5(NAMESPACE, "CSC207")
+        UUID expected = UUID.fromString("3a669adc-2337-5f9d-943b-cecc7c4a34fb");
+        assertEquals(expected, NameBasedCourseIdMapper.uuidFor("CSC207"));
+        assertEquals(5, expected.version());
+        assertEquals(2, expected.variant());
+
+        NameBasedCourseIdMapper mapper = new NameBasedCourseIdMapper();
+        assertFalse(mapper.hasUuid("CSC207"));
+        assertEquals(expected, mapper.getUuidForCourseId("CSC207"));
+        assertTrue(mapper.hasUuid("CSC207"));
+        assertEquals("CSC207", mapper.getCourseIdForUuid(expected));
+        assertEquals(expected, new NameBasedCourseIdMapper().getUuidForCourseId("CSC207"));
+        assertNotEquals(expected, mapper.getUuidForCourseId("CSC208"));
+    }
+
+    @Test
+    void migrationMovesLiveAndArchivedEventsToDerivedUuids() throws IOException {
+        Path mappings = dir.resolve("course_id_mappings.json");
+        String shards = dir.resolve("timeline").toString();
+        FileCourseIdMapper legacy = new FileCourseIdMapper(mappings);
+        UUID old = legacy.getUuidForCourseId("CSC207");
+        legacy.flush();
+        FileTimelineRepository before = open(shards, legacy);
+        before.saveAll(List.of(notes(old, "ancient", 400), notes(old, "old", 120),
+                notes(old, "recent", 5)));
+        before.applyRetention(TimelineRetentionPolicy.defaults(), NOW);
+
+        NameBasedCourseIdMapper courseIds = new NameBasedCourseIdMapper();
+        FileTimelineRepository timeline = open(shards, courseIds);
+        assertEquals(2, CourseIdMigration.migrate(timeline, courseIds, mappings));
+
+        UUID derived = NameBasedCourseIdMapper.uuidFor("CSC207");
+        assertEquals(java.util.Set.of(derived), timeline.findCourseIds());
+        assertFalse(Files.exists(mappings));
+        assertTrue(Files.exists(dir.resolve("course_id_mappings.json.migrated")));
+
+        // Reopening finds everything under the new UUID, payloads included
+        NameBasedCourseIdMapper restarted = new NameBasedCourseIdMapper();
+        FileTimelineRepository reopened = open(shards, restarted);
+        assertEquals(0, CourseIdMigration.migrate(reopened, restarted, mappings));
+        List<TimelineEvent> events = reopened.findByCourseNewestFirst(derived);
+        assertEquals(List.of("recent", "old"), events.stream().map(TimelineEvent::getTitle).toList());
+        assertEquals(derived, events.get(1).getCourseId());
+        assertTrue(events.get(1).isPayloadsArchived());
+        assertTrue(events.get(1).getFullNotesText().startsWith("notes for old."));
+        assertTrue(events.get(0).getFullNotesText().startsWith("notes for recent."));
+        List<TimelineEvent> archived = reopened.findArchivedByCourse(derived);
+        assertEquals(List.of("ancient"), archived.stream().map(TimelineEvent::getTitle).toList());
+        assertEquals(derived, archived.get(0).getCourseId());
+        assertTrue(reopened.findByCourseNewestFirst(old).isEmpty());
+        assertTrue(reopened.findArchivedByCourse(old).isEmpty());
+        assertEquals("CSC207", restarted.getCourseIdForUuid(derived));
+    }
+}
@@ -0,0 +1,90 @@
+package data_access;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileCourseIdMapperTest {
+    @TempDir
+    Path dir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("course_id_mappings.json");
+    }
+
+    @Test
+    void concurrentCallersAgreeOnOneUuidPerCourse() throws Exception {
+        FileCourseIdMapper mapper = new FileCourseIdMapper(file, Duration.ofMillis(10));
+        Map<String, UUID> seen = new ConcurrentHashMap<>();
+        List<String> conflicts = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 2_000; i++) {
+                    String courseId = "CSC" + (i % 50);
+                    UUID uuid = mapper.getUuidForCourseId(courseId);
+                    UUID first = seen.putIfAbsent(courseId, uuid);
+                    if (first != null && !first.equals(uuid)) {
+                        synchronized (conflicts) {
+                            conflicts.add(courseId);
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(conflicts.isEmpty(), conflicts.toString());
+        assertEquals(50, seen.size());
+        for (Map.Entry<String, UUID> entry : seen.entrySet()) {
+            assertEquals(entry.getKey(), mapper.getCourseIdForUuid(entry.getValue()));
+        }
+        mapper.flush();
+        FileCourseIdMapper reloaded = new FileCourseIdMapper(file);
+        for (Map.Entry<String, UUID> entry : seen.entrySet()) {
+            assertEquals(entry.getValue(), reloaded.getUuidForCourseId(entry.getKey()));
+        }
+    }
+
+    @Test
+    void newMappingsAreSavedTogetherAfterTheDelayOrOnFlush() {
+        FileCourseIdMapper mapper = new FileCourseIdMapper(file, Duration.ofHours(1));
+        UUID csc207 = mapper.getUuidForCourseId("CSC207");
+        mapper.restoreMapping("PHL245", UUID.randomUUID());
+        assertFalse(Files.exists(file), "saving waits for the delay");
+
+        mapper.restoreMapping("CSC207", UUID.randomUUID());
+        assertEquals(csc207, mapper.getUuidForCourseId("CSC207"), "existing mappings are kept");
+
+        mapper.flush();
+        FileCourseIdMapper reloaded = new FileCourseIdMapper(file);
+        assertTrue(reloaded.hasUuid("PHL245"));
+        assertEquals("CSC207", reloaded.getCourseIdForUuid(csc207));
+        assertFalse(reloaded.hasUuid(null));
+    }
+}
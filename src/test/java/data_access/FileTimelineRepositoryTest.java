@@ -0,0 +1,457 @@
+package data_access;
+
+import entities.EvaluationData;
+import entities.Flashcard;
+import entities.FlashcardSet;
+import entities.TestData;
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FileTimelineRepository in snapshot and log mode.
+ * Events use random course UUIDs and plain titles so no CourseIdMapper
+ * mapping is restored while loading.
+ */
+class FileTimelineRepositoryTest {
+
+    @TempDir
+    Path dir;
+    private Path snapshot;
+    private Path log;
+    private final UUID course = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        snapshot = dir.resolve("timeline.json");
+        log = dir.resolve("timeline.jsonl");
+    }
+
+    private TimelineEvent event(String title, int minute) {
+        TimelineEvent event = new TimelineEvent(course, UUID.randomUUID(),
+                TimelineEventType.NOTES_GENERATED);
+        event.setTitle(title);
+        event.setOccurredAt(Instant.parse("2025-01-01T10:00:00Z").plusSeconds(60L * minute));
+        event.setFullNotesText("notes for " + title);
+        return event;
+    }
+
+    private FileTimelineRepository openLog() {
+        return new FileTimelineRepository(log.toString(), FileTimelineRepository.StorageMode.LOG);
+    }
+
+    @Test
+    void logMode_appendsOneLinePerEventAndReloads() throws IOException {
+        FileTimelineRepository repository = openLog();
+        repository.save(event("first", 1));
+        repository.save(event("second", 2));
+
+        assertEquals(2, Files.readAllLines(log).size());
+
+        List<TimelineEvent> reloaded = openLog().findByCourseNewestFirst(course);
+        assertEquals(2, reloaded.size());
+        assertEquals("second", reloaded.get(0).getTitle());
+        assertEquals("notes for first", reloaded.get(1).getFullNotesText());
+        assertEquals(Instant.parse("2025-01-01T10:01:00Z"), reloaded.get(1).getOccurredAt());
+    }
+
+    @Test
+    void logMode_tornLastLineIsDroppedAndLogStaysUsable() throws IOException {
+        openLog().save(event("first", 1));
+        long goodLength = Files.size(log);
+        Files.write(log, "{\"courseId\":\"".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        FileTimelineRepository recovered = openLog();
+        assertEquals(1, recovered.findByCourseNewestFirst(course).size());
+        assertEquals(goodLength, Files.size(log));
+
+        recovered.save(event("second", 2));
+        assertEquals(2, openLog().findByCourseNewestFirst(course).size());
+    }
+
+    @Test
+    void logMode_importsExistingSnapshotOnFirstOpen() {
+        FileTimelineRepository legacy = new FileTimelineRepository(snapshot.toString());
+        legacy.save(event("first", 1));
+        legacy.save(event("second", 2));
+
+        List<TimelineEvent> imported = openLog().findByCourseNewestFirst(course);
+
+        assertTrue(Files.exists(log));
+        assertTrue(Files.exists(snapshot), "the old file is kept");
+        assertEquals(2, imported.size());
+        assertEquals("second", imported.get(0).getTitle());
+    }
+
+    @Test
+    void convertSnapshotToLog_writesOneLinePerEvent() throws IOException {
+        FileTimelineRepository legacy = new FileTimelineRepository(snapshot.toString());
+        for (int i = 0; i < 5; i++) {
+            legacy.save(event("event " + i, i));
+        }
+        Path converted = dir.resolve("converted.log");
+
+        FileTimelineRepository.convertSnapshotToLog(snapshot.toString(), converted.toString());
+
+        assertEquals(5, Files.readAllLines(converted).size());
+    }
+
+    @Test
+    void compact_rewritesLogWithoutSkippedRecords() throws IOException {
+        FileTimelineRepository repository = openLog();
+        repository.save(event("first", 1));
+        Files.write(log, "not json\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        FileTimelineRepository reopened = openLog();
+        reopened.compact();
+        reopened.save(event("second", 2));
+
+        assertEquals(2, Files.readAllLines(log).size());
+        assertEquals(2, openLog().findByCourseNewestFirst(course).size());
+    }
+
+    @Test
+    void logMode_largePayloadsGoToBlobStoreAndLoadOnDemand() throws IOException {
+        String notes = "x".repeat(LogTimelineStorage.INLINE_LIMIT * 4);
+        TimelineEvent saved = event("big", 1);
+        saved.setFullNotesText(notes);
+        openLog().save(saved);
+
+        String line = Files.readAllLines(log).get(0);
+        assertFalse(line.contains(notes), "payload should not be inline");
+        assertTrue(line.contains("sha256"));
+        assertNotNull(saved.getFullNotesTextLoader(), "saved event should drop its copy");
+
+        TimelineEvent reloaded = openLog().findByCourseNewestFirst(course).get(0);
+        assertNotNull(reloaded.getFullNotesTextLoader());
+        assertEquals(notes, reloaded.getFullNotesText());
+        // Small payloads stay inline
+        assertNull(reloaded.getFlashcardDataLoader());
+    }
+
+    @Test
+    void logMode_payloadsAreStoredAsNestedJson() throws IOException {
+        TimelineEvent cards = new TimelineEvent(course, UUID.randomUUID(),
+                TimelineEventType.FLASHCARDS_GENERATED);
+        cards.setFlashcardData(new FlashcardSet("CSC207", List.of(new Flashcard("Q \"1\"", "A"))));
+        openLog().save(cards);
+
+        String line = Files.readAllLines(log).get(0);
+        assertTrue(line.contains("\"flashcardData\":{\"courseName\":\"CSC207\""), line);
+
+        FlashcardSet reloaded = openLog().findByCourseNewestFirst(course).get(0).getFlashcardData();
+        assertEquals("Q \"1\"", reloaded.getFlashcards().get(0).getQuestion());
+    }
+
+    @Test
+    void logMode_unwrapsLegacyStringPayloadsAndRewritesTheLog() throws IOException {
+        String legacyLine = "{\"courseId\":\"" + course + "\",\"contentId\":\"" + UUID.randomUUID()
+                + "\",\"type\":\"QUIZ_SUBMITTED\",\"occurredAt\":\"2025-01-01T10:00:00Z\","
+                + "\"evaluationData\":\"{\\\"questions\\\":[\\\"Q\\\"],\\\"score\\\":3}\"}";
+        Files.writeString(log, legacyLine + "\n", StandardCharsets.UTF_8);
+
+        EvaluationData evaluation = openLog().findByCourseNewestFirst(course).get(0).getEvaluationData();
+        assertEquals(List.of("Q"), evaluation.getQuestions());
+        assertEquals(3, evaluation.getScore());
+
+        String migrated = Files.readAllLines(log).get(0);
+        assertTrue(migrated.contains("\"evaluationData\":{\"questions\":[\"Q\"]"), migrated);
+        assertEquals(3, openLog().findByCourseNewestFirst(course).get(0).getEvaluationData().getScore());
+    }
+
+    @Test
+    void logMode_compactKeepsBlobReferencesWithoutDuplicatingPayloads() throws IOException {
+        String notes = "y".repeat(LogTimelineStorage.INLINE_LIMIT * 2);
+        FileTimelineRepository repository = openLog();
+        for (int i = 0; i < 3; i++) {
+            TimelineEvent saved = event("same notes " + i, i);
+            saved.setFullNotesText(notes);
+            repository.save(saved);
+        }
+
+        repository.compact();
+
+        try (Stream<Path> blobs = Files.walk(dir.resolve("timeline.jsonl.blobs"))) {
+            assertEquals(1, blobs.filter(Files::isRegularFile).count());
+        }
+        for (TimelineEvent reloaded : openLog().findByCourseNewestFirst(course)) {
+            assertEquals(notes, reloaded.getFullNotesText());
+        }
+    }
+
+    @Test
+    void findByCourse_pagesBackwardsAndCursorSurvivesNewSaves() {
+        FileTimelineRepository repository = openLog();
+        for (int i = 0; i < 7; i++) {
+            repository.save(event("event " + i, i));
+        }
+
+        TimelinePage first = repository.findByCourse(course, ITimelineRepository.NEWEST, 3);
+        assertEquals(List.of("event 6", "event 5", "event 4"), titles(first));
+        assertTrue(first.hasMore());
+
+        repository.save(event("event 7", 7));
+        TimelinePage second = repository.findByCourse(course, first.getNextCursor(), 3);
+        assertEquals(List.of("event 3", "event 2", "event 1"), titles(second));
+
+        TimelinePage last = repository.findByCourse(course, second.getNextCursor(), 3);
+        assertEquals(List.of("event 0"), titles(last));
+        assertFalse(last.hasMore());
+        assertTrue(repository.findByCourse(UUID.randomUUID(), ITimelineRepository.NEWEST, 3)
+                .getEvents().isEmpty());
+    }
+
+    @Test
+    void findByCourse_cursorSurvivesDeletesAndMergedCourses() {
+        FileTimelineRepository repository = openLog();
+        for (int i = 0; i < 7; i++) {
+            repository.save(event("event " + i, 2 * i));
+        }
+        TimelinePage first = repository.findByCourse(course, ITimelineRepository.NEWEST, 3);
+        assertEquals(List.of("event 6", "event 5", "event 4"), titles(first));
+
+        // Deleting from the page already shown and merging in older events
+        // moves every event's position in the history
+        assertTrue(repository.delete(first.getEvents().get(1)));
+        UUID other = UUID.randomUUID();
+        TimelineEvent merged = new TimelineEvent(other, UUID.randomUUID(),
+                TimelineEventType.NOTES_GENERATED);
+        merged.setTitle("merged");
+        merged.setOccurredAt(Instant.parse("2025-01-01T10:00:00Z").plusSeconds(60L * 3));
+        repository.save(merged);
+        repository.moveCourse(other, course);
+
+        TimelinePage second = repository.findByCourse(course, first.getNextCursor(), 3);
+        assertEquals(List.of("event 3", "event 2", "merged"), titles(second));
+        TimelinePage last = repository.findByCourse(course, second.getNextCursor(), 3);
+        assertEquals(List.of("event 1", "event 0"), titles(last));
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    void findByCourse_pageKeepsEventsOfTheSameInstantTogether() {
+        FileTimelineRepository repository = openLog();
+        repository.save(event("older", 0));
+        repository.save(event("first at 1", 1));
+        repository.save(event("second at 1", 1));
+
+        TimelinePage first = repository.findByCourse(course, ITimelineRepository.NEWEST, 1);
+        assertEquals(List.of("second at 1", "first at 1"), titles(first));
+        TimelinePage last = repository.findByCourse(course, first.getNextCursor(), 1);
+        assertEquals(List.of("older"), titles(last));
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    void findByCourse_queryUsesTypeAndTimeIndexesAfterReload() {
+        FileTimelineRepository repository = openLog();
+        for (int i = 0; i < 10; i++) {
+            TimelineEvent quiz = new TimelineEvent(course, UUID.randomUUID(),
+                    i % 2 == 0 ? TimelineEventType.QUIZ_SUBMITTED : TimelineEventType.QUIZ_GENERATED);
+            quiz.setTitle("quiz " + i);
+            quiz.setOccurredAt(Instant.parse("2025-01-01T10:00:00Z").plusSeconds(60L * i));
+            repository.save(quiz);
+        }
+        repository.save(event("notes", 20));
+
+        Instant from = Instant.parse("2025-01-01T10:02:00Z");
+        Instant to = Instant.parse("2025-01-01T10:08:00Z");
+        TimelineQuery submitted = new TimelineQuery(
+                EnumSet.of(TimelineEventType.QUIZ_SUBMITTED), from, to, 10);
+        assertEquals(List.of("quiz 6", "quiz 4", "quiz 2"),
+                titles(openLog().findByCourse(course, submitted)));
+
+        TimelineQuery quizzesAndNotes = new TimelineQuery(EnumSet.of(TimelineEventType.NOTES_GENERATED,
+                TimelineEventType.QUIZ_GENERATED), null, null, 3);
+        assertEquals(List.of("notes", "quiz 9", "quiz 7"),
+                titles(repository.findByCourse(course, quizzesAndNotes)));
+
+        TimelineQuery recent = new TimelineQuery(null, Instant.parse("2025-01-01T10:09:00Z"), null, 10);
+        assertEquals(List.of("notes", "quiz 9"), titles(repository.findByCourse(course, recent)));
+        assertTrue(repository.findByCourse(course, new TimelineQuery(null, from, from, 10)).isEmpty());
+    }
+
+    private FileTimelineRepository openBinary() {
+        return new FileTimelineRepository(dir.resolve("timeline.tlog").toString(),
+                FileTimelineRepository.StorageMode.LOG, FileTimelineRepository.RecordFormat.BINARY);
+    }
+
+    @Test
+    void binaryFormat_roundTripsEveryFieldAndIsSmallerThanJson() throws IOException {
+        TimelineEvent quiz = new TimelineEvent(course, UUID.randomUUID(), TimelineEventType.QUIZ_SUBMITTED);
+        quiz.setOccurredAt(Instant.parse("2025-01-01T10:00:00.123456789Z"));
+        quiz.setTitle("Quiz — ünïcode");
+        quiz.setNumQuestions(12);
+        quiz.setNumCards(-3);
+        quiz.setScore(87.5);
+        quiz.setEvaluationData(new EvaluationData(List.of("Q"), List.of("A"), List.of("A"),
+                List.of("1"), List.of("Good"), 1));
+        quiz.setTestData(new TestData(List.of("t".repeat(LogTimelineStorage.INLINE_LIMIT * 2)),
+                List.of("a"), List.of("OE")));
+        openBinary().save(quiz);
+        openLog().save(quiz);
+
+        TimelineEvent reloaded = openBinary().findByCourseNewestFirst(course).get(0);
+        assertEquals(quiz.getContentId(), reloaded.getContentId());
+        assertEquals(quiz.getOccurredAt(), reloaded.getOccurredAt());
+        assertEquals(TimelineEventType.QUIZ_SUBMITTED, reloaded.getType());
+        assertEquals("Quiz — ünïcode", reloaded.getTitle());
+        assertNull(reloaded.getSnippet());
+        assertEquals(Integer.valueOf(12), reloaded.getNumQuestions());
+        assertEquals(Integer.valueOf(-3), reloaded.getNumCards());
+        assertEquals(Double.valueOf(87.5), reloaded.getScore());
+        assertEquals(List.of("Good"), reloaded.getEvaluationData().getFeedback());
+        assertEquals(1, reloaded.getEvaluationData().getScore());
+        assertNotNull(reloaded.getTestDataLoader());
+        assertEquals(quiz.getTestData().getQuestions(), reloaded.getTestData().getQuestions());
+        assertTrue(Files.size(dir.resolve("timeline.tlog")) < Files.size(log));
+    }
+
+    @Test
+    void binaryFormat_tornAndCorruptRecordsAreSkipped() throws IOException {
+        FileTimelineRepository repository = openBinary();
+        repository.save(event("first", 1));
+        repository.save(event("second", 2));
+        Path file = dir.resolve("timeline.tlog");
+        long goodLength = Files.size(file);
+        // Flip a byte inside the first record's body, then tear a third record
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 0x55;
+        Files.write(file, bytes);
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        List<TimelineEvent> recovered = openBinary().findByCourseNewestFirst(course);
+
+        assertEquals(List.of("second"), titles(recovered));
+        assertEquals(goodLength, Files.size(file));
+    }
+
+    private FileTimelineRepository openShards() {
+        return new FileTimelineRepository(dir.resolve("timeline").toString(),
+                FileTimelineRepository.StorageMode.SHARDED);
+    }
+
+    @Test
+    void shardedMode_loadsEachCourseOnlyWhenFirstUsed() throws IOException {
+        UUID other = UUID.randomUUID();
+        FileTimelineRepository repository = openShards();
+        repository.save(event("first", 1));
+        repository.save(new TimelineEvent(other, UUID.randomUUID(), TimelineEventType.QUIZ_GENERATED));
+        Path shards = dir.resolve("timeline");
+        assertTrue(Files.exists(shards.resolve("manifest.json")));
+        assertTrue(Files.exists(shards.resolve(course + ".jsonl")));
+
+        FileTimelineRepository reopened = openShards();
+        // Only the manifest was read, so removing a shard now goes unnoticed
+        Files.delete(shards.resolve(other + ".jsonl"));
+        assertEquals("first", reopened.findByCourseNewestFirst(course).get(0).getTitle());
+        assertTrue(reopened.findByCourseNewestFirst(other).isEmpty());
+
+        reopened.save(event("second", 2));
+        assertEquals(2, openShards().findByCourseNewestFirst(course).size());
+    }
+
+    @Test
+    void shardedMode_listsStoredCoursesBeforeLoadingThem() {
+        UUID other = UUID.randomUUID();
+        FileTimelineRepository repository = openShards();
+        repository.save(event("first", 1));
+        repository.save(new TimelineEvent(other, UUID.randomUUID(), TimelineEventType.QUIZ_GENERATED));
+
+        assertEquals(Set.of(course, other), openShards().findCourseIds());
+    }
+
+    @Test
+    void shardedMode_splitsExistingLogOnFirstOpen() throws IOException {
+        String notes = "z".repeat(LogTimelineStorage.INLINE_LIMIT * 2);
+        TimelineEvent big = event("big", 1);
+        big.setFullNotesText(notes);
+        FileTimelineRepository legacy = openLog();
+        legacy.save(big);
+        legacy.save(event("small", 2));
+
+        List<TimelineEvent> imported = openShards().findByCourseNewestFirst(course);
+
+        assertEquals(List.of("small", "big"), titles(imported));
+        assertEquals(notes, imported.get(1).getFullNotesText());
+        assertEquals(2, Files.readAllLines(dir.resolve("timeline").resolve(course + ".jsonl")).size());
+    }
+
+    @Test
+    void shardedMode_compactRewritesOneCourse() throws IOException {
+        UUID other = UUID.randomUUID();
+        FileTimelineRepository repository = openShards();
+        repository.save(event("first", 1));
+        repository.save(new TimelineEvent(other, UUID.randomUUID(), TimelineEventType.QUIZ_GENERATED));
+        Path courseShard = dir.resolve("timeline").resolve(course + ".jsonl");
+        Path otherShard = dir.resolve("timeline").resolve(other + ".jsonl");
+        Files.write(courseShard, "not json\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Files.write(otherShard, "not json\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        openShards().compact(course);
+
+        assertEquals(1, Files.readAllLines(courseShard).size());
+        assertEquals(2, Files.readAllLines(otherShard).size());
+    }
+
+    @Test
+    void shardedMode_deletedPayloadsAreFreedAfterTheirLastReference() {
+        UUID other = UUID.randomUUID();
+        String shared = "s".repeat(LogTimelineStorage.INLINE_LIMIT * 2);
+        String unique = "u".repeat(LogTimelineStorage.INLINE_LIMIT * 3);
+        FileTimelineRepository repository = openShards();
+        TimelineEvent first = event("first", 1);
+        first.setFullNotesText(shared);
+        TimelineEvent second = event("second", 2);
+        second.setFullNotesText(unique);
+        TimelineEvent copy = new TimelineEvent(other, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        copy.setFullNotesText(shared);
+        repository.saveAll(List.of(first, second, copy));
+
+        PayloadCollectionReport before = openShards().collectPayloads();
+        assertEquals(2, before.getPayloadsKept());
+        assertEquals(shared.length(), before.getBytesShared());
+
+        // The other course is never loaded, yet its reference keeps the shared payload
+        FileTimelineRepository reopened = openShards();
+        for (TimelineEvent event : reopened.findByCourseNewestFirst(course)) {
+            assertTrue(reopened.delete(event));
+        }
+        assertFalse(reopened.delete(first), "not an event of this repository");
+        PayloadCollectionReport collected = reopened.collectPayloads();
+        assertEquals(1, collected.getPayloadsFreed());
+        assertEquals(unique.length(), collected.getBytesFreed());
+        assertTrue(openShards().findByCourseNewestFirst(course).isEmpty());
+
+        TimelineEvent stored = reopened.findByCourseNewestFirst(other).get(0);
+        assertEquals(shared, stored.getFullNotesText());
+        assertTrue(reopened.delete(stored));
+        assertEquals(1, reopened.collectPayloads().getPayloadsFreed());
+        assertEquals(0, reopened.collectPayloads().getPayloadsKept());
+    }
+
+    private static List<String> titles(List<TimelineEvent> events) {
+        return events.stream().map(TimelineEvent::getTitle).toList();
+    }
+
+    private static List<String> titles(TimelinePage page) {
+        return page.getEvents().stream().map(TimelineEvent::getTitle).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package data_access;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static data_access.TestFixtures.NOW;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeminiFileCacheTest {
+
+    @TempDir
+    Path dir;
+    private Path cacheFile;
+    // Stands in for the Files API: records uploads and hands out URIs
+    private final List<Path> uploaded = new ArrayList<>();
+    private final GeminiFileCache.Uploader stub = (file, mimeType) -> {
+        uploaded.add(file);
+        String name = "files/" + uploaded.size();
+        return new GeminiFileCache.Handle(name, "https://files.test/" + name, mimeType,
+                NOW.plus(Duration.ofHours(48)));
+    };
+
+    @BeforeEach
+    void setUp() {
+        cacheFile = dir.resolve("gemini_files.json");
+    }
+
+    private GeminiFileCache cacheAt(Instant now) {
+        return new GeminiFileCache(cacheFile, stub, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void eachContentIsUploadedOnceAcrossPathsAndRestarts() throws IOException {
+        Path slides = Files.writeString(dir.resolve("week1.pdf"), "%PDF week 1");
+        Path copy = Files.writeString(dir.resolve("copy of week1.pdf"), "%PDF week 1");
+        GeminiFileCache cache = cacheAt(NOW);
+
+        GeminiFileCache.Handle first = cache.handleFor(slides, "application/pdf");
+        assertEquals("https://files.test/files/1", first.getUri());
+        assertEquals(first.getUri(), cache.handleFor(slides, "application/pdf").getUri());
+        assertEquals(first.getUri(), cache.handleFor(copy, "application/pdf").getUri());
+        assertEquals(1, uploaded.size());
+
+        GeminiFileCache reopened = cacheAt(NOW.plus(Duration.ofHours(1)));
+        assertEquals(first.getUri(), reopened.handleFor(slides, "application/pdf").getUri());
+        assertEquals(0, reopened.getUploads());
+
+        // Edited slides are new content
+        Files.writeString(slides, "%PDF week 1, corrected");
+        Files.setLastModifiedTime(slides, FileTime.from(NOW.plusSeconds(60)));
+        assertEquals("https://files.test/files/2", reopened.handleFor(slides, "application/pdf").getUri());
+        assertEquals(first.getUri(), reopened.handleFor(copy, "application/pdf").getUri());
+    }
+
+    @Test
+    void uploadsAboutToExpireAreReplaced() throws IOException {
+        Path slides = Files.writeString(dir.resolve("week2.pdf"), "%PDF week 2");
+        cacheAt(NOW).handleFor(slides, "application/pdf");
+
+        GeminiFileCache nextDay = cacheAt(NOW.plus(Duration.ofHours(47).plusMinutes(30)));
+        GeminiFileCache.Handle handle = nextDay.handleFor(slides, "application/pdf");
+        assertEquals("https://files.test/files/2", handle.getUri());
+        assertEquals(1, nextDay.getUploads());
+        assertEquals(2, uploaded.size());
+    }
+
+    @Test
+    void slowUploadOnlyBlocksCallersWaitingForTheSameFile() throws Exception {
+        Path slow = Files.writeString(dir.resolve("scanned.pdf"), "%PDF scanned notes");
+        Path cached = Files.writeString(dir.resolve("week3.pdf"), "%PDF week 3");
+        CountDownLatch uploading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GeminiFileCache cache = new GeminiFileCache(cacheFile, (file, mimeType) -> {
+            if (file.equals(slow)) {
+                uploading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            return stub.upload(file, mimeType);
+        }, Clock.fixed(NOW, ZoneOffset.UTC));
+        cache.handleFor(cached, "application/pdf");
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<GeminiFileCache.Handle> first =
+                    callers.submit(() -> cache.handleFor(slow, "application/pdf"));
+            assertTrue(uploading.await(5, TimeUnit.SECONDS));
+            Future<GeminiFileCache.Handle> second =
+                    callers.submit(() -> cache.handleFor(slow, "application/pdf"));
+
+            // A cache hit for another file does not wait for the upload
+            assertEquals("https://files.test/files/1",
+                    cache.handleFor(cached, "application/pdf").getUri());
+            assertFalse(second.isDone());
+
+            release.countDown();
+            assertEquals("https://files.test/files/2", first.get(5, TimeUnit.SECONDS).getUri());
+            assertEquals("https://files.test/files/2", second.get(5, TimeUnit.SECONDS).getUri());
+            assertEquals(List.of(cached, slow), uploaded);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package data_access;
+
+import entities.Course;
+import entities.PDFFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the journaled course storage, including crash recovery.
+ */
+class JournaledCourseStorageTest {
+
+    @TempDir
+    Path dir;
+    private Path snapshot;
+    private Path journal;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = dir.resolve("courses.json");
+        journal = dir.resolve("courses.json.journal");
+    }
+
+    private LocalCourseRepository open(long threshold) {
+        return new LocalCourseRepository(new JournaledCourseStorage(snapshot, threshold));
+    }
+
+    @Test
+    void mutations_areAppendedAndReplayedOnStartup() throws IOException {
+        LocalCourseRepository repository = open(Long.MAX_VALUE);
+        repository.create(new Course("CSC207", "Software Design", "OOP"));
+        repository.create(new Course("MAT137", "Calculus", "Proofs"));
+        Course course = repository.findById("CSC207");
+        course.addFile(new PDFFile("/tmp/week1.pdf"));
+        repository.update(course);
+        repository.delete("MAT137");
+
+        assertFalse(Files.exists(snapshot), "snapshot should not be rewritten per change");
+        assertEquals(4, Files.readAllLines(journal).size());
+
+        LocalCourseRepository reopened = open(Long.MAX_VALUE);
+        List<Course> all = reopened.findAll();
+        assertEquals(1, all.size());
+        assertEquals("CSC207", all.get(0).getCourseId());
+        assertEquals(1, all.get(0).getUploadedFiles().size());
+    }
+
+    @Test
+    void bulkAttach_appendsOneRecordPerFileWithoutRewritingSnapshot() throws IOException {
+        LocalCourseRepository repository = open(Long.MAX_VALUE);
+        for (int i = 0; i < 50; i++) {
+            repository.create(new Course("C" + i, "Course " + i, ""));
+        }
+        for (int i = 0; i < 500; i++) {
+            assertTrue(repository.attachFile("C7", "/tmp/lecture" + i + ".pdf"));
+        }
+
+        assertFalse(Files.exists(snapshot));
+        assertEquals(550, Files.readAllLines(journal).size());
+        assertEquals(500, open(Long.MAX_VALUE).getCourseMaterials("C7").size());
+    }
+
+    @Test
+    void compaction_foldsJournalIntoSnapshot() throws IOException {
+        JournaledCourseStorage storage = new JournaledCourseStorage(snapshot, Long.MAX_VALUE);
+        LocalCourseRepository repository = new LocalCourseRepository(storage);
+        for (int i = 0; i < 20; i++) {
+            repository.create(new Course("C" + i, "Course " + i, ""));
+        }
+        repository.delete("C3");
+
+        storage.compactNow();
+
+        assertEquals(0, storage.journalSize());
+        assertTrue(Files.exists(snapshot));
+        assertFalse(Files.exists(dir.resolve("courses.json.journal.old")));
+        assertEquals(19, open(Long.MAX_VALUE).findAll().size());
+    }
+
+    @Test
+    void pagedReadBeforeFirstLoad_includesJournaledChanges() {
+        JournaledCourseStorage storage = new JournaledCourseStorage(snapshot, Long.MAX_VALUE);
+        LocalCourseRepository repository = new LocalCourseRepository(storage);
+        repository.create(new Course("CSC207", "Software Design", "OOP"));
+        repository.create(new Course("MAT137", "Calculus", "Proofs"));
+        storage.compactNow();
+        repository.delete("CSC207");
+        repository.create(new Course("STA247", "Probability", ""));
+
+        List<Course> page = open(Long.MAX_VALUE).findAll(0, 10);
+        assertEquals(List.of("MAT137", "STA247"),
+                page.stream().map(Course::getCourseId).toList());
+    }
+
+    @Test
+    void backgroundCompaction_runsOnceThresholdIsPassed() throws Exception {
+        JournaledCourseStorage storage = new JournaledCourseStorage(snapshot, 2048);
+        LocalCourseRepository repository = new LocalCourseRepository(storage);
+        for (int i = 0; i < 100; i++) {
+            repository.create(new Course("C" + i, "Course " + i, "Description " + i));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((!Files.exists(snapshot) || storage.journalSize() >= 2048)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(Files.exists(snapshot), "compactor should have written a snapshot");
+        assertTrue(storage.journalSize() < 2048);
+        // Waits for a compaction still in flight, which would otherwise move
+        // the journal while the second instance reads it
+        storage.compactNow();
+        assertEquals(100, open(Long.MAX_VALUE).findAll().size());
+    }
+
+    @Test
+    void tornTrailingRecord_isDiscardedAndJournalStaysUsable() throws IOException {
+        LocalCourseRepository repository = open(Long.MAX_VALUE);
+        repository.create(new Course("CSC207", "Software Design", "OOP"));
+        long goodLength = Files.size(journal);
+
+        // Simulate a crash halfway through appending the next record
+        Files.write(journal, "{\"op\":\"put\",\"course\":{\"courseId\":\"MAT"
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        LocalCourseRepository recovered = open(Long.MAX_VALUE);
+        assertEquals(1, recovered.findAll().size());
+        assertEquals(goodLength, Files.size(journal));
+
+        recovered.create(new Course("MAT137", "Calculus", "Proofs"));
+        assertEquals(2, open(Long.MAX_VALUE).findAll().size());
+    }
+
+    @Test
+    void leftoverSegmentFromInterruptedCompaction_isReplayed() throws IOException {
+        LocalCourseRepository repository = open(Long.MAX_VALUE);
+        repository.create(new Course("CSC207", "Software Design", "OOP"));
+        // Crash right after the journal was rotated, before the snapshot moved
+        Files.move(journal, dir.resolve("courses.json.journal.old"));
+
+        LocalCourseRepository recovered = open(Long.MAX_VALUE);
+        recovered.create(new Course("MAT137", "Calculus", "Proofs"));
+
+        assertNotNull(recovered.findById("CSC207"));
+        assertEquals(2, open(Long.MAX_VALUE).findAll().size());
+    }
+
+    @Test
+    void tornLeftoverSegment_isTruncatedSoLaterRecordsSurviveCompaction() throws IOException {
+        LocalCourseRepository repository = open(Long.MAX_VALUE);
+        repository.create(new Course("CSC207", "Software Design", "OOP"));
+        // Crash halfway through adding a journal to a waiting segment
+        Path segment = dir.resolve("courses.json.journal.old");
+        Files.move(journal, segment);
+        Files.write(segment, "{\"op\":\"put\",\"course\":{\"courseId\":\"STA"
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        JournaledCourseStorage storage = new JournaledCourseStorage(snapshot, Long.MAX_VALUE);
+        LocalCourseRepository recovered = new LocalCourseRepository(storage);
+        recovered.create(new Course("MAT137", "Calculus", "Proofs"));
+        recovered.create(new Course("PHY131", "Physics", "Mechanics"));
+        storage.compactNow();
+
+        List<Course> courses = open(Long.MAX_VALUE).findAll();
+        assertEquals(List.of("CSC207", "MAT137", "PHY131"),
+                courses.stream().map(Course::getCourseId).toList());
+        assertFalse(Files.exists(segment));
+    }
+
+    @Test
+    void killedWriterProcess_recoversConsistentPrefix() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java";
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                JournalWriterProcess.class.getName(), snapshot.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = System.currentTimeMillis() + 20000;
+            while (sizeOf(snapshot) + sizeOf(journal) < 32 * 1024
+                    && System.currentTimeMillis() < deadline && writer.isAlive()) {
+                Thread.sleep(5);
+            }
+        } finally {
+            writer.destroyForcibly().waitFor();
+        }
+
+        List<Course> courses = open(Long.MAX_VALUE).findAll();
+        assertFalse(courses.isEmpty());
+        // Writes are sequential, so whatever survived must be C0..C(n-1)
+        for (int i = 0; i < courses.size(); i++) {
+            Course course = courses.get(i);
+            assertEquals("C" + i, course.getCourseId());
+            assertEquals("Course " + i, course.getName());
+            assertEquals(1, course.getUploadedFiles().size());
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Child process for the kill test: appends courses forever, with a small
+     * compaction threshold so it may also be killed mid-compaction.
+     */
+    static class JournalWriterProcess {
+        public static void main(String[] args) {
+            LocalCourseRepository repository = new LocalCourseRepository(
+                    new JournaledCourseStorage(Path.of(args[0]), 4096));
+            for (int i = 0; ; i++) {
+                Course course = new Course("C" + i, "Course " + i, "Written before the kill");
+                course.addFile(new PDFFile("/tmp/lecture" + i + ".pdf"));
+                repository.create(course);
+            }
+        }
+    }
+}
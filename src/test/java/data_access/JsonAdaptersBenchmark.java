@@ -0,0 +1,118 @@
+package data_access;
+
+import com.google.gson.Gson;
+import entities.EvaluationData;
+import entities.Flashcard;
+import entities.FlashcardSet;
+import entities.TestData;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rough speed and allocation comparison of reflective Gson binding against
+ * {@link JsonAdapters}. Not a unit test; run its main method by hand:
+ * <pre>
+ *   java -cp target/classes:target/test-classes:&lt;gson jar&gt; data_access.JsonAdaptersBenchmark
+ * </pre>
+ * Allocation is measured per thread through the HotSpot ThreadMXBean, so
+ * the numbers are indicative rather than JMH-grade.
+ */
+public final class JsonAdaptersBenchmark {
+    private static final int ITERATIONS = 20_000;
+    private static final int ROUNDS = 5;
+
+    private JsonAdaptersBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Gson reflective = new Gson();
+        Gson adapters = JsonAdapters.gson();
+        Object[] samples = {sampleTest(), sampleEvaluation(), sampleFlashcards()};
+        for (int pass = 0; pass < 2; pass++) {
+            // The second pass reports warmed-up numbers
+            for (Object sample : samples) {
+                run("reflection", reflective, sample);
+                run("adapters", adapters, sample);
+            }
+        }
+    }
+
+    private static void run(String name, Gson gson, Object sample) {
+        Class<?> type = sample.getClass();
+        String json = gson.toJson(sample);
+        long writeNanos = 0;
+        long readNanos = 0;
+        long writeBytes = 0;
+        long readBytes = 0;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += gson.toJson(sample).length();
+            }
+            writeNanos += System.nanoTime() - start;
+            writeBytes += allocatedBytes() - allocated;
+
+            allocated = allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += gson.fromJson(json, type).hashCode() & 1;
+            }
+            readNanos += System.nanoTime() - start;
+            readBytes += allocatedBytes() - allocated;
+        }
+        double total = (double) ITERATIONS * ROUNDS;
+        System.out.printf("%-15s %-10s write %,9.0f op/s %,6.0f B/op  read %,9.0f op/s %,6.0f B/op  (%d)%n",
+                type.getSimpleName(), name,
+                total / (writeNanos / 1e9), writeBytes / total,
+                total / (readNanos / 1e9), readBytes / total, sink & 1);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static TestData sampleTest() {
+        List<String> questions = new ArrayList<>();
+        List<String> answers = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        List<List<String>> choices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            questions.add("Which SOLID principle does example " + i + " violate?");
+            answers.add("Single responsibility");
+            types.add("MC");
+            choices.add(List.of("Single responsibility", "Open/closed", "Liskov", "Interface segregation"));
+        }
+        TestData data = new TestData(questions, answers, types);
+        data.setChoices(choices);
+        return data;
+    }
+
+    private static EvaluationData sampleEvaluation() {
+        List<String> questions = new ArrayList<>();
+        List<String> answers = new ArrayList<>();
+        List<String> userAnswers = new ArrayList<>();
+        List<String> correctness = new ArrayList<>();
+        List<String> feedback = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            questions.add("Explain dependency inversion in case " + i + ".");
+            answers.add("High-level modules depend on abstractions.");
+            userAnswers.add("Use interfaces between layers.");
+            correctness.add(i % 3 == 0 ? "0.5" : "1");
+            feedback.add("Mention who owns the abstraction.");
+        }
+        return new EvaluationData(questions, answers, userAnswers, correctness, feedback, 8);
+    }
+
+    private static FlashcardSet sampleFlashcards() {
+        List<Flashcard> cards = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cards.add(new Flashcard("What does layer " + i + " depend on?", "Only on inner layers."));
+        }
+        return new FlashcardSet("CSC207", cards);
+    }
+}
@@ -0,0 +1,100 @@
+package data_access;
+
+import com.google.gson.Gson;
+import entities.EvaluationData;
+import entities.Flashcard;
+import entities.FlashcardSet;
+import entities.TestData;
+import org.junit.jupiter.api.Test;
+import usecases.evaluate_test.EvaluateTestOutputData;
+import usecases.mock_test_generation.MockTestGenerationOutputData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonAdaptersTest {
+    private final Gson reflective = new Gson();
+    private final Gson shared = JsonAdapters.gson();
+
+    private static TestData sampleTest() {
+        TestData data = new TestData(
+                Arrays.asList("What is SRP?", "2 + 2?"),
+                Arrays.asList("One reason to change", "4"),
+                Arrays.asList("OE", "MC"));
+        data.setChoices(Arrays.asList(new ArrayList<>(), Arrays.asList("3", "4", "5")));
+        return data;
+    }
+
+    private static EvaluationData sampleEvaluation() {
+        return new EvaluationData(
+                Arrays.asList("Q1", "Q2"),
+                Arrays.asList("A1", "A2"),
+                Arrays.asList("A1", "wrong"),
+                Arrays.asList("1", "0"),
+                Arrays.asList("Good", "Review \"quotes\" and\nnewlines"),
+                1);
+    }
+
+    @Test
+    void writesTheSameJsonAsReflection() {
+        TestData test = sampleTest();
+        EvaluationData evaluation = sampleEvaluation();
+        FlashcardSet cards = new FlashcardSet("CSC207", List.of(
+                new Flashcard("Front é", "Back ✓"), new Flashcard("Q", "A")));
+        MockTestGenerationOutputData mock =
+                new MockTestGenerationOutputData(test, "course-1", test.getChoices());
+        EvaluateTestOutputData output = new EvaluateTestOutputData(evaluation);
+
+        assertEquals(reflective.toJson(test), shared.toJson(test));
+        assertEquals(reflective.toJson(evaluation), shared.toJson(evaluation));
+        assertEquals(reflective.toJson(cards), shared.toJson(cards));
+        assertEquals(reflective.toJson(mock), shared.toJson(mock));
+        assertEquals(reflective.toJson(output), shared.toJson(output));
+    }
+
+    @Test
+    void readsWhatReflectionWrote() {
+        String json = reflective.toJson(new MockTestGenerationOutputData(
+                sampleTest(), "course-1", sampleTest().getChoices()));
+
+        MockTestGenerationOutputData read = shared.fromJson(json, MockTestGenerationOutputData.class);
+
+        assertEquals(Arrays.asList("What is SRP?", "2 + 2?"), read.getQuestions());
+        assertEquals(Arrays.asList("OE", "MC"), read.getQuestionTypes());
+        assertEquals("course-1", read.getCourseId());
+        assertEquals(Arrays.asList("3", "4", "5"), read.getChoices().get(1));
+        assertEquals(json, shared.toJson(read));
+    }
+
+    @Test
+    void skipsUnknownFieldsAndToleratesMissingOnes() {
+        EvaluationData read = shared.fromJson(
+                "{\"questions\":[\"Q\"],\"extra\":{\"nested\":[1,2]},\"correctness\":[1]}",
+                EvaluationData.class);
+
+        assertEquals(List.of("Q"), read.getQuestions());
+        assertEquals(List.of("1"), read.getCorrectness());
+        assertNull(read.getFeedback());
+        assertEquals(0, read.getScore());
+    }
+
+    @Test
+    void readsFlashcardsWrittenWithOnlyFrontAndBack() {
+        FlashcardSet read = shared.fromJson(
+                "{\"courseName\":\"CSC207\",\"flashcards\":[{\"front\":\"F\",\"back\":\"B\"}]}",
+                FlashcardSet.class);
+
+        Flashcard card = read.getFlashcards().get(0);
+        assertEquals("F", card.getQuestion());
+        assertEquals("B", card.getAnswer());
+    }
+
+    @Test
+    void readsNullAsNull() {
+        assertNull(shared.fromJson("null", TestData.class));
+        assertEquals("null", shared.toJson(null, FlashcardSet.class));
+    }
+}
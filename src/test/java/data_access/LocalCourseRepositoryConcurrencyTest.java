@@ -0,0 +1,116 @@
+package data_access;
+
+import entities.Course;
+import entities.PDFFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for LocalCourseRepository under many concurrent threads.
+ * Every thread creates its own courses and also attaches files to a shared
+ * course, so a lost update shows up as a missing file.
+ */
+class LocalCourseRepositoryConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 25;
+
+    @TempDir
+    Path dir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("courses.json");
+    }
+
+    @Test
+    void snapshotMode_concurrentWritersAndReaders_loseNothing() throws Exception {
+        hammer(new LocalCourseRepository(file.toString()),
+                () -> new LocalCourseRepository(file.toString()));
+    }
+
+    @Test
+    void journaledMode_concurrentWritersAndReaders_loseNothing() throws Exception {
+        // A small threshold keeps the compactor busy while the writers run
+        JournaledCourseStorage storage = new JournaledCourseStorage(file, 8 * 1024);
+        hammer(new LocalCourseRepository(storage), () -> {
+            // Let the compactor settle before a second instance opens the files
+            storage.compactNow();
+            return new LocalCourseRepository(new JournaledCourseStorage(file, Long.MAX_VALUE));
+        });
+    }
+
+    @Test
+    void findAll_returnsSnapshotUnaffectedByLaterWrites() {
+        LocalCourseRepository repository = new LocalCourseRepository(file.toString());
+        repository.create(new Course("A", "First", ""));
+
+        List<Course> snapshot = repository.findAll();
+        repository.create(new Course("B", "Second", ""));
+        repository.renameCourse("A", "Renamed", "");
+
+        assertEquals(1, snapshot.size());
+        assertEquals("First", snapshot.get(0).getName());
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.add(new Course("C", "Third", "")));
+    }
+
+    private void hammer(LocalCourseRepository repository,
+            Supplier<LocalCourseRepository> reopen) throws Exception {
+        repository.create(new Course("SHARED", "Shared", ""));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ROUNDS; i++) {
+                    String id = "T" + thread + "-" + i;
+                    repository.create(new Course(id, "Course " + id, ""));
+                    Course own = repository.findById(id);
+                    own.setDescription("updated");
+                    own.addFile(new PDFFile("/tmp/" + id + ".pdf"));
+                    repository.update(own);
+                    assertTrue(repository.attachFile("SHARED", "/tmp/shared-" + id + ".pdf"));
+
+                    assertEquals(1, repository.getCourseMaterials(id).size());
+                    // Iterating must never see a torn or concurrently modified list
+                    for (Course course : repository.findAll()) {
+                        assertNotNull(course.getCourseId());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int expectedCourses = THREADS * ROUNDS + 1;
+        assertEquals(expectedCourses, repository.findAll().size());
+        assertEquals(THREADS * ROUNDS, repository.getCourseMaterials("SHARED").size());
+
+        LocalCourseRepository reopened = reopen.get();
+        assertEquals(expectedCourses, reopened.findAll().size());
+        assertEquals(THREADS * ROUNDS, reopened.getCourseMaterials("SHARED").size());
+        assertEquals("updated", reopened.findById("T3-7").getDescription());
+    }
+}
@@ -0,0 +1,218 @@
+package data_access;
+
+import entities.Course;
+import entities.PDFFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cached, file-backed LocalCourseRepository.
+ * Each test works on its own temporary courses file.
+ */
+class LocalCourseRepositoryTest {
+
+    private Path file;
+    private LocalCourseRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("courses", ".json");
+        Files.delete(file);
+        repository = new LocalCourseRepository(file.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void createThenFindById_returnsStoredCourse() {
+        Course course = new Course("CSC207", "Software Design", "OOP course");
+        course.addFile(new PDFFile("/tmp/week1.pdf"));
+        repository.create(course);
+
+        Course found = repository.findById("CSC207");
+
+        assertNotNull(found);
+        assertEquals("Software Design", found.getName());
+        assertEquals(1, found.getUploadedFiles().size());
+        assertNull(repository.findById("MAT137"));
+    }
+
+    @Test
+    void findById_returnsCopyThatDoesNotLeakIntoCache() {
+        repository.create(new Course("CSC207", "Software Design", "OOP course"));
+
+        Course found = repository.findById("CSC207");
+        found.setName("Changed without update");
+        found.addFile(new PDFFile("/tmp/week1.pdf"));
+
+        Course again = repository.findById("CSC207");
+        assertEquals("Software Design", again.getName());
+        assertTrue(again.getUploadedFiles().isEmpty());
+    }
+
+    @Test
+    void update_persistsAcrossNewRepositoryInstance() {
+        repository.create(new Course("CSC207", "Software Design", "OOP course"));
+        Course course = repository.findById("CSC207");
+        course.addFile(new PDFFile("/tmp/week1.pdf"));
+        repository.update(course);
+
+        LocalCourseRepository reopened = new LocalCourseRepository(file.toString());
+
+        assertEquals(1, reopened.getCourseMaterials("CSC207").size());
+        assertEquals("/tmp/week1.pdf",
+                reopened.getCourseMaterials("CSC207").get(0).getPath().toString());
+    }
+
+    @Test
+    void findAll_keepsInsertionOrderAndDeleteRemoves() {
+        repository.create(new Course("B", "Second", ""));
+        repository.create(new Course("A", "First", ""));
+        repository.create(new Course("C", "Third", ""));
+        repository.delete("A");
+
+        List<Course> all = repository.findAll();
+
+        assertEquals(2, all.size());
+        assertEquals("B", all.get(0).getCourseId());
+        assertEquals("C", all.get(1).getCourseId());
+    }
+
+    @Test
+    void externalChangeToFile_isPickedUpOnNextRead() throws IOException {
+        repository.create(new Course("CSC207", "Software Design", "OOP course"));
+
+        Files.writeString(file, "[{\"courseId\":\"MAT137\",\"name\":\"Calculus\","
+                + "\"description\":\"Proofs\",\"uploadedFiles\":[]}]");
+        // Make sure the stamp differs even on coarse-grained file systems
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+
+        assertNull(repository.findById("CSC207"));
+        assertEquals("Calculus", repository.findById("MAT137").getName());
+    }
+
+    @Test
+    void attachAndDetachFile_changeOnlyTheFileList() {
+        repository.create(new Course("CSC207", "Software Design", "OOP course"));
+
+        assertTrue(repository.attachFile("CSC207", "/tmp/week1.pdf"));
+        assertTrue(repository.attachFile("CSC207", "/tmp/week2.pdf"));
+        assertTrue(repository.detachFile("CSC207", "/tmp/week1.pdf"));
+
+        List<PDFFile> files = new LocalCourseRepository(file.toString())
+                .getCourseMaterials("CSC207");
+        assertEquals(1, files.size());
+        assertEquals("/tmp/week2.pdf", files.get(0).getPath().toString());
+    }
+
+    @Test
+    void attachAndDetachFile_unknownCourseOrFile_returnFalse() {
+        repository.create(new Course("CSC207", "Software Design", "OOP course"));
+
+        assertFalse(repository.attachFile("NOPE", "/tmp/week1.pdf"));
+        assertFalse(repository.detachFile("NOPE", "/tmp/week1.pdf"));
+        assertFalse(repository.detachFile("CSC207", "/tmp/missing.pdf"));
+    }
+
+    @Test
+    void renameCourse_keepsUploadedFiles() {
+        repository.create(new Course("CSC207", "Software Design", "OOP course"));
+        repository.attachFile("CSC207", "/tmp/week1.pdf");
+
+        assertTrue(repository.renameCourse("CSC207", "Design", "Patterns"));
+        assertFalse(repository.renameCourse("NOPE", "x", "y"));
+
+        Course renamed = repository.findById("CSC207");
+        assertEquals("Design", renamed.getName());
+        assertEquals("Patterns", renamed.getDescription());
+        assertEquals(1, renamed.getUploadedFiles().size());
+    }
+
+    @Test
+    void findAllPaged_beforeCacheIsFilled_stopsParsingOnceThePageIsFull() throws IOException {
+        // Anything after the requested page is garbage; it must never be parsed
+        Files.writeString(file, "[{\"courseId\":\"A\",\"name\":\"a\",\"description\":\"\"},"
+                + "{\"courseId\":\"B\",\"name\":\"b\",\"description\":\"\"},"
+                + "{\"courseId\":\"C\",\"name\":\"c\",\"description\":\"\"},"
+                + "this is not json");
+        LocalCourseRepository fresh = new LocalCourseRepository(file.toString());
+
+        List<Course> page = fresh.findAll(1, 2);
+
+        assertEquals(2, page.size());
+        assertEquals("B", page.get(0).getCourseId());
+        assertEquals("C", page.get(1).getCourseId());
+    }
+
+    @Test
+    void findAllPaged_afterCacheIsFilled_slicesInCatalogOrder() {
+        for (int i = 0; i < 10; i++) {
+            repository.create(new Course("C" + i, "Course " + i, ""));
+        }
+
+        List<Course> page = repository.findAll(8, 5);
+
+        assertEquals(2, page.size());
+        assertEquals("C8", page.get(0).getCourseId());
+        assertEquals("C9", page.get(1).getCourseId());
+        assertTrue(repository.findAll(20, 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repository.findAll(-1, 5));
+    }
+
+    @Test
+    void createIfAbsent_refusesTakenIdAndStartsAtVersionOne() {
+        Course course = new Course("CSC207", "Software Design", "OOP course");
+
+        assertTrue(repository.createIfAbsent(course));
+        assertEquals(1, course.getVersion());
+        assertFalse(repository.createIfAbsent(new Course("CSC207", "Duplicate", "")));
+        assertEquals("Software Design", repository.findById("CSC207").getName());
+    }
+
+    @Test
+    void updateIfVersion_rejectsStaleCopyAndPersistsVersion() {
+        repository.createIfAbsent(new Course("CSC207", "Software Design", "OOP course"));
+        Course first = repository.findById("CSC207");
+        Course second = repository.findById("CSC207");
+
+        first.setName("First editor");
+        assertTrue(repository.updateIfVersion(first, 1));
+        assertEquals(2, first.getVersion());
+
+        second.setName("Second editor");
+        assertFalse(repository.updateIfVersion(second, 1));
+        assertFalse(repository.updateIfVersion(new Course("NOPE", "", ""), 1));
+
+        // Other writes bump the version too
+        repository.attachFile("CSC207", "/tmp/week1.pdf");
+        Course reopened = new LocalCourseRepository(file.toString()).findById("CSC207");
+        assertEquals("First editor", reopened.getName());
+        assertEquals(3, reopened.getVersion());
+    }
+
+    @Test
+    void legacyRecordWithoutVersion_loadsAsVersionOne() throws IOException {
+        Files.writeString(file, "[{\"courseId\":\"MAT137\",\"name\":\"Calculus\","
+                + "\"description\":\"Proofs\",\"uploadedFiles\":[]}]");
+        LocalCourseRepository legacy = new LocalCourseRepository(file.toString());
+
+        assertEquals(1, legacy.findById("MAT137").getVersion());
+    }
+
+    @Test
+    void getCourseMaterials_unknownCourse_returnsEmptyList() {
+        assertTrue(repository.getCourseMaterials("NOPE").isEmpty());
+    }
+}
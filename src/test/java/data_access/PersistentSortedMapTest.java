@@ -0,0 +1,53 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedMapTest {
+
+    @Test
+    void randomEditsMatchTreeMapAndLeaveOldVersionsIntact() {
+        Random random = new Random(207);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            PersistentSortedMap<Integer, String> before = map;
+            List<String> beforeValues = new ArrayList<>(expected.values());
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, "v" + i);
+                map = map.put(key, "v" + i);
+            }
+            assertEquals(beforeValues, before.values(0, Integer.MAX_VALUE));
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), map.values(0, Integer.MAX_VALUE));
+        for (int key = 0; key < 500; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void pagesStartAtTheOffset() {
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty();
+        for (int i = 99; i >= 0; i--) {
+            map = map.put(i, "c" + i);
+        }
+
+        assertEquals(List.of("c0", "c1", "c2"), map.values(0, 3));
+        assertEquals(List.of("c40", "c41"), map.values(40, 2));
+        assertEquals(List.of("c98", "c99"), map.values(98, 10));
+        assertEquals(List.of(), map.values(100, 10));
+        assertEquals(List.of(), map.values(5, 0));
+    }
+}
@@ -0,0 +1,108 @@
+package data_access;
+
+import entities.Course;
+import entities.LectureNotes;
+import entities.PDFFile;
+import entities.TestData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static data_access.TestFixtures.NOW;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+    private static final Duration TTL = Duration.ofDays(30);
+
+    @TempDir
+    Path dir;
+
+    private ResponseCache cacheAt(Instant now, long diskBytes) {
+        return new ResponseCache(dir.resolve("cache"), 2, diskBytes, TTL,
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void responsesOutliveTheProcessUntilTheyExpire() {
+        ResponseCache cache = cacheAt(NOW, 1 << 20);
+        String key = ResponseCache.key("model", "prompt", "input");
+        assertNull(cache.get(key));
+        cache.put(key, "{\"answer\":42}");
+        assertEquals("{\"answer\":42}", cache.get(key));
+
+        ResponseCache restarted = cacheAt(NOW.plus(Duration.ofDays(29)), 1 << 20);
+        assertEquals("{\"answer\":42}", restarted.get(key));
+        assertEquals(1, restarted.getHits());
+
+        assertNull(cacheAt(NOW.plus(TTL), 1 << 20).get(key));
+        assertNotEquals(key, ResponseCache.key("model", "promptinput", ""));
+    }
+
+    @Test
+    void leastRecentlyUsedResponsesAreEvictedPastTheDiskLimit() {
+        String value = "x".repeat(1000);
+        ResponseCache cache = cacheAt(NOW, 2500);
+        cache.put("a", value);
+        cacheAt(NOW.plusSeconds(1), 2500).put("b", value);
+        // Reading "a" from disk makes "b" the least recently used
+        assertEquals(value, cacheAt(NOW.plusSeconds(2), 2500).get("a"));
+        cacheAt(NOW.plusSeconds(3), 2500).put("c", value);
+
+        ResponseCache fresh = cacheAt(NOW.plusSeconds(4), 2500);
+        assertNull(fresh.get("b"));
+        assertEquals(value, fresh.get("a"));
+        assertEquals(value, fresh.get("c"));
+    }
+
+    @Test
+    void cachedTestsAreReusedUntilTheMaterialsChangeOrFreshIsAsked() throws IOException {
+        Path slides = Files.writeString(dir.resolve("week1.pdf"), "%PDF week 1");
+        List<PDFFile> materials = List.of(new PDFFile(slides.toString()));
+        AtomicInteger generated = new AtomicInteger();
+        CachingTestDataAccess tests = new CachingTestDataAccess(
+                courseMaterials -> new TestData(List.of("Q" + generated.incrementAndGet()),
+                        List.of("A"), List.of("Short Answer")),
+                cacheAt(NOW, 1 << 20), "gemini/v1");
+
+        assertEquals(List.of("Q1"), tests.getTestData(materials).getQuestions());
+        assertEquals(List.of("Q1"), tests.getTestData(materials).getQuestions());
+        assertEquals(List.of("Q2"), tests.regenerateTestData(materials).getQuestions());
+        assertEquals(List.of("Q2"), tests.getTestData(materials).getQuestions());
+
+        Files.writeString(slides, "%PDF week 1, corrected");
+        Files.setLastModifiedTime(slides, FileTime.from(NOW.plusSeconds(60)));
+        assertEquals(List.of("Q3"), tests.getTestData(materials).getQuestions());
+        assertEquals(3, generated.get());
+    }
+
+    @Test
+    void cachedNotesKeepTheirContentAndGenerationTime() throws Exception {
+        LocalDateTime generatedAt = LocalDateTime.of(2025, 5, 31, 12, 0);
+        AtomicInteger generated = new AtomicInteger();
+        CachingNotesGateway notes = new CachingNotesGateway(
+                (course, topic) -> new LectureNotes(course.getCourseId(), topic,
+                        "notes " + generated.incrementAndGet(), generatedAt),
+                cacheAt(NOW, 1 << 20), "gemini/v1");
+        Course course = new Course("CSC207", "Software Design", "");
+
+        notes.generateNotes(course, "SOLID");
+        LectureNotes cached = new CachingNotesGateway((c, t) -> {
+                    throw new AssertionError("notes should be cached");
+                },
+                cacheAt(NOW, 1 << 20), "gemini/v1").generateNotes(course, "SOLID");
+        assertEquals("notes 1", cached.getContent());
+        assertEquals(generatedAt, cached.getGeneratedAt());
+        assertEquals("notes 2", notes.regenerateNotes(course, "SOLID").getContent());
+    }
+}
@@ -0,0 +1,102 @@
+package data_access;
+
+import entities.CourseStats;
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsTrackingTimelineRepositoryTest {
+    private final UUID course = UUID.randomUUID();
+
+    private TimelineEvent event(TimelineEventType type, int minute, Double score) {
+        TimelineEvent event = new TimelineEvent(course, UUID.randomUUID(), type);
+        event.setOccurredAt(Instant.parse("2025-01-01T10:00:00Z").plusSeconds(60L * minute));
+        event.setScore(score);
+        return event;
+    }
+
+    /**
+     * Counts history scans so tests can tell materialized answers apart.
+     */
+    private static class CountingRepository extends InMemoryTimelineRepository {
+        int scans;
+
+        @Override
+        public synchronized List<TimelineEvent> findByCourseNewestFirst(UUID courseId) {
+            scans++;
+            return super.findByCourseNewestFirst(courseId);
+        }
+    }
+
+    @Test
+    void statsAreBuiltOnceAndThenUpdatedOnEachSave() {
+        CountingRepository events = new CountingRepository();
+        StatsTrackingTimelineRepository repository = new StatsTrackingTimelineRepository(events);
+        repository.save(event(TimelineEventType.NOTES_GENERATED, 1, null));
+        repository.save(event(TimelineEventType.QUIZ_SUBMITTED, 2, 60.0));
+
+        CourseStats first = repository.getStats(course);
+        assertEquals(1, events.scans);
+        assertEquals(1, first.getNotesGenerated());
+        assertEquals(Double.valueOf(60.0), first.getAverageScore());
+
+        repository.save(event(TimelineEventType.QUIZ_SUBMITTED, 3, 90.0));
+        repository.saveAll(List.of(event(TimelineEventType.FLASHCARDS_GENERATED, 5, null),
+                event(TimelineEventType.QUIZ_GENERATED, 4, null)));
+        CourseStats stats = repository.getStats(course);
+
+        assertEquals(1, events.scans, "later queries should not read the history");
+        assertEquals(2, stats.getQuizzesSubmitted());
+        assertEquals(1, stats.getQuizzesGenerated());
+        assertEquals(1, stats.getFlashcardSetsGenerated());
+        assertEquals(Double.valueOf(75.0), stats.getAverageScore());
+        assertEquals(Double.valueOf(90.0), stats.getBestScore());
+        assertEquals(Double.valueOf(60.0), stats.getWorstScore());
+        assertEquals(60.0 + CourseStats.RECENT_WEIGHT * 30.0, stats.getRecentAverageScore(), 1e-9);
+        assertEquals(Instant.parse("2025-01-01T10:05:00Z"), stats.getLastActivity());
+        // Snapshots do not change afterwards
+        assertEquals(1, first.getQuizzesSubmitted());
+    }
+
+    @Test
+    void materializedStatsMatchAFullScan() {
+        StatsTrackingTimelineRepository repository =
+                new StatsTrackingTimelineRepository(new InMemoryTimelineRepository());
+        InMemoryTimelineRepository plain = new InMemoryTimelineRepository();
+        repository.getStats(course);
+        double[] scores = {40, 85.5, 70, 100, 55};
+        for (int i = 0; i < scores.length; i++) {
+            TimelineEvent quiz = event(TimelineEventType.QUIZ_SUBMITTED, i, scores[i]);
+            repository.save(quiz);
+            plain.save(quiz);
+        }
+        TimelineEvent unscored = event(TimelineEventType.QUIZ_SUBMITTED, 9, null);
+        repository.save(unscored);
+        plain.save(unscored);
+
+        CourseStats tracked = repository.getStats(course);
+        CourseStats scanned = plain.getStats(course);
+
+        assertEquals(6, tracked.getQuizzesSubmitted());
+        assertEquals(scanned.getAverageScore(), tracked.getAverageScore());
+        assertEquals(scanned.getRecentAverageScore(), tracked.getRecentAverageScore());
+        assertEquals(scanned.getWorstScore(), tracked.getWorstScore());
+    }
+
+    @Test
+    void courseWithoutEventsHasEmptyStats() {
+        CourseStats stats = new StatsTrackingTimelineRepository(new InMemoryTimelineRepository())
+                .getStats(course);
+
+        assertEquals(0, stats.getQuizzesSubmitted());
+        assertFalse(stats.hasScores());
+        assertNull(stats.getAverageScore());
+        assertNull(stats.getLastActivity());
+    }
+}
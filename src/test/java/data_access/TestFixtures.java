@@ -0,0 +1,31 @@
+package data_access;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The fixed instant and the timeline events the data access tests share.
+ */
+final class TestFixtures {
+    static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Creates notes that occurred some days before {@link #NOW}, with a
+     * snippet and a few kilobytes of text, so retention has payloads to move.
+     */
+    static TimelineEvent notes(UUID course, String title, int daysAgo) {
+        TimelineEvent event = new TimelineEvent(course, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        event.setTitle(title);
+        event.setSnippet("snippet of " + title);
+        event.setOccurredAt(NOW.minus(Duration.ofDays(daysAgo)));
+        event.setFullNotesText(("notes for " + title + ". ").repeat(50));
+        return event;
+    }
+}
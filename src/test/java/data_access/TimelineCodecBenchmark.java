@@ -0,0 +1,87 @@
+package data_access;
+
+import entities.EvaluationData;
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rough throughput and size comparison of the timeline record codecs.
+ * Not a unit test; run its main method by hand:
+ * <pre>
+ *   java -cp target/classes:target/test-classes:&lt;gson jar&gt; data_access.TimelineCodecBenchmark
+ * </pre>
+ * Each codec encodes and decodes the same records after a warm-up pass,
+ * so the numbers are indicative rather than JMH-grade.
+ */
+public final class TimelineCodecBenchmark {
+    private static final int RECORDS = 20_000;
+    private static final int ROUNDS = 5;
+
+    private TimelineCodecBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<TimelineEventData> records = sampleRecords();
+        run("json", new JsonLinesRecordCodec(), records);
+        run("binary", new BinaryRecordCodec(), records);
+        // Report the warmed-up numbers
+        run("json", new JsonLinesRecordCodec(), records);
+        run("binary", new BinaryRecordCodec(), records);
+    }
+
+    private static void run(String name, TimelineRecordCodec codec, List<TimelineEventData> records)
+            throws IOException {
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        int bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (TimelineEventData data : records) {
+                out.write(codec.encode(data));
+            }
+            encodeNanos += System.nanoTime() - start;
+            byte[] file = out.toByteArray();
+            bytes = file.length;
+
+            start = System.nanoTime();
+            int[] decoded = {0};
+            codec.decodeAll(new ByteArrayInputStream(file), data -> decoded[0]++);
+            decodeNanos += System.nanoTime() - start;
+            if (decoded[0] != records.size()) {
+                throw new IllegalStateException(name + " decoded " + decoded[0] + " records");
+            }
+        }
+        double total = (double) RECORDS * ROUNDS;
+        System.out.printf("%-6s encode %,10.0f rec/s  decode %,10.0f rec/s  size %,9d bytes (%.0f B/rec)%n",
+                name, total / (encodeNanos / 1e9), total / (decodeNanos / 1e9), bytes,
+                (double) bytes / RECORDS);
+    }
+
+    private static List<TimelineEventData> sampleRecords() {
+        UUID course = UUID.randomUUID();
+        Instant start = Instant.parse("2025-01-01T10:00:00Z");
+        TimelineEventType[] types = TimelineEventType.values();
+        List<TimelineEventData> records = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            TimelineEvent event = new TimelineEvent(course, UUID.randomUUID(), types[i % types.length]);
+            event.setOccurredAt(start.plusMillis(37L * i));
+            event.setTitle("CSC207 lecture " + i);
+            event.setSnippet("Clean architecture separates entities, use cases and adapters");
+            event.setNumQuestions(10);
+            event.setScore(80.0 + i % 20);
+            event.setEvaluationData(new EvaluationData(List.of("Q"), List.of("A"), List.of("A"),
+                    List.of("1"), List.of("Good"), 1));
+            records.add(new TimelineEventData(event));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,101 @@
+package data_access;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineFeedTest {
+    private static final Instant START = Instant.parse("2025-01-01T10:00:00Z");
+
+    private static TimelineEvent event(UUID course, int minute) {
+        TimelineEvent event = new TimelineEvent(course, UUID.randomUUID(),
+                TimelineEventType.NOTES_GENERATED);
+        event.setTitle(course + "@" + minute);
+        event.setOccurredAt(START.plusSeconds(60L * minute));
+        return event;
+    }
+
+    /**
+     * Counts the events handed out through paged queries.
+     */
+    private static class CountingRepository extends InMemoryTimelineRepository {
+        int eventsRead;
+
+        @Override
+        public synchronized TimelinePage findByCourse(UUID courseId, long beforeCursor, int limit) {
+            TimelinePage page = super.findByCourse(courseId, beforeCursor, limit);
+            eventsRead += page.getEvents().size();
+            return page;
+        }
+    }
+
+    @Test
+    void mergesCoursesNewestFirstAcrossPages() {
+        InMemoryTimelineRepository repository = new InMemoryTimelineRepository();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        List<Integer> minutes = new ArrayList<>();
+        for (int minute = 0; minute < 30; minute++) {
+            UUID course = minute % 3 == 0 ? a : minute % 5 == 0 ? b : c;
+            repository.save(event(course, minute));
+            minutes.add(0, minute);
+        }
+
+        TimelineFeed feed = TimelineFeed.allCourses(repository, 4);
+        List<Integer> merged = new ArrayList<>();
+        while (feed.hasMore()) {
+            for (TimelineEvent event : feed.next(7)) {
+                merged.add((int) (event.getOccurredAt().getEpochSecond() - START.getEpochSecond()) / 60);
+            }
+        }
+
+        assertEquals(minutes, merged);
+        assertTrue(feed.next(7).isEmpty());
+    }
+
+    @Test
+    void firstPageReadsLittleMoreThanItShows() {
+        CountingRepository repository = new CountingRepository();
+        for (int course = 0; course < 20; course++) {
+            UUID courseId = UUID.randomUUID();
+            for (int minute = 0; minute < 100; minute++) {
+                repository.save(event(courseId, course * 1000 + minute));
+            }
+        }
+
+        List<TimelineEvent> page = TimelineFeed.allCourses(repository, 50).next(10);
+
+        assertEquals(10, page.size());
+        assertEquals(START.plusSeconds(60L * 19099), page.get(0).getOccurredAt());
+        assertTrue(repository.eventsRead < 40,
+                "read " + repository.eventsRead + " of 2000 events for a page of 10");
+    }
+
+    @Test
+    void iterateNewestFirstIsNotShiftedByNewSaves() {
+        InMemoryTimelineRepository repository = new InMemoryTimelineRepository();
+        UUID course = UUID.randomUUID();
+        for (int minute = 0; minute < 5; minute++) {
+            repository.save(event(course, minute));
+        }
+
+        var events = repository.iterateNewestFirst(course, 2);
+        assertEquals(START.plusSeconds(240), events.next().getOccurredAt());
+        // A newer save does not shift the older events still to come
+        repository.save(event(course, 9));
+        int remaining = 0;
+        while (events.hasNext()) {
+            events.next();
+            remaining++;
+        }
+        assertEquals(4, remaining);
+    }
+}
@@ -0,0 +1,140 @@
+package data_access;
+
+import entities.Flashcard;
+import entities.FlashcardSet;
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static data_access.TestFixtures.NOW;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineMaintenanceTest {
+    private static final TimelineRetentionPolicy POLICY =
+            new TimelineRetentionPolicy(Duration.ofDays(90), Duration.ofDays(365));
+
+    private final UUID course = UUID.randomUUID();
+    @TempDir
+    Path dir;
+
+    private TimelineEvent notes(String title, int daysAgo) {
+        return TestFixtures.notes(course, title, daysAgo);
+    }
+
+    private static List<String> titles(List<TimelineEvent> events) {
+        return events.stream().map(TimelineEvent::getTitle).toList();
+    }
+
+    @Test
+    void oldPayloadsAreSummarizedAndVeryOldEventsArchived() {
+        Path log = dir.resolve("timeline.jsonl");
+        FileTimelineRepository repository =
+                new FileTimelineRepository(log.toString(), FileTimelineRepository.StorageMode.LOG);
+        repository.save(notes("ancient", 400));
+        repository.save(notes("old", 120));
+        repository.save(notes("recent", 5));
+        TimelineMaintenance maintenance =
+                new TimelineMaintenance(repository, POLICY, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        RetentionReport report = maintenance.runNow();
+
+        assertEquals(1, report.getEventsSummarized());
+        assertEquals(1, report.getEventsArchived());
+        assertTrue(report.getBytesReclaimed() > 0);
+        assertTrue(report.getArchiveBytesWritten() > 0);
+        assertEquals(report.getBytesReclaimed(), maintenance.getBytesReclaimed());
+        assertEquals(List.of("recent", "old"), titles(repository.findByCourseNewestFirst(course)));
+
+        // The summary survives reopening and the payload comes from the archive
+        FileTimelineRepository reopened =
+                new FileTimelineRepository(log.toString(), FileTimelineRepository.StorageMode.LOG);
+        TimelineEvent old = reopened.findByCourseNewestFirst(course).get(1);
+        assertTrue(old.isPayloadsArchived());
+        assertEquals("snippet of old", old.getSnippet());
+        assertTrue(old.getFullNotesText().startsWith("notes for old."));
+        assertFalse(reopened.findByCourseNewestFirst(course).get(0).isPayloadsArchived());
+
+        List<TimelineEvent> archived = reopened.findArchivedByCourse(course);
+        assertEquals(List.of("ancient"), titles(archived));
+        assertTrue(archived.get(0).getFullNotesText().startsWith("notes for ancient."));
+
+        // Nothing else is old enough, so a second run changes nothing
+        RetentionReport again = new TimelineMaintenance(reopened, POLICY,
+                Clock.fixed(NOW, ZoneOffset.UTC)).runNow();
+        assertEquals(0, again.getEventsSummarized() + again.getEventsArchived());
+        assertEquals(0, again.getArchiveBytesWritten());
+    }
+
+    @Test
+    void summarizedEventsMoveOnToTheArchiveInShardedBinaryMode() {
+        String shards = dir.resolve("timeline").toString();
+        FileTimelineRepository repository = new FileTimelineRepository(shards,
+                FileTimelineRepository.StorageMode.SHARDED, FileTimelineRepository.RecordFormat.BINARY);
+        TimelineEvent cards = new TimelineEvent(course, UUID.randomUUID(), TimelineEventType.FLASHCARDS_GENERATED);
+        cards.setTitle("cards");
+        cards.setOccurredAt(NOW.minus(Duration.ofDays(200)));
+        cards.setFlashcardData(new FlashcardSet("CSC207", List.of(new Flashcard("Q?", "A"))));
+        repository.save(cards);
+        repository.applyRetention(POLICY, NOW);
+
+        FileTimelineRepository reopened = new FileTimelineRepository(shards,
+                FileTimelineRepository.StorageMode.SHARDED, FileTimelineRepository.RecordFormat.BINARY);
+        TimelineEvent summarized = reopened.findByCourseNewestFirst(course).get(0);
+        assertTrue(summarized.isPayloadsArchived());
+        assertEquals("Q?", summarized.getFlashcardData().getFlashcards().get(0).getQuestion());
+        assertTrue(reopened.findArchivedByCourse(course).isEmpty(), "summarized events are still live");
+
+        // Half a year later the event leaves the timeline; its archived copy is kept
+        RetentionReport report = reopened.applyRetention(POLICY, NOW.plus(Duration.ofDays(200)));
+        assertEquals(1, report.getEventsArchived());
+        assertEquals(0, report.getArchiveBytesWritten());
+        assertTrue(reopened.findByCourseNewestFirst(course).isEmpty());
+        assertEquals(List.of("cards"), titles(reopened.findArchivedByCourse(course)));
+    }
+
+    @Test
+    void runsThroughTheDecoratorsAndRewritesCoursesThatAreNotLoaded() {
+        String shards = dir.resolve("timeline").toString();
+        String index = dir.resolve("search").toString();
+        UUID other = UUID.randomUUID();
+        ITimelineRepository saving = new SearchIndexingTimelineRepository(new FileTimelineRepository(shards,
+                FileTimelineRepository.StorageMode.SHARDED), index);
+        saving.save(notes("ancient", 400));
+        saving.save(notes("recent", 5));
+        TimelineEvent elsewhere = notes("elsewhere ancient", 400);
+        saving.saveAll(List.of(copyTo(elsewhere, other)));
+
+        FileTimelineRepository files = new FileTimelineRepository(shards,
+                FileTimelineRepository.StorageMode.SHARDED);
+        ITimelineRepository repository = new StatsTrackingTimelineRepository(
+                new SearchIndexingTimelineRepository(files, index));
+        assertEquals(2, repository.getStats(course).getNotesGenerated());
+
+        // Only course is loaded; the other course is read and rewritten from its shard
+        RetentionReport report = new TimelineMaintenance(repository, POLICY,
+                Clock.fixed(NOW, ZoneOffset.UTC)).runNow();
+
+        assertEquals(2, report.getEventsArchived());
+        assertEquals(1, repository.getStats(course).getNotesGenerated(), "stats are rebuilt");
+        assertEquals(List.of("recent"), titles(repository.findByCourseNewestFirst(course)));
+        assertTrue(repository.search("ancient", 10).isEmpty(), "archived events leave the index");
+        assertEquals(1, repository.search("recent", 10).size());
+        assertEquals(List.of("elsewhere ancient"), titles(repository.findArchivedByCourse(other)));
+        assertTrue(new FileTimelineRepository(shards, FileTimelineRepository.StorageMode.SHARDED)
+                .findByCourseNewestFirst(other).isEmpty());
+    }
+
+    private static TimelineEvent copyTo(TimelineEvent event, UUID courseId) {
+        TimelineEvent copy = FileTimelineRepository.copyToCourse(event, courseId);
+        copy.setFullNotesText(event.getFullNotesText());
+        return copy;
+    }
+}
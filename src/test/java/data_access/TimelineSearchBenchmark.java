@@ -0,0 +1,65 @@
+package data_access;
+
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Rough indexing and query timings of the timeline search index.
+ * Not a unit test; run its main method by hand:
+ * <pre>
+ *   java -cp target/classes:target/test-classes:&lt;gson jar&gt; data_access.TimelineSearchBenchmark
+ * </pre>
+ * The events are notes of a few hundred words drawn from a Zipf-like
+ * vocabulary, added in batches like group commits.
+ */
+public final class TimelineSearchBenchmark {
+    private static final int EVENTS = 100_000;
+    private static final int BATCH = 1_000;
+    private static final int WORDS_PER_EVENT = 200;
+    private static final int VOCABULARY = 20_000;
+    private static final String[] QUERIES = {"w17 w523", "w3", "w9000 w12 w77", "w19999"};
+
+    private TimelineSearchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        UUID[] courses = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+        TimelineSearchIndex index = new TimelineSearchIndex();
+        long start = System.nanoTime();
+        for (int added = 0; added < EVENTS; added += BATCH) {
+            List<TimelineEvent> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                TimelineEvent event = new TimelineEvent(courses[i % courses.length], UUID.randomUUID(),
+                        TimelineEventType.NOTES_GENERATED);
+                StringBuilder text = new StringBuilder();
+                for (int w = 0; w < WORDS_PER_EVENT; w++) {
+                    // Low word numbers are far more common, as in real text
+                    int word = (int) Math.pow(VOCABULARY, random.nextDouble());
+                    text.append('w').append(word).append(' ');
+                }
+                event.setFullNotesText(text.toString());
+                batch.add(event);
+            }
+            index.add(batch);
+        }
+        System.out.printf("indexed %,d events in %,d ms, %d segments%n",
+                index.size(), (System.nanoTime() - start) / 1_000_000, index.segmentCount());
+
+        for (int round = 0; round < 3; round++) {
+            for (String query : QUERIES) {
+                long queryStart = System.nanoTime();
+                int hits = index.search(query, 20).size();
+                if (round == 2) {
+                    System.out.printf("%-16s %2d hits in %6.2f ms%n", query, hits,
+                            (System.nanoTime() - queryStart) / 1e6);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package data_access;
+
+import entities.Flashcard;
+import entities.FlashcardSet;
+import entities.TestData;
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineSearchIndexTest {
+    private final UUID course = UUID.randomUUID();
+    @TempDir
+    Path dir;
+
+    private TimelineEvent notes(String title, String text) {
+        TimelineEvent event = new TimelineEvent(course, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        event.setTitle(title);
+        event.setFullNotesText(text);
+        return event;
+    }
+
+    private static List<String> titles(List<TimelineSearchHit> hits) {
+        return hits.stream().map(h -> h.getEvent().getTitle()).collect(Collectors.toList());
+    }
+
+    @Test
+    void ranksByBm25AndSearchesCardsAndQuizQuestions() {
+        InMemoryTimelineRepository repository = new InMemoryTimelineRepository();
+        repository.save(notes("Graphs", "Dijkstra finds shortest paths. Dijkstra needs non-negative weights."));
+        repository.save(notes("Sorting", "Merge sort and quick sort; Dijkstra is not about sorting."));
+        repository.save(notes("Trees", "Binary search trees keep keys in order."));
+        TimelineEvent cards = new TimelineEvent(course, UUID.randomUUID(), TimelineEventType.FLASHCARDS_GENERATED);
+        cards.setFlashcardData(new FlashcardSet("CSC207",
+                List.of(new Flashcard("What is a heap?", "A complete binary tree"))));
+        repository.save(cards);
+        TimelineEvent quiz = new TimelineEvent(course, UUID.randomUUID(), TimelineEventType.QUIZ_GENERATED);
+        quiz.setTestData(new TestData(List.of("Explain amortized analysis"), List.of("..."), List.of("OPEN")));
+        repository.save(quiz);
+        SearchIndexingTimelineRepository searchable =
+                new SearchIndexingTimelineRepository(repository, new TimelineSearchIndex());
+
+        assertEquals(List.of("Graphs", "Sorting"), titles(searchable.search("DIJKSTRA!", 10)));
+        assertEquals(1, searchable.search("dijkstra", 1).size());
+        assertSame(cards, searchable.search("heap", 10).get(0).getEvent());
+        assertSame(quiz, searchable.search("amortized", 10).get(0).getEvent());
+        assertTrue(searchable.search("the of and", 10).isEmpty(), "stop words match nothing");
+        // The scanning default ranks the same way as the index
+        assertEquals(List.of("Graphs", "Sorting"), titles(repository.search("dijkstra", 10)));
+    }
+
+    @Test
+    void savesAreIndexedIntoSegmentsThatMergeAndSurviveReopening() throws IOException {
+        SearchIndexingTimelineRepository repository = new SearchIndexingTimelineRepository(
+                new InMemoryTimelineRepository(), dir.toString());
+        for (int i = 0; i < 25; i++) {
+            repository.save(notes("Lecture " + i, "topic" + i + " recursion"));
+        }
+
+        TimelineSearchIndex reopened = new TimelineSearchIndex(dir);
+        assertFalse(reopened.isNew());
+        assertEquals(25, reopened.size());
+        // Two merged segments of ten plus five single-event ones
+        assertEquals(7, reopened.segmentCount());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(7, files.filter(p -> p.toString().endsWith(".seg")).count(),
+                    "merged segment files are deleted");
+        }
+        List<TimelineSearchIndex.Match> matches = reopened.search("topic17", 5);
+        assertEquals(1, matches.size());
+        assertEquals(25, reopened.search("recursion", 50).size());
+    }
+
+    @Test
+    void newIndexIsBuiltFromStoredEventsAndUnreadableIndexIsRebuilt() throws IOException {
+        InMemoryTimelineRepository stored = new InMemoryTimelineRepository();
+        stored.save(notes("Old notes", "polymorphism and interfaces"));
+        assertEquals(1, new SearchIndexingTimelineRepository(stored, new TimelineSearchIndex(dir))
+                .search("polymorphism", 5).size());
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path segment : files.filter(p -> p.toString().endsWith(".seg")).collect(Collectors.toList())) {
+                Files.write(segment, new byte[] {1, 2, 3});
+            }
+        }
+        assertTrue(new TimelineSearchIndex(dir).isNew());
+        assertEquals(1, new SearchIndexingTimelineRepository(stored, new TimelineSearchIndex(dir))
+                .search("interfaces", 5).size());
+    }
+
+    @Test
+    void rebuildRunsInTheBackgroundAndResumesWhereItStopped() {
+        InMemoryTimelineRepository stored = new InMemoryTimelineRepository();
+        UUID other = UUID.randomUUID();
+        stored.save(notes("Old notes", "polymorphism"));
+        TimelineEvent elsewhere = new TimelineEvent(other, UUID.randomUUID(), TimelineEventType.NOTES_GENERATED);
+        elsewhere.setTitle("Other course");
+        elsewhere.setFullNotesText("polymorphism elsewhere");
+        stored.save(elsewhere);
+        List<Runnable> rebuilds = new ArrayList<>();
+        SearchIndexingTimelineRepository repository = new SearchIndexingTimelineRepository(
+                stored, new TimelineSearchIndex(dir), rebuilds::add);
+
+        // Nothing was read yet; saves to a course waiting for the rebuild are left to it
+        assertFalse(repository.isSearchComplete());
+        assertTrue(repository.search("polymorphism", 5).isEmpty());
+        repository.save(notes("New notes", "polymorphism again"));
+        assertTrue(repository.search("polymorphism", 5).isEmpty());
+
+        // A restart before the rebuild ran picks it up again
+        SearchIndexingTimelineRepository reopened = new SearchIndexingTimelineRepository(
+                stored, new TimelineSearchIndex(dir));
+        assertTrue(reopened.isSearchComplete());
+        assertEquals(3, reopened.search("polymorphism", 5).size(), "no event is indexed twice");
+        assertEquals(1, rebuilds.size());
+    }
+
+    @Test
+    void deletedEventsAreNotRankedAndStayDeletedAfterReopening() throws IOException {
+        SearchIndexingTimelineRepository repository = new SearchIndexingTimelineRepository(
+                new InMemoryTimelineRepository(), dir.toString());
+        TimelineEvent best = notes("Graphs", "Dijkstra Dijkstra Dijkstra shortest paths");
+        repository.save(best);
+        TimelineEvent sorting = notes("Sorting", "Dijkstra is not about sorting");
+        repository.save(sorting);
+        repository.save(notes("Trees", "binary search trees"));
+
+        assertTrue(repository.delete(best));
+
+        assertEquals(List.of("Sorting"), titles(repository.search("dijkstra", 1)),
+                "the limit counts only events still stored");
+        TimelineSearchIndex reopened = new TimelineSearchIndex(dir);
+        assertEquals(2, reopened.size());
+        List<TimelineSearchIndex.Match> matches = reopened.search("dijkstra", 5);
+        assertEquals(1, matches.size());
+        assertEquals(sorting.getOccurredAt(), matches.get(0).occurredAt,
+                "matches say where their event is stored");
+    }
+
+    @Test
+    void mergeLeavesDeletedDocumentsBehind() throws IOException {
+        TimelineSearchIndex index = new TimelineSearchIndex(dir);
+        TimelineEvent deleted = null;
+        for (int i = 0; i < TimelineSearchIndex.MERGE_FACTOR; i++) {
+            TimelineEvent first = notes("A" + i, "shared words");
+            index.add(List.of(first, notes("B" + i, "shared words")));
+            if (i == 0) {
+                deleted = first;
+                index.delete(List.of(deleted));
+            }
+        }
+
+        TimelineSearchIndex reopened = new TimelineSearchIndex(dir);
+        assertEquals(1, reopened.segmentCount());
+        assertEquals(2 * TimelineSearchIndex.MERGE_FACTOR - 1, reopened.size());
+        List<TimelineSearchIndex.Match> matches = reopened.search("shared", 50);
+        assertEquals(2 * TimelineSearchIndex.MERGE_FACTOR - 1, matches.size());
+        for (TimelineSearchIndex.Match match : matches) {
+            assertNotEquals(deleted.getContentId(), match.contentId);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package usecases.course_stats;
+
+import data_access.InMemoryTimelineRepository;
+import entities.Course;
+import entities.CourseStats;
+import entities.TimelineEvent;
+import entities.TimelineEventType;
+import org.junit.jupiter.api.Test;
+import usecases.ICourseRepository;
+import usecases.Timeline.CourseIdMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CourseStatsInteractor, with fake repositories and a
+ * recording presenter.
+ */
+public class CourseStatsInteractorTest {
+
+    private static class FakeCourseRepository implements ICourseRepository {
+        final List<Course> courses = new ArrayList<>();
+
+        @Override
+        public void create(Course course) {
+            courses.add(course);
+        }
+
+        @Override
+        public void update(Course course) {
+        }
+
+        @Override
+        public Course findById(String courseId) {
+            return null;
+        }
+
+        @Override
+        public List<Course> findAll() {
+            return new ArrayList<>(courses);
+        }
+
+        @Override
+        public void delete(String courseId) {
+        }
+    }
+
+    @Test
+    void presentsStatsForEveryCourseInOrder() {
+        FakeCourseRepository courses = new FakeCourseRepository();
+        String unlogged = "NEW" + UUID.randomUUID();
+        courses.create(new Course("CSC207", "Software Design", ""));
+        courses.create(new Course(unlogged, "Never studied", ""));
+
+        InMemoryTimelineRepository timeline = new InMemoryTimelineRepository();
+        TimelineEvent quiz = new TimelineEvent(CourseIdMapper.getUuidForCourseId("CSC207"),
+                UUID.randomUUID(), TimelineEventType.QUIZ_SUBMITTED);
+        quiz.setScore(80.0);
+        timeline.save(quiz);
+
+        CourseStatsOutputData[] presented = new CourseStatsOutputData[1];
+        new CourseStatsInteractor(courses, timeline, outputData -> presented[0] = outputData)
+                .loadStats();
+
+        assertEquals(List.of("CSC207", unlogged),
+                new ArrayList<>(presented[0].getStatsByCourse().keySet()));
+        CourseStats csc207 = presented[0].getStatsByCourse().get("CSC207");
+        assertEquals(1, csc207.getQuizzesSubmitted());
+        assertEquals(Double.valueOf(80.0), csc207.getBestScore());
+        assertNull(presented[0].getStatsByCourse().get(unlogged).getLastActivity());
+        assertFalse(CourseIdMapper.hasUuid(unlogged), "loading stats should not create mappings");
+    }
+}
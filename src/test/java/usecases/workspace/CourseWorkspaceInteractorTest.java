@@ -1,6 +1,7 @@
 package usecases.workspace;
 
 import entities.Course;
+import entities.PDFFile;
 import org.junit.jupiter.api.Test;
 import usecases.ICourseRepository;
 import usecases.dashboard.CourseDashboardOutputBoundary;
@@ -362,4 +363,75 @@ public class CourseWorkspaceInteractorTest {
         assertEquals("CSC207", workspacePresenter.lastWorkspaceData.getCourse().getCourseId());
         assertNull(workspacePresenter.lastErrorMessage, "No error should be reported");
     }
+
+    @Test
+    void updateCourse_staleVersion_throwsRuntimeExceptionAndKeepsStoredCourse() {
+        FakeCourseRepository repo = new FakeCourseRepository();
+        WorkspacePresenterMock workspacePresenter = new WorkspacePresenterMock();
+        DashboardPresenterMock dashboardPresenter = new DashboardPresenterMock();
+
+        Course existingCourse = new Course("CSC207", "Changed Elsewhere", "desc");
+        existingCourse.setVersion(3);
+        repo.courses.add(existingCourse);
+
+        CourseWorkspaceInteractor interactor =
+                new CourseWorkspaceInteractor(repo, workspacePresenter, dashboardPresenter);
+
+        Course staleEdit = new Course("CSC207", "Stale Name", "desc");
+        staleEdit.setVersion(2);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> interactor.updateCourse(staleEdit),
+                "updateCourse based on an outdated version should throw RuntimeException");
+        assertTrue(exception.getMessage().contains("changed by someone else"));
+        assertEquals("Changed Elsewhere", repo.courses.get(0).getName());
+        assertNull(workspacePresenter.lastWorkspaceData, "Workspace view should not be shown");
+    }
+
+    @Test
+    void updateCourse_unversionedEditKeepsLosingRaces_givesUpAfterThreeAttempts() {
+        int[] attempts = {0};
+        FakeCourseRepository repo = new FakeCourseRepository() {
+            @Override
+            public boolean updateIfVersion(Course course, long expectedVersion) {
+                // Another writer always gets in first
+                attempts[0]++;
+                return false;
+            }
+        };
+        WorkspacePresenterMock workspacePresenter = new WorkspacePresenterMock();
+        repo.courses.add(new Course("CSC207", "Software Design", "desc"));
+
+        CourseWorkspaceInteractor interactor = new CourseWorkspaceInteractor(
+                repo, workspacePresenter, new DashboardPresenterMock());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> interactor.updateCourse(new Course("CSC207", "New Name", "desc")));
+        assertTrue(exception.getMessage().contains("changed by someone else"));
+        assertEquals(CourseWorkspaceInteractor.MAX_UPDATE_ATTEMPTS, attempts[0]);
+        assertNull(workspacePresenter.lastWorkspaceData, "Workspace view should not be shown");
+    }
+
+    @Test
+    void updateCourse_mergesGivenFilesIntoStoredFiles() {
+        FakeCourseRepository repo = new FakeCourseRepository();
+        WorkspacePresenterMock workspacePresenter = new WorkspacePresenterMock();
+        Course existingCourse = new Course("CSC207", "Software Design", "desc");
+        existingCourse.addFile(new PDFFile("/tmp/week1.pdf"));
+        repo.courses.add(existingCourse);
+
+        CourseWorkspaceInteractor interactor = new CourseWorkspaceInteractor(
+                repo, workspacePresenter, new DashboardPresenterMock());
+
+        Course edit = new Course("CSC207", "New Name", "desc");
+        edit.addFile(new PDFFile("/tmp/week1.pdf"));
+        edit.addFile(new PDFFile("/tmp/week2.pdf"));
+        interactor.updateCourse(edit);
+
+        List<PDFFile> files = repo.findById("CSC207").getUploadedFiles();
+        assertEquals(2, files.size());
+        assertEquals("/tmp/week1.pdf", files.get(0).getPath().toString());
+        assertEquals("/tmp/week2.pdf", files.get(1).getPath().toString());
+        assertEquals("New Name", repo.findById("CSC207").getName());
+    }
 }